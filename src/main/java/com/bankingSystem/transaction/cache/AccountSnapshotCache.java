@@ -0,0 +1,112 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.AccountSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, in-process cache of {@link AccountSnapshot} entries keyed by account ID.
+ * Entries expire after a configurable time-to-live and, once the cache is full, the least
+ * recently used account is evicted. Hits, misses, evictions and expirations are recorded
+ * in the {@link MetricsRegistry} under the {@code account.cache.*} names.
+ */
+@Component
+public class AccountSnapshotCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Integer, Entry> entries;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder expirations;
+
+    /**
+     * Creates the cache from the account service client settings.
+     */
+    @Autowired
+    public AccountSnapshotCache(AccountServiceClientProperties properties, MetricsRegistry metricsRegistry) {
+        this(properties.getCache(), metricsRegistry, System::nanoTime);
+    }
+
+    AccountSnapshotCache(AccountServiceClientProperties.Cache settings, MetricsRegistry metricsRegistry, LongSupplier nanoClock) {
+        this.maxSize = settings.isEnabled() ? settings.getMaxSize() : 0;
+        this.ttlNanos = settings.getTtl().toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = metricsRegistry.counter("account.cache.hits");
+        this.misses = metricsRegistry.counter("account.cache.misses");
+        this.evictions = metricsRegistry.counter("account.cache.evictions");
+        this.expirations = metricsRegistry.counter("account.cache.expirations");
+        metricsRegistry.gauge("account.cache.size", this::size);
+    }
+
+    /**
+     * Returns the cached snapshot of the account if present and not expired.
+     * @return the {@link AccountSnapshot}, or {@code null} on a miss
+     */
+    public synchronized AccountSnapshot get(Integer accountId) {
+        Entry entry = entries.get(accountId);
+        if (entry != null && entry.expiresAt - nanoClock.getAsLong() <= 0) {
+            entries.remove(accountId);
+            expirations.increment();
+            entry = null;
+        }
+        (entry == null ? misses : hits).increment();
+        return entry == null ? null : entry.snapshot;
+    }
+
+    /**
+     * Stores or replaces the snapshot of an account, evicting the least recently used entry when full.
+     */
+    public synchronized void put(AccountSnapshot snapshot) {
+        if (maxSize <= 0) {
+            return;
+        }
+        entries.put(snapshot.getId(), new Entry(snapshot, nanoClock.getAsLong() + ttlNanos));
+        if (entries.size() > maxSize) {
+            Integer eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Restarts the time-to-live of a cached entry, e.g. after the account was confirmed by a successful update.
+     */
+    public synchronized void refresh(Integer accountId) {
+        entries.computeIfPresent(accountId, (id, entry) -> new Entry(entry.snapshot, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Removes the snapshot of an account from the cache.
+     */
+    public synchronized void invalidate(Integer accountId) {
+        entries.remove(accountId);
+    }
+
+    /**
+     * Returns the number of entries currently held, including expired ones not yet purged.
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Cached snapshot together with its expiry instant.
+     * @param snapshot the cached account attributes
+     * @param expiresAt the expiry instant in {@link System#nanoTime()} units
+     */
+    private record Entry(AccountSnapshot snapshot, long expiresAt) {
+    }
+}
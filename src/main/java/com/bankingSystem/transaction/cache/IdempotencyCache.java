@@ -0,0 +1,91 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, in-process cache of completed {@link IdempotencyRecord} entries keyed by record id.
+ * Repeated keys are answered from memory without a database round trip. Entries expire after the retention
+ * time and, once the cache is full, the least recently used key is evicted; the database remains the source
+ * of truth for evicted keys. Hits and misses are recorded under the {@code transaction.idempotency.cache.*} names.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Creates the cache from the idempotency settings.
+     */
+    @Autowired
+    public IdempotencyCache(TransactionProperties properties, MetricsRegistry metricsRegistry) {
+        this(properties.getIdempotency(), metricsRegistry, System::nanoTime);
+    }
+
+    IdempotencyCache(TransactionProperties.Idempotency settings, MetricsRegistry metricsRegistry, LongSupplier nanoClock) {
+        this.maxSize = settings.getCacheSize();
+        this.ttlNanos = settings.getRetention().toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = metricsRegistry.counter("transaction.idempotency.cache.hits");
+        this.misses = metricsRegistry.counter("transaction.idempotency.cache.misses");
+        metricsRegistry.gauge("transaction.idempotency.cache.size", this::size);
+    }
+
+    /**
+     * Returns the cached record if present and not expired.
+     * @return the {@link IdempotencyRecord}, or {@code null} on a miss
+     */
+    public synchronized IdempotencyRecord get(String id) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.expiresAt - nanoClock.getAsLong() <= 0) {
+            entries.remove(id);
+            entry = null;
+        }
+        (entry == null ? misses : hits).increment();
+        return entry == null ? null : entry.record;
+    }
+
+    /**
+     * Stores a completed record, evicting the least recently used entry when full.
+     */
+    public synchronized void put(IdempotencyRecord record) {
+        if (maxSize <= 0 || !record.isCompleted()) {
+            return;
+        }
+        entries.put(record.getId(), new Entry(record, nanoClock.getAsLong() + ttlNanos));
+        if (entries.size() > maxSize) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Returns the number of entries currently held, including expired ones not yet purged.
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Cached record together with its expiry instant.
+     * @param record the completed record
+     * @param expiresAt the expiry instant in {@link System#nanoTime()} units
+     */
+    private record Entry(IdempotencyRecord record, long expiresAt) {
+    }
+}
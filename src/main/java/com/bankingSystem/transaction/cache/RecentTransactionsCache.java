@@ -0,0 +1,300 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process ring buffers holding the most recent transactions of each active account, keyed by account number.
+ * A buffer is created on the first read of an account and warmed with its latest transactions from the database;
+ * from then on every saved transaction is appended to the buffers of its accounts, overwriting the oldest entry,
+ * so reads are served from memory. Transactions saved while a buffer is being warmed are merged with the loaded
+ * ones. An account without transactions is not held once its load completes, so reads of unknown account numbers
+ * do not leave empty buffers behind and every buffer held counts towards the cap with at least one transaction.
+ * The number of transactions held across all accounts is capped, and beyond it the least recently used
+ * accounts are evicted as a whole. Hits, misses and evictions are recorded under the {@code transaction.recent.*} names.
+ */
+@Component
+public class RecentTransactionsCache {
+
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Transaction::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final boolean enabled;
+    private final int perAccount;
+    private final int maxEntries;
+    private final Map<String, RingBuffer> buffers;
+    private final SingleFlight<String, List<Transaction>> warmups;
+    private int entryCount;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Creates the cache from the recent transactions settings.
+     */
+    public RecentTransactionsCache(TransactionProperties properties, MetricsRegistry metricsRegistry) {
+        TransactionProperties.Recent settings = properties.getRecent();
+        this.enabled = settings.isEnabled() && settings.getPerAccount() > 0;
+        this.perAccount = settings.getPerAccount();
+        this.maxEntries = settings.getMaxEntries();
+        this.buffers = new LinkedHashMap<>(16, 0.75f, true);
+        this.warmups = new SingleFlight<>("transaction.recent.warmup", metricsRegistry);
+        this.hits = metricsRegistry.counter("transaction.recent.hits");
+        this.misses = metricsRegistry.counter("transaction.recent.misses");
+        this.evictions = metricsRegistry.counter("transaction.recent.evictions");
+        metricsRegistry.gauge("transaction.recent.accounts", this::accountCount);
+        metricsRegistry.gauge("transaction.recent.entries", this::entryCount);
+    }
+
+    /**
+     * Returns the most recent transactions of the account, newest first, from memory when its buffer is warm.
+     * On a miss the buffer is warmed with the transactions emitted by the loader, which must return the latest
+     * transactions of the account newest first; concurrent misses of the same account share one load.
+     * @return a {@link Mono} emitting at most {@code size} transactions
+     */
+    public Mono<List<Transaction>> recent(String accountNumber, int size, Function<String, Flux<Transaction>> loader) {
+        if (!enabled) {
+            return loader.apply(accountNumber).take(size).collectList();
+        }
+        List<Transaction> cached = get(accountNumber, size);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return warmups.execute(accountNumber, () -> warm(accountNumber, loader))
+                .map(loaded -> loaded.subList(0, Math.min(size, loaded.size())));
+    }
+
+    /**
+     * Appends a saved transaction to the buffers of its origin and destination accounts that are held.
+     */
+    public synchronized void record(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        for (String account : accountsOf(transaction)) {
+            RingBuffer buffer = buffers.get(account);
+            if (buffer != null) {
+                entryCount += buffer.add(transaction);
+            }
+        }
+        evictIfFull();
+    }
+
+    /**
+     * Removes a deleted transaction from the buffers of its accounts.
+     */
+    public synchronized void remove(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        for (String account : accountsOf(transaction)) {
+            RingBuffer buffer = buffers.get(account);
+            if (buffer != null) {
+                entryCount -= buffer.remove(transaction.getId());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of accounts currently held, including those being warmed.
+     * @return the number of accounts
+     */
+    public synchronized int accountCount() {
+        return buffers.size();
+    }
+
+    /**
+     * Returns the number of transactions currently held across all accounts.
+     * @return the number of transactions
+     */
+    public synchronized int entryCount() {
+        return entryCount;
+    }
+
+    private synchronized List<Transaction> get(String accountNumber, int size) {
+        RingBuffer buffer = buffers.get(accountNumber);
+        if (buffer == null || !buffer.warm) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return buffer.newestFirst(size);
+    }
+
+    private Mono<List<Transaction>> warm(String accountNumber, Function<String, Flux<Transaction>> loader) {
+        RingBuffer buffer = reserve(accountNumber);
+        return loader.apply(accountNumber)
+                .take(perAccount)
+                .collectList()
+                .map(loaded -> fill(buffer, accountNumber, loaded))
+                .doOnError(error -> release(buffer, accountNumber));
+    }
+
+    private synchronized RingBuffer reserve(String accountNumber) {
+        return buffers.computeIfAbsent(accountNumber, ignored -> new RingBuffer(perAccount));
+    }
+
+    private synchronized List<Transaction> fill(RingBuffer buffer, String accountNumber, List<Transaction> loaded) {
+        List<Transaction> merged = buffer.merge(loaded);
+        if (buffers.get(accountNumber) != buffer) {
+            return merged;
+        }
+        if (merged.isEmpty()) {
+            buffers.remove(accountNumber);
+            entryCount -= buffer.size;
+            return merged;
+        }
+        entryCount += merged.size() - buffer.size;
+        buffer.replace(merged);
+        evictIfFull();
+        return merged;
+    }
+
+    private synchronized void release(RingBuffer buffer, String accountNumber) {
+        if (buffers.get(accountNumber) == buffer && !buffer.warm) {
+            buffers.remove(accountNumber);
+            entryCount -= buffer.size;
+        }
+    }
+
+    private void evictIfFull() {
+        Iterator<RingBuffer> eldest = buffers.values().iterator();
+        while (entryCount > maxEntries && buffers.size() > 1 && eldest.hasNext()) {
+            entryCount -= eldest.next().size;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static Set<String> accountsOf(Transaction transaction) {
+        Set<String> accounts = new HashSet<>(2);
+        if (transaction.getOriginAccount() != null) {
+            accounts.add(transaction.getOriginAccount());
+        }
+        if (transaction.getDestinationAccount() != null) {
+            accounts.add(transaction.getDestinationAccount());
+        }
+        return accounts;
+    }
+
+    /**
+     * Fixed-size circular buffer of the transactions of one account, in the order they were saved.
+     * Until it is warm the buffer only collects the transactions saved and deleted during the load.
+     */
+    private static final class RingBuffer {
+
+        private final Transaction[] slots;
+        private final Set<String> removedWhileWarming = new HashSet<>();
+        private int head;
+        private int size;
+        private boolean warm;
+
+        private RingBuffer(int capacity) {
+            this.slots = new Transaction[capacity];
+        }
+
+        /**
+         * Appends the transaction, overwriting the oldest one when full.
+         * @return the change in the number of entries held
+         */
+        private int add(Transaction transaction) {
+            slots[(head + size) % slots.length] = transaction;
+            if (size < slots.length) {
+                size++;
+                return 1;
+            }
+            head = (head + 1) % slots.length;
+            return 0;
+        }
+
+        /**
+         * Removes the transaction with the given id, keeping the order of the others.
+         * @return the number of entries removed
+         */
+        private int remove(String id) {
+            if (!warm) {
+                removedWhileWarming.add(id);
+            }
+            List<Transaction> kept = oldestFirst();
+            kept.removeIf(transaction -> Objects.equals(transaction.getId(), id));
+            int removed = size - kept.size();
+            replaceOldestFirst(kept);
+            return removed;
+        }
+
+        /**
+         * Combines the loaded transactions with those saved during the load, without duplicates or deleted ones.
+         * @return the newest transactions, newest first, at most the capacity of the buffer
+         */
+        private List<Transaction> merge(List<Transaction> loaded) {
+            Map<String, Transaction> byId = new LinkedHashMap<>();
+            for (Transaction transaction : loaded) {
+                byId.put(transaction.getId(), transaction);
+            }
+            for (Transaction transaction : oldestFirst()) {
+                byId.put(transaction.getId(), transaction);
+            }
+            byId.keySet().removeAll(removedWhileWarming);
+            List<Transaction> merged = new ArrayList<>(byId.values());
+            merged.sort(NEWEST_FIRST);
+            return new ArrayList<>(merged.subList(0, Math.min(slots.length, merged.size())));
+        }
+
+        /**
+         * Replaces the content with the given transactions, newest first, and marks the buffer as warm.
+         */
+        private void replace(List<Transaction> newestFirst) {
+            List<Transaction> oldestFirst = new ArrayList<>(newestFirst);
+            Collections.reverse(oldestFirst);
+            replaceOldestFirst(oldestFirst);
+            removedWhileWarming.clear();
+            warm = true;
+        }
+
+        private List<Transaction> newestFirst(int limit) {
+            int count = Math.min(limit, size);
+            List<Transaction> newest = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                newest.add(slots[(head + size - i) % slots.length]);
+            }
+            return newest;
+        }
+
+        private List<Transaction> oldestFirst() {
+            List<Transaction> oldest = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                oldest.add(slots[(head + i) % slots.length]);
+            }
+            return oldest;
+        }
+
+        private void replaceOldestFirst(List<Transaction> oldestFirst) {
+            Arrays.fill(slots, null);
+            for (int i = 0; i < oldestFirst.size(); i++) {
+                slots[i] = oldestFirst.get(i);
+            }
+            head = 0;
+            size = oldestFirst.size();
+        }
+    }
+}
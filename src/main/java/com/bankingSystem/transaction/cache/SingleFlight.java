@@ -0,0 +1,63 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single upstream call.
+ * While a call for a key is in flight, every other caller for that key subscribes to the same
+ * shared {@link Mono} and receives the same value or error. The entry is removed as soon as the
+ * call terminates, so results are never reused by later calls.
+ * @param <K> the type of the key identifying a call
+ * @param <V> the type of the value produced by the call
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls;
+    private final LongAdder coalesced;
+
+    /**
+     * Creates a single-flight group whose metrics are registered under the given name prefix.
+     */
+    public SingleFlight(String name, MetricsRegistry metricsRegistry) {
+        this.calls = metricsRegistry.counter(name + ".calls");
+        this.coalesced = metricsRegistry.counter(name + ".coalesced");
+        metricsRegistry.gauge(name + ".in-flight", inFlight::size);
+    }
+
+    /**
+     * Executes the call for the key, or joins the call already in flight for it.
+     * @return a {@link Mono} emitting the shared result of the call
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            calls.increment();
+            boolean[] created = new boolean[1];
+            Mono<V> shared = inFlight.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return call.get()
+                        .doOnTerminate(() -> inFlight.remove(k))
+                        .doOnCancel(() -> inFlight.remove(k))
+                        .share();
+            });
+            if (!created[0]) {
+                coalesced.increment();
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * Returns the number of keys with a call currently in flight.
+     * @return the in-flight call count
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,157 @@
+package com.bankingSystem.transaction.concurrency;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs operations on the same account one after the other, without blocking threads, while operations
+ * on unrelated accounts run in parallel.
+ * Accounts are hashed onto a fixed number of lanes. Each lane only keeps a reference to the completion
+ * signal of its last operation, and an operation is chained onto it with a lock-free swap, so memory
+ * stays bounded no matter how many accounts are seen. An operation on several accounts takes its place on
+ * all of its lanes at once when subscribed, which keeps the order of later operations on any of the accounts
+ * and rules out deadlocks between opposite transfers.
+ */
+@Component
+public class AccountSequencer {
+
+    private final boolean enabled;
+    private final Lane[] lanes;
+
+    private final LongAdder operations;
+    private final LongAdder waits;
+
+    /**
+     * Creates the sequencer and registers its metrics under the {@code account.sequencer.*} names.
+     */
+    public AccountSequencer(TransactionProperties properties, MetricsRegistry metricsRegistry) {
+        TransactionProperties.Sequencer settings = properties.getSequencer();
+        this.enabled = settings.isEnabled();
+        this.lanes = new Lane[Integer.highestOneBit(Math.max(1, settings.getStripes() * 2 - 1))];
+        Arrays.setAll(lanes, i -> new Lane());
+        this.operations = metricsRegistry.counter("account.sequencer.operations");
+        this.waits = metricsRegistry.counter("account.sequencer.waits");
+        metricsRegistry.gauge("account.sequencer.queued", this::queuedOperations);
+        metricsRegistry.gauge("account.sequencer.max-lane-depth", () -> hottestLane().depth.get());
+        metricsRegistry.gauge("account.sequencer.hottest-account", this::hottestAccount);
+    }
+
+    /**
+     * Runs the operation once every earlier operation on the same account has completed.
+     * @return a {@link Mono} mirroring the operation
+     */
+    public <T> Mono<T> execute(Integer accountId, Supplier<Mono<T>> operation) {
+        return execute(List.of(accountId), operation);
+    }
+
+    /**
+     * Runs an operation involving two accounts once every earlier operation on either account has completed.
+     * @return a {@link Mono} mirroring the operation
+     */
+    public <T> Mono<T> execute(Integer firstAccountId, Integer secondAccountId, Supplier<Mono<T>> operation) {
+        return execute(List.of(firstAccountId, secondAccountId), operation);
+    }
+
+    /**
+     * Runs an operation involving any number of accounts once every earlier operation on any of them has completed.
+     * The operation takes its place on all of its lanes in one step when it is subscribed, so a later operation
+     * on any of the accounts never overtakes it.
+     * @return a {@link Mono} mirroring the operation
+     */
+    public <T> Mono<T> execute(Collection<Integer> accountIds, Supplier<Mono<T>> operation) {
+        if (!enabled) {
+            return Mono.defer(operation);
+        }
+        NavigableMap<Integer, Integer> accountByLane = new TreeMap<>();
+        accountIds.forEach(accountId -> accountByLane.putIfAbsent(laneOf(accountId), accountId));
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            List<Mono<Void>> previous = reserve(accountByLane, done.asMono());
+            return Mono.when(previous)
+                    .then(Mono.defer(operation))
+                    .doFinally(signal -> release(accountByLane.keySet(), previous, done, signal));
+        });
+    }
+
+    /**
+     * Swaps the tail of every lane for the completion signal of the new operation and returns the previous tails.
+     * Reservations of several lanes are made under the sequencer's lock, so two operations never queue behind
+     * each other in opposite orders on two lanes; a single lane only needs the lock-free swap.
+     */
+    private List<Mono<Void>> reserve(NavigableMap<Integer, Integer> accountByLane, Mono<Void> completion) {
+        if (accountByLane.size() == 1) {
+            return List.of(reserve(accountByLane.firstKey(), accountByLane.firstEntry().getValue(), completion));
+        }
+        synchronized (this) {
+            List<Mono<Void>> previous = new ArrayList<>(accountByLane.size());
+            accountByLane.forEach((laneIndex, accountId) -> previous.add(reserve(laneIndex, accountId, completion)));
+            return previous;
+        }
+    }
+
+    private Mono<Void> reserve(int laneIndex, Integer accountId, Mono<Void> completion) {
+        Lane lane = lanes[laneIndex];
+        Mono<Void> previous = lane.tail.getAndSet(completion);
+        operations.increment();
+        if (lane.depth.getAndIncrement() > 0) {
+            waits.increment();
+        }
+        lane.lastAccountId = accountId;
+        return previous;
+    }
+
+    private void release(Collection<Integer> laneIndexes, List<Mono<Void>> previous, Sinks.Empty<Void> done,
+                         SignalType signal) {
+        laneIndexes.forEach(laneIndex -> lanes[laneIndex].depth.decrementAndGet());
+        if (signal == SignalType.CANCEL) {
+            // A cancelled operation may not have started yet; its successors must still wait for its predecessors
+            Mono.when(previous).subscribe(null, null, done::tryEmitEmpty);
+        } else {
+            done.tryEmitEmpty();
+        }
+    }
+
+    private int laneOf(Integer accountId) {
+        int hash = accountId.hashCode();
+        return (hash ^ (hash >>> 16)) & (lanes.length - 1);
+    }
+
+    private int queuedOperations() {
+        return Arrays.stream(lanes).mapToInt(lane -> lane.depth.get()).sum();
+    }
+
+    private int hottestAccount() {
+        Lane lane = hottestLane();
+        return lane.depth.get() > 0 ? lane.lastAccountId : 0;
+    }
+
+    private Lane hottestLane() {
+        return Arrays.stream(lanes).max(Comparator.comparingInt(lane -> lane.depth.get())).orElseThrow();
+    }
+
+    /**
+     * Queue of operations on the accounts hashed onto one lane.
+     */
+    private static final class Lane {
+
+        private final AtomicReference<Mono<Void>> tail = new AtomicReference<>(Mono.empty());
+        private final AtomicInteger depth = new AtomicInteger();
+        private volatile int lastAccountId;
+    }
+}
@@ -0,0 +1,214 @@
+package com.bankingSystem.transaction.concurrency;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dedicated, bounded threads for the account service calls, the MongoDB driver and CPU-heavy stages.
+ * The account service client and the MongoDB driver each get their own event loop for the network I/O, and
+ * each kind of work gets a {@link Scheduler} backed by a fixed number of threads and a bounded queue, which the
+ * callers move onto with {@code publishOn} as soon as a result arrives. A slow database therefore only fills its
+ * own queue, and the account service calls, the server event loop and the other stages keep running.
+ * Once the queue of a query scheduler is full, further work is rejected with a {@link RejectedExecutionException}
+ * instead of piling up, which is answered with {@code 503 Service Unavailable} and a {@code Retry-After} header
+ * like any other overload. The results of account service calls and of MongoDB writes are never rejected, as the
+ * call or the write has already taken effect: when their queue is full, they are handled on the calling thread.
+ * Operations are instead shed before they change anything, while {@link #saturated()} reports a full queue.
+ * When isolation is disabled, the schedulers run the work in place and no thread is created.
+ */
+@Component
+public class IsolatedSchedulers {
+
+    private final boolean enabled;
+    private final List<Scheduler> schedulers = new ArrayList<>();
+    private final List<EventLoopGroup> eventLoops = new ArrayList<>();
+
+    private final Scheduler accountService;
+    private final Scheduler mongo;
+    private final Scheduler mongoWrites;
+    private final Scheduler cpu;
+    private final ThreadPoolExecutor accountServiceExecutor;
+    private final ThreadPoolExecutor mongoExecutor;
+    private final EventLoopGroup accountServiceEventLoop;
+    private final EventLoopGroup mongoEventLoop;
+
+    /**
+     * Creates the threads, when enabled, and registers their metrics under the {@code scheduler.*} names.
+     */
+    public IsolatedSchedulers(TransactionProperties properties, MetricsRegistry metricsRegistry) {
+        TransactionProperties.Isolation settings = properties.getIsolation();
+        this.enabled = settings.isEnabled();
+        this.accountServiceExecutor = executor("account-service", settings.getAccountService(), metricsRegistry);
+        this.mongoExecutor = executor("mongo", settings.getMongo(), metricsRegistry);
+        this.accountService = inPlaceWhenFull("account-service", accountServiceExecutor, metricsRegistry);
+        this.mongo = rejectingWhenFull("mongo", mongoExecutor);
+        this.mongoWrites = inPlaceWhenFull("mongo", mongoExecutor, metricsRegistry);
+        this.cpu = rejectingWhenFull("cpu", executor("cpu", settings.getCpu(), metricsRegistry));
+        this.accountServiceEventLoop = eventLoop("account-service", settings.getAccountService(), metricsRegistry);
+        this.mongoEventLoop = eventLoop("mongo", settings.getMongo(), metricsRegistry);
+    }
+
+    /**
+     * Indicates whether the work is isolated on dedicated threads.
+     * @return {@code true} if isolation is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the scheduler handling the responses of the account service. It never rejects a response.
+     * @return the {@link Scheduler}
+     */
+    public Scheduler accountService() {
+        return accountService;
+    }
+
+    /**
+     * Returns the scheduler handling the results of MongoDB queries.
+     * @return the {@link Scheduler}
+     */
+    public Scheduler mongo() {
+        return mongo;
+    }
+
+    /**
+     * Returns the scheduler handling the acknowledgements of MongoDB writes. It shares the threads and the queue
+     * of {@link #mongo()} but never rejects an acknowledgement.
+     * @return the {@link Scheduler}
+     */
+    public Scheduler mongoWrites() {
+        return mongoWrites;
+    }
+
+    /**
+     * Returns the name of the first scheduler, among those handling the account service responses and the MongoDB
+     * results, whose queue is full. An operation admitted while one is full would have its results handled on the
+     * I/O threads.
+     * @return the name of the full scheduler, or {@code null} if none is full or isolation is disabled
+     */
+    public String saturated() {
+        if (isFull(accountServiceExecutor)) {
+            return "account-service";
+        }
+        return isFull(mongoExecutor) ? "mongo" : null;
+    }
+
+    /**
+     * Returns the scheduler of CPU-heavy stages.
+     * @return the {@link Scheduler}
+     */
+    public Scheduler cpu() {
+        return cpu;
+    }
+
+    /**
+     * Returns the event loop performing the network I/O of the account service calls.
+     * @return the {@link EventLoopGroup}, or {@code null} if isolation is disabled
+     */
+    public EventLoopGroup accountServiceEventLoop() {
+        return accountServiceEventLoop;
+    }
+
+    /**
+     * Returns the event loop performing the network I/O of the MongoDB driver.
+     * @return the {@link EventLoopGroup}, or {@code null} if isolation is disabled
+     */
+    public EventLoopGroup mongoEventLoop() {
+        return mongoEventLoop;
+    }
+
+    /**
+     * Stops the threads once the application context is closed.
+     */
+    @PreDestroy
+    public void close() {
+        schedulers.forEach(Scheduler::dispose);
+        eventLoops.forEach(EventLoopGroup::shutdownGracefully);
+    }
+
+    private ThreadPoolExecutor executor(String name, TransactionProperties.Pool pool, MetricsRegistry metricsRegistry) {
+        if (!enabled) {
+            return null;
+        }
+        LongAdder rejected = metricsRegistry.counter("scheduler." + name + ".rejected");
+        int threads = Math.max(1, pool.getThreads());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pool.getQueueCapacity())), new DefaultThreadFactory(name, true),
+                (task, ignored) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("The " + name + " scheduler is full");
+                });
+        metricsRegistry.gauge("scheduler." + name + ".queued", () -> executor.getQueue().size());
+        metricsRegistry.gauge("scheduler." + name + ".active", executor::getActiveCount);
+        return executor;
+    }
+
+    private Scheduler rejectingWhenFull(String name, ThreadPoolExecutor executor) {
+        if (executor == null) {
+            return Schedulers.immediate();
+        }
+        Scheduler scheduler = Schedulers.fromExecutorService(executor, name);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private Scheduler inPlaceWhenFull(String name, ThreadPoolExecutor executor, MetricsRegistry metricsRegistry) {
+        if (executor == null) {
+            return Schedulers.immediate();
+        }
+        LongAdder ranInPlace = metricsRegistry.counter("scheduler." + name + ".ran-in-place");
+        Scheduler scheduler = Schedulers.fromExecutor(task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                ranInPlace.increment();
+                task.run();
+            }
+        });
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private static boolean isFull(ThreadPoolExecutor executor) {
+        return executor != null && executor.getQueue().remainingCapacity() == 0;
+    }
+
+    private EventLoopGroup eventLoop(String name, TransactionProperties.Pool pool, MetricsRegistry metricsRegistry) {
+        if (!enabled) {
+            return null;
+        }
+        EventLoopGroup eventLoop = new NioEventLoopGroup(Math.max(1, pool.getEventLoopThreads()),
+                new DefaultThreadFactory(name + "-io", true));
+        metricsRegistry.gauge("scheduler." + name + "-io.pending", () -> pendingTasks(eventLoop));
+        eventLoops.add(eventLoop);
+        return eventLoop;
+    }
+
+    private static int pendingTasks(EventLoopGroup eventLoop) {
+        int pending = 0;
+        for (EventExecutor executor : eventLoop) {
+            if (executor instanceof SingleThreadEventExecutor singleThread) {
+                pending += singleThread.pendingTasks();
+            }
+        }
+        return pending;
+    }
+}
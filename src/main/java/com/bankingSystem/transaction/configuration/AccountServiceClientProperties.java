@@ -0,0 +1,241 @@
+package com.bankingSystem.transaction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Typed configuration for the HTTP client used to reach the account service.
+ * Values are bound from the {@code microservice.accounts.client} prefix and drive the
+ * Reactor Netty connection pool and timeouts built in {@link WebClientConfig}.
+ */
+@Data
+@ConfigurationProperties(prefix = "microservice.accounts.client")
+public class AccountServiceClientProperties {
+
+    /**
+     * Name of the connection pool, used by Reactor Netty in its logs and metrics.
+     */
+    private String poolName = "account-service";
+
+    /**
+     * Maximum number of connections kept open to the account service.
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Maximum number of requests allowed to wait for a free connection before failing fast.
+     */
+    private int pendingAcquireMaxCount = 1000;
+
+    /**
+     * Maximum time a request may wait for a free connection from the pool.
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Time after which an idle pooled connection is closed.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Maximum lifetime of a pooled connection, regardless of activity.
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * Interval of the background task that evicts idle or expired connections.
+     */
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Timeout for establishing a TCP connection.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Timeout for receiving the full response once the request has been sent.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Whether TCP keep-alive is enabled on account service connections.
+     */
+    private boolean keepAlive = true;
+
+    /**
+     * Whether to negotiate cleartext HTTP/2 (h2c), falling back to HTTP/1.1.
+     */
+    private boolean h2c = false;
+
+    /**
+     * Whether balances are updated by sending a signed delta ({@code POST /accounts/{id}/balance/delta})
+     * instead of reading the account and writing back the absolute balance.
+     */
+    private boolean balanceDeltaEnabled = false;
+
+    /**
+     * Settings of the in-process cache of static account attributes.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Settings of the micro-batching of account lookups into bulk requests.
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Settings of the timeouts, bulkhead and circuit breaker guarding account service calls.
+     */
+    private Resilience resilience = new Resilience();
+
+    /**
+     * Settings of the hedging of single account lookups.
+     */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * Size and expiry settings of the account snapshot cache.
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether account snapshots are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of accounts kept in the cache before the least recently used is evicted.
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Time after which a cached snapshot is considered stale and fetched again.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Window and size settings of the bulk account lookup ({@code GET /accounts?ids=1,2,3}).
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * Whether concurrent account lookups are grouped into bulk requests.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of account IDs sent in a single bulk request.
+         */
+        private int maxSize = 50;
+
+        /**
+         * Maximum time a lookup waits for other lookups to join its batch.
+         */
+        private Duration maxWait = Duration.ofMillis(2);
+
+        /**
+         * Time during which single lookups are used after the bulk route was found to be unavailable.
+         */
+        private Duration unavailableCooldown = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Timeout, bulkhead and circuit breaker settings applied to every account service call.
+     */
+    @Data
+    public static class Resilience {
+
+        /**
+         * Whether account service calls are guarded.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Timeout of account lookups ({@code GET}).
+         */
+        private Duration lookupTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Timeout of balance updates ({@code PUT} and {@code POST}).
+         */
+        private Duration updateTimeout = Duration.ofSeconds(3);
+
+        /**
+         * Maximum number of concurrent calls to the account service; further calls are rejected.
+         */
+        private int maxConcurrentCalls = 100;
+
+        /**
+         * Number of most recent calls used to compute the failure rate.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Minimum number of recorded calls before the failure rate can open the circuit.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * Failure rate, in percent, at or above which the circuit opens.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Time the circuit stays open before letting trial calls through.
+         */
+        private Duration openStateDuration = Duration.ofSeconds(10);
+
+        /**
+         * Number of trial calls allowed while half-open; all must succeed to close the circuit.
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    /**
+     * Delay and budget settings of hedged account lookups ({@code GET /accounts/{id}}).
+     * Balance updates are never hedged.
+     */
+    @Data
+    public static class Hedge {
+
+        /**
+         * Whether a second lookup is sent when the first one is slow.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Percentile of recent lookup latencies after which the hedge request is sent.
+         */
+        private double delayPercentile = 95;
+
+        /**
+         * Hedge delay used until enough latencies have been observed.
+         */
+        private Duration initialDelay = Duration.ofMillis(50);
+
+        /**
+         * Lower bound of the hedge delay.
+         */
+        private Duration minDelay = Duration.ofMillis(5);
+
+        /**
+         * Upper bound of the hedge delay.
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        /**
+         * Maximum fraction of lookups that may be hedged, bounding the extra load on the account service.
+         */
+        private double maxHedgeRatio = 0.05;
+
+        /**
+         * Number of most recent lookup latencies used to compute the hedge delay.
+         */
+        private int sampleSize = 1000;
+    }
+}
@@ -1,5 +1,8 @@
 package com.bankingSystem.transaction.configuration;
 
+import com.bankingSystem.transaction.cache.SingleFlight;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,5 +29,13 @@ public class AccountServiceConfig {
     public String accountServiceBaseUrl() {
         return accountServiceUrl;
     }
+
+    /**
+     * Provides the single-flight group that coalesces concurrent lookups of the same account.
+     */
+    @Bean
+    public SingleFlight<Integer, BankAccountDTO> accountLookupSingleFlight(MetricsRegistry metricsRegistry) {
+        return new SingleFlight<>("account.lookup", metricsRegistry);
+    }
 }
 
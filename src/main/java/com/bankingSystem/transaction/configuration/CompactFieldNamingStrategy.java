@@ -0,0 +1,35 @@
+package com.bankingSystem.transaction.configuration;
+
+import com.bankingSystem.transaction.model.Transaction;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mapping.model.PropertyNameFieldNamingStrategy;
+
+import java.util.Map;
+
+/**
+ * Field naming strategy of the compact storage format.
+ * The properties of {@link Transaction} are stored under short aliases, since MongoDB repeats every field name
+ * in every document; other entities keep their property names. Queries, updates, sorts, indexes and typed
+ * aggregations are mapped through the same strategy, so they follow the aliases without changes.
+ */
+public class CompactFieldNamingStrategy implements FieldNamingStrategy {
+
+    private static final Map<String, String> TRANSACTION_ALIASES = Map.of(
+            "type", "t",
+            "amount", "a",
+            "date", "d",
+            "originAccount", "oa",
+            "destinationAccount", "da");
+
+    @Override
+    public String getFieldName(PersistentProperty<?> property) {
+        if (Transaction.class.equals(property.getOwner().getType())) {
+            String alias = TRANSACTION_ALIASES.get(property.getName());
+            if (alias != null) {
+                return alias;
+            }
+        }
+        return PropertyNameFieldNamingStrategy.INSTANCE.getFieldName(property);
+    }
+}
@@ -0,0 +1,130 @@
+package com.bankingSystem.transaction.configuration;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.mongodb.connection.TransportSettings;
+import org.bson.types.Decimal128;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoManagedTypes;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class for the mapping of documents to MongoDB.
+ * By default Spring Data stores {@link BigDecimal} values as strings, which MongoDB can neither compare
+ * numerically nor add up. These conversions store them as {@link Decimal128} instead, so amounts can be
+ * filtered by range and aggregated inside the database without losing precision.
+ * With {@code transaction.storage.compact} enabled, transactions are stored in the compact format: short field
+ * names from the {@link CompactFieldNamingStrategy} and the numeric code of their type instead of its name.
+ * With {@code transaction.isolation} enabled, the driver performs its I/O on the dedicated event loop of the
+ * {@link IsolatedSchedulers}.
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Provides the custom conversions used for every mapped document and query.
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(TransactionProperties properties) {
+        List<Converter<?, ?>> converters = new ArrayList<>(List.of(
+                BigDecimalToDecimal128Converter.INSTANCE,
+                Decimal128ToBigDecimalConverter.INSTANCE));
+        if (properties.getStorage().isCompact()) {
+            converters.add(TransactionTypeToCodeConverter.INSTANCE);
+            converters.add(CodeToTransactionTypeConverter.INSTANCE);
+        }
+        return new MongoCustomConversions(converters);
+    }
+
+    /**
+     * Provides the mapping metadata of the documents, replacing the one of Spring Boot so that the field naming
+     * strategy follows {@code transaction.storage.compact}.
+     */
+    @Bean
+    public MongoMappingContext mongoMappingContext(MongoCustomConversions conversions, MongoManagedTypes managedTypes,
+                                                   TransactionProperties properties) {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setManagedTypes(managedTypes);
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        if (properties.getStorage().isCompact()) {
+            context.setFieldNamingStrategy(new CompactFieldNamingStrategy());
+        }
+        return context;
+    }
+
+    /**
+     * Moves the network I/O of the driver onto its dedicated event loop when isolation is enabled.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoTransportCustomizer(IsolatedSchedulers isolatedSchedulers) {
+        return builder -> {
+            if (isolatedSchedulers.isEnabled()) {
+                builder.transportSettings(TransportSettings.nettyBuilder()
+                        .eventLoopGroup(isolatedSchedulers.mongoEventLoop())
+                        .build());
+            }
+        };
+    }
+
+    /**
+     * Writes {@link BigDecimal} values as {@link Decimal128}.
+     */
+    @WritingConverter
+    enum BigDecimalToDecimal128Converter implements Converter<BigDecimal, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return new Decimal128(source);
+        }
+    }
+
+    /**
+     * Reads {@link Decimal128} values as {@link BigDecimal}.
+     */
+    @ReadingConverter
+    enum Decimal128ToBigDecimalConverter implements Converter<Decimal128, BigDecimal> {
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+
+    /**
+     * Writes {@link TransactionType} values as their numeric code.
+     */
+    @WritingConverter
+    enum TransactionTypeToCodeConverter implements Converter<TransactionType, Integer> {
+        INSTANCE;
+
+        @Override
+        public Integer convert(TransactionType source) {
+            return source.getCode();
+        }
+    }
+
+    /**
+     * Reads numeric codes as {@link TransactionType} values.
+     */
+    @ReadingConverter
+    enum CodeToTransactionTypeConverter implements Converter<Integer, TransactionType> {
+        INSTANCE;
+
+        @Override
+        public TransactionType convert(Integer source) {
+            return TransactionType.fromCode(source);
+        }
+    }
+}
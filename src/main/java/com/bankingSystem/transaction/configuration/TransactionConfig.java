@@ -0,0 +1,13 @@
+package com.bankingSystem.transaction.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the processing of transactions.
+ * This class registers the {@link TransactionProperties} that tune how transactions are executed and stored.
+ */
+@Configuration
+@EnableConfigurationProperties(TransactionProperties.class)
+public class TransactionConfig {
+}
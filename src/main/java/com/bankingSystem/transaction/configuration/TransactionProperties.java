@@ -0,0 +1,452 @@
+package com.bankingSystem.transaction.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Typed configuration for the processing of transactions within this service.
+ * Values are bound from the {@code transaction} prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction")
+public class TransactionProperties {
+
+    /**
+     * Settings of the per-account ordering of balance operations.
+     */
+    private Sequencer sequencer = new Sequencer();
+
+    /**
+     * Settings of the paginated transaction history.
+     */
+    private History history = new History();
+
+    /**
+     * Settings of the buffered, batched persistence of transactions.
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * Settings of the local journal that acknowledges transactions before they reach the database.
+     */
+    private Journal journal = new Journal();
+
+    /**
+     * Settings of how transactions are stored in MongoDB.
+     */
+    private Storage storage = new Storage();
+
+    /**
+     * Settings of the materialized per-account rollups.
+     */
+    private Rollup rollup = new Rollup();
+
+    /**
+     * Settings of the deduplication of requests sent with an {@code Idempotency-Key} header.
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * Settings of the in-memory recent transactions of active accounts.
+     */
+    private Recent recent = new Recent();
+
+    /**
+     * Settings of the processing of transaction batches.
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Settings of the largest amount accepted per operation.
+     */
+    private Limits limits = new Limits();
+
+    /**
+     * Settings of the dedicated threads of the account service calls, the MongoDB driver and CPU-heavy stages.
+     */
+    private Isolation isolation = new Isolation();
+
+    /**
+     * Settings of the admission control of deposits, withdrawals and transfers.
+     */
+    private Admission admission = new Admission();
+
+    /**
+     * Settings of the striped sequencer that serializes operations on the same account.
+     */
+    @Data
+    public static class Sequencer {
+
+        /**
+         * Whether operations on the same account are serialized.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of lanes accounts are hashed onto; rounded up to a power of two.
+         * Unrelated accounts sharing a lane are serialized too, so more lanes mean fewer false conflicts.
+         */
+        private int stripes = 1024;
+    }
+
+    /**
+     * Page size settings of the keyset-paginated transaction history.
+     */
+    @Data
+    public static class History {
+
+        /**
+         * Number of transactions returned when the request does not specify a page size.
+         */
+        private int defaultPageSize = 50;
+
+        /**
+         * Largest page size a request may ask for.
+         */
+        private int maxPageSize = 500;
+    }
+
+    /**
+     * Settings of the write-behind stage that groups transaction inserts into bulk writes.
+     */
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * Whether transactions are buffered and inserted in batches instead of one by one.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of buffered transactions that triggers an immediate bulk insert.
+         */
+        private int maxBatchSize = 200;
+
+        /**
+         * Longest time the first transaction of a batch waits before the batch is inserted.
+         */
+        private Duration maxWait = Duration.ofMillis(5);
+
+        /**
+         * Largest number of transactions buffered or being inserted; further writes wait until a batch is acknowledged.
+         */
+        private int capacity = 10_000;
+
+        /**
+         * Largest number of writes waiting for room in the buffer; while it is reached, new operations are shed.
+         */
+        private int maxWaiting = 10_000;
+
+        /**
+         * Longest time shutdown waits for the buffered transactions to be inserted.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Settings of the append-only, memory-mapped journal replayed into the database in the background.
+     */
+    @Data
+    public static class Journal {
+
+        /**
+         * Whether transactions are acknowledged once journaled, and stored in the database afterwards.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the journal segments and the replay checkpoint.
+         */
+        private String directory = "journal";
+
+        /**
+         * Size of each memory-mapped segment file; a new segment is started when the current one is full.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Whether each entry is forced to the storage device before it is acknowledged. Without it, entries
+         * survive a crash of the process but not of the machine.
+         */
+        private boolean forceOnAppend = true;
+
+        /**
+         * Time between two runs of the replayer when there is nothing left to store.
+         */
+        private Duration replayInterval = Duration.ofMillis(100);
+
+        /**
+         * Largest number of entries stored in the database in one replay step.
+         */
+        private int replayBatchSize = 500;
+
+        /**
+         * Longest time shutdown waits for the journaled transactions to be stored; the rest is stored after restart.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Settings of the storage of transaction documents.
+     */
+    @Data
+    public static class Storage {
+
+        /**
+         * Whether amounts that older versions stored as strings are converted to {@code Decimal128} on startup.
+         */
+        private boolean migrateAmounts = true;
+
+        /**
+         * Whether transactions are stored in the compact format: short field names and numeric type codes.
+         * Existing transactions are converted on startup; switching back requires converting them back.
+         */
+        private boolean compact = false;
+    }
+
+    /**
+     * Settings of the per-account rollup documents maintained alongside the transactions.
+     */
+    @Data
+    public static class Rollup {
+
+        /**
+         * Whether the rollups are updated every time a transaction is stored or removed.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether the rollups are rebuilt from the transactions on startup when none exist yet.
+         */
+        private boolean rebuildOnStartup = true;
+    }
+
+    /**
+     * Settings of the idempotency keys of deposits, withdrawals and transfers.
+     */
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Whether the {@code Idempotency-Key} header is honoured; when disabled it is ignored.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of completed outcomes kept in memory before the least recently used is evicted.
+         */
+        private int cacheSize = 10000;
+
+        /**
+         * Time during which a repeated key returns the outcome of the first request.
+         */
+        private Duration retention = Duration.ofHours(24);
+
+        /**
+         * Time after which a key whose request never completed, e.g. because the instance stopped, is released.
+         * The expiry of a pending key is renewed every half of this time while its request runs.
+         */
+        private Duration pendingTimeout = Duration.ofMinutes(1);
+
+        /**
+         * Longest accepted key.
+         */
+        private int maxKeyLength = 255;
+    }
+
+    /**
+     * Settings of the per-account ring buffers of recent transactions.
+     */
+    @Data
+    public static class Recent {
+
+        /**
+         * Whether recent transactions are kept in memory; when disabled every read goes to the database.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of most recent transactions kept per account, which is also the largest readable size.
+         */
+        private int perAccount = 50;
+
+        /**
+         * Maximum number of transactions kept across all accounts; least recently used accounts are evicted beyond it.
+         */
+        private int maxEntries = 100000;
+    }
+
+    /**
+     * Settings of the batch endpoint.
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * Maximum number of items of one batch processed at the same time; items on the same account still run in order.
+         */
+        private int parallelism = 16;
+
+        /**
+         * Number of consecutive transfers settled together, with one balance write per account, by the netted batch endpoint.
+         */
+        private int nettingWindow = 500;
+    }
+
+    /**
+     * Largest amount of a single operation of each type; an operation above it is rejected before any account
+     * is read. A limit that is not set does not apply.
+     */
+    @Data
+    public static class Limits {
+
+        /**
+         * Largest amount of a deposit.
+         */
+        private BigDecimal maxDeposit;
+
+        /**
+         * Largest amount of a withdrawal.
+         */
+        private BigDecimal maxWithdrawal;
+
+        /**
+         * Largest amount of a transfer.
+         */
+        private BigDecimal maxTransfer;
+    }
+
+    /**
+     * Settings of the isolation of account service I/O, MongoDB I/O and CPU-heavy work on dedicated, bounded
+     * threads, so that a slow dependency cannot starve the others or the server event loop.
+     */
+    @Data
+    public static class Isolation {
+
+        /**
+         * Whether the work is isolated; when disabled everything runs on the threads that deliver each signal.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Threads of the account service calls.
+         */
+        private Pool accountService = new Pool();
+
+        /**
+         * Threads of the MongoDB driver and of the handling of its results.
+         */
+        private Pool mongo = new Pool();
+
+        /**
+         * Threads of CPU-heavy stages, such as serializing the transaction history; its event loop is not used.
+         */
+        private Pool cpu = new Pool();
+    }
+
+    /**
+     * Size of one isolated pool of threads.
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * Number of event loop threads performing the network I/O.
+         */
+        private int eventLoopThreads = 2;
+
+        /**
+         * Number of threads handling the results.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Largest number of tasks waiting for a thread; further tasks are rejected.
+         */
+        private int queueCapacity = 10000;
+    }
+
+    /**
+     * Settings of the admission control that sheds load before it reaches the account service and the database.
+     * Requests are admitted while the global concurrency limit, adapted to the observed latency, and the rate
+     * limits allow it; the others are answered with {@code 429 Too Many Requests} and a {@code Retry-After} header.
+     */
+    @Data
+    public static class Admission {
+
+        /**
+         * Whether deposits, withdrawals, transfers and batches go through admission control.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Concurrency limit on startup, before any latency is observed.
+         */
+        private int initialLimit = 100;
+
+        /**
+         * Lowest concurrency limit.
+         */
+        private int minLimit = 10;
+
+        /**
+         * Highest concurrency limit.
+         */
+        private int maxLimit = 1000;
+
+        /**
+         * Ratio of the recent latency to the baseline latency up to which the limit is not lowered.
+         */
+        private double latencyTolerance = 2.0;
+
+        /**
+         * Weight of each new estimate in the limit, between 0 and 1; higher values adapt faster but are noisier.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Number of requests after which the baseline latency is measured again, so that it follows lasting changes.
+         */
+        private int baselineWindow = 1000;
+
+        /**
+         * Time after which a request rejected by the concurrency limit is told to retry.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Sustained operations per second accepted for one account; 0 disables the per-account limit.
+         */
+        private double accountRate = 50;
+
+        /**
+         * Operations of one account accepted at once after it has been idle.
+         */
+        private int accountBurst = 100;
+
+        /**
+         * Sustained operations per second accepted across all accounts; 0 disables the global rate limit.
+         */
+        private double globalRate = 0;
+
+        /**
+         * Operations accepted at once across all accounts after a quiet period.
+         */
+        private int globalBurst = 1000;
+
+        /**
+         * Number of accounts whose rate is tracked; beyond it, the least recently seen account of the same segment
+         * is forgotten.
+         */
+        private int maxAccounts = 100000;
+
+        /**
+         * Largest request body read to find the account; larger requests are answered with 413 Payload Too Large.
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(16);
+    }
+}
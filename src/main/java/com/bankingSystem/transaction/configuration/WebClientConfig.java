@@ -1,25 +1,80 @@
 package com.bankingSystem.transaction.configuration;
 
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.resilience.AccountServiceResilienceFilter;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 /**
  * Configuration class for creating a {@link WebClient} bean.
  * This class provides a centralized configuration for the {@link WebClient},
  * which is used to perform reactive HTTP requests within the application.
+ * The client is backed by a dedicated, bounded Reactor Netty connection pool
+ * tuned through {@link AccountServiceClientProperties}, and every call goes through the
+ * {@link AccountServiceResilienceFilter}. With isolation enabled, the client performs its I/O on the dedicated
+ * event loop of the {@link IsolatedSchedulers} instead of the one shared with the server.
  */
 @Configuration
+@EnableConfigurationProperties(AccountServiceClientProperties.class)
 public class WebClientConfig {
 
+    /**
+     * Creates the pooled {@link ConnectionProvider} used for account service calls.
+     * The pool is disposed together with the application context.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider accountServiceConnectionProvider(AccountServiceClientProperties properties) {
+        return ConnectionProvider.builder(properties.getPoolName())
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .build();
+    }
+
     /**
      * Creates a {@link WebClient} instance as a Spring bean.
      * This {@link WebClient} can be used throughout the application to make
-     * non-blocking HTTP requests.*
+     * non-blocking HTTP requests over the pooled connection provider, guarded by timeouts,
+     * a bulkhead and a circuit breaker.
      */
     @Bean
-    public WebClient createWebClient() {
-        return WebClient.create();
+    public WebClient createWebClient(ConnectionProvider accountServiceConnectionProvider,
+                                     AccountServiceClientProperties properties,
+                                     AccountServiceResilienceFilter resilienceFilter,
+                                     IsolatedSchedulers isolatedSchedulers) {
+        HttpClient httpClient = buildHttpClient(accountServiceConnectionProvider, properties);
+        if (isolatedSchedulers.isEnabled()) {
+            httpClient = httpClient.runOn(isolatedSchedulers.accountServiceEventLoop());
+        }
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(resilienceFilter)
+                .build();
     }
-}
 
+    /**
+     * Builds the Reactor Netty {@link HttpClient} with timeouts, keep-alive and protocol options applied.
+     * @return the configured {@link HttpClient}
+     */
+    static HttpClient buildHttpClient(ConnectionProvider connectionProvider, AccountServiceClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, properties.isKeepAlive())
+                .responseTimeout(properties.getResponseTimeout())
+                .keepAlive(properties.isKeepAlive());
+        if (properties.isH2c()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bankingSystem.transaction.controller;
+
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * REST controller exposing the in-process metrics collected by {@link MetricsRegistry}.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final MetricsRegistry metricsRegistry;
+
+    /**
+     * Returns the current value of every registered counter and gauge.
+     * @return a {@link Mono} emitting the metric names mapped to their values
+     */
+    @GetMapping("/metrics")
+    public Mono<Map<String, Number>> getMetrics() {
+        return Mono.fromSupplier(metricsRegistry::snapshot);
+    }
+}
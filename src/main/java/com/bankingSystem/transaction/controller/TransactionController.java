@@ -1,23 +1,33 @@
 package com.bankingSystem.transaction.controller;
+import com.bankingSystem.transaction.model.request.BatchTransactionRequest;
 import com.bankingSystem.transaction.model.request.DepositRequest;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
 import com.bankingSystem.transaction.model.request.TransferRequest;
 import com.bankingSystem.transaction.model.request.WithdrawalRequest;
+import com.bankingSystem.transaction.model.AccountRollup;
 import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionGrouping;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.dto.TransactionPage;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
 import com.bankingSystem.transaction.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 /**
  * REST controller for handling transaction-related operations.
  * This controller provides endpoints for deposit, withdrawal, transfer,
- * and fetching transaction history. It uses reactive programming with {@link Mono}.
+ * and fetching transaction history. It uses reactive programming with {@link Mono} and {@link Flux}.
  */
 @RestController
 @RequiredArgsConstructor
@@ -25,56 +35,190 @@ import java.util.List;
 public class TransactionController {
 
     private static final Logger LOGGER_FACTORY = LoggerFactory.getLogger(TransactionController.class);
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
     private final TransactionService transactionService;
 
     /**
      * Processes a deposit request.
      * @param request the {@link DepositRequest} containing account ID and deposit amount
+     * @param idempotencyKey the optional key identifying retries of the same request
      * @return a {@link Mono} emitting a {@link ResponseEntity} containing the created {@link Transaction}
      */
     @PostMapping("/deposit")
     public Mono<ResponseEntity<Transaction>> processDeposit(
-            @RequestBody @Valid DepositRequest request) {
+            @RequestBody @Valid DepositRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         LOGGER_FACTORY.info("Starting deposit for account: {}", request.getAccountId());
-        return transactionService.registerDeposit(request.getAccountId(), request.getAmount())
+        return transactionService.registerDeposit(request.getAccountId(), request.getAmount(), idempotencyKey)
                 .map(ResponseEntity::ok);
     }
 
     /**
      * Processes a withdrawal request.
      * @param request the {@link WithdrawalRequest} containing account ID and withdrawal amount
+     * @param idempotencyKey the optional key identifying retries of the same request
      * @return a {@link Mono} emitting a {@link ResponseEntity} containing the created {@link Transaction}
      */
     @PostMapping("/withdrawal")
     public Mono<ResponseEntity<Transaction>> processWithdrawal(
-            @RequestBody @Valid WithdrawalRequest request) {
+            @RequestBody @Valid WithdrawalRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         LOGGER_FACTORY.info("Starting withdrawal for account: {}", request.getAccountId());
-        return transactionService.registerWithdrawal(request.getAccountId(), request.getAmount())
+        return transactionService.registerWithdrawal(request.getAccountId(), request.getAmount(), idempotencyKey)
                 .map(ResponseEntity::ok);
     }
 
     /**
      * Processes a transfer request between two accounts.
      * @param transferRequest the {@link TransferRequest} containing source account ID, destination account ID, and transfer amount
+     * @param idempotencyKey the optional key identifying retries of the same request
      * @return a {@link Mono} emitting a {@link ResponseEntity} containing the created {@link Transaction}
      */
     @PostMapping("/transferTo")
-    public Mono<ResponseEntity<Transaction>> processTransfer(@RequestBody @Valid TransferRequest transferRequest) {
+    public Mono<ResponseEntity<Transaction>> processTransfer(@RequestBody @Valid TransferRequest transferRequest,
+                                                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         LOGGER_FACTORY.info("Starting transfer from source account: {} to destination account: {}", transferRequest.getSourceAccountId(), transferRequest.getDestinationAccountId());
         return transactionService.registerTransfer(
                         transferRequest.getSourceAccountId(),
                         transferRequest.getDestinationAccountId(),
-                        transferRequest.getAmount())
+                        transferRequest.getAmount(),
+                        idempotencyKey)
                 .map(ResponseEntity::ok);
     }
 
+    /**
+     * Processes a batch of deposits, withdrawals and transfers sent as newline-delimited JSON, one item per line.
+     * The items are read as they arrive and the results are streamed back, also as newline-delimited JSON, as
+     * each item completes, so batches of any length are processed with bounded memory.
+     * @param items the {@link BatchTransactionRequest} items of the batch
+     * @return a {@link Flux} emitting one {@link BatchItemResult} per item
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchItemResult> processBatch(@RequestBody Flux<BatchTransactionRequest> items) {
+        LOGGER_FACTORY.info("Starting transaction batch");
+        return transactionService.processBatch(items);
+    }
+
+    /**
+     * Settles a batch of transfers sent as newline-delimited JSON with one balance change per account and window.
+     * The results are streamed back as newline-delimited JSON, window by window.
+     * @param transfers the {@link TransferRequest} items of the batch
+     * @return a {@link Flux} emitting one {@link BatchItemResult} per transfer
+     */
+    @PostMapping(value = "/batch/transfers/netted", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchItemResult> processNettedTransfers(@RequestBody Flux<TransferRequest> transfers) {
+        LOGGER_FACTORY.info("Starting netted transfer batch");
+        return transactionService.processNettedTransfers(transfers);
+    }
+
     /**
      * Retrieves the transaction history for the current user.
-     * @return a {@link Mono} emitting a list of {@link Transaction} objects
+     * The history is streamed as it is read, as a JSON array, as newline-delimited JSON
+     * ({@code application/x-ndjson}) or as server-sent events ({@code text/event-stream}), depending on
+     * the {@code Accept} header.
+     * @return a {@link Flux} emitting the {@link Transaction} objects
      */
-    @GetMapping("/history")
-    public Mono<List<Transaction>> getTransactionHistory() {
+    @GetMapping(value = "/history",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Transaction> getTransactionHistory() {
         return transactionService.getTransactionHistory();
     }
+
+    /**
+     * Retrieves one page of the transaction history, newest first.
+     * @param cursor the {@code nextCursor} of the previous page, or none for the first page
+     * @param size the number of transactions per page, up to the configured maximum
+     * @return a {@link Mono} emitting the {@link TransactionPage}
+     */
+    @GetMapping("/history/page")
+    public Mono<TransactionPage> getTransactionHistoryPage(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        return transactionService.getTransactionHistoryPage(cursor, size);
+    }
+
+    /**
+     * Searches transactions by account, type, date range and amount range, newest first.
+     * The filters are bound from the query string, e.g.
+     * {@code /transaction/search?account=12345&from=2024-01-01T00:00:00&minAmount=100}.
+     * @param request the {@link TransactionSearchRequest} with the filters
+     * @return a {@link Flux} emitting the matching {@link Transaction} objects
+     */
+    @GetMapping(value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Transaction> searchTransactions(TransactionSearchRequest request) {
+        return transactionService.searchTransactions(request);
+    }
+
+    /**
+     * Retrieves the number and total amount of transactions per type.
+     * @param from the inclusive start of the date range, or none for no lower bound
+     * @param to the inclusive end of the date range, or none for no upper bound
+     * @return a {@link Flux} emitting one {@link TransactionTotal} per transaction type
+     */
+    @GetMapping("/totals/by-type")
+    public Flux<TransactionTotal> getTotalsByType(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return transactionService.getTransactionTotals(TransactionGrouping.TYPE, from, to);
+    }
+
+    /**
+     * Retrieves the number and total amount of transactions per origin account.
+     * @param from the inclusive start of the date range, or none for no lower bound
+     * @param to the inclusive end of the date range, or none for no upper bound
+     * @return a {@link Flux} emitting one {@link TransactionTotal} per account number
+     */
+    @GetMapping("/totals/by-account")
+    public Flux<TransactionTotal> getTotalsByAccount(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return transactionService.getTransactionTotals(TransactionGrouping.ACCOUNT, from, to);
+    }
+
+    /**
+     * Retrieves the number and total amount of transactions per day.
+     * @param from the inclusive start of the date range, or none for no lower bound
+     * @param to the inclusive end of the date range, or none for no upper bound
+     * @return a {@link Flux} emitting one {@link TransactionTotal} per day, keyed as {@code yyyy-MM-dd}
+     */
+    @GetMapping("/totals/by-day")
+    public Flux<TransactionTotal> getTotalsByDay(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return transactionService.getTransactionTotals(TransactionGrouping.DAY, from, to);
+    }
+
+    /**
+     * Retrieves the totals, transaction count and last activity of an account.
+     * @param accountNumber the account number
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with the {@link AccountRollup}, or 404 if the account
+     * has no transactions
+     */
+    @GetMapping("/accounts/{accountNumber}/rollup")
+    public Mono<ResponseEntity<AccountRollup>> getAccountRollup(@PathVariable String accountNumber) {
+        return transactionService.getAccountRollup(accountNumber)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves the most recent transactions of an account, newest first, served from memory for active accounts.
+     * @param accountNumber the account number, matched as origin or destination
+     * @param size the number of transactions, at most the configured number kept per account
+     * @return a {@link Flux} emitting the recent transactions of the account
+     */
+    @GetMapping("/accounts/{accountNumber}/recent")
+    public Flux<Transaction> getRecentTransactions(@PathVariable String accountNumber,
+                                                   @RequestParam(required = false) Integer size) {
+        return transactionService.getRecentTransactions(accountNumber, size);
+    }
+
+    /**
+     * Rebuilds the figures of every account from the stored transactions.
+     * Figures updated while the rebuild runs may be lost, so it must only be requested while no transactions are
+     * being processed; it answers {@code 409 Conflict} if transactions kept changing.
+     * @return a {@link Mono} emitting the number of accounts with figures after the rebuild
+     */
+    @PostMapping("/accounts/rollups/rebuild")
+    public Mono<Long> rebuildAccountRollups() {
+        return transactionService.rebuildAccountRollups();
+    }
 }
@@ -0,0 +1,18 @@
+package com.bankingSystem.transaction.exceptionhandler;
+
+/**
+ * Exception thrown when a call to the account service is rejected or abandoned.
+ * This exception is typically used when the circuit breaker is open, the concurrency
+ * bulkhead is full or the call exceeded its timeout, so the request fails fast instead
+ * of waiting on a degraded account service.
+ */
+public class AccountServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code AccountServiceUnavailableException} with the specified detail message.
+     * @param message the detail message explaining the reason for the exception
+     */
+    public AccountServiceUnavailableException(String message) {
+        super(message);
+    }
+}
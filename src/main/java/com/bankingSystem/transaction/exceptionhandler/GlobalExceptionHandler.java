@@ -1,8 +1,10 @@
 package com.bankingSystem.transaction.exceptionhandler;
 
+import com.bankingSystem.transaction.configuration.TransactionProperties;
 import com.mongodb.MongoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionException;
@@ -16,6 +18,8 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import reactor.core.publisher.Mono;
 
 import javax.validation.ConstraintViolationException;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Global exception handler for managing exceptions throughout the application.
@@ -27,6 +31,15 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final Duration retryAfter;
+
+    /**
+     * Creates the handler, telling shed requests to retry after the delay of the admission control.
+     */
+    public GlobalExceptionHandler(TransactionProperties properties) {
+        this.retryAfter = properties.getAdmission().getRetryAfter();
+    }
+
     /**
      * Handles general exceptions (e.g., unexpected errors).
      * @return a {@link Mono} emitting a {@link ResponseEntity} with an internal server error status
@@ -131,6 +144,42 @@ public class GlobalExceptionHandler {
                 .body("Account not found: " + e.getMessage()));
     }
 
+    /**
+     * Handles {@link AccountServiceUnavailableException} when the account service is unavailable or overloaded.
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with a service unavailable status
+     */
+    @ExceptionHandler(AccountServiceUnavailableException.class)
+    public Mono<ResponseEntity<String>> handleAccountServiceUnavailableException(AccountServiceUnavailableException e) {
+        logger.error("Account service unavailable: ", e);
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Account service unavailable: " + e.getMessage()));
+    }
+
+    /**
+     * Handles {@link UnsupportedBalanceException} when the account service reports a balance that cannot be processed.
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with a bad gateway status
+     */
+    @ExceptionHandler(UnsupportedBalanceException.class)
+    public Mono<ResponseEntity<String>> handleUnsupportedBalanceException(UnsupportedBalanceException e) {
+        logger.error("Unsupported account balance: {}", e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body("Unsupported account balance: " + e.getMessage()));
+    }
+
+    /**
+     * Handles {@link RejectedExecutionException} when the bounded queue of an isolated scheduler is full.
+     * The request is shed deliberately, so it is answered like any other overload: a service unavailable status
+     * with a {@code Retry-After} header, logged without a stack trace.
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with a service unavailable status
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public Mono<ResponseEntity<String>> handleRejectedExecutionException(RejectedExecutionException e) {
+        logger.warn("Request shed: {}", e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, (retryAfter.toMillis() + 999) / 1000)))
+                .body("Service overloaded, please retry later"));
+    }
+
     /**
      * Handles {@link TransactionException} for transaction-related errors.
      * @return a {@link Mono} emitting a {@link ResponseEntity} with a bad request status
@@ -142,4 +191,26 @@ public class GlobalExceptionHandler {
                 .body("Transaction error: " + e.getMessage()));
     }
 
+    /**
+     * Handles {@link IdempotencyKeyConflictException} when a request does not match the outcome of its idempotency key.
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with a conflict status
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public Mono<ResponseEntity<String>> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException e) {
+        logger.warn("Idempotency key conflict: {}", e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Idempotency key conflict: " + e.getMessage()));
+    }
+
+    /**
+     * Handles {@link RollupRebuildConflictException} when the account rollups could not be rebuilt on a busy system.
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with a conflict status
+     */
+    @ExceptionHandler(RollupRebuildConflictException.class)
+    public Mono<ResponseEntity<String>> handleRollupRebuildConflictException(RollupRebuildConflictException e) {
+        logger.warn("Rollup rebuild conflict: {}", e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Rollup rebuild conflict: " + e.getMessage()));
+    }
+
 }
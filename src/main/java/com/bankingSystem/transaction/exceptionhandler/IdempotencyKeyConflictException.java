@@ -0,0 +1,17 @@
+package com.bankingSystem.transaction.exceptionhandler;
+
+/**
+ * Exception thrown when a request cannot be matched with the outcome of its {@code Idempotency-Key}.
+ * This happens when the key was first used with a different request, or when the request that first used
+ * the key is still being processed.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code IdempotencyKeyConflictException} with the specified detail message.
+     * @param message the detail message explaining the reason for the exception
+     */
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.bankingSystem.transaction.exceptionhandler;
+
+/**
+ * Exception thrown when the account rollups cannot be rebuilt because transactions keep being stored or removed
+ * while the rebuild runs, so the rebuilt figures cannot be trusted.
+ */
+public class RollupRebuildConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code RollupRebuildConflictException} with the specified detail message.
+     * @param message the detail message explaining the reason for the exception
+     */
+    public RollupRebuildConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankingSystem.transaction.exceptionhandler;
+
+/**
+ * Exception thrown when the account service reports a balance that cannot be processed exactly, e.g. one with
+ * more decimal places or digits than a {@link com.bankingSystem.transaction.model.Money} can hold.
+ */
+public class UnsupportedBalanceException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code UnsupportedBalanceException} with the specified detail message and cause.
+     * @param message the detail message explaining the reason for the exception
+     * @param cause the error raised by the conversion of the balance
+     */
+    public UnsupportedBalanceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,111 @@
+package com.bankingSystem.transaction.factory;
+
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
+import com.bankingSystem.transaction.processor.DepositProcessor;
+import com.bankingSystem.transaction.processor.OperationProcessor;
+import com.bankingSystem.transaction.processor.TransferNettingProcessor;
+import com.bankingSystem.transaction.processor.TransferProcessor;
+import com.bankingSystem.transaction.processor.WithdrawalProcessor;
+import com.bankingSystem.transaction.processor.interceptor.OperationHandler;
+import com.bankingSystem.transaction.processor.interceptor.TransactionInterceptor;
+import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
+import com.bankingSystem.transaction.service.AccountServiceClient;
+import com.bankingSystem.transaction.util.TransactionUtil;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the processors of each {@link TransactionType}.
+ * The processors are stateless, so one instance of each is created at startup and shared by every request.
+ * Each processor is wrapped once in the chain of {@link TransactionInterceptor}s, in their order, and the
+ * resulting handlers are kept in an {@link EnumMap}, so processing an operation is a lookup by its type
+ * followed by the prebuilt chain.
+ * The {@link TransferNettingProcessor} settles many transfers at once, so it only receives the checks of the
+ * chain, the interceptors ordered up to {@link TransactionInterceptor#LIMITS_ORDER}, and runs every transfer
+ * through them before projecting it.
+ */
+@Component
+public class TransactionProcessorRegistry {
+
+    private final Map<TransactionType, OperationProcessor<?>> processors = new EnumMap<>(TransactionType.class);
+    private final Map<TransactionType, OperationHandler> handlers = new EnumMap<>(TransactionType.class);
+    private final TransferNettingProcessor nettingProcessor;
+
+    /**
+     * Creates the processors and composes their interceptor chains.
+     * @param interceptors the interceptors, in the order they are applied
+     */
+    public TransactionProcessorRegistry(TransactionRepository transactionRepository,
+                                        TransactionUtil transactionUtil,
+                                        AccountServiceClient accountServiceClient,
+                                        TransactionWriteBehind transactionWriteBehind,
+                                        RecentTransactionsCache recentTransactionsCache,
+                                        List<TransactionInterceptor> interceptors) {
+        register(TransactionType.SAVING, DepositOperation.class, new DepositProcessor(transactionRepository,
+                transactionUtil, accountServiceClient, transactionWriteBehind, recentTransactionsCache), interceptors);
+        register(TransactionType.WITHDRAWAL, WithdrawalOperation.class, new WithdrawalProcessor(transactionRepository,
+                transactionUtil, accountServiceClient, transactionWriteBehind, recentTransactionsCache), interceptors);
+        register(TransactionType.TRANSFER, TransferOperation.class, new TransferProcessor(transactionRepository,
+                transactionUtil, accountServiceClient, transactionWriteBehind, recentTransactionsCache), interceptors);
+        this.nettingProcessor = new TransferNettingProcessor(transactionRepository, transactionUtil, accountServiceClient,
+                transactionWriteBehind, recentTransactionsCache, chain(operation -> Mono.empty(), interceptors.stream()
+                        .filter(interceptor -> OrderUtils.getOrder(interceptor.getClass(), Ordered.LOWEST_PRECEDENCE)
+                                <= TransactionInterceptor.LIMITS_ORDER)
+                        .toList()));
+    }
+
+    /**
+     * Processes the operation through the interceptor chain and the processor of its type.
+     * @return a {@link Mono} containing the saved transaction, or an error if the operation is rejected or fails
+     */
+    public Mono<Transaction> process(TransactionOperation operation) {
+        OperationHandler handler = handlers.get(operation.type());
+        return Mono.defer(() -> handler.handle(operation));
+    }
+
+    /**
+     * Returns the processor of the given type, without its interceptors.
+     * @return the {@link OperationProcessor}
+     */
+    public OperationProcessor<?> processor(TransactionType type) {
+        return processors.get(type);
+    }
+
+    /**
+     * Returns the {@link TransferNettingProcessor} that settles windows of transfers with net balance writes.
+     * @return the shared {@link TransferNettingProcessor}
+     */
+    public TransferNettingProcessor nettingProcessor() {
+        return nettingProcessor;
+    }
+
+    private <O extends TransactionOperation> void register(TransactionType type, Class<O> operationType,
+                                                           OperationProcessor<O> processor,
+                                                           List<TransactionInterceptor> interceptors) {
+        processors.put(type, processor);
+        handlers.put(type, chain(operation -> processor.process(operationType.cast(operation)), interceptors));
+    }
+
+    private static OperationHandler chain(OperationHandler last, List<TransactionInterceptor> interceptors) {
+        OperationHandler handler = last;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            TransactionInterceptor interceptor = interceptors.get(i);
+            OperationHandler next = handler;
+            handler = operation -> interceptor.intercept(operation, next);
+        }
+        return handler;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bankingSystem.transaction.journal;
+
+import com.bankingSystem.transaction.model.Transaction;
+
+/**
+ * Operation recorded in the {@link TransactionJournal}: a transaction to store, or the removal of one.
+ * @param sequence the position of the entry in the journal, starting at 1 and without gaps
+ * @param deletion whether the transaction is removed instead of stored
+ * @param transaction the transaction; for a removal only its id is kept
+ */
+record JournalEntry(long sequence, boolean deletion, Transaction transaction) {
+}
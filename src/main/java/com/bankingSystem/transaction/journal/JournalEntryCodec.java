@@ -0,0 +1,149 @@
+package com.bankingSystem.transaction.journal;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import org.bson.types.ObjectId;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary encoding of the payload of a {@link JournalEntry}.
+ * Object ids take 12 bytes, amounts are stored as scale and unscaled value, dates as UTC epoch seconds and
+ * nanoseconds, and every nullable field is preceded by a presence marker. A removal only carries the id.
+ */
+final class JournalEntryCodec {
+
+    private static final byte STORE = 0;
+    private static final byte DELETE = 1;
+    private static final byte OBJECT_ID = 1;
+    private static final byte TEXT_ID = 2;
+    private static final int ABSENT = -1;
+
+    private JournalEntryCodec() {
+    }
+
+    /**
+     * Encodes the operation and the transaction of the entry; the sequence is framed by the segment.
+     * @return the payload bytes
+     */
+    static byte[] encode(boolean deletion, Transaction transaction) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(deletion ? DELETE : STORE);
+            writeId(out, transaction.getId());
+            if (!deletion) {
+                out.writeByte(transaction.getType() == null ? ABSENT : transaction.getType().ordinal());
+                writeAmount(out, transaction.getAmount());
+                writeDate(out, transaction.getDate());
+                writeText(out, transaction.getOriginAccount());
+                writeText(out, transaction.getDestinationAccount());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a payload written by {@link #encode(boolean, Transaction)}.
+     * @return the {@link JournalEntry} at the given sequence
+     */
+    static JournalEntry decode(long sequence, ByteBuffer payload) {
+        boolean deletion = payload.get() == DELETE;
+        Transaction transaction = new Transaction();
+        transaction.setId(readId(payload));
+        if (!deletion) {
+            byte type = payload.get();
+            transaction.setType(type == ABSENT ? null : TransactionType.values()[type]);
+            transaction.setAmount(readAmount(payload));
+            transaction.setDate(readDate(payload));
+            transaction.setOriginAccount(readText(payload));
+            transaction.setDestinationAccount(readText(payload));
+        }
+        return new JournalEntry(sequence, deletion, transaction);
+    }
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        if (id != null && ObjectId.isValid(id)) {
+            out.writeByte(OBJECT_ID);
+            out.write(new ObjectId(id).toByteArray());
+        } else {
+            out.writeByte(TEXT_ID);
+            writeText(out, id);
+        }
+    }
+
+    private static String readId(ByteBuffer in) {
+        if (in.get() == OBJECT_ID) {
+            byte[] id = new byte[12];
+            in.get(id);
+            return new ObjectId(id).toHexString();
+        }
+        return readText(in);
+    }
+
+    private static void writeAmount(DataOutputStream out, BigDecimal amount) throws IOException {
+        if (amount == null) {
+            out.writeShort(ABSENT);
+            return;
+        }
+        byte[] unscaled = amount.unscaledValue().toByteArray();
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(amount.scale());
+    }
+
+    private static BigDecimal readAmount(ByteBuffer in) {
+        short length = in.getShort();
+        if (length == ABSENT) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.getInt());
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDateTime date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(date.getNano());
+        }
+    }
+
+    private static LocalDateTime readDate(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeShort(ABSENT);
+            return;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readText(ByteBuffer in) {
+        short length = in.getShort();
+        if (length == ABSENT) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,166 @@
+package com.bankingSystem.transaction.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size, memory-mapped journal file holding consecutive entries.
+ * Each entry is framed as {@code [int length][int crc][long sequence][payload]}, where the checksum covers the
+ * sequence and the payload. A zero length marks the end of the written data, since new files are zero-filled.
+ * The file is named after the sequence of its first entry, so segments sort in journal order.
+ */
+final class JournalSegment {
+
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES;
+    private static final String SUFFIX = ".journal";
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private long lastSequence;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, int size) throws IOException {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.lastSequence = firstSequence - 1;
+    }
+
+    /**
+     * Creates an empty segment whose first entry will have the given sequence.
+     * @return the new {@link JournalSegment}
+     */
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(path, firstSequence, channel, size);
+    }
+
+    /**
+     * Maps an existing segment; {@link #recover(Consumer)} must be called before appending to it.
+     * @return the {@link JournalSegment}
+     */
+    static JournalSegment open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long firstSequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(path, firstSequence, channel, (int) channel.size());
+    }
+
+    /**
+     * Tells whether the file is a journal segment.
+     * @return {@code true} if the file name has the segment suffix
+     */
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    /**
+     * Reads every intact entry, in order, and positions the segment right after the last one.
+     * Reading stops at the end of the written data or at the first torn or out-of-order entry, left by a crash
+     * in the middle of a write; the rest of the segment is cleared so it can be written again.
+     */
+    void recover(Consumer<JournalEntry> consumer) {
+        buffer.position(0);
+        while (buffer.remaining() >= FRAME_HEADER_BYTES && buffer.getInt(buffer.position()) != 0) {
+            int start = buffer.position();
+            JournalEntry entry = readEntry();
+            if (entry == null) {
+                buffer.position(start);
+                clearRemaining();
+                return;
+            }
+            lastSequence = entry.sequence();
+            consumer.accept(entry);
+        }
+    }
+
+    /**
+     * Appends an entry if it fits in the remaining space.
+     * @return {@code false} if the segment is full and the entry must go to a new segment
+     */
+    boolean append(long sequence, byte[] payload, boolean force) {
+        int frameLength = FRAME_HEADER_BYTES + payload.length;
+        if (buffer.remaining() < frameLength) {
+            return false;
+        }
+        int start = buffer.position();
+        buffer.putInt(start + Integer.BYTES, checksum(sequence, ByteBuffer.wrap(payload)));
+        buffer.putLong(start + Integer.BYTES * 2, sequence);
+        buffer.put(start + FRAME_HEADER_BYTES, payload);
+        // The length is written last: a frame with a zero length is never read, even if the rest made it to disk
+        buffer.putInt(start, payload.length);
+        buffer.position(start + frameLength);
+        if (force) {
+            buffer.force(start, frameLength);
+        }
+        lastSequence = sequence;
+        return true;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Flushes the written entries and releases the file.
+     */
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Releases and removes the file, once all its entries are stored in the database.
+     */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private JournalEntry readEntry() {
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        long sequence = buffer.getLong();
+        if (length <= 0 || length > buffer.remaining() || sequence != lastSequence + 1) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(start + FRAME_HEADER_BYTES, length);
+        if (checksum(sequence, payload.duplicate()) != checksum) {
+            return null;
+        }
+        buffer.position(start + FRAME_HEADER_BYTES + length);
+        return JournalEntryCodec.decode(sequence, payload);
+    }
+
+    private static int checksum(long sequence, ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void clearRemaining() {
+        int start = buffer.position();
+        byte[] zeros = new byte[8192];
+        while (buffer.hasRemaining()) {
+            buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+        }
+        buffer.position(start);
+    }
+}
@@ -0,0 +1,290 @@
+package com.bankingSystem.transaction.journal;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Local, append-only journal that makes a transaction durable before it reaches MongoDB.
+ * Each operation is appended as a compact binary entry to a memory-mapped segment file, and a new segment is
+ * started when the current one is full. A background replayer stores the entries in the
+ * {@link TransactionRepository}, in journal order, and records the last stored sequence in a checkpoint file;
+ * segments whose entries are all stored are removed. On startup, entries after the checkpoint are recovered and
+ * replayed, so acknowledged transactions survive a crash or a database outage. Replayed entries are upserted by
+ * id, which makes storing an entry twice harmless.
+ */
+@Component
+public class TransactionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionProperties.Journal settings;
+    private final Queue<JournalEntry> unreplayed = new ConcurrentLinkedQueue<>();
+    private final Deque<JournalSegment> segments = new ArrayDeque<>();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    private final LongAdder appends;
+    private final LongAdder replayed;
+    private final LongAdder replayFailures;
+
+    private Path directory;
+    private long nextSequence = 1;
+    private long checkpoint;
+    private Scheduler replayScheduler;
+    private Disposable replayTask;
+
+    /**
+     * Creates the journal, recovering the entries that were not stored before the last shutdown, and registers its
+     * metrics under the {@code transaction.journal.*} names.
+     */
+    public TransactionJournal(TransactionRepository transactionRepository, TransactionProperties properties,
+                              MetricsRegistry metricsRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.settings = properties.getJournal();
+        this.appends = metricsRegistry.counter("transaction.journal.appends");
+        this.replayed = metricsRegistry.counter("transaction.journal.replayed");
+        this.replayFailures = metricsRegistry.counter("transaction.journal.replay-failures");
+        metricsRegistry.gauge("transaction.journal.pending", unreplayed::size);
+        metricsRegistry.gauge("transaction.journal.segments", this::segmentCount);
+        if (settings.isEnabled()) {
+            recover();
+        }
+    }
+
+    /**
+     * Tells whether transactions go through the journal.
+     * @return {@code true} if the journal is enabled
+     */
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Appends the transaction to the journal, assigning its id if it has none.
+     * @return a {@link Mono} emitting the transaction once its entry is durable
+     */
+    public Mono<Transaction> append(Transaction transaction) {
+        return Mono.fromCallable(() -> {
+            if (transaction.getId() == null) {
+                transaction.setId(new ObjectId().toHexString());
+            }
+            write(false, transaction);
+            return transaction;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Appends the removal of a transaction, which is applied after every earlier entry has been stored.
+     * @return a {@link Mono} completing once the entry is durable
+     */
+    public Mono<Void> appendDeletion(Transaction transaction) {
+        return Mono.<Void>fromRunnable(() -> write(true, transaction))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Starts the background replayer.
+     */
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        replayScheduler = Schedulers.newSingle("transaction-journal");
+        long interval = settings.getReplayInterval().toNanos();
+        replayTask = replayScheduler.schedulePeriodically(this::replayInBackground, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stores every pending entry in the database, in journal order, one batch after the other.
+     * @return a {@link Mono} completing once the journal has caught up, or failing with the database error
+     */
+    public Mono<Void> replay() {
+        return Mono.defer(this::replayBatch)
+                .repeat(() -> !unreplayed.isEmpty())
+                .then();
+    }
+
+    /**
+     * Stops the replayer, stores what it can within the shutdown timeout and releases the segment files.
+     * Entries that could not be stored stay in the journal and are replayed on the next start.
+     */
+    @PreDestroy
+    public void close() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (replayTask != null) {
+            replayTask.dispose();
+            replayScheduler.dispose();
+        }
+        try {
+            replay().block(settings.getShutdownTimeout());
+        } catch (RuntimeException e) {
+            logger.warn("{} journaled transactions will be stored after restart", unreplayed.size(), e);
+        }
+        closeSegments();
+    }
+
+    private synchronized void write(boolean deletion, Transaction transaction) {
+        byte[] payload = JournalEntryCodec.encode(deletion, transaction);
+        long sequence = nextSequence;
+        try {
+            if (!segments.getLast().append(sequence, payload, settings.isForceOnAppend())) {
+                segments.add(JournalSegment.create(directory, sequence, segmentSize()));
+                if (!segments.getLast().append(sequence, payload, settings.isForceOnAppend())) {
+                    throw new IllegalStateException("Journal entry of " + payload.length + " bytes exceeds the segment size");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextSequence++;
+        unreplayed.add(new JournalEntry(sequence, deletion, transaction));
+        appends.increment();
+    }
+
+    private void replayInBackground() {
+        if (unreplayed.isEmpty() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        replay().doFinally(signal -> replaying.set(false))
+                .subscribe(null, error -> {
+                    replayFailures.increment();
+                    logger.warn("Could not store {} journaled transactions, retrying later", unreplayed.size(), error);
+                });
+    }
+
+    private Mono<Void> replayBatch() {
+        List<JournalEntry> batch = unreplayed.stream().limit(settings.getReplayBatchSize()).toList();
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(batch)
+                .windowUntilChanged(JournalEntry::deletion)
+                .concatMap(entries -> entries.collectList().flatMap(this::store))
+                .then(Mono.fromRunnable(() -> acknowledge(batch.get(batch.size() - 1).sequence()))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+
+    private Mono<Void> store(List<JournalEntry> entries) {
+        if (entries.get(0).deletion()) {
+            return Flux.fromIterable(entries)
+                    .concatMap(entry -> transactionRepository.deleteById(entry.transaction().getId()))
+                    .then();
+        }
+        return transactionRepository.saveAll(entries.stream().map(JournalEntry::transaction).toList()).then();
+    }
+
+    private synchronized void acknowledge(long sequence) {
+        if (sequence <= checkpoint) {
+            return;
+        }
+        while (!unreplayed.isEmpty() && unreplayed.peek().sequence() <= sequence) {
+            unreplayed.poll();
+            replayed.increment();
+        }
+        try {
+            writeCheckpoint(sequence);
+            checkpoint = sequence;
+            while (segments.size() > 1 && segments.getFirst().getLastSequence() <= checkpoint) {
+                segments.removeFirst().delete();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void recover() {
+        try {
+            directory = Files.createDirectories(Path.of(settings.getDirectory()));
+            checkpoint = readCheckpoint();
+            nextSequence = checkpoint + 1;
+            for (Path path : segmentFiles()) {
+                JournalSegment segment = JournalSegment.open(path);
+                segment.recover(this::recoverEntry);
+                segments.add(segment);
+                nextSequence = Math.max(nextSequence, segment.getLastSequence() + 1);
+            }
+            if (segments.isEmpty() || segments.getLast().getLastSequence() >= segments.getLast().getFirstSequence()) {
+                segments.add(JournalSegment.create(directory, nextSequence, segmentSize()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the transaction journal in " + settings.getDirectory(), e);
+        }
+        logger.info("Transaction journal opened with {} entries to store", unreplayed.size());
+    }
+
+    private void recoverEntry(JournalEntry entry) {
+        if (entry.sequence() > checkpoint) {
+            unreplayed.add(entry);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        return Files.exists(file) ? ByteBuffer.wrap(Files.readAllBytes(file)).getLong() : 0;
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        Files.write(temporary, ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private synchronized void closeSegments() {
+        for (JournalSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.warn("Could not close a journal segment", e);
+            }
+        }
+        segments.clear();
+    }
+
+    private synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private int segmentSize() {
+        return (int) settings.getSegmentSize().toBytes();
+    }
+}
@@ -0,0 +1,46 @@
+package com.bankingSystem.transaction.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+/**
+ * Helpers to build structured log events with the fields shared by every stage of a request:
+ * the stage name and the time elapsed since the stage started. Callers add their own fields
+ * (transaction id, account ids) with {@link LoggingEventBuilder#addKeyValue(String, Object)}.
+ */
+public final class StructuredLog {
+
+    private StructuredLog() {
+    }
+
+    /**
+     * Starts an event for a completed stage; these events are subject to {@link SuccessSamplingTurboFilter}.
+     * The sampling decision is taken here, so a dropped event returns a no-op builder and is never created.
+     * @return the event builder, to be completed with {@link LoggingEventBuilder#log(String)}
+     */
+    public static LoggingEventBuilder success(Logger logger, String stage, long startNanos) {
+        if (!logger.isInfoEnabled(SuccessSamplingTurboFilter.SAMPLED)) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        return logger.atInfo()
+                .addMarker(SuccessSamplingTurboFilter.SAMPLED)
+                .addKeyValue("stage", stage)
+                .addKeyValue("elapsedMs", elapsedMillis(startNanos));
+    }
+
+    /**
+     * Starts an event for a failed stage; these events are never sampled.
+     * @return the event builder, to be completed with {@link LoggingEventBuilder#log(String)}
+     */
+    public static LoggingEventBuilder failure(Logger logger, String stage, long startNanos, Throwable error) {
+        return logger.atWarn()
+                .addKeyValue("stage", stage)
+                .addKeyValue("elapsedMs", elapsedMillis(startNanos))
+                .addKeyValue("error", error.getMessage());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bankingSystem.transaction.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logback turbo filter that keeps only a sample of the log events marked with {@link #SAMPLED}.
+ * Success paths mark their events so that, under load, only a fraction of them is formatted and
+ * queued, while unmarked events such as errors are always logged. The decision is taken before the
+ * event is created, so dropped events cost almost nothing. As the fluent logging API does not consult
+ * turbo filters, {@link StructuredLog#success} asks for the decision up front.
+ */
+public class SuccessSamplingTurboFilter extends TurboFilter {
+
+    /**
+     * Marker of log events that may be sampled.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private volatile double sampleRate = 1.0;
+
+    /**
+     * Sets the fraction, between 0 and 1, of sampled events that are logged.
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(SAMPLED) || sampleRate >= 1.0) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bankingSystem.transaction.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lightweight in-process registry of named counters and gauges.
+ * Components register their metrics here and the current values are exposed
+ * through the {@code /metrics} endpoint.
+ */
+@Component
+public class MetricsRegistry {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter registered under the given name, creating it if needed.
+     * @return the {@link LongAdder} backing the counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers a gauge whose value is read from the supplier each time metrics are collected.
+     */
+    public void gauge(String name, Supplier<? extends Number> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Takes a point-in-time snapshot of every registered counter and gauge, sorted by name.
+     * @return a map of metric names to their current values
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.get()));
+        return values;
+    }
+}
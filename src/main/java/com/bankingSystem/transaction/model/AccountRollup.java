@@ -0,0 +1,36 @@
+package com.bankingSystem.transaction.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized per-account figures derived from the account's transactions.
+ * One document is kept per account number and updated with {@code $inc} whenever a transaction of the account
+ * is stored, so reading it costs the same regardless of the length of the account's history.
+ * A transfer counts as a transaction of both accounts; totals that never changed read as zero.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "account_rollups")
+public class AccountRollup {
+
+    @Id
+    private String accountNumber;
+
+    private BigDecimal totalDeposited = BigDecimal.ZERO;
+
+    private BigDecimal totalWithdrawn = BigDecimal.ZERO;
+
+    private BigDecimal totalTransferredIn = BigDecimal.ZERO;
+
+    private BigDecimal totalTransferredOut = BigDecimal.ZERO;
+
+    private long transactionCount;
+
+    private LocalDateTime lastActivity;
+}
@@ -0,0 +1,45 @@
+package com.bankingSystem.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key} header.
+ * The id combines the operation and the key, so the unique {@code _id} index admits a single record per key:
+ * it is inserted before the operation runs, reserving the key, and completed with the resulting transaction.
+ * The fingerprint identifies the request the key was first used with. A request that failed without proving that
+ * it had no effect, e.g. because the account service timed out, keeps its record with an unknown outcome, so that
+ * it is not run again. Records are removed by MongoDB once they expire, shortly after the last renewal while
+ * pending, and after the retention time once completed or of unknown outcome.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String id;
+
+    private String fingerprint;
+
+    private Transaction transaction;
+
+    private boolean outcomeUnknown;
+
+    @Indexed(name = "expires_at", expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    /**
+     * Returns whether the operation has completed and its transaction is stored.
+     */
+    public boolean isCompleted() {
+        return transaction != null;
+    }
+}
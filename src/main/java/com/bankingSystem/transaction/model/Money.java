@@ -0,0 +1,177 @@
+package com.bankingSystem.transaction.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable amount of money held as a {@code long} number of minor units (e.g. cents) at a fixed currency scale.
+ * Arithmetic and comparisons work on the {@code long} directly, without the allocations of {@link BigDecimal};
+ * amounts are converted from and to {@link BigDecimal} only where they enter or leave the service, i.e. in the
+ * JSON requests and responses, the account service calls and the stored transactions.
+ * Conversions never round: an amount with more decimal places than the scale, or beyond the range of a
+ * {@code long}, is rejected, and so is an operation whose result overflows; both with an {@link ArithmeticException}.
+ * Balances reported by the account service are converted with {@link #ofBalance(BigDecimal)}, which widens the
+ * scale to keep every decimal place of the balance.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Scale of the currency the service operates in, i.e. the number of decimal places of its minor unit.
+     */
+    public static final int DEFAULT_SCALE = 2;
+
+    private static final int MAX_SCALE = 18;
+
+    private final long minorUnits;
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    /**
+     * Returns the amount of the given minor units at the given scale.
+     * @return the {@link Money}
+     */
+    public static Money ofMinor(long minorUnits, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported scale " + scale);
+        }
+        return new Money(minorUnits, scale);
+    }
+
+    /**
+     * Converts a decimal amount at the {@link #DEFAULT_SCALE default scale}.
+     * @return the {@link Money}
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_SCALE);
+    }
+
+    /**
+     * Converts a decimal amount at the given scale, without rounding.
+     * @return the {@link Money}
+     * @throws ArithmeticException if the amount has more decimal places than the scale or does not fit in a {@code long}
+     */
+    public static Money of(BigDecimal amount, int scale) {
+        long minorUnits;
+        try {
+            minorUnits = amount.movePointRight(scale).longValueExact();
+        } catch (ArithmeticException e) {
+            throw amount.stripTrailingZeros().scale() > scale
+                    ? new ArithmeticException("Amount " + amount.toPlainString() + " has more than " + scale + " decimal places")
+                    : new ArithmeticException("Amount " + amount.toPlainString() + " is out of range");
+        }
+        return ofMinor(minorUnits, scale);
+    }
+
+    /**
+     * Converts a balance reported by the account service without rounding it: at the {@link #DEFAULT_SCALE default
+     * scale}, or at the scale of the balance if it has more decimal places. Amounts combined with the balance are
+     * converted at its {@link #scale()}.
+     * @return the {@link Money}
+     * @throws ArithmeticException if the balance has more than 18 decimal places or does not fit in a {@code long}
+     */
+    public static Money ofBalance(BigDecimal balance) {
+        int scale = Math.max(DEFAULT_SCALE, balance.stripTrailingZeros().scale());
+        if (scale > MAX_SCALE) {
+            throw new ArithmeticException("Amount " + balance.toPlainString() + " has more than " + MAX_SCALE + " decimal places");
+        }
+        return of(balance, scale);
+    }
+
+    /**
+     * Converts the amount back to a decimal at its scale, e.g. {@code 12.30} for 1230 minor units at scale 2.
+     * @return the {@link BigDecimal}
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * Returns the number of minor units.
+     * @return the minor units
+     */
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Returns the number of decimal places of the minor unit.
+     * @return the scale
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Adds an amount of the same scale.
+     * @return the sum
+     * @throws ArithmeticException if the sum overflows
+     */
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, requireSameScale(other).minorUnits), scale);
+    }
+
+    /**
+     * Subtracts an amount of the same scale.
+     * @return the difference
+     * @throws ArithmeticException if the difference overflows
+     */
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, requireSameScale(other).minorUnits), scale);
+    }
+
+    /**
+     * Returns the amount with the opposite sign.
+     * @return the negated amount
+     * @throws ArithmeticException if the amount is the smallest {@code long}
+     */
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), scale);
+    }
+
+    /**
+     * Returns the signum of the amount.
+     * @return -1, 0 or 1 as the amount is negative, zero or positive
+     */
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    /**
+     * Returns whether the amount is lower than an amount of the same scale.
+     * @return {@code true} if lower
+     */
+    public boolean isLessThan(Money other) {
+        return minorUnits < requireSameScale(other).minorUnits;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, requireSameScale(other).minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || other instanceof Money money && minorUnits == money.minorUnits && scale == money.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private Money requireSameScale(Money other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("Cannot combine amounts of scale " + scale + " and " + other.scale);
+        }
+        return other;
+    }
+}
@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -15,12 +17,20 @@ import java.time.LocalDateTime;
  * Represents a financial transaction in the banking system.
  * This class stores the details of a transaction, such as the type of transaction,
  * the amount involved, the accounts related to the transaction, and the transaction date.
+ * The compound indexes back the history and search queries: each starts with an equality field and ends
+ * with {@code date} and {@code _id} descending, so filtered results come back newest first without a sort stage.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Document(collection = "banking")
+@CompoundIndexes({
+    @CompoundIndex(name = "origin_date", def = "{ 'originAccount': 1, 'date': -1, '_id': -1 }"),
+    @CompoundIndex(name = "destination_date", def = "{ 'destinationAccount': 1, 'date': -1, '_id': -1 }"),
+    @CompoundIndex(name = "type_date", def = "{ 'type': 1, 'date': -1, '_id': -1 }"),
+    @CompoundIndex(name = "date", def = "{ 'date': -1, '_id': -1 }")
+})
 public class Transaction{
 
     @Id
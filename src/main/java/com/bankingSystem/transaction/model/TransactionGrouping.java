@@ -0,0 +1,11 @@
+package com.bankingSystem.transaction.model;
+
+/**
+ * Enum representing how transactions are grouped when computing totals.
+ * Transactions can be grouped by type, by origin account or by calendar day of their date.
+ */
+public enum TransactionGrouping {
+    TYPE,
+    ACCOUNT,
+    DAY
+}
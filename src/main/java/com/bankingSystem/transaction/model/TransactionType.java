@@ -4,9 +4,36 @@ package com.bankingSystem.transaction.model;
  * Enum representing the different types of transactions in the banking system.
  * This enum defines the possible transaction types:
  * saving (deposit), withdrawal, and transfer.
+ * Each type has a stable numeric code, used instead of its name by the compact storage format.
  */
 public enum TransactionType {
-    SAVING,
-    WITHDRAWAL,
-    TRANSFER
+    SAVING(1),
+    WITHDRAWAL(2),
+    TRANSFER(3);
+
+    private final int code;
+
+    TransactionType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the numeric code of the type.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the type with the given numeric code.
+     * @throws IllegalArgumentException if no type has the code
+     */
+    public static TransactionType fromCode(int code) {
+        for (TransactionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type code: " + code);
+    }
 }
@@ -0,0 +1,25 @@
+package com.bankingSystem.transaction.model.dto;
+
+import lombok.Value;
+
+/**
+ * Immutable view of the static attributes of a bank account.
+ * Unlike {@link BankAccountDTO} it carries no balance, so it can be safely cached
+ * and shared between requests.
+ */
+@Value
+public class AccountSnapshot {
+
+    Integer id;
+    String accountNumber;
+    String accountType;
+    Integer customerId;
+
+    /**
+     * Builds a snapshot from the static fields of the given account.
+     * @return the {@link AccountSnapshot} of the account
+     */
+    public static AccountSnapshot from(BankAccountDTO account) {
+        return new AccountSnapshot(account.getId(), account.getAccountNumber(), account.getAccountType(), account.getCustomerId());
+    }
+}
@@ -0,0 +1,39 @@
+package com.bankingSystem.transaction.model.dto;
+
+import com.bankingSystem.transaction.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing the outcome of one item of a batch.
+ * The {@code index} is the zero-based line of the item in the batch, since results are returned in the order
+ * the items complete. A successful item carries its {@link Transaction}, a failed one the error message.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+
+    private long index;
+    private boolean success;
+    private Transaction transaction;
+    private String error;
+
+    /**
+     * Creates the result of a processed item.
+     * @return the {@link BatchItemResult}
+     */
+    public static BatchItemResult success(long index, Transaction transaction) {
+        return new BatchItemResult(index, true, transaction, null);
+    }
+
+    /**
+     * Creates the result of an item that could not be processed.
+     * @return the {@link BatchItemResult}
+     */
+    public static BatchItemResult failure(long index, Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return new BatchItemResult(index, false, null, message);
+    }
+}
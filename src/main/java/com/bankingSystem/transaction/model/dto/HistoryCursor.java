@@ -0,0 +1,57 @@
+package com.bankingSystem.transaction.model.dto;
+
+import com.bankingSystem.transaction.model.Transaction;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the transaction history, ordered by date and id, from which the next page starts.
+ * It is exchanged with clients as an opaque URL-safe token.
+ */
+@Value
+public class HistoryCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime date;
+    String id;
+
+    /**
+     * Creates the cursor pointing right after the given transaction.
+     * @return the {@link HistoryCursor} of the transaction
+     */
+    public static HistoryCursor after(Transaction transaction) {
+        return new HistoryCursor(transaction.getDate(), transaction.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque token.
+     * @return the URL-safe token
+     */
+    public String encode() {
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @return the decoded {@link HistoryCursor}
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static HistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.bankingSystem.transaction.model.dto;
+
+import com.bankingSystem.transaction.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of the transaction history.
+ * The {@code nextCursor} is passed back to fetch the following page and is {@code null} on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+
+    private List<Transaction> items;
+    private String nextCursor;
+}
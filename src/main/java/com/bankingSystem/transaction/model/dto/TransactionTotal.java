@@ -0,0 +1,22 @@
+package com.bankingSystem.transaction.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) representing one row of a transaction aggregation.
+ * The {@code key} is the value the transactions are grouped by: a transaction type, an account number
+ * or a day in {@code yyyy-MM-dd} format.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionTotal {
+
+    private String key;
+    private long count;
+    private BigDecimal total;
+}
@@ -0,0 +1,25 @@
+package com.bankingSystem.transaction.model.operation;
+
+import com.bankingSystem.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deposit of an amount into an account.
+ * @param accountId the account credited
+ * @param amount the amount deposited
+ */
+public record DepositOperation(Integer accountId, BigDecimal amount) implements TransactionOperation {
+
+    @Override
+    public TransactionType type() {
+        return TransactionType.SAVING;
+    }
+
+    @Override
+    public List<Integer> accountIds() {
+        return Collections.singletonList(accountId);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bankingSystem.transaction.model.operation;
+
+import com.bankingSystem.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Typed description of one balance operation to process: a {@link DepositOperation}, a {@link WithdrawalOperation}
+ * or a {@link TransferOperation}. Each operation carries exactly the parameters its type needs, and its
+ * {@link #type()} selects the processor that handles it.
+ */
+public sealed interface TransactionOperation permits DepositOperation, WithdrawalOperation, TransferOperation {
+
+    /**
+     * Returns the type of the operation.
+     * @return the {@link TransactionType}
+     */
+    TransactionType type();
+
+    /**
+     * Returns the amount moved by the operation.
+     * @return the amount
+     */
+    BigDecimal amount();
+
+    /**
+     * Returns the accounts whose balance the operation changes, the debited one first.
+     * @return the account IDs
+     */
+    List<Integer> accountIds();
+}
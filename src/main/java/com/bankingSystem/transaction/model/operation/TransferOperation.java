@@ -0,0 +1,27 @@
+package com.bankingSystem.transaction.model.operation;
+
+import com.bankingSystem.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transfer of an amount between two accounts.
+ * @param sourceAccountId the account debited
+ * @param destinationAccountId the account credited
+ * @param amount the amount transferred
+ */
+public record TransferOperation(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount)
+        implements TransactionOperation {
+
+    @Override
+    public TransactionType type() {
+        return TransactionType.TRANSFER;
+    }
+
+    @Override
+    public List<Integer> accountIds() {
+        return Arrays.asList(sourceAccountId, destinationAccountId);
+    }
+}
@@ -0,0 +1,25 @@
+package com.bankingSystem.transaction.model.operation;
+
+import com.bankingSystem.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Withdrawal of an amount from an account.
+ * @param accountId the account debited
+ * @param amount the amount withdrawn
+ */
+public record WithdrawalOperation(Integer accountId, BigDecimal amount) implements TransactionOperation {
+
+    @Override
+    public TransactionType type() {
+        return TransactionType.WITHDRAWAL;
+    }
+
+    @Override
+    public List<Integer> accountIds() {
+        return Collections.singletonList(accountId);
+    }
+}
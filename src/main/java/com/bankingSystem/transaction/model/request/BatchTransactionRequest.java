@@ -0,0 +1,75 @@
+package com.bankingSystem.transaction.model.request;
+
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Request object representing one line of a batch of transactions.
+ * The {@code type} selects the operation: a deposit ({@code SAVING}) or a withdrawal ({@code WITHDRAWAL}) uses
+ * {@code accountId}, and a transfer ({@code TRANSFER}) uses {@code sourceAccountId} and {@code destinationAccountId}.
+ * The optional {@code idempotencyKey} makes a resubmitted batch skip the items that were already processed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransactionRequest {
+
+    private TransactionType type;
+
+    private Integer accountId;
+
+    private Integer sourceAccountId;
+
+    private Integer destinationAccountId;
+
+    private BigDecimal amount;
+
+    private String idempotencyKey;
+
+    /**
+     * Checks that the accounts required by the type of the item are present and that the amount is positive,
+     * as the bean validation of the single-operation requests does.
+     * @throws IllegalArgumentException if the type, one of its accounts or the amount is missing or invalid
+     */
+    public void validate() {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        if (type == TransactionType.TRANSFER && (sourceAccountId == null || destinationAccountId == null)) {
+            throw new IllegalArgumentException("Source and destination account IDs cannot be null");
+        }
+        if (type != TransactionType.TRANSFER && accountId == null) {
+            throw new IllegalArgumentException("Account ID cannot be null");
+        }
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    /**
+     * Validates the item and converts it to the operation of its type.
+     * @return the {@link TransactionOperation}
+     * @throws IllegalArgumentException if the type, one of its accounts or the amount is missing or invalid
+     */
+    public TransactionOperation toOperation() {
+        validate();
+        return switch (type) {
+            case SAVING -> new DepositOperation(accountId, amount);
+            case WITHDRAWAL -> new WithdrawalOperation(accountId, amount);
+            case TRANSFER -> new TransferOperation(sourceAccountId, destinationAccountId, amount);
+        };
+    }
+}
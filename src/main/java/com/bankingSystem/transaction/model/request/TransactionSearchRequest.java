@@ -0,0 +1,58 @@
+package com.bankingSystem.transaction.model.request;
+
+import com.bankingSystem.transaction.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Request object holding the filters of a transaction search.
+ * Every filter is optional, but at least one of the indexed filters (an account, the type or a date bound)
+ * must be given. Date bounds are inclusive and expressed in ISO-8601, e.g. {@code 2024-01-31T23:59:59}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionSearchRequest {
+
+    /**
+     * Account number matched against either the origin or the destination account.
+     */
+    private String account;
+
+    private String originAccount;
+
+    private String destinationAccount;
+
+    private TransactionType type;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    /**
+     * Maximum number of transactions returned; defaults to the history page size.
+     */
+    private Integer size;
+
+    /**
+     * Tells whether the request contains a filter that one of the transaction indexes can serve.
+     * @return {@code true} if an account, the type or a date bound is given
+     */
+    public boolean hasIndexedFilter() {
+        return account != null || originAccount != null || destinationAccount != null
+                || type != null || from != null || to != null;
+    }
+}
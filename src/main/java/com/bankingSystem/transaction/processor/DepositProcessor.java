@@ -1,8 +1,12 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.model.Money;
 import com.bankingSystem.transaction.model.Transaction;
 import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
 import reactor.core.publisher.Mono;
@@ -14,34 +18,51 @@ import java.math.BigDecimal;
  * This class processes deposit transactions by validating the amount, fetching the account details,
  * adjusting the account balance, and creating a transaction record.
  */
-public class DepositProcessor extends TransactionProcessor {
+public class DepositProcessor extends TransactionProcessor implements OperationProcessor<DepositOperation> {
 
     /**
      * Constructs a {@link DepositProcessor} with the necessary dependencies.
      * @param transactionRepository the repository for transaction persistence.
      * @param transactionUtil the utility class for transaction-related operations.
      * @param accountServiceClient the client to interact with the account service.
+     * @param transactionWriteBehind the stage that stores transaction records, in batches when enabled.
+     * @param recentTransactionsCache the in-memory recent transactions of active accounts.
      */
     public DepositProcessor(TransactionRepository transactionRepository,
                             TransactionUtil transactionUtil,
-                            AccountServiceClient accountServiceClient) {
-        super(transactionUtil, accountServiceClient, transactionRepository);
+                            AccountServiceClient accountServiceClient,
+                            TransactionWriteBehind transactionWriteBehind,
+                            RecentTransactionsCache recentTransactionsCache) {
+        super(transactionUtil, accountServiceClient, transactionRepository, transactionWriteBehind, recentTransactionsCache);
     }
 
     /**
      * Processes the deposit transaction.
-     * Validates the deposit amount, retrieves the account information, updates the account balance,
-     * and creates a new transaction record.
+     * Retrieves the account information, updates the account balance, and creates a new transaction record.
+     * When balance deltas are enabled, the amount is added by the account service in a single call and no
+     * previous read of the account is needed. The amount has already been validated by the processing chain.
      * @return a {@link Mono} containing the created transaction once the process is complete.
      */
     @Override
-    public Mono<Transaction> processTransaction(Integer accountId, BigDecimal amount) {
-        return transactionUtil.validateAmount(amount)
-                .then(accountServiceClient.fetchBankAccountById(accountId))
+    public Mono<Transaction> process(DepositOperation operation) {
+        return accountServiceClient.isBalanceDeltaEnabled()
+                ? depositByDelta(operation.accountId(), operation.amount())
+                : depositByAbsoluteBalance(operation.accountId(), operation.amount());
+    }
+
+    private Mono<Transaction> depositByAbsoluteBalance(Integer accountId, BigDecimal amount) {
+        return accountServiceClient.fetchBankAccountById(accountId)
                 .flatMap(account -> {
-                    BigDecimal newBalance = account.getBalance().add(amount);
+                    Money balance = balanceOf(account);
+                    BigDecimal newBalance = balance.plus(Money.of(amount, balance.scale())).toBigDecimal();
                     return accountServiceClient.adjustBankAccountBalance(accountId, newBalance)
                             .then(createTransaction(accountId, newBalance, amount, TransactionType.SAVING, account.getAccountNumber(), null));
                 });
     }
+
+    private Mono<Transaction> depositByDelta(Integer accountId, BigDecimal amount) {
+        return accountServiceClient.applyBalanceDelta(accountId, amount, null)
+                .flatMap(account -> createTransaction(accountId, account.getBalance(), amount, TransactionType.SAVING,
+                        account.getAccountNumber(), null));
+    }
 }
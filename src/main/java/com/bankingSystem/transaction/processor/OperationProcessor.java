@@ -0,0 +1,21 @@
+package com.bankingSystem.transaction.processor;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import reactor.core.publisher.Mono;
+
+/**
+ * Processor of one type of {@link TransactionOperation}.
+ * Implementations are stateless and shared by every request; they are looked up by the type of the operation
+ * in the {@link com.bankingSystem.transaction.factory.TransactionProcessorRegistry}, which also applies the
+ * cross-cutting steps (validation, limits, metrics, logging), so a processor only implements its own logic.
+ * @param <O> the type of operation processed
+ */
+public interface OperationProcessor<O extends TransactionOperation> {
+
+    /**
+     * Processes the operation.
+     * @return a {@link Mono} containing the saved transaction, or an error if any step fails
+     */
+    Mono<Transaction> process(O operation);
+}
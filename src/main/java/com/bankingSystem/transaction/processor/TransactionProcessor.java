@@ -1,8 +1,14 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.UnsupportedBalanceException;
+import com.bankingSystem.transaction.logging.StructuredLog;
+import com.bankingSystem.transaction.model.Money;
 import com.bankingSystem.transaction.model.Transaction;
 import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
 import lombok.AllArgsConstructor;
@@ -17,8 +23,8 @@ import java.time.LocalDateTime;
 /**
  * Abstract class responsible for processing different types of transactions.
  * This class provides common functionality for processing transactions, such as creating and saving
- * transaction records. Specific transaction types (e.g., deposit, withdrawal, transfer) should
- * implement the {@link #processTransaction(Integer, BigDecimal)} method with the respective logic.
+ * transaction records. Specific transaction types (e.g., deposit, withdrawal, transfer) implement
+ * {@link OperationProcessor} for their typed operation with the respective logic.
  */
 @Component
 @AllArgsConstructor
@@ -28,12 +34,21 @@ public abstract class TransactionProcessor {
     protected final TransactionUtil transactionUtil;
     protected final AccountServiceClient accountServiceClient;
     protected final TransactionRepository transactionRepository;
+    protected final TransactionWriteBehind transactionWriteBehind;
+    protected final RecentTransactionsCache recentTransactionsCache;
 
     /**
-     * Abstract method to process a specific type of transaction.
-     * @return The processed transaction.
+     * Converts the balance of an account read from the account service, keeping all of its decimal places.
+     * @return the balance as {@link Money}
+     * @throws UnsupportedBalanceException if the balance cannot be represented exactly
      */
-    public abstract Mono<Transaction> processTransaction(Integer accountId, BigDecimal amount);
+    protected static Money balanceOf(BankAccountDTO account) {
+        try {
+            return Money.ofBalance(account.getBalance());
+        } catch (ArithmeticException e) {
+            throw new UnsupportedBalanceException("Balance of account " + account.getId() + " cannot be processed: " + e.getMessage(), e);
+        }
+    }
 
     /**
      * Creates a transaction object and saves it to the repository.
@@ -45,16 +60,37 @@ public abstract class TransactionProcessor {
     }
 
     /**
-     * Saves the transaction to the repository.
+     * Saves the transaction to the repository through the {@link TransactionWriteBehind} stage, which groups
+     * concurrent saves into bulk inserts when enabled, and appends it to the recent transactions of its accounts.
+     * The outcome is logged as a structured event with the transaction id, type, accounts and elapsed time.
      * @return The saved transaction.
      */
 
     public Mono<Transaction> saveTransaction(Transaction transaction) {
-        return transactionRepository.save(transaction)
-                .doOnSubscribe(subscription -> System.out.println("Starting to save transaction"))
-                .doOnNext(savedTransaction -> System.out.println("Transaction saved: " + savedTransaction))
-                .doOnError(e -> System.err.println("Error saving transaction: " + e.getMessage()))
-                .doOnTerminate(() -> System.out.println("Save transaction completed"))
-                .doOnSuccess(savedTransaction -> logger.info("{} transaction saved successfully: {}", transaction.getType(), savedTransaction));
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return transactionWriteBehind.save(transaction)
+                    .doOnNext(recentTransactionsCache::record)
+                    .doOnNext(savedTransaction -> StructuredLog.success(logger, "save", start)
+                            .addKeyValue("transactionId", savedTransaction.getId())
+                            .addKeyValue("type", savedTransaction.getType())
+                            .addKeyValue("originAccount", savedTransaction.getOriginAccount())
+                            .addKeyValue("destinationAccount", savedTransaction.getDestinationAccount())
+                            .log("Transaction saved"))
+                    .doOnError(e -> StructuredLog.failure(logger, "save", start, e)
+                            .addKeyValue("type", transaction.getType())
+                            .addKeyValue("originAccount", transaction.getOriginAccount())
+                            .log("Error saving transaction"));
+        });
+    }
+
+    /**
+     * Deletes a saved transaction, e.g. when the operation it records is reversed, and removes it from the
+     * recent transactions of its accounts.
+     * @return A {@link Mono} completing once the transaction is deleted.
+     */
+    public Mono<Void> deleteTransaction(Transaction transaction) {
+        return transactionWriteBehind.delete(transaction)
+                .doOnSuccess(ignored -> recentTransactionsCache.remove(transaction));
     }
 }
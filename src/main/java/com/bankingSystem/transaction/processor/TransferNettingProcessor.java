@@ -0,0 +1,272 @@
+package com.bankingSystem.transaction.processor;
+
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.request.TransferRequest;
+import com.bankingSystem.transaction.processor.interceptor.OperationHandler;
+import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
+import com.bankingSystem.transaction.service.AccountServiceClient;
+import com.bankingSystem.transaction.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Processor settling a window of transfers with one balance write per account instead of two per transfer.
+ * Each transfer first runs through the same validation and limit checks as a single transfer. Every account
+ * of the window is then read once, each transfer is checked against the running balance projected
+ * from the transfers accepted before it, and the accepted transfers are reduced to one net delta per account.
+ * Debited accounts are written first, then the credited accounts and one {@link Transaction} record per accepted
+ * transfer are written concurrently. If any write fails, the completed writes are reversed and every accepted
+ * transfer of the window fails with that error; rejected transfers fail on their own.
+ */
+public class TransferNettingProcessor extends TransactionProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferNettingProcessor.class);
+
+    private final OperationHandler checks;
+
+    /**
+     * Constructor for the TransferNettingProcessor.
+     * @param checks the chain checking a transfer before it is projected, completing empty if it is accepted
+     */
+    public TransferNettingProcessor(TransactionRepository transactionRepository,
+                                    TransactionUtil transactionUtil,
+                                    AccountServiceClient accountServiceClient,
+                                    TransactionWriteBehind transactionWriteBehind,
+                                    RecentTransactionsCache recentTransactionsCache,
+                                    OperationHandler checks) {
+        super(transactionUtil, accountServiceClient, transactionRepository, transactionWriteBehind, recentTransactionsCache);
+        this.checks = checks;
+    }
+
+    /**
+     * Settles a window of transfers, each paired with its index in the batch.
+     * @return A {@link Mono} containing one {@link BatchItemResult} per transfer, accepted transfers first.
+     */
+    public Mono<List<BatchItemResult>> settle(List<Tuple2<Long, TransferRequest>> transfers) {
+        return check(transfers)
+                .flatMap(rejections -> fetchAccounts(accountsOf(transfers.stream()
+                                .filter(transfer -> !rejections.containsKey(transfer.getT1())).toList()))
+                        .map(accounts -> project(transfers, rejections, accounts)))
+                .flatMap(projection -> {
+                    List<BatchItemResult> results = new ArrayList<>();
+                    return apply(projection)
+                            .doOnNext(saved -> addSuccesses(results, projection.accepted(), saved))
+                            .onErrorResume(error -> {
+                                projection.accepted().forEach(transfer -> results.add(BatchItemResult.failure(transfer.getT1(), error)));
+                                return Mono.empty();
+                            })
+                            .then(Mono.fromSupplier(() -> {
+                                results.addAll(projection.rejected());
+                                return results;
+                            }));
+                });
+    }
+
+    /**
+     * Returns the accounts involved in the transfers, in order of appearance.
+     * @return the account IDs
+     */
+    public static Set<Integer> accountsOf(List<Tuple2<Long, TransferRequest>> transfers) {
+        Set<Integer> accountIds = new LinkedHashSet<>();
+        transfers.forEach(transfer -> Stream.of(transfer.getT2().getSourceAccountId(), transfer.getT2().getDestinationAccountId())
+                .filter(Objects::nonNull)
+                .forEach(accountIds::add));
+        return accountIds;
+    }
+
+    /**
+     * Runs every transfer through the checks, in order.
+     * @return A {@link Mono} containing the error of each rejected transfer, by index.
+     */
+    private Mono<Map<Long, Throwable>> check(List<Tuple2<Long, TransferRequest>> transfers) {
+        return Flux.fromIterable(transfers)
+                .concatMap(transfer -> Mono.defer(() -> checks.handle(operationOf(transfer.getT2())))
+                        .then(Mono.<Map.Entry<Long, Throwable>>empty())
+                        .onErrorResume(error -> Mono.just(Map.entry(transfer.getT1(), error))))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Converts the request, rejecting the fields the checks of an operation take for granted.
+     */
+    private static TransferOperation operationOf(TransferRequest transfer) {
+        if (transfer.getSourceAccountId() == null || transfer.getDestinationAccountId() == null) {
+            throw new IllegalArgumentException("Source and destination account IDs cannot be null");
+        }
+        if (transfer.getAmount() == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        if (transfer.getSourceAccountId().equals(transfer.getDestinationAccountId())) {
+            throw new IllegalArgumentException("Source and destination accounts must be different");
+        }
+        return new TransferOperation(transfer.getSourceAccountId(), transfer.getDestinationAccountId(), transfer.getAmount());
+    }
+
+    /**
+     * Reads every account once; an account that cannot be read is kept with its error so that only the
+     * transfers involving it are rejected.
+     */
+    private Mono<Map<Integer, AccountRead>> fetchAccounts(Set<Integer> accountIds) {
+        return Flux.fromIterable(accountIds)
+                .flatMap(accountId -> accountServiceClient.fetchBankAccountById(accountId)
+                        .map(account -> new AccountRead(account, null))
+                        .defaultIfEmpty(new AccountRead(null, new AccountNotFoundException("Account with ID " + accountId + " not found.")))
+                        .onErrorResume(error -> Mono.just(new AccountRead(null, error instanceof RuntimeException runtime
+                                ? runtime : new IllegalStateException(error))))
+                        .map(read -> Map.entry(accountId, read)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Checks the transfers that passed the checks in order against the running balances and computes the net
+     * delta of every account.
+     */
+    private Projection project(List<Tuple2<Long, TransferRequest>> transfers, Map<Long, Throwable> rejections,
+                               Map<Integer, AccountRead> accounts) {
+        Projection projection = new Projection(new LinkedHashMap<>(), new ArrayList<>(), new ArrayList<>(), accounts);
+        for (Tuple2<Long, TransferRequest> transfer : transfers) {
+            Throwable rejection = rejections.containsKey(transfer.getT1())
+                    ? rejections.get(transfer.getT1()) : projection.check(transfer.getT2());
+            if (rejection != null) {
+                projection.rejected().add(BatchItemResult.failure(transfer.getT1(), rejection));
+            } else {
+                projection.accept(transfer);
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Writes the net deltas and the transaction records, reversing the completed writes on failure.
+     * @return A {@link Mono} containing the saved transactions, in the order of the accepted transfers.
+     */
+    private Mono<List<Transaction>> apply(Projection projection) {
+        Queue<Mono<Void>> reversals = new ConcurrentLinkedQueue<>();
+        List<Map.Entry<Integer, BigDecimal>> deltas = new ArrayList<>(projection.deltas().entrySet());
+        deltas.removeIf(delta -> delta.getValue().signum() == 0);
+        return Mono.whenDelayError(deltas.stream().filter(delta -> delta.getValue().signum() < 0)
+                        .map(delta -> write(projection, delta, reversals)).toList())
+                .then(Mono.defer(() -> Mono.zipDelayError(
+                        Mono.whenDelayError(deltas.stream().filter(delta -> delta.getValue().signum() > 0)
+                                .map(delta -> write(projection, delta, reversals)).toList()).thenReturn(Boolean.TRUE),
+                        saveRecords(projection, reversals))))
+                .map(Tuple2::getT2)
+                .onErrorResume(error -> reverse(error, reversals));
+    }
+
+    private Mono<Void> write(Projection projection, Map.Entry<Integer, BigDecimal> delta, Queue<Mono<Void>> reversals) {
+        Integer accountId = delta.getKey();
+        BigDecimal amount = delta.getValue();
+        if (accountServiceClient.isBalanceDeltaEnabled()) {
+            return accountServiceClient.applyBalanceDelta(accountId, amount, amount.signum() < 0 ? BigDecimal.ZERO : null)
+                    .doOnSuccess(ignored -> reversals.add(Mono.defer(() -> accountServiceClient.applyBalanceDelta(accountId, amount.negate(), null).then())))
+                    .then();
+        }
+        BigDecimal balance = projection.account(accountId).getBalance();
+        return accountServiceClient.adjustBankAccountBalance(accountId, balance.add(amount))
+                .doOnSuccess(ignored -> reversals.add(Mono.defer(() -> accountServiceClient.adjustBankAccountBalance(accountId, balance))));
+    }
+
+    private Mono<List<Transaction>> saveRecords(Projection projection, Queue<Mono<Void>> reversals) {
+        return Flux.fromIterable(projection.accepted())
+                .flatMapSequentialDelayError(transfer -> saveTransaction(new Transaction(null, TransactionType.TRANSFER,
+                                transfer.getT2().getAmount(), LocalDateTime.now(),
+                                projection.account(transfer.getT2().getSourceAccountId()).getAccountNumber(),
+                                projection.account(transfer.getT2().getDestinationAccountId()).getAccountNumber()))
+                        .doOnNext(saved -> reversals.add(deleteTransaction(saved))), 256, 1)
+                .collectList();
+    }
+
+    private Mono<List<Transaction>> reverse(Throwable error, Queue<Mono<Void>> reversals) {
+        return Mono.whenDelayError(List.copyOf(reversals))
+                .onErrorResume(reversalError -> {
+                    logger.atError()
+                            .addKeyValue("stage", "netting-compensation")
+                            .addKeyValue("error", reversalError.getMessage())
+                            .log("Error reversing failed settlement");
+                    error.addSuppressed(reversalError);
+                    return Mono.empty();
+                })
+                .then(Mono.error(error));
+    }
+
+    private static void addSuccesses(List<BatchItemResult> results, List<Tuple2<Long, TransferRequest>> accepted,
+                                     List<Transaction> saved) {
+        for (int i = 0; i < accepted.size(); i++) {
+            results.add(BatchItemResult.success(accepted.get(i).getT1(), saved.get(i)));
+        }
+    }
+
+    /**
+     * Running state of a settlement.
+     * @param deltas the projected balance change of every account
+     * @param accepted the accepted transfers, in order
+     * @param rejected the results of the rejected transfers
+     * @param accounts the accounts read
+     */
+    private record Projection(Map<Integer, BigDecimal> deltas, List<Tuple2<Long, TransferRequest>> accepted,
+                              List<BatchItemResult> rejected, Map<Integer, AccountRead> accounts) {
+
+        private RuntimeException check(TransferRequest transfer) {
+            RuntimeException unreadable = readError(transfer);
+            if (unreadable != null) {
+                return unreadable;
+            }
+            BigDecimal projected = account(transfer.getSourceAccountId()).getBalance()
+                    .add(deltas.getOrDefault(transfer.getSourceAccountId(), BigDecimal.ZERO));
+            return projected.compareTo(transfer.getAmount()) < 0
+                    ? new InsufficientBalanceException("Insufficient balance in source account") : null;
+        }
+
+        private RuntimeException readError(TransferRequest transfer) {
+            return Stream.of(transfer.getSourceAccountId(), transfer.getDestinationAccountId())
+                    .map(accountId -> accounts.get(accountId).error())
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        private void accept(Tuple2<Long, TransferRequest> transfer) {
+            TransferRequest request = transfer.getT2();
+            deltas.merge(request.getSourceAccountId(), request.getAmount().negate(), BigDecimal::add);
+            deltas.merge(request.getDestinationAccountId(), request.getAmount(), BigDecimal::add);
+            accepted.add(transfer);
+        }
+
+        private BankAccountDTO account(Integer accountId) {
+            return accounts.get(accountId).account();
+        }
+    }
+
+    /**
+     * Outcome of reading one account.
+     * @param account the account, or {@code null} if it could not be read
+     * @param error the error that prevented reading it, or {@code null}
+     */
+    private record AccountRead(BankAccountDTO account, RuntimeException error) {
+    }
+}
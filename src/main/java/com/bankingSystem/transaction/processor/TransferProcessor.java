@@ -1,75 +1,108 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.AccountServiceUnavailableException;
 import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
 import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.Money;
 import com.bankingSystem.transaction.model.Transaction;
 import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Processor responsible for handling and processing transfer transactions.
  * This class provides the logic for transferring funds between two accounts. It validates the transfer amount,
  * checks the source account balance, calculates the new balances for both the source and destination accounts,
- * updates the balances, and creates a transaction record in the repository.
+ * updates the balances, and creates a transaction record in the repository. Independent steps run concurrently,
+ * and a failure after the source account has been debited reverses the debit.
+ * A credit that fails because the account service timed out or could not be reached may still have been applied.
+ * With absolute balances, the destination is then restored to the balance it had before the transfer, which is
+ * correct either way; a balance delta cannot be reversed safely without knowing the outcome, so the account is
+ * logged for reconciliation instead.
  */
-public class TransferProcessor extends TransactionProcessor {
+public class TransferProcessor extends TransactionProcessor implements OperationProcessor<TransferOperation> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferProcessor.class);
 
     /**
      * Constructor for the TransferProcessor.
      */
     public TransferProcessor(TransactionRepository transactionRepository,
                              TransactionUtil transactionUtil,
-                             AccountServiceClient accountServiceClient) {
-        super(transactionUtil, accountServiceClient, transactionRepository);
+                             AccountServiceClient accountServiceClient,
+                             TransactionWriteBehind transactionWriteBehind,
+                             RecentTransactionsCache recentTransactionsCache) {
+        super(transactionUtil, accountServiceClient, transactionRepository, transactionWriteBehind, recentTransactionsCache);
     }
 
     /**
-     * This method is a placeholder and is not used directly in the TransferProcessor.
-     * It is designed to throw an exception if called, indicating that transfers should be processed using {@link #processTransfer(Integer, Integer, BigDecimal)}.
-     * @return A {@link Mono} that throws an {@link UnsupportedOperationException}.
+     * Processes a transfer between two accounts.
+     * This method retrieves the account details for both the source and destination accounts concurrently, verifies
+     * if the source account has sufficient funds, calculates the new balances for both accounts, and then updates the
+     * balances. Once the source has been debited, the destination credit and the transaction record are written
+     * concurrently. The amount has already been validated by the processing chain.
+     * When balance deltas are enabled, see {@link #transferByDelta(Integer, Integer, BigDecimal)}.
+     * @return A {@link Mono} containing the saved transaction, or an error if any step fails.
      */
     @Override
-    public Mono<Transaction> processTransaction(Integer accountId, BigDecimal amount) {
-    // This method is just a placeholder and is not used directly in Transfer
-        return Mono.error(new UnsupportedOperationException("Use processTransfer for transfers"));
+    public Mono<Transaction> process(TransferOperation operation) {
+        Integer sourceAccountId = operation.sourceAccountId();
+        Integer destinationAccountId = operation.destinationAccountId();
+        if (accountServiceClient.isBalanceDeltaEnabled()) {
+            return transferByDelta(sourceAccountId, destinationAccountId, operation.amount());
+        }
+        return Mono.zip(getAccountDetails(sourceAccountId), getAccountDetails(destinationAccountId))
+                .flatMap(accounts -> transferByAbsoluteBalance(sourceAccountId, destinationAccountId, accounts, operation.amount()));
     }
 
-    /**
-     * Specific method to process a transfer between two accounts.
-     * This method validates the transfer amount, retrieves the account details for both the source and destination
-     * accounts, verifies if the source account has sufficient funds, calculates the new balances for both accounts,
-     * and then updates the balances. Finally, a transaction record is created and saved.
-     * @return A {@link Mono} containing the saved transaction, or an error if any step fails.
-     */
-    public Mono<Transaction> processTransfer(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount) {
-        return validateTransferAmount(amount)
-                .then(getAccountDetails(sourceAccountId))
-                .flatMap(sourceAccount ->
-                        getAccountDetails(destinationAccountId)
-                                .flatMap(destinationAccount ->
-                                        verifySufficientBalance(sourceAccount, amount)
-                                                .then(Mono.defer(() -> {
-                                                    BigDecimal newSourceBalance = calculateNewBalance(sourceAccount.getBalance(), amount, false);
-                                                    BigDecimal newDestinationBalance = calculateNewBalance(destinationAccount.getBalance(), amount, true);
-                                                    return updateBalancesAndProcessTransfer(sourceAccountId, destinationAccountId,
-                                                            newSourceBalance, newDestinationBalance, amount, sourceAccount.getAccountNumber(), destinationAccount.getAccountNumber());
-                                                }))
-                                )
-                );
+    private Mono<Transaction> transferByAbsoluteBalance(Integer sourceAccountId, Integer destinationAccountId,
+                                                        Tuple2<BankAccountDTO, BankAccountDTO> accounts, BigDecimal amount) {
+        BankAccountDTO sourceAccount = accounts.getT1();
+        BankAccountDTO destinationAccount = accounts.getT2();
+        Money sourceBalance = balanceOf(sourceAccount);
+        Money transferred = Money.of(amount, sourceBalance.scale());
+        return verifySufficientBalance(sourceBalance, transferred)
+                .then(Mono.defer(() -> {
+                    Money newSourceBalance = calculateNewBalance(sourceBalance, transferred, false);
+                    Money destinationBalance = balanceOf(destinationAccount);
+                    Money newDestinationBalance = calculateNewBalance(destinationBalance, Money.of(amount, destinationBalance.scale()), true);
+                    return updateBalancesAndProcessTransfer(sourceAccountId, destinationAccountId,
+                            newSourceBalance, newDestinationBalance, amount, sourceAccount.getAccountNumber(), destinationAccount.getAccountNumber());
+                }));
     }
 
     /**
-     * Validates the transfer amount.
-     * This method checks if the amount is valid (e.g., not null and positive).
-     * @return A {@link Mono} that completes successfully if the amount is valid, or an error if invalid.
+     * Transfers funds with two balance deltas instead of two reads and two absolute writes.
+     * The static attributes of both accounts are resolved concurrently (usually from the cache), then the source
+     * account is debited with a zero minimum-balance guard, so an insufficient balance is rejected by the account
+     * service without a previous read. The destination credit and the transaction record are then written
+     * concurrently; if either fails, the completed legs are reversed before the error is propagated.
+     * @return A {@link Mono} containing the saved transaction, or an error if any step fails.
      */
-    public Mono<Void> validateTransferAmount(BigDecimal amount) {
-        return transactionUtil.validateAmount(amount);
+    public Mono<Transaction> transferByDelta(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount) {
+        return Mono.zip(accountServiceClient.fetchAccountSnapshot(sourceAccountId),
+                        accountServiceClient.fetchAccountSnapshot(destinationAccountId))
+                .flatMap(accounts -> accountServiceClient.applyBalanceDelta(sourceAccountId, amount.negate(), BigDecimal.ZERO)
+                        .flatMap(sourceAccount -> completeTransfer(
+                                Mono.defer(() -> accountServiceClient.applyBalanceDelta(destinationAccountId, amount, null).then()),
+                                Mono.defer(() -> accountServiceClient.applyBalanceDelta(destinationAccountId, amount.negate(), null).then()),
+                                Mono.fromRunnable(() -> logUnknownCredit(destinationAccountId, amount)),
+                                Mono.defer(() -> accountServiceClient.applyBalanceDelta(sourceAccountId, amount, null).then()),
+                                Mono.defer(() -> createTransaction(sourceAccountId, sourceAccount.getBalance(), amount, TransactionType.TRANSFER,
+                                        accounts.getT1().getAccountNumber(), accounts.getT2().getAccountNumber())))));
     }
 
     /**
@@ -87,8 +120,8 @@ public class TransferProcessor extends TransactionProcessor {
      * it throws an {@link InsufficientBalanceException}.
      * @return A {@link Mono} that completes successfully if there is sufficient balance, or an error if not.
      */
-    public Mono<Void> verifySufficientBalance(BankAccountDTO sourceAccount, BigDecimal amount) {
-        if (sourceAccount.getBalance().compareTo(amount) < 0) {
+    public Mono<Void> verifySufficientBalance(Money sourceBalance, Money amount) {
+        if (sourceBalance.isLessThan(amount)) {
             return Mono.error(new InsufficientBalanceException("Insufficient balance in source account"));
         }
         return Mono.empty();
@@ -100,22 +133,84 @@ public class TransferProcessor extends TransactionProcessor {
      * operation is a deposit or a withdrawal.
      * @return The new balance of the account.
      */
-    public BigDecimal calculateNewBalance(BigDecimal currentBalance, BigDecimal amount, boolean isDeposit) {
-        return isDeposit ? currentBalance.add(amount) : currentBalance.subtract(amount);
+    public Money calculateNewBalance(Money currentBalance, Money amount, boolean isDeposit) {
+        return isDeposit ? currentBalance.plus(amount) : currentBalance.minus(amount);
     }
 
     /**
      * Updates the balances of the source and destination accounts and processes the transfer transaction.
-     * This method adjusts the balances of both accounts, saves the transaction record, and logs the outcome.
+     * This method debits the source account, then credits the destination and saves the transaction record
+     * concurrently. If a leg fails, the source account is restored to its previous balance, and so is the destination
+     * account if it was credited or if the outcome of its credit is unknown.
+     * The restore writes an absolute balance computed from the balances read before the transfer, so it overwrites
+     * any update made to that account in the meantime by another instance; when balance deltas are enabled, the
+     * completed legs are reversed with deltas instead.
+     * The balances are converted to {@link BigDecimal} only when they are sent to the account service.
      * @return A {@link Mono} containing the saved transaction, or an error if any step fails.
      */
     public Mono<Transaction> updateBalancesAndProcessTransfer(Integer sourceAccountId, Integer destinationAccountId,
-                                                               BigDecimal newSourceBalance, BigDecimal newDestinationBalance,
+                                                               Money newSourceBalance, Money newDestinationBalance,
                                                                BigDecimal amount, String originAccount, String destinationAccount) {
-        return accountServiceClient.adjustBankAccountBalance(sourceAccountId, newSourceBalance)
-                .then(accountServiceClient.adjustBankAccountBalance(destinationAccountId, newDestinationBalance))
-                .then(createTransaction(sourceAccountId, newSourceBalance, amount, TransactionType.TRANSFER, originAccount, destinationAccount))
-                .doOnSuccess(savedTransaction -> System.out.println("Transfer transaction saved successfully"))
-                .doOnError(e -> System.err.println("Error saving transfer transaction: " + e.getMessage()));
+        return Mono.defer(() -> accountServiceClient.adjustBankAccountBalance(sourceAccountId, newSourceBalance.toBigDecimal())
+                .then(completeTransfer(
+                        Mono.defer(() -> accountServiceClient.adjustBankAccountBalance(destinationAccountId, newDestinationBalance.toBigDecimal())),
+                        Mono.defer(() -> restoreBalance(destinationAccountId, newDestinationBalance, Money.of(amount, newDestinationBalance.scale()).negate())),
+                        Mono.defer(() -> restoreBalance(destinationAccountId, newDestinationBalance, Money.of(amount, newDestinationBalance.scale()).negate())),
+                        Mono.defer(() -> restoreBalance(sourceAccountId, newSourceBalance, Money.of(amount, newSourceBalance.scale()))),
+                        Mono.defer(() -> createTransaction(sourceAccountId, newSourceBalance.toBigDecimal(), amount, TransactionType.TRANSFER,
+                                originAccount, destinationAccount)))));
+    }
+
+    private Mono<Void> restoreBalance(Integer accountId, Money newBalance, Money change) {
+        if (accountServiceClient.isBalanceDeltaEnabled()) {
+            return accountServiceClient.applyBalanceDelta(accountId, change.toBigDecimal(), null).then();
+        }
+        return accountServiceClient.adjustBankAccountBalance(accountId, newBalance.plus(change).toBigDecimal());
+    }
+
+    private void logUnknownCredit(Integer accountId, BigDecimal amount) {
+        logger.atError()
+                .addKeyValue("stage", "transfer-compensation")
+                .addKeyValue("accountId", accountId)
+                .addKeyValue("amount", amount)
+                .log("Outcome of the credit is unknown, the account needs to be reconciled");
+    }
+
+    /**
+     * Runs the legs that follow the source debit, the destination credit and the transaction record, concurrently.
+     * If either leg fails, the source debit is reversed, as well as whichever of the other legs did complete,
+     * and the original error is propagated. If the credit failed without a definite answer from the account
+     * service, {@code unknownCredit} runs instead of {@code reverseCredit}. A failed reversal is logged and
+     * attached to that error.
+     */
+    private Mono<Transaction> completeTransfer(Mono<Void> credit, Mono<Void> reverseCredit, Mono<Void> unknownCredit,
+                                               Mono<Void> reverseDebit, Mono<Transaction> record) {
+        AtomicBoolean credited = new AtomicBoolean();
+        AtomicReference<Throwable> creditError = new AtomicReference<>();
+        AtomicReference<Transaction> recorded = new AtomicReference<>();
+        return Mono.zipDelayError(
+                        credit.doOnSuccess(ignored -> credited.set(true)).doOnError(creditError::set).thenReturn(Boolean.TRUE),
+                        record.doOnNext(recorded::set))
+                .map(Tuple2::getT2)
+                .onErrorResume(e -> compensate(e, reverseDebit,
+                        credited.get() ? reverseCredit : isUnknownOutcome(creditError.get()) ? unknownCredit : Mono.empty(),
+                        recorded.get() != null ? deleteTransaction(recorded.get()) : Mono.empty()));
+    }
+
+    private static boolean isUnknownOutcome(Throwable error) {
+        return error instanceof AccountServiceUnavailableException || error instanceof WebClientRequestException;
+    }
+
+    private Mono<Transaction> compensate(Throwable error, Mono<Void> reverseDebit, Mono<Void> reverseCredit, Mono<Void> deleteRecord) {
+        return Mono.whenDelayError(reverseDebit, reverseCredit, deleteRecord)
+                .onErrorResume(compensationError -> {
+                    logger.atError()
+                            .addKeyValue("stage", "transfer-compensation")
+                            .addKeyValue("error", compensationError.getMessage())
+                            .log("Error compensating failed transfer");
+                    error.addSuppressed(compensationError);
+                    return Mono.empty();
+                })
+                .then(Mono.error(error));
     }
 }
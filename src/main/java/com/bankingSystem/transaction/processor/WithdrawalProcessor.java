@@ -1,8 +1,13 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.model.Money;
 import com.bankingSystem.transaction.model.Transaction;
 import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
 import reactor.core.publisher.Mono;
@@ -15,39 +20,58 @@ import java.math.BigDecimal;
  * checks if the account has sufficient balance, calculates the new balance, updates the account balance,
  * and creates a transaction record in the repository.
  */
-public class WithdrawalProcessor extends TransactionProcessor {
+public class WithdrawalProcessor extends TransactionProcessor implements OperationProcessor<WithdrawalOperation> {
 
     /**
      * Constructor for the WithdrawalProcessor.
      * @param transactionRepository The transaction repository used to save transaction records.
      * @param transactionUtil Utility class for validating amounts and other transaction-related operations.
      * @param accountServiceClient Client for interacting with the account service to fetch and adjust bank account details.
+     * @param transactionWriteBehind The stage that stores transaction records, in batches when enabled.
+     * @param recentTransactionsCache The in-memory recent transactions of active accounts.
      */
     public WithdrawalProcessor(TransactionRepository transactionRepository,
                                TransactionUtil transactionUtil,
-                               AccountServiceClient accountServiceClient) {
-        super(transactionUtil, accountServiceClient, transactionRepository);
+                               AccountServiceClient accountServiceClient,
+                               TransactionWriteBehind transactionWriteBehind,
+                               RecentTransactionsCache recentTransactionsCache) {
+        super(transactionUtil, accountServiceClient, transactionRepository, transactionWriteBehind, recentTransactionsCache);
     }
 
     /**
      * Processes a withdrawal transaction.
-     * This method validates the withdrawal amount, retrieves the account details, checks if the account has sufficient
-     * balance to complete the withdrawal, calculates the new balance, and then updates the account balance. Finally,
-     * a transaction record is created and saved.
+     * This method retrieves the account details, checks if the account has sufficient balance to complete the
+     * withdrawal, calculates the new balance, and then updates the account balance. Finally, a transaction record
+     * is created and saved. When balance deltas are enabled, the amount is subtracted by the account service in a
+     * single call guarded by a zero minimum balance. The amount has already been validated by the processing chain.
      * @return A {@link Mono} containing the saved transaction, or an error if any step fails.
      */
     @Override
-    public Mono<Transaction> processTransaction(Integer accountId, BigDecimal amount) {
-        return transactionUtil.validateAmount(amount)
-                .then(accountServiceClient.fetchBankAccountById(accountId))
+    public Mono<Transaction> process(WithdrawalOperation operation) {
+        return accountServiceClient.isBalanceDeltaEnabled()
+                ? withdrawByDelta(operation.accountId(), operation.amount())
+                : withdrawByAbsoluteBalance(operation.accountId(), operation.amount());
+    }
+
+    private Mono<Transaction> withdrawByAbsoluteBalance(Integer accountId, BigDecimal amount) {
+        return accountServiceClient.fetchBankAccountById(accountId)
                 .flatMap(account -> {
-                    if (account.getBalance().compareTo(amount) < 0) {
+                    Money balance = balanceOf(account);
+                    Money withdrawal = Money.of(amount, balance.scale());
+                    if (balance.isLessThan(withdrawal)) {
                         return Mono.error(new IllegalArgumentException("Insufficient balance"));
                     }
 
-                    BigDecimal newBalance = account.getBalance().subtract(amount);
+                    BigDecimal newBalance = balance.minus(withdrawal).toBigDecimal();
                     return accountServiceClient.adjustBankAccountBalance(accountId, newBalance)
                             .then(createTransaction(accountId, newBalance, amount, TransactionType.WITHDRAWAL, account.getAccountNumber(), null));
                 });
     }
+
+    private Mono<Transaction> withdrawByDelta(Integer accountId, BigDecimal amount) {
+        return accountServiceClient.applyBalanceDelta(accountId, amount.negate(), BigDecimal.ZERO)
+                .onErrorMap(InsufficientBalanceException.class, e -> new IllegalArgumentException("Insufficient balance"))
+                .flatMap(account -> createTransaction(accountId, account.getBalance(), amount, TransactionType.WITHDRAWAL,
+                        account.getAccountNumber(), null));
+    }
 }
@@ -0,0 +1,40 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Interceptor shedding an operation with a {@link RejectedExecutionException} while a scheduler of the
+ * {@link IsolatedSchedulers} that would handle its results is full, or while the {@link TransactionWriteBehind}
+ * has as many writes waiting as it accepts. The operation is rejected before any balance is changed, so it is
+ * safe to retry; once admitted, its results and its transaction record are never rejected.
+ */
+@Component
+@Order(TransactionInterceptor.CAPACITY_ORDER)
+@AllArgsConstructor
+public class CapacityInterceptor implements TransactionInterceptor {
+
+    private final IsolatedSchedulers isolatedSchedulers;
+    private final TransactionWriteBehind transactionWriteBehind;
+
+    @Override
+    public Mono<Transaction> intercept(TransactionOperation operation, OperationHandler next) {
+        return Mono.defer(() -> {
+            String saturated = isolatedSchedulers.saturated();
+            if (saturated != null) {
+                return Mono.error(new RejectedExecutionException("The " + saturated + " scheduler is full"));
+            }
+            return transactionWriteBehind.isSaturated()
+                    ? Mono.error(new RejectedExecutionException("The write-behind buffer is full"))
+                    : next.handle(operation);
+        });
+    }
+}
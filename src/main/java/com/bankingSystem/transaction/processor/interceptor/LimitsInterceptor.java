@@ -0,0 +1,49 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Interceptor rejecting an operation whose amount exceeds the configured limit of its type.
+ * Types without a limit are passed through.
+ */
+@Component
+@Order(TransactionInterceptor.LIMITS_ORDER)
+public class LimitsInterceptor implements TransactionInterceptor {
+
+    private final Map<TransactionType, BigDecimal> maxAmounts = new EnumMap<>(TransactionType.class);
+
+    /**
+     * Creates the interceptor from the limits settings.
+     */
+    public LimitsInterceptor(TransactionProperties properties) {
+        TransactionProperties.Limits limits = properties.getLimits();
+        putIfSet(TransactionType.SAVING, limits.getMaxDeposit());
+        putIfSet(TransactionType.WITHDRAWAL, limits.getMaxWithdrawal());
+        putIfSet(TransactionType.TRANSFER, limits.getMaxTransfer());
+    }
+
+    @Override
+    public Mono<Transaction> intercept(TransactionOperation operation, OperationHandler next) {
+        BigDecimal maxAmount = maxAmounts.get(operation.type());
+        if (maxAmount != null && operation.amount().compareTo(maxAmount) > 0) {
+            return Mono.error(new IllegalArgumentException("The amount exceeds the limit of " + maxAmount.toPlainString() + "."));
+        }
+        return next.handle(operation);
+    }
+
+    private void putIfSet(TransactionType type, BigDecimal maxAmount) {
+        if (maxAmount != null) {
+            maxAmounts.put(type, maxAmount);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.logging.StructuredLog;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Interceptor logging the outcome of every operation as a structured event, with the type of the operation as
+ * stage, its accounts, the id of the saved transaction and the elapsed time. Successful operations are sampled.
+ */
+@Component
+@Order(TransactionInterceptor.LOGGING_ORDER)
+public class LoggingInterceptor implements TransactionInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingInterceptor.class);
+
+    private final Map<TransactionType, String> stages = new EnumMap<>(TransactionType.class);
+
+    /**
+     * Creates the interceptor with one stage name per type.
+     */
+    public LoggingInterceptor() {
+        for (TransactionType type : TransactionType.values()) {
+            stages.put(type, type.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public Mono<Transaction> intercept(TransactionOperation operation, OperationHandler next) {
+        String stage = stages.get(operation.type());
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.handle(operation)
+                    .doOnNext(savedTransaction -> StructuredLog.success(logger, stage, start)
+                            .addKeyValue("transactionId", savedTransaction.getId())
+                            .addKeyValue("accountIds", operation.accountIds())
+                            .log("Operation processed"))
+                    .doOnError(e -> StructuredLog.failure(logger, stage, start, e)
+                            .addKeyValue("accountIds", operation.accountIds())
+                            .log("Error processing operation"));
+        });
+    }
+}
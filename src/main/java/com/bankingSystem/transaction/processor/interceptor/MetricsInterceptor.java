@@ -0,0 +1,63 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interceptor counting the operations of each type that completed and failed, and the time they took.
+ * Values are recorded under {@code transaction.operations.<type>.completed}, {@code .failed} and
+ * {@code .elapsed-micros}; the counters are resolved once, so recording an operation does not look them up.
+ */
+@Component
+@Order(TransactionInterceptor.METRICS_ORDER)
+public class MetricsInterceptor implements TransactionInterceptor {
+
+    private final Map<TransactionType, Counters> counters = new EnumMap<>(TransactionType.class);
+
+    /**
+     * Creates the interceptor and registers the counters of every type.
+     */
+    public MetricsInterceptor(MetricsRegistry metricsRegistry) {
+        for (TransactionType type : TransactionType.values()) {
+            String prefix = "transaction.operations." + type.name().toLowerCase(Locale.ROOT);
+            counters.put(type, new Counters(metricsRegistry.counter(prefix + ".completed"),
+                    metricsRegistry.counter(prefix + ".failed"), metricsRegistry.counter(prefix + ".elapsed-micros")));
+        }
+    }
+
+    @Override
+    public Mono<Transaction> intercept(TransactionOperation operation, OperationHandler next) {
+        Counters typeCounters = counters.get(operation.type());
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.handle(operation)
+                    .doOnSuccess(ignored -> typeCounters.record(typeCounters.completed(), start))
+                    .doOnError(ignored -> typeCounters.record(typeCounters.failed(), start));
+        });
+    }
+
+    /**
+     * Counters of one type of operation.
+     * @param completed the operations that completed
+     * @param failed the operations that failed
+     * @param elapsedMicros the total time spent in the operations
+     */
+    private record Counters(LongAdder completed, LongAdder failed, LongAdder elapsedMicros) {
+
+        private void record(LongAdder outcome, long start) {
+            outcome.increment();
+            elapsedMicros.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+    }
+}
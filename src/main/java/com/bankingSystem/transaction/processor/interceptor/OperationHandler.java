@@ -0,0 +1,18 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import reactor.core.publisher.Mono;
+
+/**
+ * Next step of a processing chain: the following {@link TransactionInterceptor}, or the processor of the operation.
+ */
+@FunctionalInterface
+public interface OperationHandler {
+
+    /**
+     * Handles the operation.
+     * @return a {@link Mono} containing the saved transaction
+     */
+    Mono<Transaction> handle(TransactionOperation operation);
+}
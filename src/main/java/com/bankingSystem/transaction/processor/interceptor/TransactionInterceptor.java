@@ -0,0 +1,46 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cross-cutting step applied to every operation before it reaches its processor.
+ * Interceptors are Spring components ordered with {@link org.springframework.core.annotation.Order}; the
+ * {@link com.bankingSystem.transaction.factory.TransactionProcessorRegistry} wraps each processor in all of
+ * them once at startup, the lowest order outermost. An interceptor may reject the operation by returning an
+ * error instead of calling {@code next}, or observe the outcome of the rest of the chain.
+ */
+public interface TransactionInterceptor {
+
+    /**
+     * Order of the {@link ValidationInterceptor}.
+     */
+    int VALIDATION_ORDER = 100;
+
+    /**
+     * Order of the {@link LimitsInterceptor}.
+     */
+    int LIMITS_ORDER = 200;
+
+    /**
+     * Order of the {@link CapacityInterceptor}.
+     */
+    int CAPACITY_ORDER = 250;
+
+    /**
+     * Order of the {@link MetricsInterceptor}.
+     */
+    int METRICS_ORDER = 300;
+
+    /**
+     * Order of the {@link LoggingInterceptor}.
+     */
+    int LOGGING_ORDER = 400;
+
+    /**
+     * Applies the step to the operation and delegates to the rest of the chain.
+     * @return a {@link Mono} containing the saved transaction, or an error
+     */
+    Mono<Transaction> intercept(TransactionOperation operation, OperationHandler next);
+}
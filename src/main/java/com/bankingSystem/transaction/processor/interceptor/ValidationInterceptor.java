@@ -0,0 +1,27 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import com.bankingSystem.transaction.util.TransactionUtil;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interceptor rejecting an operation whose amount is not positive or has more decimal places than the currency
+ * scale, before any account is read.
+ */
+@Component
+@Order(TransactionInterceptor.VALIDATION_ORDER)
+@AllArgsConstructor
+public class ValidationInterceptor implements TransactionInterceptor {
+
+    private final TransactionUtil transactionUtil;
+
+    @Override
+    public Mono<Transaction> intercept(TransactionOperation operation, OperationHandler next) {
+        return transactionUtil.validateAmount(operation.amount())
+                .then(Mono.defer(() -> next.handle(operation)));
+    }
+}
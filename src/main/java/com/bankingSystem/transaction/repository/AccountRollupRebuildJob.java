@@ -0,0 +1,89 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.exceptionhandler.RollupRebuildConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rebuilds the per-account rollups from the stored transactions.
+ * On startup the rollups are built once if none exist yet, e.g. the first time the service runs with them;
+ * afterwards they are kept up to date incrementally. A rebuild can also be requested to repair rollups that
+ * missed an update. Transactions stored while a rebuild runs may be counted twice or not at all for their
+ * accounts, so a rebuild requires a quiesced system: the transactions are counted before and after it, and a
+ * rebuild that overlapped with writes is run again, up to {@value #REBUILD_ATTEMPTS} times, before failing with a
+ * {@link RollupRebuildConflictException}. The count cannot tell an insert from a removal made during the same
+ * rebuild, nor see writes made right after the second count, so it is a safeguard rather than a guarantee.
+ */
+@Component
+public class AccountRollupRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountRollupRebuildJob.class);
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final AccountRollupRepository accountRollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionProperties.Rollup settings;
+
+    /**
+     * Creates the rebuild job.
+     */
+    public AccountRollupRebuildJob(AccountRollupRepository accountRollupRepository,
+                                   TransactionRepository transactionRepository,
+                                   TransactionProperties properties) {
+        this.accountRollupRepository = accountRollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.settings = properties.getRollup();
+    }
+
+    /**
+     * Builds the rollups when the application has started, unless disabled or already built.
+     * A failure is logged but does not stop the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!settings.isEnabled() || !settings.isRebuildOnStartup()) {
+            return;
+        }
+        rebuildIfMissing().subscribe(
+                rebuilt -> logger.info("Rebuilt {} account rollups", rebuilt),
+                error -> logger.warn("Could not rebuild the account rollups", error));
+    }
+
+    /**
+     * Rebuilds the rollups if there are transactions but no rollups.
+     * @return a {@link Mono} emitting the number of rollups built, or empty if nothing had to be built
+     */
+    public Mono<Long> rebuildIfMissing() {
+        return Mono.zip(accountRollupRepository.count(), transactionRepository.count())
+                .filter(counts -> counts.getT1() == 0 && counts.getT2() > 0)
+                .flatMap(counts -> rebuild());
+    }
+
+    /**
+     * Recomputes every rollup from the stored transactions, running again if transactions were written meanwhile.
+     * @return a {@link Mono} emitting the number of rollups after the rebuild, or a
+     * {@link RollupRebuildConflictException} if the transactions kept changing
+     */
+    public Mono<Long> rebuild() {
+        return rebuild(REBUILD_ATTEMPTS);
+    }
+
+    private Mono<Long> rebuild(int attemptsLeft) {
+        return transactionRepository.count()
+                .flatMap(before -> accountRollupRepository.rebuild()
+                        .then(transactionRepository.count())
+                        .flatMap(after -> {
+                            if (after.equals(before)) {
+                                return accountRollupRepository.count();
+                            }
+                            logger.warn("Transactions changed from {} to {} during the rollup rebuild", before, after);
+                            return attemptsLeft > 1 ? rebuild(attemptsLeft - 1) : Mono.error(new RollupRebuildConflictException(
+                                    "Transactions kept changing during " + REBUILD_ATTEMPTS + " rebuilds; retry once writes are quiesced"));
+                        }));
+    }
+}
@@ -0,0 +1,14 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.AccountRollup;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing {@link AccountRollup} documents in MongoDB.
+ * The rollups are keyed by account number; incremental updates and rebuilds are provided by the
+ * {@link AccountRollupUpdateRepository} fragment.
+ */
+@Repository
+public interface AccountRollupRepository extends ReactiveMongoRepository<AccountRollup, String>, AccountRollupUpdateRepository {
+}
@@ -0,0 +1,31 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository fragment keeping the {@link com.bankingSystem.transaction.model.AccountRollup} documents in step
+ * with the transactions. It is mixed into {@link AccountRollupRepository}.
+ */
+public interface AccountRollupUpdateRepository {
+
+    /**
+     * Adds a stored transaction to the rollups of the accounts it involves.
+     * @return a {@link Mono} completing once the rollups are updated
+     */
+    Mono<Void> record(Transaction transaction);
+
+    /**
+     * Subtracts a removed transaction from the rollups of the accounts it involves.
+     * The last activity is left as it is.
+     * @return a {@link Mono} completing once the rollups are updated
+     */
+    Mono<Void> revert(Transaction transaction);
+
+    /**
+     * Recomputes every rollup from the stored transactions and atomically replaces the rollup collection.
+     * Rollup updates applied while the rebuild runs are lost, so the transactions must not change meanwhile.
+     * @return a {@link Mono} completing once the rollups are replaced
+     */
+    Mono<Void> rebuild();
+}
@@ -0,0 +1,159 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.AccountRollup;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.out;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Implementation of {@link AccountRollupUpdateRepository}.
+ * A transaction touches one rollup, or two for a transfer; the updates are sent as one unordered bulk write of
+ * {@code $inc} upserts, so concurrent transactions of the same account never overwrite each other's figures.
+ * A rebuild computes the rollups in a single aggregation over the transactions and writes them with {@code $out},
+ * which fills a temporary collection and renames it over the rollup collection once the aggregation is done.
+ * Readers therefore see either the old or the new rollups, never a mix, and rollups of accounts without
+ * transactions are dropped. An {@code $inc} applied to the old collection while the aggregation runs is lost
+ * with it, so a rebuild is only exact on a quiesced system; see {@link AccountRollupRebuildJob}.
+ */
+@RequiredArgsConstructor
+public class AccountRollupUpdateRepositoryImpl implements AccountRollupUpdateRepository {
+
+    private static final String TRANSACTIONS = "banking";
+    private static final String ROLLUPS = "account_rollups";
+    private static final Decimal128 ZERO = new Decimal128(BigDecimal.ZERO);
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Void> record(Transaction transaction) {
+        return write(buildUpdates(transaction, 1), true);
+    }
+
+    @Override
+    public Mono<Void> revert(Transaction transaction) {
+        return write(buildUpdates(transaction, -1), false);
+    }
+
+    @Override
+    public Mono<Void> rebuild() {
+        TransactionDocumentFormat format = TransactionDocumentFormat.of(mongoOperations.getConverter());
+        return mongoOperations.aggregate(buildRebuildAggregation(format), TRANSACTIONS, Document.class).then();
+    }
+
+    /**
+     * Builds the updates of the rollups involved in the transaction, keyed by account number.
+     * @param sign {@code 1} to add the transaction, {@code -1} to subtract it
+     * @return the query and update of every involved rollup
+     */
+    static List<Pair<Query, Update>> buildUpdates(Transaction transaction, int sign) {
+        List<Pair<Query, Update>> updates = new ArrayList<>();
+        switch (transaction.getType()) {
+            case SAVING -> addUpdate(updates, transaction.getOriginAccount(), "totalDeposited", transaction, sign);
+            case WITHDRAWAL -> addUpdate(updates, transaction.getOriginAccount(), "totalWithdrawn", transaction, sign);
+            case TRANSFER -> {
+                addUpdate(updates, transaction.getOriginAccount(), "totalTransferredOut", transaction, sign);
+                addUpdate(updates, transaction.getDestinationAccount(), "totalTransferredIn", transaction, sign);
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Builds the aggregation that recomputes every rollup from the transactions.
+     * Each transaction is split into one leg per involved account, the legs are grouped by account and the
+     * result replaces the rollup collection, keeping its indexes.
+     * @param format the format of the stored transactions
+     * @return the {@link Aggregation} to run over the transaction collection
+     */
+    static Aggregation buildRebuildAggregation(TransactionDocumentFormat format) {
+        return newAggregation(
+                legsProjection(format),
+                unwind("legs"),
+                match(where("legs.account").ne(null)),
+                rollupGroup(),
+                out(ROLLUPS));
+    }
+
+    private Mono<Void> write(List<Pair<Query, Update>> updates, boolean upsert) {
+        if (updates.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, AccountRollup.class);
+        updates.forEach(update -> {
+            if (upsert) {
+                bulk.upsert(update.getFirst(), update.getSecond());
+            } else {
+                bulk.updateOne(update.getFirst(), update.getSecond());
+            }
+        });
+        return bulk.execute().then();
+    }
+
+    private static void addUpdate(List<Pair<Query, Update>> updates, String account, String total,
+                                  Transaction transaction, int sign) {
+        if (account == null) {
+            return;
+        }
+        BigDecimal amount = sign > 0 ? transaction.getAmount() : transaction.getAmount().negate();
+        Update update = new Update().inc(total, amount).inc("transactionCount", sign);
+        LocalDateTime date = transaction.getDate();
+        if (sign > 0 && date != null) {
+            update.max("lastActivity", date);
+        }
+        updates.add(Pair.of(Query.query(where("_id").is(account)), update));
+    }
+
+    private static AggregationOperation legsProjection(TransactionDocumentFormat format) {
+        Document originLeg = new Document("account", "$" + format.originAccount())
+                .append("totalDeposited", amountIf(format, TransactionType.SAVING))
+                .append("totalWithdrawn", amountIf(format, TransactionType.WITHDRAWAL))
+                .append("totalTransferredIn", ZERO)
+                .append("totalTransferredOut", amountIf(format, TransactionType.TRANSFER));
+        Document destinationLeg = new Document("account", "$" + format.destinationAccount())
+                .append("totalDeposited", ZERO)
+                .append("totalWithdrawn", ZERO)
+                .append("totalTransferredIn", amountIf(format, TransactionType.TRANSFER))
+                .append("totalTransferredOut", ZERO);
+        return context -> new Document("$project", new Document("date", "$" + format.date())
+                .append("legs", List.of(originLeg, destinationLeg)));
+    }
+
+    private static Document amountIf(TransactionDocumentFormat format, TransactionType type) {
+        Document isType = new Document("$eq", List.of("$" + format.type(), format.typeValue(type)));
+        return new Document("$cond", List.of(isType, new Document("$toDecimal", "$" + format.amount()), ZERO));
+    }
+
+    private static GroupOperation rollupGroup() {
+        return group("legs.account")
+                .sum("legs.totalDeposited").as("totalDeposited")
+                .sum("legs.totalWithdrawn").as("totalWithdrawn")
+                .sum("legs.totalTransferredIn").as("totalTransferredIn")
+                .sum("legs.totalTransferredOut").as("totalTransferredOut")
+                .count().as("transactionCount")
+                .max("date").as("lastActivity");
+    }
+}
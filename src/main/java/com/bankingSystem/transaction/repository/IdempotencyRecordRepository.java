@@ -0,0 +1,27 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Repository interface for managing {@link IdempotencyRecord} documents in MongoDB.
+ * Inserting a record whose key is already taken fails with a duplicate key error.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends ReactiveMongoRepository<IdempotencyRecord, String> {
+
+    /**
+     * Postpones the expiry of a record that is still pending; a completed record, or one of unknown outcome,
+     * is left untouched.
+     * @return a {@link Mono} emitting the number of renewed records
+     */
+    @Query("{ '_id': ?0, 'transaction': null, 'outcomeUnknown': { '$ne': true } }")
+    @Update("{ '$set': { 'expiresAt': ?1 } }")
+    Mono<Long> renewPending(String id, Instant expiresAt);
+}
@@ -0,0 +1,20 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.TransactionGrouping;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository fragment for computing totals of transactions inside MongoDB.
+ * It is mixed into {@link TransactionRepository}; only the aggregated rows leave the database.
+ */
+public interface TransactionAggregationRepository {
+
+    /**
+     * Counts and adds up the amounts of the transactions in the date range, per group.
+     * @return a {@link Flux} of one {@link TransactionTotal} per group, ordered by key
+     */
+    Flux<TransactionTotal> aggregateTotals(TransactionGrouping grouping, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,92 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionGrouping;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Implementation of {@link TransactionAggregationRepository} based on an aggregation pipeline.
+ * The pipeline selects the date range through the date index, derives the grouping key, counts and adds up the
+ * {@code Decimal128} amounts per key, and sorts the resulting rows by key.
+ */
+@RequiredArgsConstructor
+public class TransactionAggregationRepositoryImpl implements TransactionAggregationRepository {
+
+    private static final String DAY_FORMAT = "%Y-%m-%d";
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Flux<TransactionTotal> aggregateTotals(TransactionGrouping grouping, LocalDateTime from, LocalDateTime to) {
+        Flux<TransactionTotal> totals = mongoOperations.aggregate(buildAggregation(grouping, from, to), TransactionTotal.class);
+        return grouping == TransactionGrouping.TYPE ? totals.map(TransactionAggregationRepositoryImpl::withTypeName) : totals;
+    }
+
+    /**
+     * Builds the aggregation pipeline computing the totals per group.
+     * @return the {@link TypedAggregation} over {@link Transaction}
+     */
+    static TypedAggregation<Transaction> buildAggregation(TransactionGrouping grouping, LocalDateTime from, LocalDateTime to) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (from != null || to != null) {
+            stages.add(match(dateRange(from, to)));
+        }
+        stages.add(keyProjection(grouping));
+        stages.add(group("key").count().as("count").sum("amount").as("total"));
+        stages.add(project("count", "total").and("key").previousOperation());
+        stages.add(sort(Sort.Direction.ASC, "key"));
+        return newAggregation(Transaction.class, stages);
+    }
+
+    private static ProjectionOperation keyProjection(TransactionGrouping grouping) {
+        ProjectionOperation amount = project("amount");
+        return switch (grouping) {
+            case TYPE -> amount.and("type").as("key");
+            case ACCOUNT -> amount.and("originAccount").as("key");
+            case DAY -> amount.and(DateOperators.DateToString.dateOf("date").toString(DAY_FORMAT)).as("key");
+        };
+    }
+
+    /**
+     * Replaces a numeric type code, as stored by the compact format, with the name of the type.
+     */
+    static TransactionTotal withTypeName(TransactionTotal total) {
+        String key = total.getKey();
+        if (key != null && !key.isEmpty() && Character.isDigit(key.charAt(0))) {
+            total.setKey(TransactionType.fromCode(Integer.parseInt(key)).name());
+        }
+        return total;
+    }
+
+    private static Criteria dateRange(LocalDateTime from, LocalDateTime to) {
+        Criteria date = where("date");
+        if (from != null) {
+            date = date.gte(from);
+        }
+        if (to != null) {
+            date = date.lte(to);
+        }
+        return date;
+    }
+}
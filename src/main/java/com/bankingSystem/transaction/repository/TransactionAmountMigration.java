@@ -0,0 +1,65 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.Transaction;
+import org.bson.BsonType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Converts the amounts that were stored as strings into {@code Decimal128} once the application is ready.
+ * The conversion runs inside MongoDB as a single pipeline update, touches only documents whose amount is still
+ * a string, and is therefore safe to run on every start; afterwards it finds nothing left to convert.
+ */
+@Component
+public class TransactionAmountMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAmountMigration.class);
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final TransactionProperties.Storage settings;
+
+    /**
+     * Creates the migration.
+     */
+    public TransactionAmountMigration(ReactiveMongoOperations mongoOperations, TransactionProperties properties) {
+        this.mongoOperations = mongoOperations;
+        this.settings = properties.getStorage();
+    }
+
+    /**
+     * Runs the migration when the application has started, unless disabled.
+     * A failure is logged but does not stop the application; string amounts are still read correctly.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!settings.isMigrateAmounts()) {
+            return;
+        }
+        migrate().subscribe(
+                converted -> logger.info("Converted {} transaction amounts to Decimal128", converted),
+                error -> logger.warn("Could not convert the transaction amounts to Decimal128", error));
+    }
+
+    /**
+     * Converts every amount stored as a string into {@code Decimal128}.
+     * @return a {@link Mono} emitting the number of converted transactions
+     */
+    public Mono<Long> migrate() {
+        Query storedAsString = Query.query(where("amount").type(BsonType.STRING.getValue()));
+        AggregationUpdate toDecimal = AggregationUpdate.update()
+                .set("amount").toValue(ConvertOperators.ToDecimal.toDecimal("$amount"));
+        return mongoOperations.updateMulti(storedAsString, toDecimal, Transaction.class)
+                .map(result -> result.getModifiedCount());
+    }
+}
@@ -0,0 +1,111 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Converts the transactions stored in the default format to the compact format once the application is ready.
+ * The conversion runs inside MongoDB as a single pipeline update over the documents that still have a field of
+ * the default format: it moves every field to its short name, replaces the type name with its code and the amount
+ * with its {@code Decimal128} value. It is therefore safe to run on every start; afterwards it finds nothing left
+ * to convert. The indexes keep their names in both formats; the {@link TransactionIndexInitializer} replaces those
+ * still defined on the fields of the default format.
+ */
+@Component
+public class TransactionCompactMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionCompactMigration.class);
+    private static final String TRANSACTIONS = "banking";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final TransactionProperties.Storage settings;
+
+    /**
+     * Creates the migration.
+     */
+    public TransactionCompactMigration(ReactiveMongoOperations mongoOperations, TransactionProperties properties) {
+        this.mongoOperations = mongoOperations;
+        this.settings = properties.getStorage();
+    }
+
+    /**
+     * Runs the migration when the application has started with the compact format enabled.
+     * A failure is logged but does not stop the application; transactions not yet converted are not readable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!settings.isCompact()) {
+            return;
+        }
+        migrate().subscribe(
+                converted -> logger.info("Converted {} transactions to the compact format", converted),
+                error -> logger.warn("Could not convert the transactions to the compact format", error));
+    }
+
+    /**
+     * Converts every transaction stored in the default format to the format the converter writes.
+     * @return a {@link Mono} emitting the number of converted transactions
+     */
+    public Mono<Long> migrate() {
+        TransactionDocumentFormat target = TransactionDocumentFormat.of(mongoOperations.getConverter());
+        return mongoOperations.updateMulti(buildQuery(), buildUpdate(target), TRANSACTIONS)
+                .map(result -> result.getModifiedCount());
+    }
+
+    /**
+     * Selects the documents that have any field of the default format.
+     */
+    static Query buildQuery() {
+        return Query.query(new Criteria().orOperator(defaultFields().stream()
+                .map(field -> where(field).exists(true))
+                .toList()));
+    }
+
+    /**
+     * Builds the pipeline update that rewrites a document of the default format in the target format.
+     */
+    static AggregationUpdate buildUpdate(TransactionDocumentFormat target) {
+        TransactionDocumentFormat source = TransactionDocumentFormat.DEFAULT;
+        SetOperation set = SetOperation.set(target.type()).toValue(typeValue(source, target))
+                .and().set(target.amount()).toValue(ConvertOperators.ToDecimal.toDecimal("$" + source.amount()))
+                .and().set(target.date()).toValue("$" + source.date())
+                .and().set(target.originAccount()).toValue("$" + source.originAccount())
+                .and().set(target.destinationAccount()).toValue("$" + source.destinationAccount());
+        return AggregationUpdate.update()
+                .set(set)
+                .unset(defaultFields().toArray(String[]::new));
+    }
+
+    private static ConditionalOperators.Switch typeValue(TransactionDocumentFormat source, TransactionDocumentFormat target) {
+        List<ConditionalOperators.Switch.CaseOperator> cases = Arrays.stream(TransactionType.values())
+                .map(type -> ConditionalOperators.Switch.CaseOperator
+                        .when(ComparisonOperators.valueOf(source.type()).equalToValue(source.typeValue(type)))
+                        .then(target.typeValue(type)))
+                .toList();
+        return ConditionalOperators.switchCases(cases).defaultTo("$" + source.type());
+    }
+
+    private static List<String> defaultFields() {
+        TransactionDocumentFormat format = TransactionDocumentFormat.DEFAULT;
+        return List.of(format.type(), format.amount(), format.date(), format.originAccount(), format.destinationAccount());
+    }
+}
@@ -0,0 +1,60 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Field names and type values of the stored {@link Transaction} documents.
+ * Typed queries and aggregations are mapped by Spring Data; this describes the format for the few raw pipeline
+ * stages and updates that address the documents directly, so they work with both the default and the compact
+ * format.
+ * @param type the field of the transaction type
+ * @param amount the field of the amount
+ * @param date the field of the date
+ * @param originAccount the field of the origin account number
+ * @param destinationAccount the field of the destination account number
+ * @param typeValues the stored value of every transaction type
+ */
+record TransactionDocumentFormat(String type, String amount, String date, String originAccount,
+                                 String destinationAccount, Map<TransactionType, Object> typeValues) {
+
+    /**
+     * The default format: property names as field names and type names as values.
+     */
+    static final TransactionDocumentFormat DEFAULT = new TransactionDocumentFormat(
+            "type", "amount", "date", "originAccount", "destinationAccount", typeValues(TransactionType::name));
+
+    /**
+     * Resolves the format that the converter writes.
+     */
+    static TransactionDocumentFormat of(MongoConverter converter) {
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(Transaction.class);
+        return new TransactionDocumentFormat(
+                entity.getRequiredPersistentProperty("type").getFieldName(),
+                entity.getRequiredPersistentProperty("amount").getFieldName(),
+                entity.getRequiredPersistentProperty("date").getFieldName(),
+                entity.getRequiredPersistentProperty("originAccount").getFieldName(),
+                entity.getRequiredPersistentProperty("destinationAccount").getFieldName(),
+                typeValues(converter::convertToMongoType));
+    }
+
+    /**
+     * Returns the stored value of the transaction type.
+     */
+    Object typeValue(TransactionType transactionType) {
+        return typeValues.get(transactionType);
+    }
+
+    private static Map<TransactionType, Object> typeValues(Function<TransactionType, Object> value) {
+        Map<TransactionType, Object> values = new EnumMap<>(TransactionType.class);
+        Arrays.stream(TransactionType.values()).forEach(type -> values.put(type, value.apply(type)));
+        return values;
+    }
+}
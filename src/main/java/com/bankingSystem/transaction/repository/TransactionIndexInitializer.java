@@ -0,0 +1,92 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import com.bankingSystem.transaction.model.Transaction;
+import com.mongodb.MongoCommandException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Creates the indexes declared on {@link Transaction} and {@link IdempotencyRecord} once the application is ready.
+ * Automatic index creation of Spring Data is disabled by default, so without this component the history
+ * and search queries would fall back to collection scans and idempotency keys would never expire.
+ * Creating an index that already exists is a no-op. An index that exists under the same name with other keys or
+ * options, e.g. the long field names left behind once {@code transaction.storage.compact} is enabled on an
+ * existing collection, is dropped and created again. A failed index does not keep the others from being created.
+ */
+@Component
+public class TransactionIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionIndexInitializer.class);
+    private static final Set<Integer> CONFLICT_CODES = Set.of(85, 86);
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final IndexResolver indexResolver;
+
+    /**
+     * Creates the initializer resolving the index definitions from the mapping metadata.
+     */
+    public TransactionIndexInitializer(ReactiveMongoOperations mongoOperations, MongoMappingContext mappingContext) {
+        this.mongoOperations = mongoOperations;
+        this.indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+    }
+
+    /**
+     * Ensures the transaction indexes when the application has started.
+     * A failure is logged but does not stop the application; queries keep working, only slower.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureIndexes()
+                .doOnSuccess(ignored -> logger.info("Transaction indexes are in place"))
+                .subscribe(null, error -> logger.warn("Could not create the transaction indexes", error));
+    }
+
+    /**
+     * Creates every index declared on the indexed documents that does not exist yet, replacing conflicting ones.
+     * @return a {@link Mono} completing once all indexes exist, or failing after the other indexes were attempted
+     */
+    public Mono<Void> ensureIndexes() {
+        return Flux.just(Transaction.class, IdempotencyRecord.class)
+                .concatMapDelayError(this::ensureIndexes)
+                .then();
+    }
+
+    private Flux<String> ensureIndexes(Class<?> documentType) {
+        ReactiveIndexOperations indexOperations = mongoOperations.indexOps(documentType);
+        return Flux.fromIterable(indexResolver.resolveIndexFor(documentType))
+                .concatMapDelayError(index -> ensureIndex(indexOperations, index));
+    }
+
+    private Mono<String> ensureIndex(ReactiveIndexOperations indexOperations, IndexDefinition index) {
+        String name = index.getIndexOptions().getString("name");
+        return indexOperations.ensureIndex(index)
+                .onErrorResume(error -> name != null && isConflict(error), error -> {
+                    logger.info("Replacing index {} whose definition changed", name);
+                    return indexOperations.dropIndex(name).then(indexOperations.ensureIndex(index));
+                })
+                .doOnError(error -> logger.warn("Could not create index {}", name != null ? name : index.getIndexKeys(), error));
+    }
+
+    private static boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException command && CONFLICT_CODES.contains(command.getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,36 @@
 package com.bankingSystem.transaction.repository;
 
 import com.bankingSystem.transaction.model.Transaction;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
 
 /**
  * Repository interface for performing CRUD operations on {@link Transaction} objects.
  * This interface extends {@link ReactiveMongoRepository} to provide reactive MongoDB operations
  * for the {@link Transaction} entity. It supports reactive programming patterns using Project Reactor.
+ * Searches with optional filters are provided by the {@link TransactionSearchRepository} fragment, and totals
+ * computed inside the database by the {@link TransactionAggregationRepository} fragment.
  */
-public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String> {
+public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String>,
+        TransactionSearchRepository, TransactionAggregationRepository {
+
+    /**
+     * Finds the most recent transactions, newest first.
+     * @return a {@link Flux} of at most {@code limit} transactions ordered by date and id, descending
+     */
+    Flux<Transaction> findAllByOrderByDateDescIdDesc(Limit limit);
 
+    /**
+     * Finds the transactions that come after the given position in the history, newest first.
+     * The keyset condition lets MongoDB seek directly to the position instead of skipping earlier documents.
+     * @return a {@link Flux} of at most {@code limit} transactions older than the given date and id
+     */
+    @Query(value = "{ '$or': [ { 'date': { '$lt': ?0 } }, { 'date': ?0, '_id': { '$lt': ?1 } } ] }",
+            sort = "{ 'date': -1, '_id': -1 }")
+    Flux<Transaction> findPageBefore(LocalDateTime date, ObjectId id, Limit limit);
 }
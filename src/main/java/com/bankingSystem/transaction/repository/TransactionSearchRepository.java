@@ -0,0 +1,18 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository fragment for searching {@link Transaction} objects by a combination of optional filters.
+ * It is mixed into {@link TransactionRepository}, since derived query methods cannot express optional criteria.
+ */
+public interface TransactionSearchRepository {
+
+    /**
+     * Finds the transactions matching the given filters, newest first.
+     * @return a {@link Flux} of at most {@code limit} matching transactions ordered by date and id, descending
+     */
+    Flux<Transaction> search(TransactionSearchRequest request, int limit);
+}
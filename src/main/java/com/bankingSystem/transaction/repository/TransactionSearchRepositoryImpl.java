@@ -0,0 +1,73 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Implementation of {@link TransactionSearchRepository} building the query from the filters that are present.
+ * Every filter is sent to MongoDB: the account, type and date filters are served by the compound indexes
+ * declared on {@link Transaction}, and the amount range, stored as {@code Decimal128}, is checked on the
+ * documents those indexes select.
+ */
+@RequiredArgsConstructor
+public class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Flux<Transaction> search(TransactionSearchRequest request, int limit) {
+        return mongoOperations.find(buildQuery(request).limit(limit), Transaction.class);
+    }
+
+    /**
+     * Builds the MongoDB query for the filters of the request, sorted newest first.
+     * @return the {@link Query}
+     */
+    static Query buildQuery(TransactionSearchRequest request) {
+        Query query = new Query();
+        if (request.getAccount() != null) {
+            query.addCriteria(eitherAccount(request.getAccount()));
+        }
+        if (request.getOriginAccount() != null) {
+            query.addCriteria(where("originAccount").is(request.getOriginAccount()));
+        }
+        if (request.getDestinationAccount() != null) {
+            query.addCriteria(where("destinationAccount").is(request.getDestinationAccount()));
+        }
+        if (request.getType() != null) {
+            query.addCriteria(where("type").is(request.getType()));
+        }
+        addRange(query, "date", request.getFrom(), request.getTo());
+        addRange(query, "amount", request.getMinAmount(), request.getMaxAmount());
+        return query.with(Sort.by(Sort.Direction.DESC, "date", "id"));
+    }
+
+    private static Criteria eitherAccount(String account) {
+        return new Criteria().orOperator(where("originAccount").is(account), where("destinationAccount").is(account));
+    }
+
+    private static void addRange(Query query, String field, Object min, Object max) {
+        if (min != null || max != null) {
+            query.addCriteria(range(field, min, max));
+        }
+    }
+
+    private static Criteria range(String field, Object min, Object max) {
+        Criteria range = where(field);
+        if (min != null) {
+            range = range.gte(min);
+        }
+        if (max != null) {
+            range = range.lte(max);
+        }
+        return range;
+    }
+}
@@ -0,0 +1,311 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.journal.TransactionJournal;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind stage that buffers {@link Transaction} documents and stores them with bulk inserts.
+ * A batch is inserted once it reaches the configured size or its wait time elapses, and every caller is
+ * completed only when the insert of its batch is acknowledged. At most {@code capacity} transactions are
+ * buffered or being inserted; further writes wait, in arrival order, until a batch is acknowledged, which
+ * slows callers down instead of growing the buffer. While {@code max-waiting} writes wait, {@link #isSaturated()}
+ * reports it so that new operations are shed before they change any balance; the writes already under way are
+ * still accepted, so the waiting writes are bounded by that cap plus the operations in flight.
+ * Every transaction gets its id before the bulk insert. If a bulk insert fails, part of the batch may already be
+ * stored, so its transactions are inserted again one by one, a duplicate id counting as stored, so that each
+ * caller gets its own outcome without any transaction being stored twice. Buffered transactions are inserted on
+ * shutdown.
+ * When the {@link TransactionJournal} is enabled, transactions are acknowledged once journaled instead, and the
+ * journal stores them in the database in the background.
+ * Once a transaction is acknowledged, or its removal is, the rollups of its accounts are updated. A failed rollup
+ * update is logged and counted but does not fail the write, as the transaction itself is already stored; the
+ * rollups can be rebuilt by the {@link AccountRollupRebuildJob}.
+ * Acknowledgements are handled on the MongoDB write scheduler of the {@link IsolatedSchedulers}, off the driver
+ * threads; as the write has already been made, that scheduler never rejects them.
+ */
+@Component
+public class TransactionWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionWriteBehind.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionJournal transactionJournal;
+    private final AccountRollupRepository accountRollupRepository;
+    private final TransactionProperties.WriteBehind settings;
+    private final boolean rollupEnabled;
+    private final Scheduler mongoScheduler;
+    private final Scheduler scheduler = Schedulers.parallel();
+
+    private final LongAdder batches;
+    private final LongAdder documents;
+    private final LongAdder waits;
+    private final LongAdder fallbackSaves;
+    private final LongAdder rollupFailures;
+
+    private List<PendingWrite> pending = new ArrayList<>();
+    private final Deque<PendingWrite> waiting = new ArrayDeque<>();
+    private int inFlight;
+    private boolean closed;
+    private Disposable scheduledFlush;
+
+    /**
+     * Creates the write-behind stage and registers its metrics under the {@code transaction.write-behind.*} names.
+     */
+    public TransactionWriteBehind(TransactionRepository transactionRepository, TransactionJournal transactionJournal,
+                                  AccountRollupRepository accountRollupRepository,
+                                  TransactionProperties properties, MetricsRegistry metricsRegistry,
+                                  IsolatedSchedulers isolatedSchedulers) {
+        this.transactionRepository = transactionRepository;
+        this.transactionJournal = transactionJournal;
+        this.accountRollupRepository = accountRollupRepository;
+        this.settings = properties.getWriteBehind();
+        this.rollupEnabled = properties.getRollup().isEnabled();
+        this.mongoScheduler = isolatedSchedulers.mongoWrites();
+        this.batches = metricsRegistry.counter("transaction.write-behind.batches");
+        this.documents = metricsRegistry.counter("transaction.write-behind.documents");
+        this.waits = metricsRegistry.counter("transaction.write-behind.waits");
+        this.fallbackSaves = metricsRegistry.counter("transaction.write-behind.fallback-saves");
+        this.rollupFailures = metricsRegistry.counter("transaction.rollup.failures");
+        metricsRegistry.gauge("transaction.write-behind.buffered", this::buffered);
+        metricsRegistry.gauge("transaction.write-behind.in-flight", this::inFlight);
+    }
+
+    /**
+     * Stores the transaction as part of the next bulk insert.
+     * When the journal is enabled, the transaction is journaled instead; when write-behind is disabled,
+     * the transaction is saved directly.
+     * @return a {@link Mono} emitting the stored transaction once its batch is acknowledged
+     */
+    public Mono<Transaction> save(Transaction transaction) {
+        return store(transaction)
+                .publishOn(mongoScheduler)
+                .flatMap(saved -> updateRollups(saved, false).thenReturn(saved));
+    }
+
+    /**
+     * Removes a stored transaction, e.g. to undo a transfer whose legs could not all be applied.
+     * When the journal is enabled, the removal is journaled so that it is applied after the transaction is stored.
+     * @return a {@link Mono} completing once the removal is acknowledged
+     */
+    public Mono<Void> delete(Transaction transaction) {
+        Mono<Void> removal = transactionJournal.isEnabled()
+                ? transactionJournal.appendDeletion(transaction)
+                : transactionRepository.delete(transaction);
+        return removal.publishOn(mongoScheduler).then(updateRollups(transaction, true));
+    }
+
+    private Mono<Transaction> store(Transaction transaction) {
+        if (transactionJournal.isEnabled()) {
+            return transactionJournal.append(transaction);
+        }
+        if (!settings.isEnabled()) {
+            return transactionRepository.save(transaction);
+        }
+        return Mono.defer(() -> {
+            PendingWrite write = new PendingWrite(transaction, Sinks.one());
+            List<PendingWrite> batch = enqueue(write);
+            if (batch != null) {
+                dispatch(batch);
+            }
+            return write.result().asMono();
+        });
+    }
+
+    /**
+     * Indicates whether the configured number of writes is waiting for room in the buffer.
+     * @return {@code true} if new operations should be shed until batches are acknowledged
+     */
+    public synchronized boolean isSaturated() {
+        return settings.isEnabled() && !transactionJournal.isEnabled() && waiting.size() >= settings.getMaxWaiting();
+    }
+
+    private Mono<Void> updateRollups(Transaction transaction, boolean revert) {
+        if (!rollupEnabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> revert
+                        ? accountRollupRepository.revert(transaction)
+                        : accountRollupRepository.record(transaction))
+                .onErrorResume(error -> {
+                    rollupFailures.increment();
+                    logger.warn("Could not update the account rollups for transaction {}", transaction.getId(), error);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Inserts every buffered transaction and waits, up to the shutdown timeout, for the inserts to be acknowledged.
+     * Transactions saved afterwards are inserted one by one.
+     */
+    @PreDestroy
+    public void close() {
+        List<List<PendingWrite>> remaining;
+        synchronized (this) {
+            closed = true;
+            remaining = drainAll();
+        }
+        remaining.forEach(this::dispatch);
+        awaitInFlight();
+    }
+
+    private synchronized List<PendingWrite> enqueue(PendingWrite write) {
+        if (closed) {
+            inFlight++;
+            return List.of(write);
+        }
+        if (pending.size() + inFlight >= settings.getCapacity()) {
+            waits.increment();
+            waiting.add(write);
+            return null;
+        }
+        return add(write);
+    }
+
+    private List<PendingWrite> add(PendingWrite write) {
+        pending.add(write);
+        if (pending.size() >= settings.getMaxBatchSize()) {
+            if (scheduledFlush != null) {
+                scheduledFlush.dispose();
+            }
+            return drain();
+        }
+        if (pending.size() == 1) {
+            scheduledFlush = scheduler.schedule(this::flush, settings.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return null;
+    }
+
+    private void flush() {
+        List<PendingWrite> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private List<PendingWrite> drain() {
+        List<PendingWrite> batch = pending;
+        pending = new ArrayList<>();
+        inFlight += batch.size();
+        return batch;
+    }
+
+    private List<List<PendingWrite>> drainAll() {
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+        }
+        List<List<PendingWrite>> remaining = new ArrayList<>();
+        while (!waiting.isEmpty()) {
+            pending.add(waiting.poll());
+            if (pending.size() >= settings.getMaxBatchSize()) {
+                remaining.add(drain());
+            }
+        }
+        if (!pending.isEmpty()) {
+            remaining.add(drain());
+        }
+        return remaining;
+    }
+
+    private void dispatch(List<PendingWrite> batch) {
+        batches.increment();
+        documents.add(batch.size());
+        for (PendingWrite write : batch) {
+            if (write.transaction().getId() == null) {
+                write.transaction().setId(new ObjectId().toHexString());
+            }
+        }
+        transactionRepository.insert(batch.stream().map(PendingWrite::transaction).toList())
+                .collectList()
+                .subscribe(saved -> complete(batch, saved), error -> saveIndividually(batch, error));
+    }
+
+    private void complete(List<PendingWrite> batch, List<Transaction> saved) {
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().tryEmitValue(saved.get(i));
+        }
+        release(batch.size());
+    }
+
+    private void saveIndividually(List<PendingWrite> batch, Throwable error) {
+        logger.warn("Bulk insert of {} transactions failed, saving them one by one", batch.size(), error);
+        fallbackSaves.add(batch.size());
+        Flux.fromIterable(batch)
+                .flatMap(write -> transactionRepository.insert(write.transaction())
+                        .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.just(write.transaction()))
+                        .doOnNext(saved -> write.result().tryEmitValue(saved))
+                        .doOnError(saveError -> write.result().tryEmitError(saveError))
+                        .onErrorResume(saveError -> Mono.empty()))
+                .doFinally(signal -> release(batch.size()))
+                .subscribe();
+    }
+
+    private void release(int count) {
+        List<PendingWrite> admittedBatch = null;
+        synchronized (this) {
+            inFlight -= count;
+            while (!closed && !waiting.isEmpty() && admittedBatch == null
+                    && pending.size() + inFlight < settings.getCapacity()) {
+                admittedBatch = add(waiting.poll());
+            }
+            notifyAll();
+        }
+        if (admittedBatch != null) {
+            dispatch(admittedBatch);
+        }
+    }
+
+    private synchronized void awaitInFlight() {
+        long deadline = System.nanoTime() + settings.getShutdownTimeout().toNanos();
+        try {
+            while (inFlight > 0 && deadline - System.nanoTime() > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, deadline - System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (inFlight > 0) {
+            logger.warn("Shutdown timed out with {} transactions still being inserted", inFlight);
+        }
+    }
+
+    private synchronized int buffered() {
+        return pending.size() + waiting.size();
+    }
+
+    private synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Transaction waiting for its batch to be inserted.
+     * @param transaction the transaction to store
+     * @param result the sink completed with the stored transaction
+     */
+    private record PendingWrite(Transaction transaction, Sinks.One<Transaction> result) {
+    }
+}
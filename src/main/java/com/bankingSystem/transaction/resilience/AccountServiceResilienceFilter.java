@@ -0,0 +1,174 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.exceptionhandler.AccountServiceUnavailableException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ExchangeFilterFunction} guarding every call made to the account service.
+ * Each exchange is subject to a per-operation timeout (lookups vs. balance updates), a concurrency
+ * bulkhead and a {@link CircuitBreaker}. Rejected or timed-out calls fail fast with an
+ * {@link AccountServiceUnavailableException}. Server errors, timeouts and I/O errors count as failures
+ * of the circuit breaker; client errors such as 404 do not.
+ * A call lasts until its response body has been consumed, released or cancelled, not just until the headers
+ * arrive: the timeout is a deadline for the whole response, and the bulkhead slot and the outcome of the
+ * circuit breaker are only settled once the body is done, so a slow body stream counts as an in-flight call.
+ * As {@link WebClient} wraps errors raised while reading a body, callers restore a timeout of the body with
+ * {@link #unwrap(Throwable)}.
+ */
+@Component
+public class AccountServiceResilienceFilter implements ExchangeFilterFunction {
+
+    private final AccountServiceClientProperties.Resilience settings;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicInteger activeCalls = new AtomicInteger();
+
+    private final LongAdder circuitOpenRejections;
+    private final LongAdder bulkheadRejections;
+    private final LongAdder timeouts;
+
+    /**
+     * Creates the filter and registers its metrics under the {@code account.resilience.*} names.
+     */
+    public AccountServiceResilienceFilter(AccountServiceClientProperties properties, MetricsRegistry metricsRegistry) {
+        this.settings = properties.getResilience();
+        this.circuitBreaker = new CircuitBreaker(settings, System::nanoTime);
+        this.circuitOpenRejections = metricsRegistry.counter("account.resilience.circuit-open-rejections");
+        this.bulkheadRejections = metricsRegistry.counter("account.resilience.bulkhead-rejections");
+        this.timeouts = metricsRegistry.counter("account.resilience.timeouts");
+        metricsRegistry.gauge("account.resilience.circuit-state", () -> circuitBreaker.getState().ordinal());
+        metricsRegistry.gauge("account.resilience.active-calls", activeCalls::get);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!settings.isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            AccountServiceUnavailableException rejection = acquirePermission();
+            return rejection != null ? Mono.error(rejection) : guardedExchange(request, next);
+        });
+    }
+
+    /**
+     * Returns the circuit breaker guarding the account service.
+     * @return the {@link CircuitBreaker}
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Restores the {@link AccountServiceUnavailableException} of a response body that timed out, which
+     * {@link WebClient} reports as the cause of a {@link WebClientResponseException}.
+     * @return the {@link AccountServiceUnavailableException}, or the given error if it is not one
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof WebClientResponseException && error.getCause() instanceof AccountServiceUnavailableException
+                ? error.getCause() : error;
+    }
+
+    private Mono<ClientResponse> guardedExchange(ClientRequest request, ExchangeFunction next) {
+        Duration timeout = timeoutFor(request.method());
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        Mono<Long> deadline = Mono.defer(() -> Mono.delay(Duration.ofNanos(Math.max(0L, deadlineNanos - System.nanoTime()))));
+        Call call = new Call();
+        return next.exchange(request)
+                .timeout(deadline)
+                .map(response -> guardedBody(response, deadline, call, timeout))
+                .doOnError(call::fail)
+                .doOnCancel(call::cancel)
+                .onErrorMap(TimeoutException.class, e -> timedOut(timeout));
+    }
+
+    private ClientResponse guardedBody(ClientResponse response, Mono<Long> deadline, Call call, Duration timeout) {
+        boolean serverError = response.statusCode().is5xxServerError();
+        return response.mutate()
+                .body(body -> body.timeout(deadline, buffer -> deadline)
+                        .doOnComplete(() -> call.complete(serverError))
+                        .doOnError(call::fail)
+                        .doOnCancel(call::cancel)
+                        .onErrorMap(TimeoutException.class, e -> timedOut(timeout)))
+                .build();
+    }
+
+    private static AccountServiceUnavailableException timedOut(Duration timeout) {
+        return new AccountServiceUnavailableException("Account service did not respond within " + timeout.toMillis() + " ms");
+    }
+
+    private AccountServiceUnavailableException acquirePermission() {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            circuitOpenRejections.increment();
+            return new AccountServiceUnavailableException("Circuit breaker is open");
+        }
+        if (activeCalls.incrementAndGet() > settings.getMaxConcurrentCalls()) {
+            activeCalls.decrementAndGet();
+            circuitBreaker.release();
+            bulkheadRejections.increment();
+            return new AccountServiceUnavailableException("Too many concurrent calls to the account service");
+        }
+        return null;
+    }
+
+    private Duration timeoutFor(HttpMethod method) {
+        return HttpMethod.GET.equals(method) ? settings.getLookupTimeout() : settings.getUpdateTimeout();
+    }
+
+    /**
+     * A call holding a bulkhead slot and a permission of the circuit breaker, both released by the first of
+     * {@link #complete(boolean)}, {@link #fail(Throwable)} and {@link #cancel()}.
+     */
+    private final class Call {
+
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        void complete(boolean serverError) {
+            if (finish()) {
+                if (serverError) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+            }
+        }
+
+        void fail(Throwable error) {
+            if (finish()) {
+                if (error instanceof TimeoutException) {
+                    timeouts.increment();
+                }
+                circuitBreaker.onFailure();
+            }
+        }
+
+        void cancel() {
+            if (finish()) {
+                circuitBreaker.release();
+            }
+        }
+
+        private boolean finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            activeCalls.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit adapted to the observed latency.
+ * The lowest latency seen recently is taken as the baseline of an unloaded service. While the smoothed latency
+ * stays within the tolerance of the baseline, the limit grows by the square root of itself whenever at least
+ * half of it is in use; as queues build up and the latency rises beyond the tolerance, the limit shrinks in
+ * proportion, down to half per sample. A dropped request, i.e. one that failed with a server error, lowers the
+ * limit as well. Requests over the limit are rejected immediately instead of queuing, which keeps the latency,
+ * and therefore the throughput of useful work, stable under overload.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_RATIO = 0.9;
+
+    private final TransactionProperties.Admission settings;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long baselineNanos = Long.MAX_VALUE;
+    private double smoothedNanos;
+    private int samples;
+
+    /**
+     * Creates the limit at its initial value.
+     */
+    public AdaptiveConcurrencyLimit(TransactionProperties.Admission settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.estimatedLimit = clamp(settings.getInitialLimit());
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a slot if fewer requests than the limit are in flight. Every slot must be released through its
+     * {@link Permit}.
+     * @return the {@link Permit}, or {@code null} if the limit is reached
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(nanoClock.getAsLong(), current + 1);
+    }
+
+    /**
+     * Returns the current limit.
+     * @return the maximum number of requests in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     * @return the requests holding a slot
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtStart) {
+        if (++samples >= settings.getBaselineWindow()) {
+            samples = 0;
+            baselineNanos = Long.MAX_VALUE;
+        }
+        baselineNanos = Math.min(baselineNanos, Math.max(1L, latencyNanos));
+        smoothedNanos = smoothedNanos == 0 ? latencyNanos
+                : smoothedNanos * (1 - LATENCY_SMOOTHING) + latencyNanos * LATENCY_SMOOTHING;
+        double gradient = Math.max(MIN_GRADIENT,
+                Math.min(1.0, settings.getLatencyTolerance() * baselineNanos / Math.max(1.0, smoothedNanos)));
+        double headroom = inFlightAtStart * 2 >= estimatedLimit ? Math.sqrt(estimatedLimit) : 0;
+        double smoothing = settings.getSmoothing();
+        update(estimatedLimit * (1 - smoothing) + (estimatedLimit * gradient + headroom) * smoothing);
+    }
+
+    private synchronized void onDropped() {
+        update(estimatedLimit * DROP_RATIO);
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = clamp(newLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), value));
+    }
+
+    /**
+     * Slot held by an admitted request. The first of {@link #success()}, {@link #dropped()} and {@link #ignore()}
+     * releases it; later calls have no effect.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the slot of a request that completed, and feeds its latency to the limit.
+         */
+        public void success() {
+            if (release()) {
+                onSample(nanoClock.getAsLong() - startNanos, inFlightAtStart);
+            }
+        }
+
+        /**
+         * Releases the slot of a request that failed because the service is overloaded, lowering the limit.
+         */
+        public void dropped() {
+            if (release()) {
+                onDropped();
+            }
+        }
+
+        /**
+         * Releases the slot without affecting the limit, e.g. for a cancelled request.
+         */
+        public void ignore() {
+            release();
+        }
+
+        private boolean release() {
+            if (!released.compareAndSet(false, true)) {
+                return false;
+            }
+            inFlight.decrementAndGet();
+            return true;
+        }
+    }
+}
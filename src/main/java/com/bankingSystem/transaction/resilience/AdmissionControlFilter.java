@@ -0,0 +1,244 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link WebFilter} admitting deposits, withdrawals, transfers and batches only while the service can absorb them.
+ * A request must pass, in this order, the optional global {@link TokenBucket}, the {@link AdaptiveConcurrencyLimit}
+ * and the token bucket of its account (the source account of a transfer), which is read from the request body.
+ * A batch only passes the first two: its items span any number of accounts and its body is streamed rather than
+ * read up front, so each item is held back by the account sequencer and the capacity checks of the processing
+ * chain instead. A batch keeps its slot of the concurrency limit until it completes, but its duration is not
+ * fed to the limit, since it says nothing about the latency of a single request.
+ * A request that does not pass is answered right away with {@code 429 Too Many Requests} and a
+ * {@code Retry-After} header, without reaching the account service or the database. The body is read up to the
+ * configured size only, and a larger request is answered with {@code 413 Payload Too Large}. The latency of every
+ * admitted request feeds the concurrency limit, and a {@code 503} or {@code 504} response lowers it.
+ * Once more than the configured number of accounts is tracked, the bucket of the least recently seen account is
+ * forgotten; an account idle that long normally has a full bucket, which is no different from a new one.
+ * The buckets are split into segments by account, each with its own lock and its own least recently seen order,
+ * so requests on different accounts rarely contend.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionControlFilter implements WebFilter {
+
+    private static final Map<String, String> ACCOUNT_FIELDS = Map.of(
+            "/transaction/deposit", "accountId",
+            "/transaction/withdrawal", "accountId",
+            "/transaction/transferTo", "sourceAccountId");
+
+    private static final Set<String> BATCH_PATHS = Set.of("/transaction/batch", "/transaction/batch/transfers/netted");
+
+    private static final int ACCOUNTS_PER_SEGMENT = 1024;
+    private static final int MAX_SEGMENTS = 64;
+
+    private final TransactionProperties.Admission settings;
+    private final ObjectMapper objectMapper;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final TokenBucket globalBucket;
+    private final Segment[] segments;
+    private final int segmentCapacity;
+    private final AtomicInteger trackedAccounts = new AtomicInteger();
+
+    private final LongAdder admitted;
+    private final LongAdder concurrencyRejections;
+    private final LongAdder globalRateRejections;
+    private final LongAdder accountRateRejections;
+    private final LongAdder bodySizeRejections;
+    private final LongAdder accountEvictions;
+
+    /**
+     * Creates the filter and registers its metrics under the {@code admission.*} names.
+     */
+    public AdmissionControlFilter(TransactionProperties properties, ObjectMapper objectMapper,
+                                  MetricsRegistry metricsRegistry) {
+        this.settings = properties.getAdmission();
+        this.objectMapper = objectMapper;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(settings, System::nanoTime);
+        this.globalBucket = settings.getGlobalRate() > 0
+                ? new TokenBucket(settings.getGlobalRate(), settings.getGlobalBurst(), System.nanoTime()) : null;
+        this.segments = new Segment[Integer.highestOneBit(
+                Math.max(1, Math.min(MAX_SEGMENTS, settings.getMaxAccounts() / ACCOUNTS_PER_SEGMENT)))];
+        Arrays.setAll(segments, i -> new Segment());
+        this.segmentCapacity = Math.max(1, settings.getMaxAccounts() / segments.length);
+        this.admitted = metricsRegistry.counter("admission.admitted");
+        this.concurrencyRejections = metricsRegistry.counter("admission.rejections.concurrency");
+        this.globalRateRejections = metricsRegistry.counter("admission.rejections.global-rate");
+        this.accountRateRejections = metricsRegistry.counter("admission.rejections.account-rate");
+        this.bodySizeRejections = metricsRegistry.counter("admission.rejections.body-size");
+        this.accountEvictions = metricsRegistry.counter("admission.account-evictions");
+        metricsRegistry.gauge("admission.limit", concurrencyLimit::getLimit);
+        metricsRegistry.gauge("admission.in-flight", concurrencyLimit::getInFlight);
+        metricsRegistry.gauge("admission.tracked-accounts", trackedAccounts::get);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!settings.isEnabled() || !HttpMethod.POST.equals(request.getMethod())
+                || !ACCOUNT_FIELDS.containsKey(path) && !BATCH_PATHS.contains(path)) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> admit(exchange, chain, ACCOUNT_FIELDS.get(path)));
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, String accountField) {
+        long globalWait = globalBucket == null ? 0 : globalBucket.tryAcquire(System.nanoTime());
+        if (globalWait > 0) {
+            return reject(exchange, globalRateRejections, "global rate limit", globalWait);
+        }
+        AdaptiveConcurrencyLimit.Permit permit = concurrencyLimit.tryAcquire();
+        if (permit == null) {
+            return reject(exchange, concurrencyRejections, "concurrency limit", settings.getRetryAfter().toNanos());
+        }
+        if (accountField == null) {
+            admitted.increment();
+            return chain.filter(exchange).doFinally(signal -> permit.ignore());
+        }
+        return admitBody(exchange, chain, permit, accountField);
+    }
+
+    private Mono<Void> admitBody(ServerWebExchange exchange, WebFilterChain chain,
+                                 AdaptiveConcurrencyLimit.Permit permit, String accountField) {
+        int maxBodySize = (int) settings.getMaxBodySize().toBytes();
+        return DataBufferUtils.join(exchange.getRequest().getBody(), maxBodySize)
+                .map(AdmissionControlFilter::bytes)
+                .defaultIfEmpty(new byte[0])
+                .onErrorResume(DataBufferLimitException.class, e -> tooLarge(exchange, maxBodySize).then(Mono.empty()))
+                .flatMap(body -> admitAccount(exchange, chain, permit, body, accountId(body, accountField)))
+                .doFinally(signal -> permit.ignore());
+    }
+
+    private Mono<Void> admitAccount(ServerWebExchange exchange, WebFilterChain chain,
+                                    AdaptiveConcurrencyLimit.Permit permit, byte[] body, Integer accountId) {
+        long wait = accountId == null || settings.getAccountRate() <= 0
+                ? 0 : accountBucket(accountId).tryAcquire(System.nanoTime());
+        if (wait > 0) {
+            permit.ignore();
+            return reject(exchange, accountRateRejections, "rate limit of account " + accountId, wait);
+        }
+        admitted.increment();
+        return chain.filter(exchange.mutate().request(withBody(exchange, body)).build())
+                .doOnSuccess(ignored -> release(exchange, permit))
+                .doOnError(error -> permit.dropped());
+    }
+
+    private TokenBucket accountBucket(Integer accountId) {
+        int hash = accountId.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+        synchronized (segment) {
+            TokenBucket bucket = segment.buckets.get(accountId);
+            if (bucket == null) {
+                bucket = new TokenBucket(settings.getAccountRate(), settings.getAccountBurst(), System.nanoTime());
+                segment.buckets.put(accountId, bucket);
+                trackedAccounts.incrementAndGet();
+                if (segment.buckets.size() > segmentCapacity) {
+                    segment.buckets.remove(segment.buckets.keySet().iterator().next());
+                    trackedAccounts.decrementAndGet();
+                    accountEvictions.increment();
+                }
+            }
+            return bucket;
+        }
+    }
+
+    private Integer accountId(byte[] body, String accountField) {
+        try {
+            JsonNode value = objectMapper.readTree(body).path(accountField);
+            return value.isIntegralNumber() && value.canConvertToInt() ? value.intValue() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void release(ServerWebExchange exchange, AdaptiveConcurrencyLimit.Permit permit) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value())) {
+            permit.dropped();
+        } else {
+            permit.success();
+        }
+    }
+
+    private Mono<Void> tooLarge(ServerWebExchange exchange, int maxBodySize) {
+        bodySizeRejections.increment();
+        return respond(exchange, HttpStatus.PAYLOAD_TOO_LARGE, "Request body larger than " + maxBodySize + " bytes");
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, LongAdder rejections, String reason, long retryAfterNanos) {
+        rejections.increment();
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1L, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        return respond(exchange, HttpStatus.TOO_MANY_REQUESTS, "Too many requests: " + reason + " reached");
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static ServerHttpRequest withBody(ServerWebExchange exchange, byte[] body) {
+        return new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+    }
+
+    /**
+     * Token buckets of the accounts hashed onto one segment, least recently seen first, guarded by the segment.
+     */
+    private static final class Segment {
+
+        private final Map<Integer, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
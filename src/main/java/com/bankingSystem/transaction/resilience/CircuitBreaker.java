@@ -0,0 +1,134 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ * While {@link State#CLOSED}, the outcome of the most recent calls is kept in a ring buffer and the circuit
+ * opens once the failure rate reaches the threshold. While {@link State#OPEN}, calls are rejected until the
+ * open duration elapses; then a limited number of trial calls is let through in {@link State#HALF_OPEN}, and
+ * the circuit closes again only if all of them succeed.
+ */
+public class CircuitBreaker {
+
+    /**
+     * States of the circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final AccountServiceClientProperties.Resilience settings;
+    private final LongSupplier nanoClock;
+    private final boolean[] outcomes;
+
+    private State state = State.CLOSED;
+    private int recordedCalls;
+    private int failedCalls;
+    private int nextOutcome;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * Creates a closed circuit breaker.
+     */
+    public CircuitBreaker(AccountServiceClientProperties.Resilience settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.outcomes = new boolean[settings.getSlidingWindowSize()];
+    }
+
+    /**
+     * Asks permission to perform a call; every granted permission must be followed by
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+     * @return {@code true} if the call may proceed
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openUntil >= 0) {
+            state = State.HALF_OPEN;
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= settings.getHalfOpenCalls()) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return state != State.OPEN;
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= settings.getHalfOpenCalls()) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a failed call, opening the circuit if the failure rate reaches the threshold.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= settings.getMinimumCalls()
+                    && failedCalls * 100 >= settings.getFailureRateThreshold() * recordedCalls) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Returns a permission without recording an outcome, e.g. when the call was cancelled.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     * @return the {@link State}
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recordedCalls == outcomes.length) {
+            failedCalls -= outcomes[nextOutcome] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        outcomes[nextOutcome] = failure;
+        failedCalls += failure ? 1 : 0;
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = nanoClock.getAsLong() + settings.getOpenStateDuration().toNanos();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recordedCalls = 0;
+        failedCalls = 0;
+        nextOutcome = 0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bankingSystem.transaction.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm.
+ * Instead of a token count and a refill time, the bucket keeps a single theoretical arrival time: the time at
+ * which it would be full again. Each permit moves it one interval forward, and a permit is refused if that
+ * would put it more than a burst of intervals ahead of now, so the state is updated with one compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Creates a full bucket.
+     * @param permitsPerSecond the sustained rate
+     * @param burst the number of permits granted at once to a full bucket
+     * @param nowNanos the current time
+     */
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a permit if one is available.
+     * @return 0 if the permit was granted, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival - nowNanos > 0 ? arrival : nowNanos) + intervalNanos;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the bucket is full, in which case it behaves exactly like a new one.
+     * @return {@code true} if no permit has been taken within the time needed to refill the bucket
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
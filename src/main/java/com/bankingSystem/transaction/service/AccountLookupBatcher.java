@@ -0,0 +1,184 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.resilience.AccountServiceResilienceFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Groups account lookups issued within a short window into a single bulk request
+ * ({@code GET {accountServiceUrl}?ids=1,2,3}) and splits the response back to each caller.
+ * A batch is sent once it reaches the configured size or its wait time elapses. When the
+ * account service does not expose the bulk route, lookups fall back to single requests for
+ * a cooldown period.
+ */
+@Component
+public class AccountLookupBatcher {
+
+    private static final Set<HttpStatus> BULK_UNAVAILABLE = Set.of(
+            HttpStatus.NOT_FOUND, HttpStatus.METHOD_NOT_ALLOWED, HttpStatus.NOT_IMPLEMENTED);
+
+    private final WebClient webClient;
+    private final String accountServiceUrl;
+    private final AccountServiceClientProperties.Batch settings;
+    private final Scheduler scheduler = Schedulers.parallel();
+
+    private final LongAdder bulkRequests;
+    private final LongAdder batchedLookups;
+    private final LongAdder fallbackLookups;
+
+    private List<PendingLookup> pending = new ArrayList<>();
+    private Disposable scheduledFlush;
+    private volatile long bulkUnavailableUntil;
+
+    /**
+     * Creates the batcher for the account service reachable at the given URL.
+     */
+    public AccountLookupBatcher(WebClient webClient, String accountServiceUrl,
+                                AccountServiceClientProperties properties, MetricsRegistry metricsRegistry) {
+        this.webClient = webClient;
+        this.accountServiceUrl = accountServiceUrl;
+        this.settings = properties.getBatch();
+        this.bulkRequests = metricsRegistry.counter("account.batch.requests");
+        this.batchedLookups = metricsRegistry.counter("account.batch.lookups");
+        this.fallbackLookups = metricsRegistry.counter("account.batch.fallback-lookups");
+    }
+
+    /**
+     * Looks up an account as part of the next bulk request.
+     * When batching is disabled or the bulk route is unavailable, the single lookup is used directly.
+     * @return a {@link Mono} emitting the account, or an {@link AccountNotFoundException} if the bulk response omits it
+     */
+    public Mono<BankAccountDTO> fetch(Integer accountId, Function<Integer, Mono<BankAccountDTO>> singleLookup) {
+        if (!settings.isEnabled() || bulkUnavailable()) {
+            return singleLookup.apply(accountId);
+        }
+        return Mono.defer(() -> {
+            PendingLookup lookup = new PendingLookup(accountId, singleLookup, Sinks.one());
+            List<PendingLookup> batch = enqueue(lookup);
+            if (batch != null) {
+                dispatch(batch);
+            }
+            return lookup.result().asMono();
+        });
+    }
+
+    private synchronized List<PendingLookup> enqueue(PendingLookup lookup) {
+        pending.add(lookup);
+        if (pending.size() >= settings.getMaxSize()) {
+            if (scheduledFlush != null) {
+                scheduledFlush.dispose();
+            }
+            return drain();
+        }
+        if (pending.size() == 1) {
+            scheduledFlush = scheduler.schedule(this::flush, settings.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return null;
+    }
+
+    private void flush() {
+        List<PendingLookup> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private List<PendingLookup> drain() {
+        List<PendingLookup> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void dispatch(List<PendingLookup> batch) {
+        List<Integer> ids = batch.stream().map(PendingLookup::accountId).distinct().toList();
+        if (ids.size() == 1) {
+            batch.forEach(this::single);
+            return;
+        }
+        if (bulkUnavailable()) {
+            batch.forEach(this::fallback);
+            return;
+        }
+        bulkRequests.increment();
+        batchedLookups.add(batch.size());
+        requestBankAccounts(ids).subscribe(
+                accounts -> batch.forEach(lookup -> complete(lookup, accounts.get(lookup.accountId()))),
+                error -> handleBulkError(batch, error));
+    }
+
+    private Mono<Map<Integer, BankAccountDTO>> requestBankAccounts(List<Integer> ids) {
+        return webClient.get()
+                .uri(accountServiceUrl + "?ids={ids}", ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .retrieve()
+                .bodyToFlux(BankAccountDTO.class)
+                .onErrorMap(AccountServiceResilienceFilter::unwrap)
+                .collectMap(BankAccountDTO::getId);
+    }
+
+    private void complete(PendingLookup lookup, BankAccountDTO account) {
+        if (account == null) {
+            lookup.result().tryEmitError(new AccountNotFoundException("Account with ID " + lookup.accountId() + " not found."));
+        } else {
+            lookup.result().tryEmitValue(account);
+        }
+    }
+
+    private void handleBulkError(List<PendingLookup> batch, Throwable error) {
+        if (error instanceof WebClientResponseException responseException
+                && BULK_UNAVAILABLE.contains(HttpStatus.resolve(responseException.getStatusCode().value()))) {
+            bulkUnavailableUntil = System.nanoTime() + settings.getUnavailableCooldown().toNanos();
+            batch.forEach(this::fallback);
+        } else {
+            batch.forEach(lookup -> lookup.result().tryEmitError(error));
+        }
+    }
+
+    private void fallback(PendingLookup lookup) {
+        fallbackLookups.increment();
+        single(lookup);
+    }
+
+    private void single(PendingLookup lookup) {
+        lookup.singleLookup().apply(lookup.accountId()).subscribe(
+                account -> lookup.result().tryEmitValue(account),
+                error -> lookup.result().tryEmitError(error),
+                () -> lookup.result().tryEmitEmpty());
+    }
+
+    private boolean bulkUnavailable() {
+        return bulkUnavailableUntil != 0 && bulkUnavailableUntil - System.nanoTime() > 0;
+    }
+
+    /**
+     * Lookup waiting for its batch to be sent.
+     * @param accountId the ID of the account to look up
+     * @param singleLookup the single-account lookup used as fallback
+     * @param result the sink completed with the outcome of the lookup
+     */
+    private record PendingLookup(Integer accountId, Function<Integer, Mono<BankAccountDTO>> singleLookup,
+                                 Sinks.One<BankAccountDTO> result) {
+    }
+}
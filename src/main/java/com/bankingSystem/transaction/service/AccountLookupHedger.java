@@ -0,0 +1,120 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second, hedge request for an idempotent account lookup when the first one has not
+ * answered within a delay derived from a percentile of recent lookup latencies, and returns
+ * whichever response arrives first; the slower request is cancelled. Each lookup earns a fraction
+ * of a hedge token, so the share of hedged lookups never exceeds the configured ratio.
+ * Only lookups must be hedged; balance updates are not idempotent.
+ */
+@Component
+public class AccountLookupHedger {
+
+    private static final double MAX_HEDGE_TOKENS = 10;
+    private static final int MIN_SAMPLES = 20;
+
+    private final AccountServiceClientProperties.Hedge settings;
+    private final Scheduler scheduler = Schedulers.parallel();
+    private final long[] latencies;
+
+    private final LongAdder lookups;
+    private final LongAdder hedges;
+    private final LongAdder hedgeWins;
+
+    private int recordedLatencies;
+    private int nextLatency;
+    private double hedgeTokens;
+    private volatile long hedgeDelayNanos;
+
+    /**
+     * Creates the hedger and registers its metrics under the {@code account.hedge.*} names.
+     */
+    public AccountLookupHedger(AccountServiceClientProperties properties, MetricsRegistry metricsRegistry) {
+        this.settings = properties.getHedge();
+        this.latencies = new long[settings.getSampleSize()];
+        this.hedgeDelayNanos = clamp(settings.getInitialDelay().toNanos());
+        this.lookups = metricsRegistry.counter("account.hedge.lookups");
+        this.hedges = metricsRegistry.counter("account.hedge.hedges");
+        this.hedgeWins = metricsRegistry.counter("account.hedge.wins");
+        metricsRegistry.gauge("account.hedge.delay-ms", () -> hedgeDelayNanos / 1_000_000.0);
+    }
+
+    /**
+     * Performs the lookup, hedging it if it is slower than the current hedge delay and the hedge budget allows it.
+     * The supplier is called once per request sent. An error of either request fails the lookup.
+     * @return a {@link Mono} emitting the first response received
+     */
+    public <T> Mono<T> hedge(Supplier<Mono<T>> lookup) {
+        if (!settings.isEnabled()) {
+            return lookup.get();
+        }
+        return Mono.defer(() -> {
+            lookups.increment();
+            earnHedgeToken();
+            Mono<T> primary = timed(lookup);
+            Mono<T> hedge = Mono.delay(getHedgeDelay(), scheduler)
+                    .filter(tick -> trySpendHedgeToken())
+                    .flatMap(tick -> {
+                        hedges.increment();
+                        return timed(lookup).doOnNext(value -> hedgeWins.increment());
+                    });
+            return Flux.merge(primary, hedge).next();
+        });
+    }
+
+    /**
+     * Returns the delay after which a pending lookup is hedged.
+     * @return the current hedge delay
+     */
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> lookup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return lookup.get().doOnNext(value -> recordLatency(System.nanoTime() - start));
+        });
+    }
+
+    private synchronized void earnHedgeToken() {
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + settings.getMaxHedgeRatio());
+    }
+
+    private synchronized boolean trySpendHedgeToken() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens--;
+        return true;
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        latencies[nextLatency] = latencyNanos;
+        nextLatency = (nextLatency + 1) % latencies.length;
+        recordedLatencies = Math.min(recordedLatencies + 1, latencies.length);
+        if (recordedLatencies >= MIN_SAMPLES && nextLatency % Math.max(1, latencies.length / 20) == 0) {
+            long[] sorted = Arrays.copyOf(latencies, recordedLatencies);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(settings.getDelayPercentile() / 100.0 * sorted.length) - 1;
+            hedgeDelayNanos = clamp(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+        }
+    }
+
+    private long clamp(long delayNanos) {
+        return Math.max(settings.getMinDelay().toNanos(), Math.min(settings.getMaxDelay().toNanos(), delayNanos));
+    }
+}
@@ -1,50 +1,111 @@
 package com.bankingSystem.transaction.service;
 
+import com.bankingSystem.transaction.cache.AccountSnapshotCache;
+import com.bankingSystem.transaction.cache.SingleFlight;
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.model.dto.AccountSnapshot;
 import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
 import com.bankingSystem.transaction.exceptionhandler.AccountServiceErrorHandler;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.logging.StructuredLog;
+import com.bankingSystem.transaction.resilience.AccountServiceResilienceFilter;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Client for interacting with the account service to retrieve account details and adjust balances.
  * This service communicates with the account service using {@link WebClient} to fetch account information
  * and update account balances. It also handles errors using the {@link AccountServiceErrorHandler}.
+ * The static attributes of every fetched account are kept in an {@link AccountSnapshotCache}, and
+ * concurrent lookups of the same account are coalesced into one request through a {@link SingleFlight}.
+ * Lookups of different accounts may additionally be grouped into bulk requests by the {@link AccountLookupBatcher},
+ * and slow single lookups may be hedged by the {@link AccountLookupHedger}.
+ * Responses are handled on the account service scheduler of the {@link IsolatedSchedulers}, which keeps the
+ * client event loop free for I/O. That scheduler never rejects a response, so a balance change that was applied
+ * is never reported as rejected.
  */
 @Service
 @RequiredArgsConstructor
 public class AccountServiceClient {
 
+    private static final Logger logger = LoggerFactory.getLogger(AccountServiceClient.class);
+
     private final WebClient webClient;
     private final AccountServiceErrorHandler errorHandler;
     private final String accountServiceUrl;
+    private final AccountSnapshotCache accountSnapshotCache;
+    private final SingleFlight<Integer, BankAccountDTO> accountLookups;
+    private final AccountLookupBatcher accountLookupBatcher;
+    private final AccountServiceClientProperties properties;
+    private final AccountLookupHedger accountLookupHedger;
+    private final IsolatedSchedulers isolatedSchedulers;
 
     /**
      * Fetches the bank account details by account ID.
      * This method makes a GET request to the account service to retrieve the details of the account
-     * corresponding to the provided account ID.
+     * corresponding to the provided account ID. Callers asking for the same account while a request is
+     * in flight share that request and receive the same result or error.
      * @return A {@link Mono} containing the {@link BankAccountDTO} with account details.
      */
     public Mono<BankAccountDTO> fetchBankAccountById(Integer accountId) {
-        return webClient.get()
-                .uri(accountServiceUrl + "/{accountId}", accountId)
-                .retrieve()
-                .onStatus(
-                        status -> status.is4xxClientError(),
-                        clientResponse -> errorHandler.handleAccountError(clientResponse, accountId)
-                )
-                .bodyToMono(BankAccountDTO.class)
-                .doOnNext(account -> System.out.println("Account received: " + account))
-                .doOnError(e -> System.err.println("Error getting account: " + e.getMessage()));
+        return accountLookups.execute(accountId, () -> accountLookupBatcher.fetch(accountId, this::requestBankAccount)
+                .publishOn(isolatedSchedulers.accountService())
+                .doOnNext(account -> accountSnapshotCache.put(AccountSnapshot.from(account)))
+                .doOnError(AccountNotFoundException.class, e -> accountSnapshotCache.invalidate(accountId)));
+    }
+
+    private Mono<BankAccountDTO> requestBankAccount(Integer accountId) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return accountLookupHedger.hedge(() -> webClient.get()
+                            .uri(accountServiceUrl + "/{accountId}", accountId)
+                            .retrieve()
+                            .onStatus(
+                                    status -> status.is4xxClientError(),
+                                    clientResponse -> errorHandler.handleAccountError(clientResponse, accountId)
+                            )
+                            .bodyToMono(BankAccountDTO.class)
+                            .onErrorMap(AccountServiceResilienceFilter::unwrap))
+                    .doOnNext(account -> StructuredLog.success(logger, "account-lookup", start)
+                            .addKeyValue("accountId", accountId)
+                            .log("Account received"))
+                    .doOnError(e -> StructuredLog.failure(logger, "account-lookup", start, e)
+                            .addKeyValue("accountId", accountId)
+                            .log("Error getting account"));
+        });
+    }
+
+    /**
+     * Fetches the static attributes of a bank account (number, type and customer).
+     * The snapshot is served from the {@link AccountSnapshotCache} when available and only
+     * falls back to {@link #fetchBankAccountById(Integer)} on a miss.
+     * @return A {@link Mono} containing the {@link AccountSnapshot} of the account.
+     */
+    public Mono<AccountSnapshot> fetchAccountSnapshot(Integer accountId) {
+        return Mono.defer(() -> {
+            AccountSnapshot cached = accountSnapshotCache.get(accountId);
+            return cached != null
+                    ? Mono.just(cached)
+                    : fetchBankAccountById(accountId).map(AccountSnapshot::from);
+        });
     }
 
     /**
      * Adjusts the balance of a specific bank account.
      * This method makes a PUT request to update the balance of the bank account with the specified account ID.
+     * A successful update refreshes the cached snapshot of the account, while a failure evicts it.
+     * The update is never hedged.
      * @return A {@link Mono} representing the completion of the update.
      */
     public Mono<Void> adjustBankAccountBalance(Integer accountId, BigDecimal newBalance) {
@@ -52,6 +113,52 @@ public class AccountServiceClient {
                 .uri(accountServiceUrl + "/{accountId}/balance", accountId)
                 .bodyValue(Map.of("balance", newBalance))
                 .retrieve()
-                .bodyToMono(Void.class);
+                .bodyToMono(Void.class)
+                .onErrorMap(AccountServiceResilienceFilter::unwrap)
+                .publishOn(isolatedSchedulers.accountService())
+                .doOnSuccess(ignored -> accountSnapshotCache.refresh(accountId))
+                .doOnError(e -> accountSnapshotCache.invalidate(accountId));
+    }
+
+    /**
+     * Indicates whether balances should be updated with {@link #applyBalanceDelta(Integer, BigDecimal, BigDecimal)}
+     * rather than by reading the account and writing back the absolute balance.
+     * @return {@code true} if the delta operation is enabled.
+     */
+    public boolean isBalanceDeltaEnabled() {
+        return properties.isBalanceDeltaEnabled();
+    }
+
+    /**
+     * Applies a signed delta to the balance of a specific bank account.
+     * This method makes a POST request so that the account service adds the delta atomically, without a
+     * previous read. When a minimum balance is given, the account service rejects the update if the resulting
+     * balance would fall below it, which is reported as an {@link InsufficientBalanceException}.
+     * @return A {@link Mono} containing the {@link BankAccountDTO} with the updated balance.
+     */
+    public Mono<BankAccountDTO> applyBalanceDelta(Integer accountId, BigDecimal delta, BigDecimal minimumBalance) {
+        return webClient.post()
+                .uri(accountServiceUrl + "/{accountId}/balance/delta", accountId)
+                .bodyValue(deltaRequestBody(delta, minimumBalance))
+                .retrieve()
+                .onStatus(
+                        status -> status.value() == HttpStatus.CONFLICT.value() || status.value() == HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        clientResponse -> Mono.error(new InsufficientBalanceException("Insufficient balance in account " + accountId)))
+                .onStatus(
+                        status -> status.is4xxClientError(),
+                        clientResponse -> errorHandler.handleAccountError(clientResponse, accountId))
+                .bodyToMono(BankAccountDTO.class)
+                .onErrorMap(AccountServiceResilienceFilter::unwrap)
+                .publishOn(isolatedSchedulers.accountService())
+                .doOnNext(account -> accountSnapshotCache.put(AccountSnapshot.from(account)));
+    }
+
+    private Map<String, BigDecimal> deltaRequestBody(BigDecimal delta, BigDecimal minimumBalance) {
+        Map<String, BigDecimal> body = new HashMap<>();
+        body.put("delta", delta);
+        if (minimumBalance != null) {
+            body.put("minimumBalance", minimumBalance);
+        }
+        return body;
     }
 }
@@ -0,0 +1,207 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.cache.IdempotencyCache;
+import com.bankingSystem.transaction.cache.SingleFlight;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
+import com.bankingSystem.transaction.exceptionhandler.IdempotencyKeyConflictException;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.exceptionhandler.UnsupportedBalanceException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import com.bankingSystem.transaction.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs an operation at most once per {@code Idempotency-Key} and returns its original outcome to repeated requests.
+ * A repeated key is answered from the {@link IdempotencyCache}, or else from the database. A new key is reserved
+ * by inserting a pending record, whose unique id makes concurrent reservations from any instance fail, and the
+ * record is completed with the resulting transaction. Concurrent requests with the same key on this instance join
+ * the request already in flight. While the operation runs, the expiry of the pending record is renewed, so that a
+ * request queued for longer than the pending timeout does not lose its key to another instance.
+ * An operation rejected before it changed anything, e.g. by validation or for an insufficient balance, releases its
+ * key so that it can be retried. Any other failure, such as a timeout of the account service, may have left a
+ * change applied, so the key is kept with an unknown outcome and repeated requests are rejected instead of running
+ * the operation again. A key first used with a different request, still in progress, or of unknown outcome, is
+ * rejected with an {@link IdempotencyKeyConflictException}.
+ */
+@Component
+public class IdempotencyGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyGuard.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionProperties.Idempotency settings;
+    private final SingleFlight<String, Outcome> singleFlight;
+
+    private final LongAdder replays;
+    private final LongAdder conflicts;
+
+    /**
+     * Creates the guard and registers its metrics under the {@code transaction.idempotency.*} names.
+     */
+    public IdempotencyGuard(IdempotencyRecordRepository idempotencyRecordRepository, IdempotencyCache idempotencyCache,
+                            TransactionProperties properties, MetricsRegistry metricsRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.settings = properties.getIdempotency();
+        this.singleFlight = new SingleFlight<>("transaction.idempotency", metricsRegistry);
+        this.replays = metricsRegistry.counter("transaction.idempotency.replays");
+        this.conflicts = metricsRegistry.counter("transaction.idempotency.conflicts");
+    }
+
+    /**
+     * Runs the operation once for the key, or returns the transaction of the request that first used it.
+     * Without a key, or when idempotency is disabled, the operation simply runs.
+     * @param key the {@code Idempotency-Key} of the request, or {@code null}
+     * @param type the type of the operation, which scopes the key
+     * @param fingerprint the identity of the request, compared with the one the key was first used with
+     * @param operation the operation to run
+     * @return a {@link Mono} emitting the transaction of the operation
+     */
+    public Mono<Transaction> execute(String key, TransactionType type, String fingerprint, Supplier<Mono<Transaction>> operation) {
+        if (key == null || !settings.isEnabled()) {
+            return Mono.defer(operation);
+        }
+        if (key.isBlank() || key.length() > settings.getMaxKeyLength()) {
+            return Mono.error(new IllegalArgumentException(
+                    "The Idempotency-Key must have between 1 and " + settings.getMaxKeyLength() + " characters"));
+        }
+        String id = type.name() + ":" + key;
+        return singleFlight.execute(id, () -> resolve(id, fingerprint, operation))
+                .flatMap(outcome -> answer(outcome, fingerprint));
+    }
+
+    /**
+     * Builds the fingerprint of a request from its parameters; amounts are compared by value, regardless of scale.
+     * @return the fingerprint
+     */
+    public static String fingerprint(Object... parameters) {
+        return Arrays.stream(parameters)
+                .map(parameter -> parameter instanceof BigDecimal amount ? amount.stripTrailingZeros().toPlainString() : String.valueOf(parameter))
+                .collect(Collectors.joining("|"));
+    }
+
+    /**
+     * Builds the fingerprint of an operation from its accounts and its amount.
+     * @return the fingerprint
+     */
+    public static String fingerprint(TransactionOperation operation) {
+        List<Object> parameters = new ArrayList<>(operation.accountIds());
+        parameters.add(operation.amount());
+        return fingerprint(parameters.toArray());
+    }
+
+    private Mono<Outcome> resolve(String id, String fingerprint, Supplier<Mono<Transaction>> operation) {
+        IdempotencyRecord cached = idempotencyCache.get(id);
+        if (cached != null) {
+            return Mono.just(new Outcome(cached, true));
+        }
+        IdempotencyRecord pending = new IdempotencyRecord(id, fingerprint, null, false, Instant.now().plus(settings.getPendingTimeout()));
+        return idempotencyRecordRepository.insert(pending)
+                .flatMap(reserved -> run(reserved, operation))
+                .onErrorResume(DuplicateKeyException.class, e -> idempotencyRecordRepository.findById(id)
+                        .doOnNext(idempotencyCache::put)
+                        .map(existing -> new Outcome(existing, true))
+                        .switchIfEmpty(Mono.error(new IdempotencyKeyConflictException("The request with this key is still being processed"))));
+    }
+
+    private Mono<Outcome> run(IdempotencyRecord reserved, Supplier<Mono<Transaction>> operation) {
+        return Mono.using(() -> renewWhilePending(reserved.getId()), ignored -> Mono.defer(operation), Disposable::dispose)
+                .onErrorResume(error -> (isDefiniteRejection(error)
+                        ? idempotencyRecordRepository.delete(reserved)
+                        : idempotencyRecordRepository.save(unknownOutcome(reserved)).then())
+                        .onErrorResume(releaseError -> Mono.empty())
+                        .then(Mono.error(error)))
+                .flatMap(transaction -> complete(reserved, transaction));
+    }
+
+    private Disposable renewWhilePending(String id) {
+        Duration interval = settings.getPendingTimeout().dividedBy(2);
+        return Flux.interval(interval, interval)
+                .concatMap(tick -> idempotencyRecordRepository.renewPending(id, Instant.now().plus(settings.getPendingTimeout()))
+                        .onErrorResume(error -> {
+                            logger.warn("Could not renew the pending idempotency key {}", id, error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Indicates whether the operation failed before changing anything: it was rejected by validation, a limit, the
+     * balance or a missing account, or shed for overload, and no compensation of it failed.
+     */
+    private static boolean isDefiniteRejection(Throwable error) {
+        return error.getSuppressed().length == 0
+                && (error instanceof IllegalArgumentException || error instanceof InsufficientBalanceException
+                || error instanceof AccountNotFoundException || error instanceof UnsupportedBalanceException
+                || error instanceof RejectedExecutionException);
+    }
+
+    private IdempotencyRecord unknownOutcome(IdempotencyRecord reserved) {
+        return new IdempotencyRecord(reserved.getId(), reserved.getFingerprint(), null, true,
+                Instant.now().plus(settings.getRetention()));
+    }
+
+    private Mono<Outcome> complete(IdempotencyRecord reserved, Transaction transaction) {
+        IdempotencyRecord completed = new IdempotencyRecord(reserved.getId(), reserved.getFingerprint(), transaction,
+                false, Instant.now().plus(settings.getRetention()));
+        idempotencyCache.put(completed);
+        return idempotencyRecordRepository.save(completed)
+                .onErrorResume(error -> {
+                    logger.warn("Could not store the outcome of idempotency key {}", completed.getId(), error);
+                    return Mono.just(completed);
+                })
+                .thenReturn(new Outcome(completed, false));
+    }
+
+    private Mono<Transaction> answer(Outcome outcome, String fingerprint) {
+        IdempotencyRecord record = outcome.record();
+        if (!record.getFingerprint().equals(fingerprint)) {
+            conflicts.increment();
+            return Mono.error(new IdempotencyKeyConflictException("The key was already used with a different request"));
+        }
+        if (record.isOutcomeUnknown()) {
+            conflicts.increment();
+            return Mono.error(new IdempotencyKeyConflictException(
+                    "The outcome of the request with this key is unknown and needs to be reconciled"));
+        }
+        if (!record.isCompleted()) {
+            conflicts.increment();
+            return Mono.error(new IdempotencyKeyConflictException("The request with this key is still being processed"));
+        }
+        if (outcome.replayed()) {
+            replays.increment();
+        }
+        return Mono.just(record.getTransaction());
+    }
+
+    /**
+     * Record of a key together with whether it came from an earlier request.
+     * @param record the record of the key
+     * @param replayed whether the record was stored by an earlier request rather than by this call
+     */
+    private record Outcome(IdempotencyRecord record, boolean replayed) {
+    }
+}
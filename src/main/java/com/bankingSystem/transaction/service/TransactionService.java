@@ -1,10 +1,19 @@
 package com.bankingSystem.transaction.service;
 
+import com.bankingSystem.transaction.model.AccountRollup;
 import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionGrouping;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.dto.TransactionPage;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import com.bankingSystem.transaction.model.request.BatchTransactionRequest;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import com.bankingSystem.transaction.model.request.TransferRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.LocalDateTime;
 
 /**
  * Service interface for handling banking transactions such as deposits, withdrawals, and transfers.
@@ -15,30 +24,94 @@ public interface TransactionService {
 
     /**
      * Registers a deposit transaction for a specified account.
-     * This method processes a deposit for the given account and amount.
+     * This method processes a deposit for the given account and amount. A repeated idempotency key returns the
+     * transaction of the first request instead of processing the deposit again.
+     * @param idempotencyKey the key identifying retries of the same request, or {@code null}
      * @return A {@link Mono} containing the processed {@link Transaction}.
      */
-    Mono<Transaction> registerDeposit(Integer accountId, BigDecimal amount);
+    Mono<Transaction> registerDeposit(Integer accountId, BigDecimal amount, String idempotencyKey);
 
     /**
      * Registers a withdrawal transaction for a specified account.
-     * This method processes a withdrawal for the given account and amount.
+     * This method processes a withdrawal for the given account and amount. A repeated idempotency key returns the
+     * transaction of the first request instead of processing the withdrawal again.
+     * @param idempotencyKey the key identifying retries of the same request, or {@code null}
      * @return A {@link Mono} containing the processed {@link Transaction}.
      */
-    Mono<Transaction> registerWithdrawal(Integer accountId, BigDecimal amount);
+    Mono<Transaction> registerWithdrawal(Integer accountId, BigDecimal amount, String idempotencyKey);
 
     /**
      * Registers a transfer transaction between two accounts.
      * This method processes a transfer between the source account and the destination account for the given amount.
+     * A repeated idempotency key returns the transaction of the first request instead of processing the transfer again.
+     * @param idempotencyKey the key identifying retries of the same request, or {@code null}
      * @return A {@link Mono} containing the processed {@link Transaction}.
      */
-    Mono<Transaction> registerTransfer(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount);
+    Mono<Transaction> registerTransfer(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount, String idempotencyKey);
 
     /**
      * Retrieves the transaction history of all transactions.
-     * This method fetches a list of all transactions in the system.
-     * @return A {@link Mono} containing a list of {@link Transaction} objects.
+     * This method streams every transaction in the system as it is read from the database,
+     * honouring the demand of the subscriber, so memory use does not grow with the history size.
+     * @return A {@link Flux} of {@link Transaction} objects.
      */
-    Mono<List<Transaction>> getTransactionHistory();
+    Flux<Transaction> getTransactionHistory();
+
+    /**
+     * Retrieves one page of the transaction history, newest first.
+     * This method uses keyset pagination: the cursor of the previous page tells where the next one starts.
+     * @return A {@link Mono} containing the {@link TransactionPage} with the transactions and the next cursor.
+     */
+    Mono<TransactionPage> getTransactionHistoryPage(String cursor, Integer size);
+
+    /**
+     * Searches transactions by account, type, date range and amount range, newest first.
+     * This method requires at least one filter that is backed by an index, so a search never scans the whole collection.
+     * @return A {@link Flux} of the matching {@link Transaction} objects, or an {@link IllegalArgumentException}
+     * if no indexed filter is given or the size is out of range.
+     */
+    Flux<Transaction> searchTransactions(TransactionSearchRequest request);
+
+    /**
+     * Computes the number and the total amount of the transactions in the date range, per type, account or day.
+     * The totals are computed by the database, which only returns one row per group.
+     * @return A {@link Flux} of {@link TransactionTotal} rows ordered by key, or an {@link IllegalArgumentException}
+     * if the date range is inverted.
+     */
+    Flux<TransactionTotal> getTransactionTotals(TransactionGrouping grouping, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves the materialized figures of an account: totals per kind of movement, number of transactions
+     * and last activity. The figures are read from a single document, whatever the length of the history.
+     * @return A {@link Mono} containing the {@link AccountRollup}, or empty if the account has no transactions.
+     */
+    Mono<AccountRollup> getAccountRollup(String accountNumber);
+
+    /**
+     * Recomputes the figures of every account from the stored transactions.
+     * @return A {@link Mono} containing the number of accounts with figures after the rebuild.
+     */
+    Mono<Long> rebuildAccountRollups();
+
+    /**
+     * Retrieves the most recent transactions of an account, as origin or destination, newest first.
+     * They are served from memory once the account has been read.
+     * @return A {@link Flux} of at most {@code size} transactions.
+     */
+    Flux<Transaction> getRecentTransactions(String accountNumber, Integer size);
+
+    /**
+     * Processes a stream of deposits, withdrawals and transfers, several at a time, keeping the order of the
+     * items on each account. A failed item does not stop the batch.
+     * @return A {@link Flux} of one {@link BatchItemResult} per item, in the order the items complete.
+     */
+    Flux<BatchItemResult> processBatch(Flux<BatchTransactionRequest> items);
+
+    /**
+     * Settles a stream of transfers in windows, writing one net balance change per account and window instead of
+     * two balance updates per transfer. A transaction is still recorded for every settled transfer.
+     * @return A {@link Flux} of one {@link BatchItemResult} per transfer.
+     */
+    Flux<BatchItemResult> processNettedTransfers(Flux<TransferRequest> transfers);
 
 }
@@ -1,32 +1,66 @@
 package com.bankingSystem.transaction.service.impl;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.concurrency.AccountSequencer;
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.AccountRollup;
 import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionGrouping;
 import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.dto.HistoryCursor;
+import com.bankingSystem.transaction.model.dto.TransactionPage;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.model.operation.TransactionOperation;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
+import com.bankingSystem.transaction.model.request.BatchTransactionRequest;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import com.bankingSystem.transaction.model.request.TransferRequest;
+import com.bankingSystem.transaction.repository.AccountRollupRebuildJob;
+import com.bankingSystem.transaction.repository.AccountRollupRepository;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.service.IdempotencyGuard;
 import com.bankingSystem.transaction.service.TransactionService;
-import com.bankingSystem.transaction.processor.TransactionProcessor;
-import com.bankingSystem.transaction.factory.TransactionProcessorFactory;
-import com.bankingSystem.transaction.processor.TransferProcessor;
+import com.bankingSystem.transaction.factory.TransactionProcessorRegistry;
+import com.bankingSystem.transaction.processor.TransferNettingProcessor;
 import lombok.AllArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the {@link TransactionService} interface.
  * This service handles the processing of different types of transactions, including deposits,
- * withdrawals, and transfers. It uses the {@link TransactionProcessorFactory} to create specific
- * processors for each type of transaction and interacts with the {@link TransactionRepository}
- * to save and retrieve transactions.
+ * withdrawals, and transfers. It hands each typed operation to the {@link TransactionProcessorRegistry}, which
+ * runs it through the shared processor of its type, and interacts with the {@link TransactionRepository}
+ * to save and retrieve transactions. Operations on the same account are serialized by the
+ * {@link AccountSequencer}, so concurrent updates of one balance cannot overwrite each other, and requests
+ * retried with the same idempotency key are processed once by the {@link IdempotencyGuard}.
+ * Query results are handed over to the {@link IsolatedSchedulers}: the transaction history, whose serialization
+ * dominates its cost, to the CPU scheduler, and the other reads to the MongoDB scheduler.
  */
 @Service
 @AllArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
-    private final TransactionProcessorFactory transactionProcessorFactory;
+    private final TransactionProcessorRegistry transactionProcessorRegistry;
     private final TransactionRepository transactionRepository;
+    private final AccountSequencer accountSequencer;
+    private final TransactionProperties transactionProperties;
+    private final AccountRollupRepository accountRollupRepository;
+    private final AccountRollupRebuildJob accountRollupRebuildJob;
+    private final IdempotencyGuard idempotencyGuard;
+    private final RecentTransactionsCache recentTransactionsCache;
+    private final IsolatedSchedulers isolatedSchedulers;
 
     /**
      * Registers a deposit transaction.
@@ -34,9 +68,10 @@ public class TransactionServiceImpl implements TransactionService {
      * @return A {@link Mono} containing the processed {@link Transaction}.
      */
     @Override
-    public Mono<Transaction> registerDeposit(Integer accountId, BigDecimal amount) {
-        TransactionProcessor processor = transactionProcessorFactory.buildTransactionProcessor(TransactionType.SAVING);
-        return processor.processTransaction(accountId, amount);
+    public Mono<Transaction> registerDeposit(Integer accountId, BigDecimal amount, String idempotencyKey) {
+        DepositOperation operation = new DepositOperation(accountId, amount);
+        return idempotencyGuard.execute(idempotencyKey, TransactionType.SAVING, IdempotencyGuard.fingerprint(operation),
+                () -> accountSequencer.execute(accountId, () -> transactionProcessorRegistry.process(operation)));
     }
 
     /**
@@ -45,9 +80,10 @@ public class TransactionServiceImpl implements TransactionService {
      * @return A {@link Mono} containing the processed {@link Transaction}.
      */
     @Override
-    public Mono<Transaction> registerWithdrawal(Integer accountId, BigDecimal amount) {
-        TransactionProcessor processor = transactionProcessorFactory.buildTransactionProcessor(TransactionType.WITHDRAWAL);
-        return processor.processTransaction(accountId, amount);
+    public Mono<Transaction> registerWithdrawal(Integer accountId, BigDecimal amount, String idempotencyKey) {
+        WithdrawalOperation operation = new WithdrawalOperation(accountId, amount);
+        return idempotencyGuard.execute(idempotencyKey, TransactionType.WITHDRAWAL, IdempotencyGuard.fingerprint(operation),
+                () -> accountSequencer.execute(accountId, () -> transactionProcessorRegistry.process(operation)));
     }
 
     /**
@@ -57,19 +93,171 @@ public class TransactionServiceImpl implements TransactionService {
      * @return A {@link Mono} containing the processed {@link Transaction}.
      */
     @Override
-    public Mono<Transaction> registerTransfer(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount) {
-        TransactionProcessor processor = transactionProcessorFactory.buildTransactionProcessor(TransactionType.TRANSFER);
-        return ((TransferProcessor) processor).processTransfer(sourceAccountId, destinationAccountId, amount);
+    public Mono<Transaction> registerTransfer(Integer sourceAccountId, Integer destinationAccountId, BigDecimal amount,
+                                              String idempotencyKey) {
+        TransferOperation operation = new TransferOperation(sourceAccountId, destinationAccountId, amount);
+        return idempotencyGuard.execute(idempotencyKey, TransactionType.TRANSFER, IdempotencyGuard.fingerprint(operation),
+                () -> accountSequencer.execute(sourceAccountId, destinationAccountId, () -> transactionProcessorRegistry.process(operation)));
     }
 
     /**
      * Retrieves the transaction history.
-     * This method fetches all transactions from the repository and returns them as a list.
-     * @return A {@link Mono} containing a list of all {@link Transaction} objects.
+     * This method streams all transactions from the repository without collecting them in memory.
+     * @return A {@link Flux} of all {@link Transaction} objects.
      */
     @Override
-    public Mono<List<Transaction>> getTransactionHistory() {
-        return transactionRepository.findAll()
-                .collectList();
+    public Flux<Transaction> getTransactionHistory() {
+        return transactionRepository.findAll().publishOn(isolatedSchedulers.cpu());
+    }
+
+    /**
+     * Retrieves one page of the transaction history, newest first.
+     * Without a cursor the first page is returned; otherwise the page starts right after the cursor position.
+     * @return A {@link Mono} containing the {@link TransactionPage}, or an {@link IllegalArgumentException}
+     * if the page size is out of range or the cursor is invalid.
+     */
+    @Override
+    public Mono<TransactionPage> getTransactionHistoryPage(String cursor, Integer size) {
+        return Mono.defer(() -> {
+            int pageSize = resolvePageSize(size);
+            Flux<Transaction> page = cursor == null
+                    ? transactionRepository.findAllByOrderByDateDescIdDesc(Limit.of(pageSize))
+                    : findPageAfter(HistoryCursor.decode(cursor), pageSize);
+            return page.publishOn(isolatedSchedulers.cpu())
+                    .collectList()
+                    .map(items -> new TransactionPage(items,
+                            items.size() < pageSize ? null : HistoryCursor.after(items.get(items.size() - 1)).encode()));
+        });
+    }
+
+    /**
+     * Searches transactions by the filters of the request, newest first.
+     * The number of results defaults to the history page size and is bounded by its maximum.
+     * @return A {@link Flux} of the matching {@link Transaction} objects, or an {@link IllegalArgumentException}
+     * if the request has no indexed filter or the size is out of range.
+     */
+    @Override
+    public Flux<Transaction> searchTransactions(TransactionSearchRequest request) {
+        return Flux.defer(() -> {
+            if (!request.hasIndexedFilter()) {
+                throw new IllegalArgumentException("At least one of account, originAccount, destinationAccount, type, from or to is required");
+            }
+            return transactionRepository.search(request, resolvePageSize(request.getSize()))
+                    .publishOn(isolatedSchedulers.mongo());
+        });
+    }
+
+    /**
+     * Computes the totals of the transactions in the date range, grouped as requested.
+     * @return A {@link Flux} of {@link TransactionTotal} rows, or an {@link IllegalArgumentException}
+     * if {@code from} is after {@code to}.
+     */
+    @Override
+    public Flux<TransactionTotal> getTransactionTotals(TransactionGrouping grouping, LocalDateTime from, LocalDateTime to) {
+        return Flux.defer(() -> {
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("The start of the date range must not be after its end");
+            }
+            return transactionRepository.aggregateTotals(grouping, from, to).publishOn(isolatedSchedulers.mongo());
+        });
+    }
+
+    /**
+     * Retrieves the rollup document of the account.
+     * @return A {@link Mono} containing the {@link AccountRollup}, or empty if there is none.
+     */
+    @Override
+    public Mono<AccountRollup> getAccountRollup(String accountNumber) {
+        return accountRollupRepository.findById(accountNumber).publishOn(isolatedSchedulers.mongo());
+    }
+
+    /**
+     * Rebuilds the rollup documents of every account.
+     * @return A {@link Mono} containing the number of rollups after the rebuild.
+     */
+    @Override
+    public Mono<Long> rebuildAccountRollups() {
+        return accountRollupRebuildJob.rebuild();
+    }
+
+    /**
+     * Retrieves the most recent transactions of an account from the {@link RecentTransactionsCache}, which loads
+     * them from the repository on the first read of the account.
+     * @return A {@link Flux} of the transactions, newest first, or an {@link IllegalArgumentException}
+     * if the size is out of range.
+     */
+    @Override
+    public Flux<Transaction> getRecentTransactions(String accountNumber, Integer size) {
+        return Flux.defer(() -> {
+            int perAccount = transactionProperties.getRecent().getPerAccount();
+            int limit = size == null ? perAccount : size;
+            if (limit < 1 || limit > perAccount) {
+                throw new IllegalArgumentException("Size must be between 1 and " + perAccount);
+            }
+            return recentTransactionsCache.recent(accountNumber, limit, account -> transactionRepository.search(
+                            TransactionSearchRequest.builder().account(account).build(), perAccount))
+                    .flatMapIterable(transactions -> transactions);
+        });
+    }
+
+    /**
+     * Processes the items of a batch with at most the configured parallelism.
+     * Each item takes its place on the {@link AccountSequencer} when it is picked up, in the order of the batch,
+     * so items on the same account complete in that order while items on other accounts run concurrently.
+     * The idempotency key of an item is checked in its turn on the account. Only the items in progress are held
+     * in memory, and the results are emitted as soon as each item completes.
+     * @return A {@link Flux} of one {@link BatchItemResult} per item.
+     */
+    @Override
+    public Flux<BatchItemResult> processBatch(Flux<BatchTransactionRequest> items) {
+        int parallelism = Math.max(1, transactionProperties.getBatch().getParallelism());
+        return items.index()
+                .flatMap(item -> processBatchItem(item.getT2())
+                        .map(transaction -> BatchItemResult.success(item.getT1(), transaction))
+                        .onErrorResume(error -> Mono.just(BatchItemResult.failure(item.getT1(), error))), parallelism);
+    }
+
+    /**
+     * Settles the transfers window by window with the {@link TransferNettingProcessor}.
+     * A window holds every account it involves on the {@link AccountSequencer} while it is settled, so that the
+     * balances it reads stay valid until its net changes are written; windows are settled one after the other.
+     * @return A {@link Flux} of one {@link BatchItemResult} per transfer, window by window.
+     */
+    @Override
+    public Flux<BatchItemResult> processNettedTransfers(Flux<TransferRequest> transfers) {
+        int window = Math.max(1, transactionProperties.getBatch().getNettingWindow());
+        TransferNettingProcessor processor = transactionProcessorRegistry.nettingProcessor();
+        return transfers.index()
+                .buffer(window)
+                .concatMap(batch -> accountSequencer.execute(TransferNettingProcessor.accountsOf(batch), () -> processor.settle(batch)))
+                .flatMapIterable(results -> results);
+    }
+
+    private Mono<Transaction> processBatchItem(BatchTransactionRequest item) {
+        return Mono.defer(() -> {
+            TransactionOperation operation = item.toOperation();
+            Supplier<Mono<Transaction>> guarded = () -> idempotencyGuard.execute(item.getIdempotencyKey(), operation.type(),
+                    IdempotencyGuard.fingerprint(operation), () -> transactionProcessorRegistry.process(operation));
+            if (operation instanceof TransferOperation transfer) {
+                return accountSequencer.execute(transfer.sourceAccountId(), transfer.destinationAccountId(), guarded);
+            }
+            return accountSequencer.execute(operation.accountIds().get(0), guarded);
+        });
+    }
+
+    private Flux<Transaction> findPageAfter(HistoryCursor cursor, int pageSize) {
+        if (!ObjectId.isValid(cursor.getId())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return transactionRepository.findPageBefore(cursor.getDate(), new ObjectId(cursor.getId()), Limit.of(pageSize));
+    }
+
+    private int resolvePageSize(Integer size) {
+        TransactionProperties.History settings = transactionProperties.getHistory();
+        int pageSize = size == null ? settings.getDefaultPageSize() : size;
+        if (pageSize < 1 || pageSize > settings.getMaxPageSize()) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + settings.getMaxPageSize());
+        }
+        return pageSize;
     }
 }
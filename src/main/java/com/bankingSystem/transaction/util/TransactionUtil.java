@@ -1,5 +1,6 @@
 package com.bankingSystem.transaction.util;
 
+import com.bankingSystem.transaction.model.Money;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
@@ -14,11 +15,18 @@ import java.math.BigDecimal;
 public class TransactionUtil {
 
     /**
-     * Validates if the provided amount is greater than zero.
+     * Validates if the provided amount is greater than zero and representable as {@link Money}, i.e. it has no
+     * more decimal places than the currency scale.
      * @return a {@link Mono} that completes if the amount is valid, or emits an {@link IllegalArgumentException} if the amount is invalid.
      */
     public Mono<Void> validateAmount(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        Money money;
+        try {
+            money = Money.of(amount);
+        } catch (ArithmeticException e) {
+            return Mono.error(new IllegalArgumentException(e.getMessage()));
+        }
+        if (money.signum() <= 0) {
             return Mono.error(new IllegalArgumentException("The amount must be higher than 0."));
         }
         return Mono.empty();
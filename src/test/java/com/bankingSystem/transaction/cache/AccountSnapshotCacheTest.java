@@ -0,0 +1,118 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.AccountSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSnapshotCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private MetricsRegistry metricsRegistry;
+
+    private AccountSnapshotCache accountSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        AccountServiceClientProperties.Cache settings = new AccountServiceClientProperties.Cache();
+        settings.setMaxSize(2);
+        settings.setTtl(Duration.ofSeconds(10));
+        metricsRegistry = new MetricsRegistry();
+        accountSnapshotCache = new AccountSnapshotCache(settings, metricsRegistry, clock::get);
+    }
+
+    @Test
+    /*
+    * Verifies that a stored snapshot is returned and counted as a hit, and an unknown account as a miss.
+    * */
+    void get_StoredAndUnknownAccounts_RecordsHitAndMiss() {
+        // Arrange
+        AccountSnapshot snapshot = snapshot(1);
+        accountSnapshotCache.put(snapshot);
+
+        // Act & Assert
+        assertEquals(snapshot, accountSnapshotCache.get(1));
+        assertNull(accountSnapshotCache.get(2));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.cache.hits"));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.cache.misses"));
+    }
+
+    @Test
+    /*
+    * Verifies that a snapshot is no longer returned once its time-to-live has elapsed.
+    * */
+    void get_AfterTtl_ReturnsNull() {
+        // Arrange
+        accountSnapshotCache.put(snapshot(1));
+
+        // Act
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        // Assert
+        assertNull(accountSnapshotCache.get(1));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.cache.expirations"));
+    }
+
+    @Test
+    /*
+    * Verifies that refreshing an entry restarts its time-to-live.
+    * */
+    void refresh_BeforeTtl_ExtendsEntryLifetime() {
+        // Arrange
+        accountSnapshotCache.put(snapshot(1));
+        clock.addAndGet(Duration.ofSeconds(8).toNanos());
+
+        // Act
+        accountSnapshotCache.refresh(1);
+        clock.addAndGet(Duration.ofSeconds(8).toNanos());
+
+        // Assert
+        assertNotNull(accountSnapshotCache.get(1));
+    }
+
+    @Test
+    /*
+    * Verifies that the least recently used account is evicted once the cache is full.
+    * */
+    void put_BeyondMaxSize_EvictsLeastRecentlyUsed() {
+        // Arrange
+        accountSnapshotCache.put(snapshot(1));
+        accountSnapshotCache.put(snapshot(2));
+        accountSnapshotCache.get(1);
+
+        // Act
+        accountSnapshotCache.put(snapshot(3));
+
+        // Assert
+        assertNotNull(accountSnapshotCache.get(1));
+        assertNull(accountSnapshotCache.get(2));
+        assertNotNull(accountSnapshotCache.get(3));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.cache.evictions"));
+    }
+
+    @Test
+    /*
+    * Verifies that invalidating an account removes its snapshot.
+    * */
+    void invalidate_CachedAccount_RemovesEntry() {
+        // Arrange
+        accountSnapshotCache.put(snapshot(1));
+
+        // Act
+        accountSnapshotCache.invalidate(1);
+
+        // Assert
+        assertEquals(0, accountSnapshotCache.size());
+    }
+
+    private AccountSnapshot snapshot(Integer id) {
+        return new AccountSnapshot(id, "ACC-" + id, "SAVINGS", id);
+    }
+}
@@ -0,0 +1,100 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import com.bankingSystem.transaction.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private MetricsRegistry metricsRegistry;
+
+    private IdempotencyCache idempotencyCache;
+
+    @BeforeEach
+    void setUp() {
+        TransactionProperties.Idempotency settings = new TransactionProperties.Idempotency();
+        settings.setCacheSize(2);
+        settings.setRetention(Duration.ofMinutes(10));
+        metricsRegistry = new MetricsRegistry();
+        idempotencyCache = new IdempotencyCache(settings, metricsRegistry, clock::get);
+    }
+
+    @Test
+    /*
+    * Verifies that a completed record is returned and counted as a hit, and an unknown key as a miss.
+    * */
+    void get_StoredAndUnknownKeys_RecordsHitAndMiss() {
+        // Arrange
+        IdempotencyRecord record = completed("SAVING:a");
+        idempotencyCache.put(record);
+
+        // Act & Assert
+        assertEquals(record, idempotencyCache.get("SAVING:a"));
+        assertNull(idempotencyCache.get("SAVING:b"));
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.idempotency.cache.hits"));
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.idempotency.cache.misses"));
+    }
+
+    @Test
+    /*
+    * Verifies that pending records are not cached, so they are always looked up again.
+    * */
+    void put_PendingRecord_IsIgnored() {
+        // Act
+        idempotencyCache.put(new IdempotencyRecord("SAVING:a", "1|10", null, false, Instant.now()));
+
+        // Assert
+        assertNull(idempotencyCache.get("SAVING:a"));
+        assertEquals(0, idempotencyCache.size());
+    }
+
+    @Test
+    /*
+    * Verifies that a record is no longer returned once the retention time has elapsed.
+    * */
+    void get_AfterRetention_ReturnsNull() {
+        // Arrange
+        idempotencyCache.put(completed("SAVING:a"));
+
+        // Act
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        // Assert
+        assertNull(idempotencyCache.get("SAVING:a"));
+        assertEquals(0, idempotencyCache.size());
+    }
+
+    @Test
+    /*
+    * Verifies that the least recently used key is evicted once the cache is full.
+    * */
+    void put_WhenFull_EvictsLeastRecentlyUsed() {
+        // Arrange
+        idempotencyCache.put(completed("SAVING:a"));
+        idempotencyCache.put(completed("SAVING:b"));
+        idempotencyCache.get("SAVING:a");
+
+        // Act
+        idempotencyCache.put(completed("SAVING:c"));
+
+        // Assert
+        assertNotNull(idempotencyCache.get("SAVING:a"));
+        assertNull(idempotencyCache.get("SAVING:b"));
+        assertNotNull(idempotencyCache.get("SAVING:c"));
+    }
+
+    private static IdempotencyRecord completed(String id) {
+        return new IdempotencyRecord(id, "1|10", Transaction.builder().build(), false, Instant.now());
+    }
+}
@@ -0,0 +1,198 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentTransactionsCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 10, 1, 12, 0);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private MetricsRegistry metricsRegistry;
+
+    private RecentTransactionsCache recentTransactionsCache;
+
+    @BeforeEach
+    void setUp() {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getRecent().setPerAccount(3);
+        properties.getRecent().setMaxEntries(5);
+        metricsRegistry = new MetricsRegistry();
+        recentTransactionsCache = new RecentTransactionsCache(properties, metricsRegistry);
+    }
+
+    @Test
+    /*
+    * Verifies that the first read loads the account and later reads are served from memory.
+    * */
+    void recent_RepeatedReads_LoadOnceThenHit() {
+        // Arrange
+        Function<String, Flux<Transaction>> loader = loader(transaction(2, "A"), transaction(1, "A"));
+
+        // Act & Assert
+        StepVerifier.create(recentTransactionsCache.recent("A", 3, loader))
+                .expectNext(List.of(transaction(2, "A"), transaction(1, "A")))
+                .verifyComplete();
+        StepVerifier.create(recentTransactionsCache.recent("A", 1, loader))
+                .expectNext(List.of(transaction(2, "A")))
+                .verifyComplete();
+        assertEquals(1, loads.get());
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.recent.hits"));
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.recent.misses"));
+    }
+
+    @Test
+    /*
+    * Verifies that saved transactions are appended to a held account, overwriting the oldest once it is full.
+    * */
+    void record_HeldAccount_KeepsMostRecentTransactions() {
+        // Arrange
+        recentTransactionsCache.recent("A", 3, loader(transaction(2, "A"), transaction(1, "A"))).block();
+
+        // Act
+        recentTransactionsCache.record(transaction(3, "A"));
+        recentTransactionsCache.record(transaction(4, "A"));
+
+        // Assert
+        StepVerifier.create(recentTransactionsCache.recent("A", 3, loader()))
+                .expectNext(List.of(transaction(4, "A"), transaction(3, "A"), transaction(2, "A")))
+                .verifyComplete();
+        assertEquals(3, recentTransactionsCache.entryCount());
+    }
+
+    @Test
+    /*
+    * Verifies that transactions of accounts that were never read are not held.
+    * */
+    void record_UnheldAccount_IsIgnored() {
+        // Act
+        recentTransactionsCache.record(transaction(1, "A"));
+
+        // Assert
+        assertEquals(0, recentTransactionsCache.accountCount());
+        assertEquals(0, recentTransactionsCache.entryCount());
+    }
+
+    @Test
+    /*
+    * Verifies that a transaction saved while the account is being loaded is merged with the loaded ones once.
+    * */
+    void recent_TransactionSavedDuringLoad_IsMerged() {
+        // Arrange
+        Sinks.Many<Transaction> database = Sinks.many().unicast().onBackpressureBuffer();
+        Function<String, Flux<Transaction>> loader = account -> database.asFlux();
+
+        // Act & Assert
+        StepVerifier.create(recentTransactionsCache.recent("A", 3, loader))
+                .then(() -> {
+                    recentTransactionsCache.record(transaction(3, "A"));
+                    database.tryEmitNext(transaction(3, "A"));
+                    database.tryEmitNext(transaction(2, "A"));
+                    database.tryEmitComplete();
+                })
+                .expectNext(List.of(transaction(3, "A"), transaction(2, "A")))
+                .verifyComplete();
+        assertEquals(2, recentTransactionsCache.entryCount());
+    }
+
+    @Test
+    /*
+    * Verifies that a deleted transaction is removed from the accounts holding it.
+    * */
+    void remove_HeldTransaction_IsNoLongerReturned() {
+        // Arrange
+        recentTransactionsCache.recent("A", 3, loader(transaction(2, "A"), transaction(1, "A"))).block();
+
+        // Act
+        recentTransactionsCache.remove(transaction(2, "A"));
+
+        // Assert
+        StepVerifier.create(recentTransactionsCache.recent("A", 3, loader()))
+                .expectNext(List.of(transaction(1, "A")))
+                .verifyComplete();
+        assertEquals(1, recentTransactionsCache.entryCount());
+    }
+
+    @Test
+    /*
+    * Verifies that beyond the global cap the least recently used account is evicted as a whole.
+    * */
+    void recent_OverGlobalCap_EvictsLeastRecentlyUsedAccount() {
+        // Arrange
+        recentTransactionsCache.recent("A", 3, loader(transaction(2, "A"), transaction(1, "A"))).block();
+        recentTransactionsCache.recent("B", 3, loader(transaction(4, "B"), transaction(3, "B"))).block();
+        recentTransactionsCache.recent("A", 3, loader()).block();
+
+        // Act
+        recentTransactionsCache.recent("C", 3, loader(transaction(7, "C"), transaction(6, "C"), transaction(5, "C"))).block();
+
+        // Assert
+        assertEquals(2, recentTransactionsCache.accountCount());
+        assertEquals(5, recentTransactionsCache.entryCount());
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.recent.evictions"));
+        recentTransactionsCache.recent("B", 3, loader(transaction(4, "B"))).block();
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    /*
+    * Verifies that a failed load is propagated and the account is loaded again on the next read.
+    * */
+    void recent_LoadFails_ReleasesAccount() {
+        // Act & Assert
+        StepVerifier.create(recentTransactionsCache.recent("A", 3, account -> Flux.error(new IllegalStateException("down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertEquals(0, recentTransactionsCache.accountCount());
+        StepVerifier.create(recentTransactionsCache.recent("A", 3, loader(transaction(1, "A"))))
+                .expectNext(List.of(transaction(1, "A")))
+                .verifyComplete();
+    }
+
+    @Test
+    /*
+    * Verifies that reads of accounts without transactions do not leave buffers behind.
+    * */
+    void recent_AccountsWithoutTransactions_AreNotHeld() {
+        // Act
+        for (int i = 0; i < 100; i++) {
+            StepVerifier.create(recentTransactionsCache.recent("unknown-" + i, 3, loader()))
+                    .expectNext(List.of())
+                    .verifyComplete();
+        }
+
+        // Assert
+        assertEquals(0, recentTransactionsCache.accountCount());
+        assertEquals(0, recentTransactionsCache.entryCount());
+        recentTransactionsCache.recent("unknown-0", 3, loader()).block();
+        assertEquals(101, loads.get());
+    }
+
+    private Function<String, Flux<Transaction>> loader(Transaction... transactions) {
+        return account -> Flux.defer(() -> {
+            loads.incrementAndGet();
+            return Flux.just(transactions);
+        });
+    }
+
+    private static Transaction transaction(int sequence, String account) {
+        return new Transaction("id-" + sequence, TransactionType.SAVING, BigDecimal.TEN,
+                START.plusMinutes(sequence), account, null);
+    }
+}
@@ -0,0 +1,114 @@
+package com.bankingSystem.transaction.cache;
+
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private MetricsRegistry metricsRegistry;
+
+    private SingleFlight<Integer, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        metricsRegistry = new MetricsRegistry();
+        singleFlight = new SingleFlight<>("test", metricsRegistry);
+    }
+
+    @Test
+    /*
+    * Verifies that concurrent calls for the same key share one upstream call and receive the same value.
+    * */
+    void execute_ConcurrentCallsSameKey_ShareOneUpstreamCall() {
+        // Arrange
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> first = singleFlight.execute(1, () -> countedCall(upstream.asMono()));
+        Mono<String> second = singleFlight.execute(1, () -> countedCall(upstream.asMono()));
+
+        // Act & Assert
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> upstream.tryEmitValue("account-1"))
+                .expectNextMatches(results -> results.getT1().equals("account-1") && results.getT1() == results.getT2())
+                .verifyComplete();
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1L, metricsRegistry.snapshot().get("test.coalesced"));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    /*
+    * Verifies that every caller joined to an in-flight call receives the same error.
+    * */
+    void execute_UpstreamError_PropagatedToEveryCaller() {
+        // Arrange
+        Sinks.One<String> upstream = Sinks.one();
+        IllegalStateException failure = new IllegalStateException("account service down");
+        Mono<String> first = singleFlight.execute(1, () -> countedCall(upstream.asMono()));
+        Mono<String> second = singleFlight.execute(1, () -> countedCall(upstream.asMono()));
+
+        AtomicInteger failedCallers = new AtomicInteger();
+        second.subscribe(value -> { }, e -> {
+            if (e == failure) {
+                failedCallers.incrementAndGet();
+            }
+        });
+
+        // Act & Assert
+        StepVerifier.create(first)
+                .then(() -> upstream.tryEmitError(failure))
+                .expectErrorMatches(e -> e == failure)
+                .verify();
+        assertEquals(1, failedCallers.get());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that a completed call is not reused: sequential calls each reach the upstream.
+    * */
+    void execute_SequentialCalls_NotCachedAfterCompletion() {
+        // Act
+        StepVerifier.create(singleFlight.execute(1, () -> countedCall(Mono.just("a")))).expectNext("a").verifyComplete();
+        StepVerifier.create(singleFlight.execute(1, () -> countedCall(Mono.just("b")))).expectNext("b").verifyComplete();
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0L, metricsRegistry.snapshot().get("test.coalesced"));
+    }
+
+    @Test
+    /*
+    * Verifies that calls for different keys are never coalesced.
+    * */
+    void execute_DifferentKeys_RunIndependently() {
+        // Arrange
+        Sinks.One<String> upstream = Sinks.one();
+        singleFlight.execute(1, () -> countedCall(upstream.asMono())).subscribe();
+
+        // Act
+        StepVerifier.create(singleFlight.execute(2, () -> countedCall(Mono.just("other"))))
+                .expectNext("other")
+                .verifyComplete();
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1, singleFlight.inFlightCount());
+    }
+
+    private Mono<String> countedCall(Mono<String> result) {
+        return Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            return result;
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.bankingSystem.transaction.concurrency;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSequencerTest {
+
+    private final List<String> started = new ArrayList<>();
+
+    private MetricsRegistry metricsRegistry;
+
+    private AccountSequencer accountSequencer;
+
+    @BeforeEach
+    void setUp() {
+        metricsRegistry = new MetricsRegistry();
+        accountSequencer = new AccountSequencer(new TransactionProperties(), metricsRegistry);
+    }
+
+    @Test
+    /*
+    * Verifies that an operation on an account only starts once the previous operation on it has completed.
+    * */
+    void execute_SameAccount_RunsOneAfterTheOther() {
+        // Arrange
+        Sinks.One<String> first = Sinks.one();
+
+        // Act
+        accountSequencer.execute(1, () -> track("first", first.asMono())).subscribe();
+        accountSequencer.execute(1, () -> track("second", Mono.just("second"))).subscribe();
+
+        // Assert
+        assertEquals(List.of("first"), started);
+        assertEquals(2, metricsRegistry.snapshot().get("account.sequencer.queued"));
+        assertEquals(1, metricsRegistry.snapshot().get("account.sequencer.hottest-account"));
+        first.tryEmitValue("first");
+        assertEquals(List.of("first", "second"), started);
+        assertEquals(0, metricsRegistry.snapshot().get("account.sequencer.queued"));
+    }
+
+    @Test
+    /*
+    * Verifies that operations on unrelated accounts do not wait for each other.
+    * */
+    void execute_DifferentAccounts_RunInParallel() {
+        // Act
+        accountSequencer.execute(1, () -> track("first", Mono.never())).subscribe();
+        accountSequencer.execute(2, () -> track("second", Mono.never())).subscribe();
+
+        // Assert
+        assertEquals(List.of("first", "second"), started);
+        assertEquals(0L, metricsRegistry.snapshot().get("account.sequencer.waits"));
+    }
+
+    @Test
+    /*
+    * Verifies that a failed operation releases its account for the next operation.
+    * */
+    void execute_FailedOperation_ReleasesAccount() {
+        // Arrange
+        Sinks.One<String> first = Sinks.one();
+        accountSequencer.execute(1, () -> track("first", first.asMono())).subscribe(value -> { }, error -> { });
+        accountSequencer.execute(1, () -> track("second", Mono.just("second"))).subscribe();
+
+        // Act
+        first.tryEmitError(new IllegalStateException("boom"));
+
+        // Assert
+        assertEquals(List.of("first", "second"), started);
+    }
+
+    @Test
+    /*
+    * Verifies that a transfer waits for pending operations on both accounts, and opposite transfers do not deadlock.
+    * */
+    void execute_TwoAccounts_WaitsForBothAndAvoidsDeadlock() {
+        // Arrange
+        Sinks.One<String> deposit = Sinks.one();
+        accountSequencer.execute(2, () -> track("deposit", deposit.asMono())).subscribe();
+
+        // Act
+        accountSequencer.execute(1, 2, () -> track("transfer", Mono.just("transfer"))).subscribe();
+        accountSequencer.execute(2, 1, () -> track("reverse", Mono.just("reverse"))).subscribe();
+
+        // Assert
+        assertEquals(List.of("deposit"), started);
+        deposit.tryEmitValue("deposit");
+        assertEquals(List.of("deposit", "transfer", "reverse"), started);
+    }
+
+    @Test
+    /*
+    * Verifies that a transfer waiting on a slow source account already holds back later operations on its destination.
+    * */
+    void execute_TransferWaitingOnSlowSource_KeepsOrderOnDestination() {
+        // Arrange
+        Sinks.One<String> withdrawal = Sinks.one();
+        Sinks.One<String> transfer = Sinks.one();
+        accountSequencer.execute(1, () -> track("withdrawal", withdrawal.asMono())).subscribe();
+
+        // Act
+        accountSequencer.execute(1, 2, () -> track("transfer", transfer.asMono())).subscribe();
+        accountSequencer.execute(2, () -> track("deposit", Mono.just("deposit"))).subscribe();
+
+        // Assert
+        assertEquals(List.of("withdrawal"), started);
+        withdrawal.tryEmitValue("withdrawal");
+        assertEquals(List.of("withdrawal", "transfer"), started);
+        transfer.tryEmitValue("transfer");
+        assertEquals(List.of("withdrawal", "transfer", "deposit"), started);
+    }
+
+    @Test
+    /*
+    * Verifies that an operation on several accounts waits for all of them and holds back later operations on each.
+    * */
+    void execute_SeveralAccounts_WaitsForAllOfThem() {
+        // Arrange
+        Sinks.One<String> deposit = Sinks.one();
+        accountSequencer.execute(3, () -> track("deposit", deposit.asMono())).subscribe();
+
+        // Act
+        accountSequencer.execute(List.of(1, 2, 3, 2), () -> track("settlement", Mono.just("settlement"))).subscribe();
+        accountSequencer.execute(1, () -> track("withdrawal", Mono.just("withdrawal"))).subscribe();
+
+        // Assert
+        assertEquals(List.of("deposit"), started);
+        deposit.tryEmitValue("deposit");
+        assertEquals(List.of("deposit", "settlement", "withdrawal"), started);
+    }
+
+    @Test
+    /*
+    * Verifies that cancelling a waiting operation does not let its successor overtake the running operation.
+    * */
+    void execute_CancelledWaitingOperation_KeepsOrder() {
+        // Arrange
+        Sinks.One<String> first = Sinks.one();
+        accountSequencer.execute(1, () -> track("first", first.asMono())).subscribe();
+        Disposable cancelled = accountSequencer.execute(1, () -> track("cancelled", Mono.just("cancelled"))).subscribe();
+        accountSequencer.execute(1, () -> track("third", Mono.just("third"))).subscribe();
+
+        // Act
+        cancelled.dispose();
+
+        // Assert
+        assertEquals(List.of("first"), started);
+        first.tryEmitValue("first");
+        assertEquals(List.of("first", "third"), started);
+    }
+
+    private Mono<String> track(String name, Mono<String> operation) {
+        started.add(name);
+        return operation;
+    }
+}
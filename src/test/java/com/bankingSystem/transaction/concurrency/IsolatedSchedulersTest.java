@@ -0,0 +1,137 @@
+package com.bankingSystem.transaction.concurrency;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsolatedSchedulersTest {
+
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    private IsolatedSchedulers isolatedSchedulers;
+
+    @AfterEach
+    void tearDown() {
+        isolatedSchedulers.close();
+    }
+
+    @Test
+    /*
+    * Verifies that with isolation disabled the work runs in place and no thread is created.
+    * */
+    void disabled_RunsInPlace() {
+        // Arrange
+        isolatedSchedulers = new IsolatedSchedulers(new TransactionProperties(), metricsRegistry);
+
+        // Act & Assert
+        assertSame(Schedulers.immediate(), isolatedSchedulers.mongo());
+        assertNull(isolatedSchedulers.mongoEventLoop());
+        assertTrue(metricsRegistry.snapshot().isEmpty());
+        StepVerifier.create(Mono.fromSupplier(() -> Thread.currentThread().getName()).publishOn(isolatedSchedulers.cpu()))
+                .expectNext(Thread.currentThread().getName())
+                .verifyComplete();
+    }
+
+    @Test
+    /*
+    * Verifies that each kind of work runs on its own threads and that their queues are exported as gauges.
+    * */
+    void enabled_RunsOnDedicatedThreads() {
+        // Arrange
+        isolatedSchedulers = new IsolatedSchedulers(enabled(), metricsRegistry);
+
+        // Act & Assert
+        StepVerifier.create(Mono.just("").publishOn(isolatedSchedulers.accountService()).map(ignored -> Thread.currentThread().getName()))
+                .expectNextMatches(name -> name.startsWith("account-service"))
+                .verifyComplete();
+        StepVerifier.create(Mono.just("").publishOn(isolatedSchedulers.mongo()).map(ignored -> Thread.currentThread().getName()))
+                .expectNextMatches(name -> name.startsWith("mongo"))
+                .verifyComplete();
+        assertNotNull(isolatedSchedulers.accountServiceEventLoop());
+        assertNotSame(isolatedSchedulers.accountServiceEventLoop(), isolatedSchedulers.mongoEventLoop());
+        assertEquals(0, metricsRegistry.snapshot().get("scheduler.mongo.queued"));
+        assertEquals(0, metricsRegistry.snapshot().get("scheduler.cpu.active"));
+        assertEquals(0, metricsRegistry.snapshot().get("scheduler.account-service-io.pending"));
+    }
+
+    @Test
+    /*
+    * Verifies that a saturated MongoDB scheduler rejects further work while the account service scheduler keeps running.
+    * */
+    void enabled_SaturatedMongo_DoesNotStarveAccountService() {
+        // Arrange
+        isolatedSchedulers = new IsolatedSchedulers(enabled(), metricsRegistry);
+        CountDownLatch slowMongo = new CountDownLatch(1);
+        Mono.fromRunnable(() -> await(slowMongo)).subscribeOn(isolatedSchedulers.mongo()).subscribe();
+        Mono.fromRunnable(() -> await(slowMongo)).subscribeOn(isolatedSchedulers.mongo()).subscribe();
+
+        // Act & Assert
+        StepVerifier.create(Mono.just("account").publishOn(isolatedSchedulers.accountService()))
+                .expectNext("account")
+                .verifyComplete();
+        StepVerifier.create(Mono.just("mongo").publishOn(isolatedSchedulers.mongo()))
+                .expectError(RejectedExecutionException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1L, metricsRegistry.snapshot().get("scheduler.mongo.rejected"));
+        assertEquals(1, metricsRegistry.snapshot().get("scheduler.mongo.queued"));
+        slowMongo.countDown();
+    }
+
+    @Test
+    /*
+    * Verifies that once their queue is full the results of account service calls and MongoDB writes are handled in
+    * place instead of being rejected, and that the full scheduler is reported.
+    * */
+    void enabled_FullQueues_HandleCallAndWriteResultsInPlace() {
+        // Arrange
+        TransactionProperties properties = enabled();
+        properties.getIsolation().getAccountService().setThreads(1);
+        properties.getIsolation().getAccountService().setQueueCapacity(1);
+        isolatedSchedulers = new IsolatedSchedulers(properties, metricsRegistry);
+        CountDownLatch busy = new CountDownLatch(1);
+        assertNull(isolatedSchedulers.saturated());
+        isolatedSchedulers.mongo().schedule(() -> await(busy));
+        isolatedSchedulers.mongo().schedule(() -> await(busy));
+        assertEquals("mongo", isolatedSchedulers.saturated());
+        isolatedSchedulers.accountService().schedule(() -> await(busy));
+        isolatedSchedulers.accountService().schedule(() -> await(busy));
+
+        // Act & Assert
+        assertEquals("account-service", isolatedSchedulers.saturated());
+        StepVerifier.create(Mono.just("account").publishOn(isolatedSchedulers.accountService()))
+                .expectNext("account")
+                .verifyComplete();
+        StepVerifier.create(Mono.just("write").publishOn(isolatedSchedulers.mongoWrites()))
+                .expectNext("write")
+                .verifyComplete();
+        assertEquals(1L, metricsRegistry.snapshot().get("scheduler.account-service.ran-in-place"));
+        assertEquals(1L, metricsRegistry.snapshot().get("scheduler.mongo.ran-in-place"));
+        busy.countDown();
+    }
+
+    private static TransactionProperties enabled() {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getIsolation().setEnabled(true);
+        properties.getIsolation().getMongo().setThreads(1);
+        properties.getIsolation().getMongo().setQueueCapacity(1);
+        return properties;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
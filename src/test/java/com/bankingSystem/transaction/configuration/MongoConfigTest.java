@@ -0,0 +1,122 @@
+package com.bankingSystem.transaction.configuration;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoManagedTypes;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoConfigTest {
+
+    @Test
+    /*
+    * Verifies that amounts are written as Decimal128 and read back without losing precision.
+    * */
+    void convert_BigDecimalAmount_RoundTripsAsDecimal128() {
+        // Arrange
+        MappingMongoConverter converter = converter(false);
+        Transaction transaction = Transaction.builder().id("1").type(TransactionType.SAVING).amount(new BigDecimal("1234.5678")).build();
+        Document document = new Document();
+
+        // Act
+        converter.write(transaction, document);
+        Transaction read = converter.read(Transaction.class, document);
+
+        // Assert
+        assertEquals(new Decimal128(new BigDecimal("1234.5678")), document.get("amount"));
+        assertEquals(new BigDecimal("1234.5678"), read.getAmount());
+    }
+
+    @Test
+    /*
+    * Verifies that amounts stored as strings before the migration can still be read.
+    * */
+    void convert_StringAmount_IsStillRead() {
+        // Arrange
+        Document document = new Document("_id", "1").append("amount", "99.90");
+
+        // Act
+        Transaction read = converter(false).read(Transaction.class, document);
+
+        // Assert
+        assertEquals(new BigDecimal("99.90"), read.getAmount());
+    }
+
+    @Test
+    /*
+    * Verifies that the compact format uses short field names and type codes, reads back the same transaction
+    * and produces a smaller document.
+    * */
+    void convert_CompactFormat_WritesShortFieldsAndRoundTrips() {
+        // Arrange
+        Transaction transaction = transaction();
+        Document compact = new Document();
+        Document standard = new Document();
+
+        // Act
+        converter(true).write(transaction, compact);
+        converter(false).write(transaction, standard);
+        Transaction read = converter(true).read(Transaction.class, compact);
+
+        // Assert
+        assertEquals(3, compact.get("t"));
+        assertEquals("12345", compact.get("oa"));
+        assertEquals("67890", compact.get("da"));
+        assertFalse(compact.containsKey("originAccount"));
+        assertEquals(transaction, read);
+        assertTrue(bsonSize(compact) < bsonSize(standard));
+    }
+
+    @Test
+    /*
+    * Verifies that queries on transaction properties are mapped to the compact field names and type codes.
+    * */
+    void mapQuery_CompactFormat_UsesShortFieldsAndTypeCodes() {
+        // Arrange
+        MappingMongoConverter converter = converter(true);
+        QueryMapper queryMapper = new QueryMapper(converter);
+        Document query = new Document("originAccount", "12345").append("type", TransactionType.TRANSFER);
+
+        // Act
+        Document mapped = queryMapper.getMappedObject(query,
+                converter.getMappingContext().getPersistentEntity(Transaction.class));
+
+        // Assert
+        assertEquals(new Document("oa", "12345").append("t", 3), mapped);
+    }
+
+    private static Transaction transaction() {
+        return new Transaction("1", TransactionType.TRANSFER, new BigDecimal("100.50"),
+                LocalDateTime.of(2024, 1, 15, 10, 30), "12345", "67890");
+    }
+
+    private static int bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private static MappingMongoConverter converter(boolean compact) {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getStorage().setCompact(compact);
+        MongoConfig mongoConfig = new MongoConfig();
+        MongoCustomConversions conversions = mongoConfig.mongoCustomConversions(properties);
+        MongoMappingContext mappingContext = mongoConfig.mongoMappingContext(conversions, MongoManagedTypes.empty(), properties);
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,88 @@
+package com.bankingSystem.transaction.configuration;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.resilience.AccountServiceResilienceFilter;
+import com.bankingSystem.transaction.support.LatencyRecorder;
+import com.bankingSystem.transaction.support.StubAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+* Latency comparison between the default WebClient and the pooled, tuned account service client.
+* Run with: mvn test -Pbenchmark
+* */
+@Tag("benchmark")
+class WebClientConfigBenchmarkTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final int CONCURRENCY = 128;
+    private static final long STUB_LATENCY_MILLIS = 5;
+
+    private StubAccountService stubAccountService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubAccountService = new StubAccountService()
+                .withAccount(1, "12345", new BigDecimal("100.00"))
+                .withLatency(() -> STUB_LATENCY_MILLIS)
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stubAccountService.close();
+    }
+
+    @Test
+    void compareDefaultAndPooledWebClient() {
+        WebClientConfig webClientConfig = new WebClientConfig();
+        AccountServiceClientProperties properties = new AccountServiceClientProperties();
+        properties.setMaxConnections(CONCURRENCY);
+        ConnectionProvider connectionProvider = webClientConfig.accountServiceConnectionProvider(properties);
+        try {
+            LatencyRecorder defaultClient = run(WebClient.create());
+            LatencyRecorder pooledClient = run(webClientConfig.createWebClient(connectionProvider, properties,
+                new AccountServiceResilienceFilter(properties, new MetricsRegistry()),
+                new IsolatedSchedulers(new TransactionProperties(), new MetricsRegistry())));
+
+            System.out.println(defaultClient.summary("WebClient.create()"));
+            System.out.println(pooledClient.summary("pooled account client"));
+            assertEquals(REQUESTS, pooledClient.count());
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    private LatencyRecorder run(WebClient webClient) {
+        // Warm-up establishes connections and JIT-compiles the request path
+        execute(webClient, new LatencyRecorder(), REQUESTS / 4);
+        LatencyRecorder recorder = new LatencyRecorder();
+        execute(webClient, recorder, REQUESTS);
+        return recorder;
+    }
+
+    private void execute(WebClient webClient, LatencyRecorder recorder, int requests) {
+        Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return webClient.get()
+                            .uri(stubAccountService.accountsUrl() + "/{accountId}", 1)
+                            .retrieve()
+                            .bodyToMono(BankAccountDTO.class)
+                            .doOnSuccess(account -> recorder.record(start));
+                }), CONCURRENCY)
+                .blockLast();
+    }
+}
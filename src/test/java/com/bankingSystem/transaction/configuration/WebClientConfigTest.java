@@ -0,0 +1,120 @@
+package com.bankingSystem.transaction.configuration;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.resilience.AccountServiceResilienceFilter;
+import com.bankingSystem.transaction.support.StubAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebClientConfigTest {
+
+    private final WebClientConfig webClientConfig = new WebClientConfig();
+
+    private StubAccountService stubAccountService;
+
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubAccountService = new StubAccountService()
+                .withAccount(1, "12345", new BigDecimal("100.00"))
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connectionProvider.dispose();
+        stubAccountService.close();
+    }
+
+    @Test
+    /*
+    * Verifies that the pooled WebClient built from the properties reaches the account service.
+    * */
+    void createWebClient_DefaultProperties_FetchesAccount() {
+        // Arrange
+        AccountServiceClientProperties properties = new AccountServiceClientProperties();
+        WebClient webClient = buildWebClient(properties);
+
+        // Act
+        BankAccountDTO account = webClient.get()
+                .uri(stubAccountService.accountsUrl() + "/{accountId}", 1)
+                .retrieve()
+                .bodyToMono(BankAccountDTO.class)
+                .block();
+
+        // Assert
+        assertNotNull(account);
+        assertEquals("12345", account.getAccountNumber());
+        assertEquals(properties.getMaxConnections(), connectionProvider.maxConnections());
+    }
+
+    @Test
+    /*
+    * Verifies that a slow account service response fails once the configured response timeout elapses.
+    * */
+    void createWebClient_SlowResponse_FailsWithResponseTimeout() {
+        // Arrange
+        AccountServiceClientProperties properties = new AccountServiceClientProperties();
+        properties.setResponseTimeout(Duration.ofMillis(100));
+        stubAccountService.withLatency(() -> 1_000L);
+        WebClient webClient = buildWebClient(properties);
+
+        // Act & Assert
+        StepVerifier.create(webClient.get()
+                        .uri(stubAccountService.accountsUrl() + "/{accountId}", 1)
+                        .retrieve()
+                        .bodyToMono(BankAccountDTO.class))
+                .expectError(WebClientRequestException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    /*
+    * Verifies that with isolation enabled the requests are performed on the dedicated account service event loop.
+    * */
+    void createWebClient_IsolationEnabled_UsesDedicatedEventLoop() {
+        // Arrange
+        TransactionProperties transactionProperties = new TransactionProperties();
+        transactionProperties.getIsolation().setEnabled(true);
+        IsolatedSchedulers isolatedSchedulers = new IsolatedSchedulers(transactionProperties, new MetricsRegistry());
+        WebClient webClient = buildWebClient(new AccountServiceClientProperties(), isolatedSchedulers);
+
+        // Act & Assert
+        try {
+            StepVerifier.create(webClient.get()
+                            .uri(stubAccountService.accountsUrl() + "/{accountId}", 1)
+                            .retrieve()
+                            .bodyToMono(BankAccountDTO.class)
+                            .map(account -> Thread.currentThread().getName()))
+                    .expectNextMatches(thread -> thread.startsWith("account-service-io"))
+                    .verifyComplete();
+        } finally {
+            isolatedSchedulers.close();
+        }
+    }
+
+    private WebClient buildWebClient(AccountServiceClientProperties properties) {
+        return buildWebClient(properties, new IsolatedSchedulers(new TransactionProperties(), new MetricsRegistry()));
+    }
+
+    private WebClient buildWebClient(AccountServiceClientProperties properties, IsolatedSchedulers isolatedSchedulers) {
+        // The first call of a cold JVM may take longer than the default lookup timeout, which covers the whole response
+        properties.getResilience().setLookupTimeout(Duration.ofSeconds(10));
+        connectionProvider = webClientConfig.accountServiceConnectionProvider(properties);
+        return webClientConfig.createWebClient(connectionProvider, properties,
+                new AccountServiceResilienceFilter(properties, new MetricsRegistry()), isolatedSchedulers);
+    }
+}
@@ -1,8 +1,18 @@
 package com.bankingSystem.transaction.controller;
 
+import com.bankingSystem.transaction.configuration.TransactionConfig;
+import com.bankingSystem.transaction.exceptionhandler.IdempotencyKeyConflictException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.AccountRollup;
 import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionGrouping;
 import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.dto.TransactionPage;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import com.bankingSystem.transaction.model.request.BatchTransactionRequest;
 import com.bankingSystem.transaction.model.request.DepositRequest;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
 import com.bankingSystem.transaction.model.request.TransferRequest;
 import com.bankingSystem.transaction.model.request.WithdrawalRequest;
 import com.bankingSystem.transaction.service.TransactionService;
@@ -13,19 +23,25 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.Mockito.*;
 
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @WebFluxTest(TransactionController.class)
+@Import({TransactionConfig.class, MetricsRegistry.class})
 class TransactionControllerTest {
 
     @Autowired
@@ -59,7 +75,7 @@ class TransactionControllerTest {
                 .destinationAccount("12345")
                 .build();
 
-        when(transactionService.registerDeposit(depositRequest.getAccountId(), depositRequest.getAmount()))
+        when(transactionService.registerDeposit(depositRequest.getAccountId(), depositRequest.getAmount(), null))
                 .thenReturn(Mono.just(mockTransaction));
 
         // Act and Assert
@@ -73,6 +89,76 @@ class TransactionControllerTest {
     }
 
 
+    @Test
+    /*
+     * Verifies that the Idempotency-Key header is passed to the service.
+     * */
+    void processDeposit_withIdempotencyKey_passesKeyToService() {
+        // Arrange
+        DepositRequest depositRequest = new DepositRequest(1, BigDecimal.valueOf(100));
+        Transaction mockTransaction = Transaction.builder()
+                .type(TransactionType.SAVING)
+                .amount(new BigDecimal("100"))
+                .originAccount("12345")
+                .build();
+
+        when(transactionService.registerDeposit(1, BigDecimal.valueOf(100), "key-1"))
+                .thenReturn(Mono.just(mockTransaction));
+
+        // Act and Assert
+        webTestClient.post()
+                .uri("/transaction/deposit")
+                .header("Idempotency-Key", "key-1")
+                .bodyValue(depositRequest)
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(Transaction.class)
+                .isEqualTo(mockTransaction);
+
+        verify(transactionService, times(1)).registerDeposit(1, BigDecimal.valueOf(100), "key-1");
+    }
+
+    @Test
+    /*
+     * Verifies that reusing an Idempotency-Key for a different request returns a 409 Conflict status.
+     * */
+    void processWithdrawal_idempotencyKeyConflict_returnsConflict() {
+        // Arrange
+        WithdrawalRequest withdrawalRequest = new WithdrawalRequest(1, new BigDecimal("50"));
+
+        when(transactionService.registerWithdrawal(1, new BigDecimal("50"), "key-1"))
+                .thenReturn(Mono.error(new IdempotencyKeyConflictException("The key was already used with a different request")));
+
+        // Act and Assert
+        webTestClient.post()
+                .uri("/transaction/withdrawal")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(withdrawalRequest)
+                .exchange()
+                .expectStatus().isEqualTo(CONFLICT);
+    }
+
+
+    @Test
+    /*
+     * Verifies that a request shed by a full scheduler queue returns a 503 Service Unavailable status with Retry-After.
+     * */
+    void processWithdrawal_schedulerFull_returnsServiceUnavailable() {
+        // Arrange
+        when(transactionService.registerWithdrawal(1, new BigDecimal("50"), null))
+                .thenReturn(Mono.error(new RejectedExecutionException("The mongo scheduler is full")));
+
+        // Act and Assert
+        webTestClient.post()
+                .uri("/transaction/withdrawal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new WithdrawalRequest(1, new BigDecimal("50")))
+                .exchange()
+                .expectStatus().isEqualTo(SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals("Retry-After", "1");
+    }
+
     @Test
     /*
     *  Verifies that processing a withdrawal request returns the correct transaction with a 200 OK status.
@@ -88,7 +174,7 @@ class TransactionControllerTest {
                 .destinationAccount("12345")
                 .build();
 
-        when(transactionService.registerWithdrawal(withdrawalRequest.getAccountId(), withdrawalRequest.getAmount()))
+        when(transactionService.registerWithdrawal(withdrawalRequest.getAccountId(), withdrawalRequest.getAmount(), null))
                 .thenReturn(Mono.just(mockTransaction));
 
         // Act and Assert
@@ -117,7 +203,7 @@ class TransactionControllerTest {
                 .destinationAccount("67890")
                 .build();
 
-        when(transactionService.registerTransfer(transferRequest.getSourceAccountId(), transferRequest.getDestinationAccountId(), transferRequest.getAmount()))
+        when(transactionService.registerTransfer(transferRequest.getSourceAccountId(), transferRequest.getDestinationAccountId(), transferRequest.getAmount(), null))
                 .thenReturn(Mono.just(mockTransaction));
 
         // Act and Assert
@@ -145,7 +231,7 @@ class TransactionControllerTest {
                 .destinationAccount("12345")
                 .build();
 
-        when(transactionService.getTransactionHistory()).thenReturn(Mono.just(List.of(mockTransaction)));
+        when(transactionService.getTransactionHistory()).thenReturn(Flux.just(mockTransaction));
 
         // Act and Assert
         webTestClient.get()
@@ -155,4 +241,187 @@ class TransactionControllerTest {
                 .expectBodyList(Transaction.class)
                 .contains(mockTransaction);
     }
-}
\ No newline at end of file
+
+    @Test
+    /*
+    * Verifies that the transaction history is streamed as newline-delimited JSON when requested.
+    * */
+    void getTransactionHistory_NdjsonAccepted_StreamsTransactions() {
+        // Arrange
+        Transaction first = Transaction.builder().id("1").type(TransactionType.SAVING).amount(new BigDecimal("100")).build();
+        Transaction second = Transaction.builder().id("2").type(TransactionType.WITHDRAWAL).amount(new BigDecimal("50")).build();
+        when(transactionService.getTransactionHistory()).thenReturn(Flux.just(first, second));
+
+        // Act and Assert
+        webTestClient.get()
+                .uri("/transaction/history")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Transaction.class)
+                .isEqualTo(List.of(first, second));
+    }
+
+    @Test
+    /*
+    * Verifies that a page of the transaction history is returned with its next cursor.
+    * */
+    void getTransactionHistoryPage_shouldReturnPage() {
+        // Arrange
+        Transaction mockTransaction = Transaction.builder().id("1").type(TransactionType.SAVING).amount(new BigDecimal("100")).build();
+        TransactionPage page = new TransactionPage(List.of(mockTransaction), "next");
+        when(transactionService.getTransactionHistoryPage("abc", 1)).thenReturn(Mono.just(page));
+
+        // Act and Assert
+        webTestClient.get()
+                .uri("/transaction/history/page?cursor=abc&size=1")
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(TransactionPage.class)
+                .isEqualTo(page);
+    }
+
+    @Test
+    /*
+    * Verifies that the search filters are bound from the query string and the matches are returned.
+    * */
+    void searchTransactions_shouldBindFiltersAndReturnTransactions() {
+        // Arrange
+        Transaction mockTransaction = Transaction.builder().id("1").type(TransactionType.TRANSFER).amount(new BigDecimal("100")).build();
+        TransactionSearchRequest expected = TransactionSearchRequest.builder()
+                .account("12345")
+                .type(TransactionType.TRANSFER)
+                .from(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .minAmount(new BigDecimal("50"))
+                .size(10)
+                .build();
+        when(transactionService.searchTransactions(expected)).thenReturn(Flux.just(mockTransaction));
+
+        // Act and Assert
+        webTestClient.get()
+                .uri("/transaction/search?account=12345&type=TRANSFER&from=2024-01-01T00:00:00&minAmount=50&size=10")
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBodyList(Transaction.class)
+                .isEqualTo(List.of(mockTransaction));
+    }
+
+    @Test
+    /*
+    * Verifies that the totals per type are returned for the date range given in the query string.
+    * */
+    void getTotalsByType_shouldReturnTotalsForRange() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        TransactionTotal total = new TransactionTotal("DEPOSIT", 2, new BigDecimal("150.00"));
+        when(transactionService.getTransactionTotals(TransactionGrouping.TYPE, from, null)).thenReturn(Flux.just(total));
+
+        // Act and Assert
+        webTestClient.get()
+                .uri("/transaction/totals/by-type?from=2024-01-01T00:00:00")
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBodyList(TransactionTotal.class)
+                .isEqualTo(List.of(total));
+    }
+
+    @Test
+    /*
+    * Verifies that the totals per account and per day use their own grouping.
+    * */
+    void getTotalsByAccountAndDay_shouldUseMatchingGrouping() {
+        // Arrange
+        when(transactionService.getTransactionTotals(any(), any(), any())).thenReturn(Flux.empty());
+
+        // Act
+        webTestClient.get().uri("/transaction/totals/by-account").exchange().expectStatus().isEqualTo(OK);
+        webTestClient.get().uri("/transaction/totals/by-day").exchange().expectStatus().isEqualTo(OK);
+
+        // Assert
+        verify(transactionService).getTransactionTotals(TransactionGrouping.ACCOUNT, null, null);
+        verify(transactionService).getTransactionTotals(TransactionGrouping.DAY, null, null);
+    }
+
+    @Test
+    /*
+    * Verifies that the rollup of an account is returned, and that an account without one gets a 404 Not Found.
+    * */
+    void getAccountRollup_shouldReturnRollupOrNotFound() {
+        // Arrange
+        AccountRollup rollup = new AccountRollup();
+        rollup.setAccountNumber("12345");
+        rollup.setTotalDeposited(new BigDecimal("250.00"));
+        rollup.setTransactionCount(2);
+        when(transactionService.getAccountRollup("12345")).thenReturn(Mono.just(rollup));
+        when(transactionService.getAccountRollup("99999")).thenReturn(Mono.empty());
+
+        // Act and Assert
+        webTestClient.get()
+                .uri("/transaction/accounts/12345/rollup")
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBody(AccountRollup.class)
+                .isEqualTo(rollup);
+        webTestClient.get()
+                .uri("/transaction/accounts/99999/rollup")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    /*
+    * Verifies that the recent transactions of an account are returned with the requested size.
+    * */
+    void getRecentTransactions_shouldReturnTransactions() {
+        // Arrange
+        Transaction recent = Transaction.builder()
+                .type(TransactionType.SAVING)
+                .amount(new BigDecimal("100"))
+                .originAccount("12345")
+                .build();
+        when(transactionService.getRecentTransactions("12345", 10)).thenReturn(Flux.just(recent));
+
+        // Act and Assert
+        webTestClient.get()
+                .uri("/transaction/accounts/12345/recent?size=10")
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBodyList(Transaction.class)
+                .contains(recent)
+                .hasSize(1);
+    }
+
+    @Test
+    /*
+    * Verifies that a batch sent as newline-delimited JSON is processed and its results are streamed back.
+    * */
+    void processBatch_shouldStreamResults() {
+        // Arrange
+        Transaction deposit = Transaction.builder()
+                .type(TransactionType.SAVING)
+                .amount(new BigDecimal("100"))
+                .originAccount("12345")
+                .build();
+        when(transactionService.processBatch(any())).thenAnswer(invocation -> invocation.<Flux<BatchTransactionRequest>>getArgument(0)
+                .index()
+                .map(item -> item.getT2().getType() == TransactionType.SAVING
+                        ? BatchItemResult.success(item.getT1(), deposit)
+                        : BatchItemResult.failure(item.getT1(), new IllegalArgumentException("Account ID cannot be null"))));
+        String body = "{\"type\":\"SAVING\",\"accountId\":1,\"amount\":100}\n"
+                + "{\"type\":\"WITHDRAWAL\",\"amount\":50}\n";
+
+        // Act and Assert
+        webTestClient.post()
+                .uri("/transaction/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(OK)
+                .expectBodyList(BatchItemResult.class)
+                .contains(BatchItemResult.success(0, deposit),
+                        BatchItemResult.failure(1, new IllegalArgumentException("Account ID cannot be null")))
+                .hasSize(2);
+    }
+}
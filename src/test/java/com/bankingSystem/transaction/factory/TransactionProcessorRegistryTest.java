@@ -0,0 +1,156 @@
+package com.bankingSystem.transaction.factory;
+
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.request.TransferRequest;
+import com.bankingSystem.transaction.processor.DepositProcessor;
+import com.bankingSystem.transaction.processor.TransferProcessor;
+import com.bankingSystem.transaction.processor.WithdrawalProcessor;
+import com.bankingSystem.transaction.processor.interceptor.LimitsInterceptor;
+import com.bankingSystem.transaction.processor.interceptor.TransactionInterceptor;
+import com.bankingSystem.transaction.processor.interceptor.ValidationInterceptor;
+import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
+import com.bankingSystem.transaction.service.AccountServiceClient;
+import com.bankingSystem.transaction.util.TransactionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionProcessorRegistryTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionUtil transactionUtil;
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    @Mock
+    private TransactionWriteBehind transactionWriteBehind;
+
+    @Mock
+    private RecentTransactionsCache recentTransactionsCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionWriteBehind.save(any(Transaction.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    /*
+    * Verifies that each type is handled by its own processor, and that the processors are shared.
+    * */
+    void processor_EachType_ReturnsSharedProcessor() {
+        // Arrange
+        TransactionProcessorRegistry registry = registry(List.of());
+
+        // Act & Assert
+        assertTrue(registry.processor(TransactionType.SAVING) instanceof DepositProcessor, "Expected DepositProcessor for SAVING type");
+        assertTrue(registry.processor(TransactionType.WITHDRAWAL) instanceof WithdrawalProcessor, "Expected WithdrawalProcessor for WITHDRAWAL type");
+        assertTrue(registry.processor(TransactionType.TRANSFER) instanceof TransferProcessor, "Expected TransferProcessor for TRANSFER type");
+        assertSame(registry.processor(TransactionType.SAVING), registry.processor(TransactionType.SAVING));
+        assertSame(registry.nettingProcessor(), registry.nettingProcessor());
+    }
+
+    @Test
+    /*
+    * Verifies that an operation runs through the interceptors in their order before reaching its processor.
+    * */
+    void process_Deposit_RunsInterceptorsInOrderThenProcessor() {
+        // Arrange
+        TransactionProcessorRegistry registry = registry(List.of(recording("first"), recording("second")));
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.applyBalanceDelta(1, BigDecimal.TEN, null))
+                .thenReturn(Mono.just(new BankAccountDTO(1, "12345", new BigDecimal("110"), "SAVINGS", 1)));
+
+        // Act & Assert
+        StepVerifier.create(registry.process(new DepositOperation(1, BigDecimal.TEN)))
+                .expectNextMatches(transaction -> transaction.getType() == TransactionType.SAVING
+                        && "12345".equals(transaction.getOriginAccount()))
+                .verifyComplete();
+        assertEquals(List.of("first:SAVING", "second:SAVING"), calls);
+    }
+
+    @Test
+    /*
+    * Verifies that an operation rejected by an interceptor never reaches its processor.
+    * */
+    void process_InterceptorRejects_ProcessorNotCalled() {
+        // Arrange
+        TransactionInterceptor rejecting = (operation, next) -> Mono.error(new IllegalArgumentException("Rejected"));
+        TransactionProcessorRegistry registry = registry(List.of(recording("first"), rejecting, recording("third")));
+
+        // Act & Assert
+        StepVerifier.create(registry.process(new TransferOperation(1, 2, BigDecimal.TEN)))
+                .expectErrorMessage("Rejected")
+                .verify();
+        assertEquals(List.of("first:TRANSFER"), calls);
+        verifyNoInteractions(accountServiceClient);
+    }
+
+    @Test
+    /*
+    * Verifies that netted transfers run through the validation and limit interceptors, so an amount over the
+    * transfer limit or with more than two decimal places is rejected without touching any balance.
+    * */
+    void nettingProcessor_InvalidAmounts_RejectedByInterceptors() {
+        // Arrange
+        TransactionProperties properties = new TransactionProperties();
+        properties.getLimits().setMaxTransfer(new BigDecimal("1000"));
+        TransactionProcessorRegistry registry = registry(List.of(new ValidationInterceptor(new TransactionUtil()),
+                new LimitsInterceptor(properties), recording("metrics")));
+        when(accountServiceClient.fetchBankAccountById(anyInt())).thenAnswer(invocation -> Mono.just(
+                new BankAccountDTO(invocation.getArgument(0), "12345", new BigDecimal("5000"), "SAVINGS", 1)));
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(
+                Tuples.of(0L, new TransferRequest(1, 2, new BigDecimal("1000.01"))),
+                Tuples.of(1L, new TransferRequest(1, 2, new BigDecimal("10.005"))));
+
+        // Act
+        List<BatchItemResult> results = registry.nettingProcessor().settle(transfers).block();
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals("The amount exceeds the limit of 1000.", results.get(0).getError());
+        assertEquals("Amount 10.005 has more than 2 decimal places", results.get(1).getError());
+        assertTrue(calls.isEmpty(), "Only the checks of the chain run before a transfer is projected");
+        verify(accountServiceClient, never()).adjustBankAccountBalance(any(), any());
+        verify(accountServiceClient, never()).applyBalanceDelta(any(), any(), any());
+        verifyNoInteractions(transactionWriteBehind);
+    }
+
+    private TransactionProcessorRegistry registry(List<TransactionInterceptor> interceptors) {
+        return new TransactionProcessorRegistry(transactionRepository, transactionUtil, accountServiceClient,
+                transactionWriteBehind, recentTransactionsCache, interceptors);
+    }
+
+    private TransactionInterceptor recording(String name) {
+        return (operation, next) -> {
+            calls.add(name + ":" + operation.type());
+            return next.handle(operation);
+        };
+    }
+}
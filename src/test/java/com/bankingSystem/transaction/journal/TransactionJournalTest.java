@@ -0,0 +1,233 @@
+package com.bankingSystem.transaction.journal;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class TransactionJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionProperties properties;
+
+    private final List<Transaction> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new TransactionProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setForceOnAppend(false);
+        properties.getJournal().setShutdownTimeout(Duration.ofSeconds(1));
+        when(transactionRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(stored::add);
+            return Flux.fromIterable(transactions);
+        });
+    }
+
+    @Test
+    /*
+    * Verifies that a journaled transaction keeps every field and gets an id before it is acknowledged.
+    * */
+    void append_Transaction_AssignsIdAndStoresItOnReplay() {
+        // Arrange
+        TransactionJournal journal = journal();
+        Transaction transaction = new Transaction(null, TransactionType.TRANSFER, new BigDecimal("1245.12"),
+                LocalDateTime.of(2024, 10, 1, 12, 30, 15, 123_000_000), "12345", "67890");
+
+        // Act
+        Transaction acknowledged = journal.append(transaction).block(Duration.ofSeconds(5));
+        journal.replay().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertNotNull(acknowledged);
+        assertNotNull(acknowledged.getId());
+        assertEquals(List.of(transaction), stored);
+        journal.close();
+    }
+
+    @Test
+    /*
+    * Verifies that entries not stored before shutdown are recovered from disk, with all their fields, on restart.
+    * */
+    void start_UnstoredEntries_AreRecoveredAndReplayed() {
+        // Arrange
+        when(transactionRepository.saveAll(anyIterable())).thenReturn(Flux.error(new DataAccessResourceFailureException("down")));
+        TransactionJournal journal = journal();
+        Transaction transaction = new Transaction(null, TransactionType.SAVING, new BigDecimal("100.50"),
+                LocalDateTime.of(2024, 10, 1, 12, 0), "12345", null);
+        journal.append(transaction).block(Duration.ofSeconds(5));
+        journal.append(transaction("2")).block(Duration.ofSeconds(5));
+        journal.close();
+        ArgumentCaptor<Iterable<Transaction>> replayed = captor();
+        reset(transactionRepository);
+        when(transactionRepository.saveAll(replayed.capture())).thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<Transaction>>getArgument(0)));
+
+        // Act
+        TransactionJournal restarted = journal();
+        restarted.replay().block(Duration.ofSeconds(5));
+
+        // Assert
+        List<Transaction> recovered = new ArrayList<>();
+        replayed.getValue().forEach(recovered::add);
+        assertEquals(List.of(transaction, transaction("2")), recovered);
+        restarted.close();
+    }
+
+    @Test
+    /*
+    * Verifies that entries already stored are not replayed again after a restart.
+    * */
+    void start_AfterCheckpoint_DoesNotReplayStoredEntries() {
+        // Arrange
+        TransactionJournal journal = journal();
+        journal.append(transaction("1")).block(Duration.ofSeconds(5));
+        journal.replay().block(Duration.ofSeconds(5));
+        journal.close();
+
+        // Act
+        TransactionJournal restarted = journal();
+        restarted.append(transaction("2")).block(Duration.ofSeconds(5));
+        restarted.replay().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(List.of(transaction("1"), transaction("2")), stored);
+        restarted.close();
+    }
+
+    @Test
+    /*
+    * Verifies that full segments are rotated and removed once all their entries are stored.
+    * */
+    void append_SegmentFull_RotatesAndRemovesStoredSegments() throws IOException {
+        // Arrange
+        properties.getJournal().setSegmentSize(DataSize.ofBytes(256));
+        TransactionJournal journal = journal();
+
+        // Act
+        Flux.range(1, 20).concatMap(i -> journal.append(transaction(String.valueOf(i)))).blockLast(Duration.ofSeconds(5));
+        long segmentsBeforeReplay = segmentFiles();
+        journal.replay().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertTrue(segmentsBeforeReplay > 1);
+        assertEquals(1, segmentFiles());
+        assertEquals(20, stored.size());
+        journal.close();
+    }
+
+    @Test
+    /*
+    * Verifies that a torn entry left by a crash is discarded and the journal keeps appending after the last intact one.
+    * */
+    void start_TornEntry_IsDiscarded() throws IOException {
+        // Arrange
+        when(transactionRepository.saveAll(anyIterable())).thenReturn(Flux.error(new DataAccessResourceFailureException("down")));
+        TransactionJournal journal = journal();
+        journal.append(transaction("1")).block(Duration.ofSeconds(5));
+        journal.close();
+        corruptAfterFirstEntry();
+        reset(transactionRepository);
+        when(transactionRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            invocation.<Iterable<Transaction>>getArgument(0).forEach(stored::add);
+            return Flux.fromIterable(invocation.<Iterable<Transaction>>getArgument(0));
+        });
+
+        // Act
+        TransactionJournal restarted = journal();
+        restarted.append(transaction("2")).block(Duration.ofSeconds(5));
+        restarted.replay().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(List.of(transaction("1"), transaction("2")), stored);
+        restarted.close();
+    }
+
+    @Test
+    /*
+    * Verifies that a journaled removal is applied after the transaction it removes has been stored.
+    * */
+    void appendDeletion_AfterAppend_DeletesAfterStoring() {
+        // Arrange
+        when(transactionRepository.deleteById("1")).thenReturn(Mono.empty());
+        TransactionJournal journal = journal();
+        journal.append(transaction("1")).block(Duration.ofSeconds(5));
+
+        // Act
+        journal.appendDeletion(transaction("1")).block(Duration.ofSeconds(5));
+
+        // Assert
+        StepVerifier.create(journal.replay()).expectComplete().verify(Duration.ofSeconds(5));
+        var order = inOrder(transactionRepository);
+        order.verify(transactionRepository).saveAll(anyIterable());
+        order.verify(transactionRepository).deleteById("1");
+        journal.close();
+    }
+
+    private TransactionJournal journal() {
+        return new TransactionJournal(transactionRepository, properties, new MetricsRegistry());
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).count();
+        }
+    }
+
+    private void corruptAfterFirstEntry() throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(JournalSegment::isSegment).sorted().findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            file.seek(16L + firstLength);
+            file.writeInt(40);
+            file.writeInt(0xCAFE);
+            file.writeLong(2);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Iterable<Transaction>> captor() {
+        return ArgumentCaptor.forClass(Iterable.class);
+    }
+
+    private static Transaction transaction(String id) {
+        return Transaction.builder().id(id).type(TransactionType.WITHDRAWAL).amount(BigDecimal.ONE).originAccount("12345").build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.bankingSystem.transaction.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+* Time spent on the calling (event-loop) thread per saved transaction: the former synchronized console
+* printlns versus the sampled structured events queued on the async appender.
+* Run with: mvn test -Pbenchmark
+* */
+@Tag("benchmark")
+class StructuredLoggingBenchmarkTest {
+
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 50_000;
+
+    private final Transaction transaction = new Transaction("6718a3f2c1d4e5f6a7b8c9d0", TransactionType.SAVING,
+            new BigDecimal("100.00"), LocalDateTime.now(), "12345", null);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void comparePrintlnAndAsyncStructuredLogging() throws Exception {
+        try (PrintStream console = new PrintStream(new FileOutputStream(tempDir.resolve("println.log").toFile()), true)) {
+            long printlnNanos = run(() -> {
+                console.println("Starting to save transaction");
+                console.println("Transaction saved: " + transaction);
+                console.println("Save transaction completed");
+                console.println("Transfer transaction saved successfully");
+            });
+            LoggerContext loggerContext = asyncLoggerContext(tempDir.resolve("async.log"));
+            Logger logger = loggerContext.getLogger("benchmark");
+            long structuredNanos = run(() -> StructuredLog.success(logger, "save", System.nanoTime())
+                    .addKeyValue("transactionId", transaction.getId())
+                    .addKeyValue("type", transaction.getType())
+                    .addKeyValue("originAccount", transaction.getOriginAccount())
+                    .log("Transaction saved"));
+            loggerContext.stop();
+
+            System.out.printf("println x4            %.0f ns per transaction on the calling thread%n", perEvent(printlnNanos));
+            System.out.printf("async structured 10%%  %.0f ns per transaction on the calling thread%n", perEvent(structuredNanos));
+            assertTrue(structuredNanos < printlnNanos);
+        }
+    }
+
+    private long run(Runnable logStatement) throws InterruptedException {
+        for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+            logStatement.run();
+        }
+        LongAdder callerNanos = new LongAdder();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    long start = System.nanoTime();
+                    logStatement.run();
+                    callerNanos.add(System.nanoTime() - start);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        return callerNanos.sum();
+    }
+
+    private double perEvent(long totalNanos) {
+        return (double) totalNanos / (THREADS * EVENTS_PER_THREAD);
+    }
+
+    private LoggerContext asyncLoggerContext(Path file) throws IOException {
+        LoggerContext loggerContext = new LoggerContext();
+        SuccessSamplingTurboFilter filter = new SuccessSamplingTurboFilter();
+        filter.setSampleRate(0.1);
+        filter.setContext(loggerContext);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5level [%thread] %logger{36} - %msg %kvp{NONE}%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(loggerContext);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(loggerContext);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(fileAppender);
+        asyncAppender.start();
+
+        ch.qos.logback.classic.Logger logger = loggerContext.getLogger("benchmark");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(asyncAppender);
+        return loggerContext;
+    }
+}
@@ -0,0 +1,82 @@
+package com.bankingSystem.transaction.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuccessSamplingTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    private final SuccessSamplingTurboFilter filter = new SuccessSamplingTurboFilter();
+
+    private ListAppender<ILoggingEvent> appender;
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        filter.setContext(loggerContext);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+        appender = new ListAppender<>();
+        appender.setContext(loggerContext);
+        appender.start();
+        logger = loggerContext.getLogger(SuccessSamplingTurboFilterTest.class);
+        logger.addAppender(appender);
+    }
+
+    @Test
+    /*
+    * Verifies that with a zero sample rate success events are dropped while failure events are still logged.
+    * */
+    void decide_ZeroSampleRate_DropsSuccessKeepsFailures() {
+        // Arrange
+        filter.setSampleRate(0);
+
+        // Act
+        StructuredLog.success(logger, "save", System.nanoTime()).addKeyValue("transactionId", "abc").log("Transaction saved");
+        StructuredLog.failure(logger, "save", System.nanoTime(), new IllegalStateException("boom")).log("Error saving transaction");
+
+        // Assert
+        assertEquals(1, appender.list.size());
+        assertEquals("Error saving transaction", appender.list.get(0).getMessage());
+    }
+
+    @Test
+    /*
+    * Verifies that with the default sample rate every success event is logged with its structured fields.
+    * */
+    void decide_FullSampleRate_KeepsSuccessWithFields() {
+        // Act
+        StructuredLog.success(logger, "save", System.nanoTime()).addKeyValue("transactionId", "abc").log("Transaction saved");
+
+        // Assert
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getKeyValuePairs().stream()
+                .anyMatch(pair -> "transactionId".equals(pair.key) && "abc".equals(pair.value)));
+        assertTrue(appender.list.get(0).getKeyValuePairs().stream().anyMatch(pair -> "elapsedMs".equals(pair.key)));
+    }
+
+    @Test
+    /*
+    * Verifies that a partial sample rate keeps roughly that fraction of the success events.
+    * */
+    void decide_PartialSampleRate_KeepsFraction() {
+        // Arrange
+        filter.setSampleRate(0.1);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            StructuredLog.success(logger, "save", System.nanoTime()).log("Transaction saved");
+        }
+
+        // Assert
+        assertTrue(appender.list.size() > 700 && appender.list.size() < 1_300, "kept " + appender.list.size());
+    }
+}
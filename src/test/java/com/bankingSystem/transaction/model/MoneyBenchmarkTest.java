@@ -0,0 +1,126 @@
+package com.bankingSystem.transaction.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+* Throughput and allocation per transfer of the balance arithmetic: validating the amount, checking the source
+* balance and computing both new balances, with BigDecimal versus Money. The Money path is measured both
+* converting the account service balances on every transfer, as the processors do, and on values already held
+* as minor units. The new balances are published to a field, as they escape into the reactive pipeline in the
+* processors, so that the JIT cannot scalar-replace them away.
+* Run with: mvn test -Pbenchmark
+* */
+@Tag("benchmark")
+class MoneyBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2_000_000;
+    private static final int ITERATIONS = 10_000_000;
+    private static final int ROUNDS = 5;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final BigDecimal[] amounts = {new BigDecimal("10.50"), new BigDecimal("0.99"), new BigDecimal("250.00")};
+    private final BigDecimal sourceBalance = new BigDecimal("100000.00");
+    private final BigDecimal destinationBalance = new BigDecimal("2500.75");
+
+    private Object sink;
+
+    @Test
+    void compareBigDecimalAndMoneyArithmetic() {
+        Result bigDecimal = measure(this::bigDecimalTransfers);
+        Result converted = measure(this::convertedMoneyTransfers);
+        Result held = measure(this::heldMoneyTransfers);
+
+        System.out.printf("BigDecimal          %6.1f Mops/s %6.1f bytes/op%n", bigDecimal.opsPerMicro(), bigDecimal.bytesPerOp());
+        System.out.printf("Money (converted)   %6.1f Mops/s %6.1f bytes/op%n", converted.opsPerMicro(), converted.bytesPerOp());
+        System.out.printf("Money (held)        %6.1f Mops/s %6.1f bytes/op%n", held.opsPerMicro(), held.bytesPerOp());
+        assertTrue(held.bytesPerOp() < bigDecimal.bytesPerOp());
+    }
+
+    private long bigDecimalTransfers(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            BigDecimal amount = amounts[i % amounts.length];
+            if (amount.compareTo(BigDecimal.ZERO) > 0 && sourceBalance.compareTo(amount) >= 0) {
+                BigDecimal newSource = sourceBalance.subtract(amount);
+                BigDecimal newDestination = destinationBalance.add(amount);
+                sink = newSource;
+                sink = newDestination;
+                checksum += newSource.signum() + newDestination.scale();
+            }
+        }
+        return checksum;
+    }
+
+    private long convertedMoneyTransfers(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            Money amount = Money.of(amounts[i % amounts.length]);
+            Money source = Money.of(sourceBalance);
+            if (amount.signum() > 0 && !source.isLessThan(amount)) {
+                Money newSource = source.minus(amount);
+                Money newDestination = Money.of(destinationBalance).plus(amount);
+                sink = newSource;
+                sink = newDestination;
+                checksum += newSource.signum() + newDestination.scale();
+            }
+        }
+        return checksum;
+    }
+
+    private long heldMoneyTransfers(int iterations) {
+        Money[] heldAmounts = {Money.of(amounts[0]), Money.of(amounts[1]), Money.of(amounts[2])};
+        Money source = Money.of(sourceBalance);
+        Money destination = Money.of(destinationBalance);
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            Money amount = heldAmounts[i % heldAmounts.length];
+            if (amount.signum() > 0 && !source.isLessThan(amount)) {
+                Money newSource = source.minus(amount);
+                Money newDestination = destination.plus(amount);
+                sink = newSource;
+                sink = newDestination;
+                checksum += newSource.signum() + newDestination.scale();
+            }
+        }
+        return checksum;
+    }
+
+    private Result measure(IterationRunner runner) {
+        runner.run(WARMUP_ITERATIONS);
+        Result best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            Result result = measureRound(runner);
+            if (best == null || result.opsPerMicro() > best.opsPerMicro()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private Result measureRound(IterationRunner runner) {
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long checksum = runner.run(ITERATIONS);
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        assertNotEquals(0, checksum);
+        return new Result((double) ITERATIONS * 1_000 / nanos, (double) bytes / ITERATIONS);
+    }
+
+    @FunctionalInterface
+    private interface IterationRunner {
+        long run(int iterations);
+    }
+
+    private record Result(double opsPerMicro, double bytesPerOp) {
+    }
+}
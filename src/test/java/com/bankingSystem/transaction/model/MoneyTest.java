@@ -0,0 +1,98 @@
+package com.bankingSystem.transaction.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    /*
+    * Verifies that a decimal amount is held as minor units at the currency scale and converted back at that scale.
+    * */
+    void of_DecimalAmount_RoundTripsAtCurrencyScale() {
+        // Act
+        Money money = Money.of(new BigDecimal("12.3"));
+
+        // Assert
+        assertEquals(1230L, money.minorUnits());
+        assertEquals(Money.DEFAULT_SCALE, money.scale());
+        assertEquals(new BigDecimal("12.30"), money.toBigDecimal());
+        assertEquals(Money.of(new BigDecimal("12.300")), money);
+    }
+
+    @Test
+    /*
+    * Verifies that an amount with more decimal places than the scale is rejected instead of rounded.
+    * */
+    void of_TooManyDecimalPlaces_ThrowsArithmeticException() {
+        // Act & Assert
+        ArithmeticException exception = assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.005")));
+        assertEquals("Amount 10.005 has more than 2 decimal places", exception.getMessage());
+    }
+
+    @Test
+    /*
+    * Verifies that a balance with more decimal places than the currency scale is held at its own scale, unrounded.
+    * */
+    void ofBalance_MoreDecimalPlaces_KeepsEveryDecimalPlace() {
+        // Act
+        Money balance = Money.ofBalance(new BigDecimal("100.005"));
+
+        // Assert
+        assertEquals(3, balance.scale());
+        assertEquals(new BigDecimal("110.005"), balance.plus(Money.of(BigDecimal.TEN, balance.scale())).toBigDecimal());
+        assertEquals(Money.DEFAULT_SCALE, Money.ofBalance(new BigDecimal("100")).scale());
+        assertThrows(ArithmeticException.class, () -> Money.ofBalance(new BigDecimal("0.0000000000000000001")));
+    }
+
+    @Test
+    /*
+    * Verifies that an amount beyond the range of a long is rejected.
+    * */
+    void of_OutOfRange_ThrowsArithmeticException() {
+        // Act & Assert
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("92233720368547758.08")));
+    }
+
+    @Test
+    /*
+    * Verifies the arithmetic and comparisons on minor units.
+    * */
+    void arithmetic_SameScale_WorksOnMinorUnits() {
+        // Arrange
+        Money balance = Money.of(new BigDecimal("200.00"));
+        Money amount = Money.of(new BigDecimal("50.25"));
+
+        // Act & Assert
+        assertEquals(new BigDecimal("250.25"), balance.plus(amount).toBigDecimal());
+        assertEquals(new BigDecimal("149.75"), balance.minus(amount).toBigDecimal());
+        assertEquals(-1, amount.negate().signum());
+        assertTrue(amount.isLessThan(balance));
+        assertTrue(balance.compareTo(amount) > 0);
+    }
+
+    @Test
+    /*
+    * Verifies that an overflowing operation is rejected instead of wrapping around.
+    * */
+    void plus_Overflow_ThrowsArithmeticException() {
+        // Arrange
+        Money max = Money.ofMinor(Long.MAX_VALUE, 2);
+
+        // Act & Assert
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1, 2)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE, 2).negate());
+    }
+
+    @Test
+    /*
+    * Verifies that amounts of different scales cannot be combined.
+    * */
+    void plus_DifferentScale_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(100, 2).plus(Money.ofMinor(100, 3)));
+    }
+}
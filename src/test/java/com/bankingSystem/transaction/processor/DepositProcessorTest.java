@@ -1,27 +1,45 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.UnsupportedBalanceException;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
 import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
 
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 
 import java.math.BigDecimal;
 
+import static org.mockito.Mockito.*;
+
 class DepositProcessorTest {
 
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionWriteBehind transactionWriteBehind;
+
+    @Mock
+    private RecentTransactionsCache recentTransactionsCache;
+
     @Mock
     private AccountServiceClient accountServiceClient;
 
     @Mock
     private TransactionUtil transactionUtil;
 
-    @Mock
+    @InjectMocks
     private DepositProcessor depositProcessor;
 
     private Integer accountId;
@@ -29,4 +47,91 @@ class DepositProcessorTest {
 
     private BankAccountDTO bankAccountDTO;
 
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionWriteBehind.save(any(Transaction.class)))
+                .thenAnswer(invocation -> transactionRepository.save(invocation.<Transaction>getArgument(0)));
+        accountId = 1;
+        depositAmount = new BigDecimal("100");
+        bankAccountDTO = new BankAccountDTO(accountId, "12345", new BigDecimal("200"), "SAVINGS", 1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    /*
+    * Verifies that a deposit reads the account and writes back the increased absolute balance.
+    * */
+    void processTransaction_AbsoluteBalance_AdjustsBalanceAndSavesTransaction() {
+        // Arrange
+        when(accountServiceClient.fetchBankAccountById(accountId)).thenReturn(Mono.just(bankAccountDTO));
+        when(accountServiceClient.adjustBankAccountBalance(accountId, new BigDecimal("300.00"))).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(depositProcessor.process(new DepositOperation(accountId, depositAmount)))
+                .expectNextMatches(transaction -> transaction.getType() == TransactionType.SAVING
+                        && "12345".equals(transaction.getOriginAccount()))
+                .expectComplete()
+                .verify();
+
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(accountId, new BigDecimal("300.00"));
+        verify(recentTransactionsCache, times(1)).record(any(Transaction.class));
+    }
+
+    @Test
+    /*
+    * Verifies that with balance deltas enabled a deposit takes a single call to the account service.
+    * */
+    void processTransaction_BalanceDeltaEnabled_AppliesDeltaWithoutRead() {
+        // Arrange
+        bankAccountDTO.setBalance(new BigDecimal("300"));
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.applyBalanceDelta(accountId, depositAmount, null)).thenReturn(Mono.just(bankAccountDTO));
+
+        // Act & Assert
+        StepVerifier.create(depositProcessor.process(new DepositOperation(accountId, depositAmount)))
+                .expectNextMatches(transaction -> transaction.getAmount().equals(depositAmount)
+                        && "12345".equals(transaction.getOriginAccount()))
+                .expectComplete()
+                .verify();
+
+        verify(accountServiceClient, never()).fetchBankAccountById(any());
+        verify(accountServiceClient, never()).adjustBankAccountBalance(any(), any());
+    }
+
+    @Test
+    /*
+    * Verifies that a balance with more decimal places than the currency scale is written back without rounding.
+    * */
+    void processTransaction_BalanceWithMoreDecimalPlaces_KeepsThem() {
+        // Arrange
+        bankAccountDTO.setBalance(new BigDecimal("200.005"));
+        when(accountServiceClient.fetchBankAccountById(accountId)).thenReturn(Mono.just(bankAccountDTO));
+        when(accountServiceClient.adjustBankAccountBalance(accountId, new BigDecimal("300.005"))).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(depositProcessor.process(new DepositOperation(accountId, depositAmount)))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(accountId, new BigDecimal("300.005"));
+    }
+
+    @Test
+    /*
+    * Verifies that a balance that cannot be represented exactly fails with UnsupportedBalanceException and is not updated.
+    * */
+    void processTransaction_UnrepresentableBalance_FailsWithUnsupportedBalance() {
+        // Arrange
+        bankAccountDTO.setBalance(new BigDecimal("200.0000000000000000001"));
+        when(accountServiceClient.fetchBankAccountById(accountId)).thenReturn(Mono.just(bankAccountDTO));
+
+        // Act & Assert
+        StepVerifier.create(depositProcessor.process(new DepositOperation(accountId, depositAmount)))
+                .expectError(UnsupportedBalanceException.class)
+                .verify();
+
+        verify(accountServiceClient, never()).adjustBankAccountBalance(any(), any());
+    }
 }
@@ -0,0 +1,228 @@
+package com.bankingSystem.transaction.processor;
+
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
+import com.bankingSystem.transaction.exceptionhandler.AccountServiceUnavailableException;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.request.TransferRequest;
+import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
+import com.bankingSystem.transaction.service.AccountServiceClient;
+import com.bankingSystem.transaction.util.TransactionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransferNettingProcessorTest {
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionWriteBehind transactionWriteBehind;
+
+    @Mock
+    private RecentTransactionsCache recentTransactionsCache;
+
+    @Mock
+    private TransactionUtil transactionUtil;
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    private TransferNettingProcessor transferNettingProcessor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transferNettingProcessor = new TransferNettingProcessor(transactionRepository, transactionUtil, accountServiceClient,
+                transactionWriteBehind, recentTransactionsCache, operation -> operation.amount().compareTo(new BigDecimal("1000")) > 0
+                        ? Mono.error(new IllegalArgumentException("The amount exceeds the limit of 1000.")) : Mono.empty());
+        when(transactionWriteBehind.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setId("tx-" + ids.incrementAndGet());
+            return Mono.just(transaction);
+        });
+        when(transactionWriteBehind.delete(any(Transaction.class))).thenReturn(Mono.empty());
+        when(accountServiceClient.adjustBankAccountBalance(any(), any())).thenReturn(Mono.empty());
+        account(1, "100");
+        account(2, "0");
+        account(3, "0");
+    }
+
+    @Test
+    /*
+    * Verifies that transfers between a few accounts are settled with one read and one write per account
+    * and one transaction record per transfer.
+    * */
+    void settle_SeveralTransfers_WritesOneNetBalancePerAccount() {
+        // Arrange
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(
+                transfer(0, 1, 2, "30"), transfer(1, 2, 1, "10"), transfer(2, 1, 3, "20"), transfer(3, 1, 2, "5"));
+
+        // Act
+        List<BatchItemResult> results = transferNettingProcessor.settle(transfers).block();
+
+        // Assert
+        assertEquals(4, results.size());
+        assertTrue(results.stream().allMatch(BatchItemResult::isSuccess));
+        verify(accountServiceClient, times(3)).fetchBankAccountById(any());
+        verify(accountServiceClient).adjustBankAccountBalance(1, new BigDecimal("55"));
+        verify(accountServiceClient).adjustBankAccountBalance(2, new BigDecimal("25"));
+        verify(accountServiceClient).adjustBankAccountBalance(3, new BigDecimal("20"));
+        verify(accountServiceClient, times(3)).adjustBankAccountBalance(any(), any());
+        verify(transactionWriteBehind, times(4)).save(any(Transaction.class));
+        verify(recentTransactionsCache, times(4)).record(any(Transaction.class));
+    }
+
+    @Test
+    /*
+    * Verifies that each transfer is checked against the balance projected from the transfers accepted before it.
+    * */
+    void settle_TransferCoveredByEarlierCredit_IsAccepted() {
+        // Arrange
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(
+                transfer(0, 2, 3, "10"), transfer(1, 1, 2, "30"), transfer(2, 2, 3, "10"));
+
+        // Act
+        Map<Long, BatchItemResult> results = byIndex(transferNettingProcessor.settle(transfers).block());
+
+        // Assert
+        assertFalse(results.get(0L).isSuccess());
+        assertEquals("Insufficient balance in source account", results.get(0L).getError());
+        assertTrue(results.get(1L).isSuccess());
+        assertTrue(results.get(2L).isSuccess());
+        assertEquals("12345-2", results.get(2L).getTransaction().getOriginAccount());
+        verify(accountServiceClient).adjustBankAccountBalance(1, new BigDecimal("70"));
+        verify(accountServiceClient).adjustBankAccountBalance(2, new BigDecimal("20"));
+        verify(accountServiceClient).adjustBankAccountBalance(3, new BigDecimal("10"));
+    }
+
+    @Test
+    /*
+    * Verifies that with balance deltas enabled the net changes are sent as deltas, guarding the debited accounts.
+    * */
+    void settle_BalanceDeltaEnabled_AppliesNetDeltas() {
+        // Arrange
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.applyBalanceDelta(any(), any(), any())).thenReturn(Mono.just(new BankAccountDTO()));
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(transfer(0, 1, 2, "30"), transfer(1, 2, 1, "10"));
+
+        // Act
+        List<BatchItemResult> results = transferNettingProcessor.settle(transfers).block();
+
+        // Assert
+        assertTrue(results.stream().allMatch(BatchItemResult::isSuccess));
+        verify(accountServiceClient).applyBalanceDelta(1, new BigDecimal("-20"), BigDecimal.ZERO);
+        verify(accountServiceClient).applyBalanceDelta(2, new BigDecimal("20"), null);
+        verify(accountServiceClient, never()).adjustBankAccountBalance(any(), any());
+    }
+
+    @Test
+    /*
+    * Verifies that a failed credit reverses the debits and the records, and fails every accepted transfer.
+    * */
+    void settle_CreditFails_ReversesWindow() {
+        // Arrange
+        when(accountServiceClient.adjustBankAccountBalance(2, new BigDecimal("30")))
+                .thenReturn(Mono.error(new AccountServiceUnavailableException("Account service unavailable")));
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(transfer(0, 1, 2, "30"));
+
+        // Act
+        List<BatchItemResult> results = transferNettingProcessor.settle(transfers).block();
+
+        // Assert
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("Account service unavailable", results.get(0).getError());
+        verify(accountServiceClient).adjustBankAccountBalance(1, new BigDecimal("100"));
+        verify(transactionWriteBehind, times(1)).delete(any(Transaction.class));
+        verify(recentTransactionsCache, times(1)).remove(any(Transaction.class));
+    }
+
+    @Test
+    /*
+    * Verifies that only the transfers involving an account that cannot be read are rejected.
+    * */
+    void settle_UnknownAccount_RejectsOnlyItsTransfers() {
+        // Arrange
+        when(accountServiceClient.fetchBankAccountById(9))
+                .thenReturn(Mono.error(new AccountNotFoundException("Account with ID 9 not found.")));
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(transfer(0, 1, 9, "10"), transfer(1, 1, 2, "10"));
+
+        // Act
+        Map<Long, BatchItemResult> results = byIndex(transferNettingProcessor.settle(transfers).block());
+
+        // Assert
+        assertEquals("Account with ID 9 not found.", results.get(0L).getError());
+        assertTrue(results.get(1L).isSuccess());
+        verify(accountServiceClient).adjustBankAccountBalance(1, new BigDecimal("90"));
+        verify(accountServiceClient, never()).adjustBankAccountBalance(eq(9), any());
+    }
+
+    @Test
+    /*
+    * Verifies that a transfer rejected by the checks is neither projected nor reads its accounts.
+    * */
+    void settle_TransferRejectedByChecks_IsNotProjected() {
+        // Arrange
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(transfer(0, 1, 3, "5000"), transfer(1, 1, 2, "10"));
+
+        // Act
+        Map<Long, BatchItemResult> results = byIndex(transferNettingProcessor.settle(transfers).block());
+
+        // Assert
+        assertEquals("The amount exceeds the limit of 1000.", results.get(0L).getError());
+        assertTrue(results.get(1L).isSuccess());
+        verify(accountServiceClient, never()).fetchBankAccountById(3);
+        verify(accountServiceClient).adjustBankAccountBalance(1, new BigDecimal("90"));
+    }
+
+    @Test
+    /*
+    * Verifies that a transfer without an amount or between the same account is rejected before the checks run.
+    * */
+    void settle_MalformedTransfers_AreRejected() {
+        // Arrange
+        List<Tuple2<Long, TransferRequest>> transfers = List.of(transfer(0, 1, 1, "10"),
+                Tuples.of(1L, new TransferRequest(1, 2, null)));
+
+        // Act
+        Map<Long, BatchItemResult> results = byIndex(transferNettingProcessor.settle(transfers).block());
+
+        // Assert
+        assertEquals("Source and destination accounts must be different", results.get(0L).getError());
+        assertEquals("Amount cannot be null", results.get(1L).getError());
+        verifyNoInteractions(accountServiceClient);
+    }
+
+    private void account(int id, String balance) {
+        when(accountServiceClient.fetchBankAccountById(id))
+                .thenReturn(Mono.just(new BankAccountDTO(id, "12345-" + id, new BigDecimal(balance), "SAVINGS", 1)));
+    }
+
+    private static Tuple2<Long, TransferRequest> transfer(long index, int source, int destination, String amount) {
+        return Tuples.of(index, new TransferRequest(source, destination, new BigDecimal(amount)));
+    }
+
+    private static Map<Long, BatchItemResult> byIndex(List<BatchItemResult> results) {
+        return results.stream().collect(Collectors.toMap(BatchItemResult::getIndex, result -> result));
+    }
+}
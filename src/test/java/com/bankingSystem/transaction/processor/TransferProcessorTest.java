@@ -1,9 +1,16 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
+import com.bankingSystem.transaction.exceptionhandler.AccountServiceUnavailableException;
 import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.model.Money;
+import com.bankingSystem.transaction.model.dto.AccountSnapshot;
 import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
 import com.bankingSystem.transaction.model.Transaction;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +22,8 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+
 import static org.mockito.Mockito.*;
 
 class TransferProcessorTest {
@@ -22,6 +31,12 @@ class TransferProcessorTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionWriteBehind transactionWriteBehind;
+
+    @Mock
+    private RecentTransactionsCache recentTransactionsCache;
+
     @Mock
     private TransactionUtil transactionUtil;
 
@@ -34,6 +49,10 @@ class TransferProcessorTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(transactionWriteBehind.save(any(Transaction.class)))
+                .thenAnswer(invocation -> transactionRepository.save(invocation.<Transaction>getArgument(0)));
+        when(transactionWriteBehind.delete(any(Transaction.class)))
+                .thenAnswer(invocation -> transactionRepository.delete(invocation.<Transaction>getArgument(0)));
     }
 
     @Test
@@ -52,11 +71,10 @@ class TransferProcessorTest {
         when(accountServiceClient.fetchBankAccountById(sourceAccountId)).thenReturn(Mono.just(sourceAccount));
         when(accountServiceClient.fetchBankAccountById(destinationAccountId)).thenReturn(Mono.just(destinationAccount));
         when(transactionRepository.save(any())).thenReturn(Mono.just(new Transaction()));
-        when(transactionUtil.validateAmount(amount)).thenReturn(Mono.empty());
         when(accountServiceClient.adjustBankAccountBalance(any(), any())).thenReturn(Mono.empty());
 
         // Act
-        Mono<Transaction> result = transferProcessor.processTransfer(sourceAccountId, destinationAccountId, amount);
+        Mono<Transaction> result = transferProcessor.process(new TransferOperation(sourceAccountId, destinationAccountId, amount));
 
         // Assert
         StepVerifier.create(result)
@@ -66,8 +84,8 @@ class TransferProcessorTest {
 
         verify(accountServiceClient, times(1)).fetchBankAccountById(sourceAccountId);
         verify(accountServiceClient, times(1)).fetchBankAccountById(destinationAccountId);
-        verify(accountServiceClient, times(1)).adjustBankAccountBalance(eq(sourceAccountId), eq(new BigDecimal("100")));
-        verify(accountServiceClient, times(1)).adjustBankAccountBalance(eq(destinationAccountId), eq(new BigDecimal("400")));
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(eq(sourceAccountId), eq(new BigDecimal("100.00")));
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(eq(destinationAccountId), eq(new BigDecimal("400.00")));
     }
 
     @Test
@@ -85,10 +103,9 @@ class TransferProcessorTest {
 
         when(accountServiceClient.fetchBankAccountById(sourceAccountId)).thenReturn(Mono.just(sourceAccount));
         when(accountServiceClient.fetchBankAccountById(destinationAccountId)).thenReturn(Mono.just(destinationAccount));
-        when(transactionUtil.validateAmount(amount)).thenReturn(Mono.empty());
 
         // Act
-        Mono<Transaction> result = transferProcessor.processTransfer(sourceAccountId, destinationAccountId, amount);
+        Mono<Transaction> result = transferProcessor.process(new TransferOperation(sourceAccountId, destinationAccountId, amount));
 
         // Assert
         StepVerifier.create(result)
@@ -98,18 +115,228 @@ class TransferProcessorTest {
 
     @Test
     /*
-    *   Verifies that an invalid (negative) transfer amount results in an IllegalArgumentException.
+    * Verifies that with balance deltas enabled a transfer debits and credits the accounts without reading them first.
+    * */
+    void testProcessTransfer_BalanceDeltaEnabled_Success() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        BankAccountDTO sourceAccount = new BankAccountDTO(1, "123456", new BigDecimal("100"), "SAVINGS", 1);
+        BankAccountDTO destinationAccount = new BankAccountDTO(2, "654321", new BigDecimal("400"), "SAVINGS", 2);
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.fetchAccountSnapshot(1)).thenReturn(Mono.just(AccountSnapshot.from(sourceAccount)));
+        when(accountServiceClient.fetchAccountSnapshot(2)).thenReturn(Mono.just(AccountSnapshot.from(destinationAccount)));
+        when(accountServiceClient.applyBalanceDelta(1, amount.negate(), BigDecimal.ZERO)).thenReturn(Mono.just(sourceAccount));
+        when(accountServiceClient.applyBalanceDelta(2, amount, null)).thenReturn(Mono.just(destinationAccount));
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectNextMatches(transaction -> "123456".equals(transaction.getOriginAccount())
+                        && "654321".equals(transaction.getDestinationAccount()))
+                .expectComplete()
+                .verify();
+
+        verify(accountServiceClient, never()).fetchBankAccountById(any());
+        verify(accountServiceClient, never()).adjustBankAccountBalance(any(), any());
+    }
+
+    @Test
+    /*
+    * Verifies that when crediting the destination fails, the source debit and the transaction record are reversed
+    * and the error is propagated.
+    * */
+    void testProcessTransfer_BalanceDeltaCreditFails_ReversesDebit() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        BankAccountDTO sourceAccount = new BankAccountDTO(1, "123456", new BigDecimal("100"), "SAVINGS", 1);
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.fetchAccountSnapshot(1)).thenReturn(Mono.just(AccountSnapshot.from(sourceAccount)));
+        when(accountServiceClient.fetchAccountSnapshot(2)).thenReturn(Mono.just(new AccountSnapshot(2, "654321", "SAVINGS", 2)));
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionRepository.delete(any())).thenReturn(Mono.empty());
+        when(accountServiceClient.applyBalanceDelta(1, amount.negate(), BigDecimal.ZERO)).thenReturn(Mono.just(sourceAccount));
+        when(accountServiceClient.applyBalanceDelta(2, amount, null))
+                .thenReturn(Mono.error(new AccountNotFoundException("Account with ID 2 not found.")));
+        when(accountServiceClient.applyBalanceDelta(1, amount, null)).thenReturn(Mono.just(sourceAccount));
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+
+        verify(accountServiceClient, times(1)).applyBalanceDelta(1, amount, null);
+        verify(accountServiceClient, never()).applyBalanceDelta(2, amount.negate(), null);
+        verify(transactionRepository, times(1)).delete(any(Transaction.class));
+        verify(recentTransactionsCache, times(1)).record(any(Transaction.class));
+        verify(recentTransactionsCache, times(1)).remove(any(Transaction.class));
+    }
+
+    @Test
+    /*
+    * Verifies that with balance deltas enabled an unknown destination account is rejected before any money moves.
+    * */
+    void testProcessTransfer_BalanceDeltaUnknownDestination_NoDebit() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.fetchAccountSnapshot(1)).thenReturn(Mono.just(new AccountSnapshot(1, "123456", "SAVINGS", 1)));
+        when(accountServiceClient.fetchAccountSnapshot(2)).thenReturn(Mono.error(new AccountNotFoundException("Account with ID 2 not found.")));
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+
+        verify(accountServiceClient, never()).applyBalanceDelta(any(), any(), any());
+    }
+
+    @Test
+    /*
+    * Verifies that both accounts are looked up concurrently, so the lookups take as long as the slowest one.
+    * */
+    void testProcessTransfer_LookupsRunConcurrently() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        BankAccountDTO sourceAccount = new BankAccountDTO(1, "123456", new BigDecimal("200"), "SAVINGS", 1);
+        BankAccountDTO destinationAccount = new BankAccountDTO(2, "654321", new BigDecimal("300"), "SAVINGS", 2);
+        when(accountServiceClient.fetchBankAccountById(1)).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(100)).thenReturn(sourceAccount));
+        when(accountServiceClient.fetchBankAccountById(2)).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(100)).thenReturn(destinationAccount));
+        when(accountServiceClient.adjustBankAccountBalance(any(), any())).thenReturn(Mono.empty());
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.withVirtualTime(() -> transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .thenAwait(Duration.ofMillis(100))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    /*
+    * Verifies that when crediting the destination fails, the source account is restored to its previous balance
+    * and the saved transaction record is removed.
+    * */
+    void testProcessTransfer_CreditFails_RestoresSourceBalance() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        BankAccountDTO sourceAccount = new BankAccountDTO(1, "123456", new BigDecimal("200"), "SAVINGS", 1);
+        BankAccountDTO destinationAccount = new BankAccountDTO(2, "654321", new BigDecimal("300"), "SAVINGS", 2);
+        when(accountServiceClient.fetchBankAccountById(1)).thenReturn(Mono.just(sourceAccount));
+        when(accountServiceClient.fetchBankAccountById(2)).thenReturn(Mono.just(destinationAccount));
+        when(accountServiceClient.adjustBankAccountBalance(1, new BigDecimal("100.00"))).thenReturn(Mono.empty());
+        when(accountServiceClient.adjustBankAccountBalance(2, new BigDecimal("400.00"))).thenReturn(Mono.error(new IllegalStateException("Account service down")));
+        when(accountServiceClient.adjustBankAccountBalance(1, new BigDecimal("200.00"))).thenReturn(Mono.empty());
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionRepository.delete(any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(1, new BigDecimal("200.00"));
+        verify(accountServiceClient, never()).adjustBankAccountBalance(2, new BigDecimal("300.00"));
+        verify(transactionRepository, times(1)).delete(any(Transaction.class));
+    }
+
+    @Test
+    /*
+    * Verifies that when the credit of the destination times out, and may therefore have been applied, both accounts
+    * are restored to the balances they had before the transfer.
     * */
-    void testValidateTransferAmount_Failure() {
+    void testProcessTransfer_CreditTimesOut_RestoresBothBalances() {
         // Arrange
-        BigDecimal invalidAmount = new BigDecimal("-100");
+        BigDecimal amount = new BigDecimal("100");
+        when(accountServiceClient.fetchBankAccountById(1)).thenReturn(Mono.just(new BankAccountDTO(1, "123456", new BigDecimal("200"), "SAVINGS", 1)));
+        when(accountServiceClient.fetchBankAccountById(2)).thenReturn(Mono.just(new BankAccountDTO(2, "654321", new BigDecimal("300"), "SAVINGS", 2)));
+        when(accountServiceClient.adjustBankAccountBalance(any(), any())).thenReturn(Mono.empty());
+        when(accountServiceClient.adjustBankAccountBalance(2, new BigDecimal("400.00")))
+                .thenReturn(Mono.error(new AccountServiceUnavailableException("Account service did not respond within 2000 ms")));
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionRepository.delete(any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectError(AccountServiceUnavailableException.class)
+                .verify();
+
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(1, new BigDecimal("200.00"));
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(2, new BigDecimal("300.00"));
+    }
 
-        when(transactionUtil.validateAmount(invalidAmount)).thenReturn(Mono.error(new IllegalArgumentException("Amount must be positive")));
+    @Test
+    /*
+    * Verifies that with balance deltas enabled a credit that times out is not reversed, as it may not have been applied,
+    * while the source debit is.
+    * */
+    void testProcessTransfer_BalanceDeltaCreditTimesOut_ReversesOnlyDebit() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        BankAccountDTO sourceAccount = new BankAccountDTO(1, "123456", new BigDecimal("100"), "SAVINGS", 1);
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.fetchAccountSnapshot(1)).thenReturn(Mono.just(AccountSnapshot.from(sourceAccount)));
+        when(accountServiceClient.fetchAccountSnapshot(2)).thenReturn(Mono.just(new AccountSnapshot(2, "654321", "SAVINGS", 2)));
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionRepository.delete(any())).thenReturn(Mono.empty());
+        when(accountServiceClient.applyBalanceDelta(1, amount.negate(), BigDecimal.ZERO)).thenReturn(Mono.just(sourceAccount));
+        when(accountServiceClient.applyBalanceDelta(2, amount, null))
+                .thenReturn(Mono.error(new AccountServiceUnavailableException("Account service did not respond within 2000 ms")));
+        when(accountServiceClient.applyBalanceDelta(1, amount, null)).thenReturn(Mono.just(sourceAccount));
 
         // Act & Assert
-        StepVerifier.create(transferProcessor.validateTransferAmount(invalidAmount))
-                .expectError(IllegalArgumentException.class)
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectError(AccountServiceUnavailableException.class)
                 .verify();
+
+        verify(accountServiceClient, times(1)).applyBalanceDelta(1, amount, null);
+        verify(accountServiceClient, never()).applyBalanceDelta(2, amount.negate(), null);
+    }
+
+    @Test
+    /*
+    * Verifies that with balance deltas enabled the source debit is reversed with a delta rather than by writing back
+    * the balance read before the transfer.
+    * */
+    void testUpdateBalancesAndProcessTransfer_BalanceDeltaEnabled_ReversesWithDelta() {
+        // Arrange
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.adjustBankAccountBalance(1, new BigDecimal("100.00"))).thenReturn(Mono.empty());
+        when(accountServiceClient.adjustBankAccountBalance(2, new BigDecimal("400.00"))).thenReturn(Mono.error(new IllegalStateException("Account service down")));
+        when(accountServiceClient.applyBalanceDelta(1, new BigDecimal("100.00"), null))
+                .thenReturn(Mono.just(new BankAccountDTO(1, "123456", new BigDecimal("200"), "SAVINGS", 1)));
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionRepository.delete(any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.updateBalancesAndProcessTransfer(1, 2, Money.of(new BigDecimal("100")),
+                        Money.of(new BigDecimal("400")), new BigDecimal("100"), "123456", "654321"))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(accountServiceClient, times(1)).applyBalanceDelta(1, new BigDecimal("100.00"), null);
+        verify(accountServiceClient, never()).adjustBankAccountBalance(1, new BigDecimal("200.00"));
     }
 
-}
\ No newline at end of file
+    @Test
+    /*
+    * Verifies that a source balance with more decimal places than the currency scale is debited without rounding.
+    * */
+    void testProcessTransfer_BalanceWithMoreDecimalPlaces_KeepsThem() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("100");
+        when(accountServiceClient.fetchBankAccountById(1)).thenReturn(Mono.just(new BankAccountDTO(1, "123456", new BigDecimal("200.005"), "SAVINGS", 1)));
+        when(accountServiceClient.fetchBankAccountById(2)).thenReturn(Mono.just(new BankAccountDTO(2, "654321", new BigDecimal("300"), "SAVINGS", 2)));
+        when(accountServiceClient.adjustBankAccountBalance(any(), any())).thenReturn(Mono.empty());
+        when(transactionRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(transferProcessor.process(new TransferOperation(1, 2, amount)))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(1, new BigDecimal("100.005"));
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(2, new BigDecimal("400.00"));
+    }
+}
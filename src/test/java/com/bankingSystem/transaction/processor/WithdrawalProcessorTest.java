@@ -1,9 +1,13 @@
 package com.bankingSystem.transaction.processor;
 
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
 import com.bankingSystem.transaction.model.Transaction;
 import com.bankingSystem.transaction.model.TransactionType;
 import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
 import com.bankingSystem.transaction.service.AccountServiceClient;
 import com.bankingSystem.transaction.util.TransactionUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +28,12 @@ class WithdrawalProcessorTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionWriteBehind transactionWriteBehind;
+
+    @Mock
+    private RecentTransactionsCache recentTransactionsCache;
+
     @Mock
     private TransactionUtil transactionUtil;
 
@@ -36,6 +46,8 @@ class WithdrawalProcessorTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(transactionWriteBehind.save(any(Transaction.class)))
+                .thenAnswer(invocation -> transactionRepository.save(invocation.<Transaction>getArgument(0)));
     }
 
     @Test
@@ -51,7 +63,6 @@ class WithdrawalProcessorTest {
         account.setBalance(BigDecimal.valueOf(200.00));
 
         // Mock the validation and account fetch
-        when(transactionUtil.validateAmount(amount)).thenReturn(Mono.empty());
         when(accountServiceClient.fetchBankAccountById(accountId)).thenReturn(Mono.just(account));
 
         Transaction mockTransaction = new Transaction();
@@ -59,12 +70,12 @@ class WithdrawalProcessorTest {
         mockTransaction.setType(TransactionType.WITHDRAWAL);
         mockTransaction.setOriginAccount("1");
 
-        when(accountServiceClient.adjustBankAccountBalance(accountId, account.getBalance().subtract(amount)))
+        when(accountServiceClient.adjustBankAccountBalance(accountId, new BigDecimal("100.00")))
                 .thenReturn(Mono.empty());
         when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(mockTransaction));
 
         // Act
-        Mono<Transaction> result = withdrawalProcessor.processTransaction(accountId, amount);
+        Mono<Transaction> result = withdrawalProcessor.process(new WithdrawalOperation(accountId, amount));
 
         // Assert
         StepVerifier.create(result)
@@ -78,7 +89,7 @@ class WithdrawalProcessorTest {
                 .verify();
 
         verify(accountServiceClient, times(1)).fetchBankAccountById(accountId);
-        verify(accountServiceClient, times(1)).adjustBankAccountBalance(accountId, account.getBalance().subtract(amount));
+        verify(accountServiceClient, times(1)).adjustBankAccountBalance(accountId, new BigDecimal("100.00"));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
@@ -93,12 +104,10 @@ class WithdrawalProcessorTest {
 
         BankAccountDTO account = new BankAccountDTO();
         account.setBalance(BigDecimal.valueOf(100.00));
-
-        when(transactionUtil.validateAmount(amount)).thenReturn(Mono.empty());
         when(accountServiceClient.fetchBankAccountById(accountId)).thenReturn(Mono.just(account));
 
         // Act
-        Mono<Transaction> result = withdrawalProcessor.processTransaction(accountId, amount);
+        Mono<Transaction> result = withdrawalProcessor.process(new WithdrawalOperation(accountId, amount));
 
         // Assert
         StepVerifier.create(result)
@@ -109,4 +118,51 @@ class WithdrawalProcessorTest {
         verify(accountServiceClient, times(0)).adjustBankAccountBalance(any(), any());
         verify(transactionRepository, times(0)).save(any());
     }
+
+    @Test
+    /*
+    * Verifies that with balance deltas enabled a withdrawal is applied in one call, without reading the account first.
+    * */
+    void processTransaction_BalanceDeltaEnabled_AppliesGuardedDelta() {
+        // Arrange
+        Integer accountId = 1;
+        BigDecimal amount = BigDecimal.valueOf(100.00);
+        BankAccountDTO updatedAccount = new BankAccountDTO(accountId, "12345", BigDecimal.valueOf(100.00), "SAVINGS", 1);
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.applyBalanceDelta(accountId, amount.negate(), BigDecimal.ZERO)).thenReturn(Mono.just(updatedAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act
+        Mono<Transaction> result = withdrawalProcessor.process(new WithdrawalOperation(accountId, amount));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNextMatches(transaction -> transaction.getType() == TransactionType.WITHDRAWAL
+                        && "12345".equals(transaction.getOriginAccount()))
+                .expectComplete()
+                .verify();
+
+        verify(accountServiceClient, never()).fetchBankAccountById(any());
+        verify(accountServiceClient, never()).adjustBankAccountBalance(any(), any());
+    }
+
+    @Test
+    /*
+    * Verifies that a rejected balance guard is reported as an IllegalArgumentException, like in the absolute mode.
+    * */
+    void processTransaction_BalanceDeltaGuardRejected_ReturnsErrorMono() {
+        // Arrange
+        Integer accountId = 1;
+        BigDecimal amount = BigDecimal.valueOf(500.00);
+        when(accountServiceClient.isBalanceDeltaEnabled()).thenReturn(true);
+        when(accountServiceClient.applyBalanceDelta(accountId, amount.negate(), BigDecimal.ZERO))
+                .thenReturn(Mono.error(new InsufficientBalanceException("Insufficient balance in account 1")));
+
+        // Act & Assert
+        StepVerifier.create(withdrawalProcessor.process(new WithdrawalOperation(accountId, amount)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(transactionRepository, never()).save(any());
+    }
 }
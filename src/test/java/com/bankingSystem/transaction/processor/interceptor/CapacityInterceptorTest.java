@@ -0,0 +1,109 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.repository.TransactionWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CapacityInterceptorTest {
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private final OperationHandler next = operation -> Mono.fromSupplier(() -> {
+        handled.incrementAndGet();
+        return new Transaction();
+    });
+
+    private final CountDownLatch busy = new CountDownLatch(1);
+
+    private IsolatedSchedulers isolatedSchedulers;
+
+    private TransactionWriteBehind transactionWriteBehind;
+
+    private CapacityInterceptor capacityInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getIsolation().setEnabled(true);
+        properties.getIsolation().getMongo().setThreads(1);
+        properties.getIsolation().getMongo().setQueueCapacity(1);
+        isolatedSchedulers = new IsolatedSchedulers(properties, new MetricsRegistry());
+        transactionWriteBehind = mock(TransactionWriteBehind.class);
+        capacityInterceptor = new CapacityInterceptor(isolatedSchedulers, transactionWriteBehind);
+    }
+
+    @AfterEach
+    void tearDown() {
+        busy.countDown();
+        isolatedSchedulers.close();
+    }
+
+    @Test
+    /*
+    * Verifies that an operation is processed while the schedulers have room.
+    * */
+    void intercept_SchedulersWithRoom_CallsNext() {
+        // Act & Assert
+        StepVerifier.create(capacityInterceptor.intercept(new DepositOperation(1, BigDecimal.TEN), next))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    /*
+    * Verifies that an operation is shed before it reaches its processor while the MongoDB scheduler is full.
+    * */
+    void intercept_SchedulerFull_RejectsWithoutProcessing() {
+        // Arrange
+        isolatedSchedulers.mongo().schedule(this::awaitBusy);
+        isolatedSchedulers.mongo().schedule(this::awaitBusy);
+
+        // Act & Assert
+        StepVerifier.create(capacityInterceptor.intercept(new DepositOperation(1, BigDecimal.TEN), next))
+                .expectErrorMatches(throwable -> throwable instanceof RejectedExecutionException
+                        && throwable.getMessage().equals("The mongo scheduler is full"))
+                .verify();
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    /*
+    * Verifies that an operation is shed before it reaches its processor while the write-behind buffer is full.
+    * */
+    void intercept_WriteBehindSaturated_RejectsWithoutProcessing() {
+        // Arrange
+        when(transactionWriteBehind.isSaturated()).thenReturn(true);
+
+        // Act & Assert
+        StepVerifier.create(capacityInterceptor.intercept(new DepositOperation(1, BigDecimal.TEN), next))
+                .expectErrorMatches(throwable -> throwable instanceof RejectedExecutionException
+                        && throwable.getMessage().equals("The write-behind buffer is full"))
+                .verify();
+        assertEquals(0, handled.get());
+    }
+
+    private void awaitBusy() {
+        try {
+            busy.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+class LimitsInterceptorTest {
+
+    private final OperationHandler next = operation -> Mono.just(new Transaction());
+
+    private LimitsInterceptor limitsInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getLimits().setMaxTransfer(new BigDecimal("1000"));
+        limitsInterceptor = new LimitsInterceptor(properties);
+    }
+
+    @Test
+    /*
+    * Verifies that an amount up to the limit of its type is accepted.
+    * */
+    void intercept_AmountAtLimit_CallsNext() {
+        // Act & Assert
+        StepVerifier.create(limitsInterceptor.intercept(new TransferOperation(1, 2, new BigDecimal("1000.00")), next))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    /*
+    * Verifies that an amount above the limit of its type is rejected with an IllegalArgumentException.
+    * */
+    void intercept_AmountAboveLimit_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        StepVerifier.create(limitsInterceptor.intercept(new TransferOperation(1, 2, new BigDecimal("1000.01")), next))
+                .expectErrorMatches(throwable -> throwable instanceof IllegalArgumentException &&
+                        throwable.getMessage().equals("The amount exceeds the limit of 1000."))
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that a type without a limit is not limited.
+    * */
+    void intercept_TypeWithoutLimit_CallsNext() {
+        // Act & Assert
+        StepVerifier.create(limitsInterceptor.intercept(new DepositOperation(1, new BigDecimal("1000000")), next))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
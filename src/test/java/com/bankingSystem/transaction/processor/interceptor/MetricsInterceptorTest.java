@@ -0,0 +1,41 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsInterceptorTest {
+
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    private final MetricsInterceptor metricsInterceptor = new MetricsInterceptor(metricsRegistry);
+
+    @Test
+    /*
+    * Verifies that completed and failed operations are counted under their type.
+    * */
+    void intercept_CompletedAndFailedOperations_AreCounted() {
+        // Arrange
+        DepositOperation operation = new DepositOperation(1, BigDecimal.TEN);
+
+        // Act
+        StepVerifier.create(metricsInterceptor.intercept(operation, ignored -> Mono.just(new Transaction())))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(metricsInterceptor.intercept(operation, ignored -> Mono.error(new IllegalStateException("down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // Assert
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.operations.saving.completed"));
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.operations.saving.failed"));
+        assertEquals(0L, metricsRegistry.snapshot().get("transaction.operations.transfer.completed"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.bankingSystem.transaction.processor.interceptor;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
+import com.bankingSystem.transaction.util.TransactionUtil;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationInterceptorTest {
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private final OperationHandler next = operation -> {
+        handled.incrementAndGet();
+        return Mono.just(new Transaction());
+    };
+
+    private final ValidationInterceptor validationInterceptor = new ValidationInterceptor(new TransactionUtil());
+
+    @Test
+    /*
+    * Verifies that an operation with a valid amount is passed on to the rest of the chain.
+    * */
+    void intercept_ValidAmount_CallsNext() {
+        // Act & Assert
+        StepVerifier.create(validationInterceptor.intercept(new WithdrawalOperation(1, new BigDecimal("10.50")), next))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    /*
+    * Verifies that an invalid (negative) transfer amount results in an IllegalArgumentException without calling the rest of the chain.
+    * */
+    void intercept_NegativeAmount_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        StepVerifier.create(validationInterceptor.intercept(new TransferOperation(1, 2, new BigDecimal("-100")), next))
+                .expectErrorMatches(throwable -> throwable instanceof IllegalArgumentException &&
+                        throwable.getMessage().equals("The amount must be higher than 0."))
+                .verify();
+        assertEquals(0, handled.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.exceptionhandler.RollupRebuildConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+class AccountRollupRebuildJobTest {
+
+    @Mock
+    private AccountRollupRepository accountRollupRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private AccountRollupRebuildJob accountRollupRebuildJob;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountRollupRebuildJob = new AccountRollupRebuildJob(accountRollupRepository, transactionRepository, new TransactionProperties());
+        when(accountRollupRepository.rebuild()).thenReturn(Mono.empty());
+        when(transactionRepository.count()).thenReturn(Mono.just(10L));
+    }
+
+    @Test
+    /*
+    * Verifies that the rollups are built when there are transactions but no rollups yet.
+    * */
+    void rebuildIfMissing_NoRollups_RebuildsAndReturnsCount() {
+        // Arrange
+        when(accountRollupRepository.count()).thenReturn(Mono.just(0L)).thenReturn(Mono.just(4L));
+
+        // Act & Assert
+        StepVerifier.create(accountRollupRebuildJob.rebuildIfMissing())
+                .expectNext(4L)
+                .expectComplete()
+                .verify();
+        verify(accountRollupRepository).rebuild();
+    }
+
+    @Test
+    /*
+    * Verifies that existing rollups are kept as they are.
+    * */
+    void rebuildIfMissing_RollupsExist_DoesNotRebuild() {
+        // Arrange
+        when(accountRollupRepository.count()).thenReturn(Mono.just(4L));
+
+        // Act & Assert
+        StepVerifier.create(accountRollupRebuildJob.rebuildIfMissing())
+                .expectComplete()
+                .verify();
+        verify(accountRollupRepository, never()).rebuild();
+    }
+
+    @Test
+    /*
+    * Verifies that a rebuild overlapping with stored transactions is run again once the transactions stop changing.
+    * */
+    void rebuild_TransactionsChangeOnce_RebuildsAgain() {
+        // Arrange
+        when(transactionRepository.count()).thenReturn(Mono.just(10L)).thenReturn(Mono.just(11L)).thenReturn(Mono.just(11L));
+        when(accountRollupRepository.count()).thenReturn(Mono.just(4L));
+
+        // Act & Assert
+        StepVerifier.create(accountRollupRebuildJob.rebuild())
+                .expectNext(4L)
+                .expectComplete()
+                .verify();
+        verify(accountRollupRepository, times(2)).rebuild();
+    }
+
+    @Test
+    /*
+    * Verifies that the rebuild fails with a conflict when the transactions keep changing on every attempt.
+    * */
+    void rebuild_TransactionsKeepChanging_FailsWithConflict() {
+        // Arrange
+        AtomicLong transactions = new AtomicLong();
+        when(transactionRepository.count()).thenAnswer(invocation -> Mono.just(transactions.incrementAndGet()));
+
+        // Act & Assert
+        StepVerifier.create(accountRollupRebuildJob.rebuild())
+                .expectError(RollupRebuildConflictException.class)
+                .verify();
+        verify(accountRollupRepository, times(3)).rebuild();
+        verify(accountRollupRepository, never()).count();
+    }
+}
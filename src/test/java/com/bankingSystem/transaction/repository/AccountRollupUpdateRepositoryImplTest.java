@@ -0,0 +1,142 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.AccountRollup;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AccountRollupUpdateRepositoryImplTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @InjectMocks
+    private AccountRollupUpdateRepositoryImpl accountRollupUpdateRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, AccountRollup.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+    }
+
+    @Test
+    /*
+    * Verifies that a deposit increments the deposited total and count of its account and advances its last activity.
+    * */
+    void buildUpdates_Deposit_IncrementsDepositedTotal() {
+        // Arrange
+        Transaction deposit = transaction(TransactionType.SAVING, "12345", null);
+
+        // Act
+        List<Pair<Query, Update>> updates = AccountRollupUpdateRepositoryImpl.buildUpdates(deposit, 1);
+
+        // Assert
+        assertEquals(1, updates.size());
+        assertEquals(new Document("_id", "12345"), updates.get(0).getFirst().getQueryObject());
+        Document update = updates.get(0).getSecond().getUpdateObject();
+        assertEquals(new Document("totalDeposited", new BigDecimal("100.50")).append("transactionCount", 1), update.get("$inc"));
+        assertEquals(new Document("lastActivity", DATE), update.get("$max"));
+    }
+
+    @Test
+    /*
+    * Verifies that a transfer updates the outgoing total of the origin and the incoming total of the destination.
+    * */
+    void buildUpdates_Transfer_UpdatesBothAccounts() {
+        // Arrange
+        Transaction transfer = transaction(TransactionType.TRANSFER, "12345", "67890");
+
+        // Act
+        List<Pair<Query, Update>> updates = AccountRollupUpdateRepositoryImpl.buildUpdates(transfer, 1);
+
+        // Assert
+        assertEquals(2, updates.size());
+        assertTrue(((Document) updates.get(0).getSecond().getUpdateObject().get("$inc")).containsKey("totalTransferredOut"));
+        assertEquals(new Document("_id", "67890"), updates.get(1).getFirst().getQueryObject());
+        assertTrue(((Document) updates.get(1).getSecond().getUpdateObject().get("$inc")).containsKey("totalTransferredIn"));
+    }
+
+    @Test
+    /*
+    * Verifies that reverting subtracts the amount and count and leaves the last activity unchanged.
+    * */
+    void buildUpdates_Revert_SubtractsWithoutTouchingLastActivity() {
+        // Arrange
+        Transaction withdrawal = transaction(TransactionType.WITHDRAWAL, "12345", null);
+
+        // Act
+        Document update = AccountRollupUpdateRepositoryImpl.buildUpdates(withdrawal, -1).get(0).getSecond().getUpdateObject();
+
+        // Assert
+        assertEquals(new Document("totalWithdrawn", new BigDecimal("-100.50")).append("transactionCount", -1), update.get("$inc"));
+        assertFalse(update.containsKey("$max"));
+    }
+
+    @Test
+    /*
+    * Verifies that recording upserts the rollups in one bulk write and reverting only updates existing ones.
+    * */
+    void recordAndRevert_Transfer_WritesOneBulkEach() {
+        // Arrange
+        Transaction transfer = transaction(TransactionType.TRANSFER, "12345", "67890");
+
+        // Act
+        StepVerifier.create(accountRollupUpdateRepository.record(transfer)).verifyComplete();
+        StepVerifier.create(accountRollupUpdateRepository.revert(transfer)).verifyComplete();
+
+        // Assert
+        verify(bulkOperations, times(2)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    /*
+    * Verifies that the rebuild splits transactions into per-account legs, groups them and replaces the rollups with the result.
+    * */
+    void buildRebuildAggregation_GroupsLegsAndReplacesRollups() {
+        // Act
+        List<Document> pipeline = AccountRollupUpdateRepositoryImpl.buildRebuildAggregation(TransactionDocumentFormat.DEFAULT).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        assertEquals(List.of("$project", "$unwind", "$match", "$group", "$out"),
+                pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+        Document group = (Document) pipeline.get(3).get("$group");
+        assertEquals("$legs.account", group.get("_id"));
+        assertEquals(new Document("$max", "$date"), group.get("lastActivity"));
+        assertEquals("account_rollups", pipeline.get(4).get("$out"));
+    }
+
+    private static Transaction transaction(TransactionType type, String origin, String destination) {
+        return new Transaction("1", type, new BigDecimal("100.50"), DATE, origin, destination);
+    }
+}
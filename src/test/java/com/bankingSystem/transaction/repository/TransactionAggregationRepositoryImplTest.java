@@ -0,0 +1,124 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.TransactionGrouping;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionAggregationRepositoryImplTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @InjectMocks
+    private TransactionAggregationRepositoryImpl transactionAggregationRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    /*
+    * Verifies that the pipeline matches the date range first, then groups by type and sorts by key.
+    * */
+    void buildAggregation_ByTypeWithDateRange_MatchesGroupsAndSorts() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        // Act
+        List<Document> pipeline = TransactionAggregationRepositoryImpl.buildAggregation(TransactionGrouping.TYPE, from, to)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        assertEquals(5, pipeline.size());
+        assertEquals(new Document("date", new Document("$gte", from).append("$lte", to)), pipeline.get(0).get("$match"));
+        assertEquals("$type", stage(pipeline.get(1), "$project").get("key"));
+        Document group = stage(pipeline.get(2), "$group");
+        assertEquals("$key", group.get("_id"));
+        assertEquals(new Document("$sum", "$amount"), group.get("total"));
+        assertEquals(new Document("key", 1), pipeline.get(4).get("$sort"));
+    }
+
+    @Test
+    /*
+    * Verifies that the grouping by day formats the date and that no match stage is added without a range.
+    * */
+    void buildAggregation_ByDayWithoutRange_ProjectsFormattedDay() {
+        // Act
+        List<Document> pipeline = TransactionAggregationRepositoryImpl.buildAggregation(TransactionGrouping.DAY, null, null)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        assertEquals(4, pipeline.size());
+        Document key = (Document) stage(pipeline.get(0), "$project").get("key");
+        assertEquals(new Document("format", "%Y-%m-%d").append("date", "$date"), key.get("$dateToString"));
+    }
+
+    @Test
+    /*
+    * Verifies that the grouping by account uses the origin account as key.
+    * */
+    void buildAggregation_ByAccount_GroupsByOriginAccount() {
+        // Act
+        List<Document> pipeline = TransactionAggregationRepositoryImpl.buildAggregation(TransactionGrouping.ACCOUNT, null, null)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        assertEquals("$originAccount", stage(pipeline.get(0), "$project").get("key"));
+    }
+
+    @Test
+    /*
+    * Verifies that the aggregation runs in the database and emits its rows.
+    * */
+    @SuppressWarnings("unchecked")
+    void aggregateTotals_ValidGrouping_EmitsAggregatedRows() {
+        // Arrange
+        TransactionTotal total = new TransactionTotal("DEPOSIT", 2, new BigDecimal("150.00"));
+        when(mongoOperations.aggregate(any(TypedAggregation.class), eq(TransactionTotal.class))).thenReturn(Flux.just(total));
+
+        // Act & Assert
+        StepVerifier.create(transactionAggregationRepository.aggregateTotals(TransactionGrouping.TYPE, null, null))
+                .expectNext(total)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that type codes stored by the compact format are reported with the type name.
+    * */
+    void withTypeName_TypeCode_ReplacesCodeWithName() {
+        // Arrange
+        TransactionTotal coded = new TransactionTotal("3", 1, BigDecimal.TEN);
+        TransactionTotal named = new TransactionTotal("SAVING", 1, BigDecimal.TEN);
+
+        // Act & Assert
+        assertEquals("TRANSFER", TransactionAggregationRepositoryImpl.withTypeName(coded).getKey());
+        assertEquals("SAVING", TransactionAggregationRepositoryImpl.withTypeName(named).getKey());
+    }
+
+    private static Document stage(Document stage, String operator) {
+        return (Document) stage.get(operator);
+    }
+}
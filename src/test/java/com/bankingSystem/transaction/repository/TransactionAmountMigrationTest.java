@@ -0,0 +1,75 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.Transaction;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionAmountMigrationTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    private TransactionProperties properties;
+
+    private TransactionAmountMigration transactionAmountMigration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new TransactionProperties();
+        transactionAmountMigration = new TransactionAmountMigration(mongoOperations, properties);
+    }
+
+    @Test
+    /*
+    * Verifies that only string amounts are selected and converted with a pipeline update.
+    * */
+    void migrate_StringAmounts_ConvertsThemToDecimal() {
+        // Arrange
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+        when(mongoOperations.updateMulti(query.capture(), update.capture(), eq(Transaction.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(3, 3L, null)));
+
+        // Act & Assert
+        StepVerifier.create(transactionAmountMigration.migrate())
+                .expectNext(3L)
+                .expectComplete()
+                .verify();
+        assertEquals(new Document("amount", new Document("$type", 2)), query.getValue().getQueryObject());
+        assertTrue(update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT)
+                .toString().contains("$toDecimal"));
+    }
+
+    @Test
+    /*
+    * Verifies that nothing is converted when the migration is disabled.
+    * */
+    void onApplicationReady_MigrationDisabled_DoesNotUpdate() {
+        // Arrange
+        properties.getStorage().setMigrateAmounts(false);
+
+        // Act
+        transactionAmountMigration.onApplicationReady();
+
+        // Assert
+        verify(mongoOperations, never()).updateMulti(any(Query.class), any(AggregationUpdate.class), eq(Transaction.class));
+    }
+}
@@ -0,0 +1,131 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.MongoConfig;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.MongoManagedTypes;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionCompactMigrationTest {
+
+    private static final TransactionDocumentFormat COMPACT = new TransactionDocumentFormat("t", "a", "d", "oa", "da", codes());
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    private TransactionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new TransactionProperties();
+    }
+
+    @Test
+    /*
+    * Verifies that the update moves every field to its short name, maps the type to its code and drops the old fields.
+    * */
+    void buildUpdate_CompactTarget_RewritesDocument() {
+        // Act
+        List<Document> pipeline = TransactionCompactMigration.buildUpdate(COMPACT).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        // Assert
+        Document set = (Document) pipeline.get(0).get("$set");
+        assertEquals("$originAccount", set.get("oa"));
+        assertEquals("$date", set.get("d"));
+        assertEquals(new Document("$toDecimal", "$amount"), set.get("a"));
+        assertTrue(set.get("t").toString().contains("$switch"));
+        assertEquals(List.of("type", "amount", "date", "originAccount", "destinationAccount"), pipeline.get(1).get("$unset"));
+    }
+
+    @Test
+    /*
+    * Verifies that only documents with a field of the default format are selected.
+    * */
+    void buildQuery_SelectsDocumentsWithDefaultFields() {
+        // Act
+        Document query = TransactionCompactMigration.buildQuery().getQueryObject();
+
+        // Assert
+        assertEquals(5, ((List<?>) query.get("$or")).size());
+    }
+
+    @Test
+    /*
+    * Verifies that nothing is converted when the compact format is disabled.
+    * */
+    void onApplicationReady_CompactDisabled_DoesNotUpdate() {
+        // Arrange
+        TransactionCompactMigration migration = new TransactionCompactMigration(mongoOperations, properties);
+
+        // Act
+        migration.onApplicationReady();
+
+        // Assert
+        verify(mongoOperations, never()).updateMulti(any(Query.class), any(AggregationUpdate.class), eq("banking"));
+    }
+
+    @Test
+    /*
+    * Verifies that the target format is resolved from the converter and the number of converted transactions is reported.
+    * */
+    void migrate_CompactConverter_UpdatesToShortFieldsAndReturnsModifiedCount() {
+        // Arrange
+        properties.getStorage().setCompact(true);
+        when(mongoOperations.getConverter()).thenReturn(converter(properties));
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+        when(mongoOperations.updateMulti(any(Query.class), update.capture(), eq("banking")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(4, 4L, null)));
+
+        // Act & Assert
+        StepVerifier.create(new TransactionCompactMigration(mongoOperations, properties).migrate())
+                .expectNext(4L)
+                .expectComplete()
+                .verify();
+        Document set = (Document) update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set");
+        assertEquals(List.of("t", "a", "d", "oa", "da"), List.copyOf(set.keySet()));
+    }
+
+    private static MappingMongoConverter converter(TransactionProperties properties) {
+        MongoConfig mongoConfig = new MongoConfig();
+        MongoCustomConversions conversions = mongoConfig.mongoCustomConversions(properties);
+        MongoMappingContext mappingContext = mongoConfig.mongoMappingContext(conversions, MongoManagedTypes.empty(), properties);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private static Map<TransactionType, Object> codes() {
+        Map<TransactionType, Object> codes = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            codes.put(type, type.getCode());
+        }
+        return codes;
+    }
+}
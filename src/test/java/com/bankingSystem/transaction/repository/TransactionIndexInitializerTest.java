@@ -0,0 +1,110 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.MongoConfig;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import com.bankingSystem.transaction.model.Transaction;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.MongoManagedTypes;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class TransactionIndexInitializerTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Mock
+    private ReactiveIndexOperations transactionIndexes;
+
+    @Mock
+    private ReactiveIndexOperations idempotencyIndexes;
+
+    private TransactionIndexInitializer transactionIndexInitializer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoOperations.indexOps(Transaction.class)).thenReturn(transactionIndexes);
+        when(mongoOperations.indexOps(IdempotencyRecord.class)).thenReturn(idempotencyIndexes);
+        when(transactionIndexes.ensureIndex(any())).thenAnswer(invocation -> Mono.just(name(invocation.getArgument(0))));
+        when(idempotencyIndexes.ensureIndex(any())).thenAnswer(invocation -> Mono.just(name(invocation.getArgument(0))));
+        MongoConfig mongoConfig = new MongoConfig();
+        TransactionProperties properties = new TransactionProperties();
+        MongoMappingContext mappingContext = mongoConfig.mongoMappingContext(
+                mongoConfig.mongoCustomConversions(properties), MongoManagedTypes.empty(), properties);
+        transactionIndexInitializer = new TransactionIndexInitializer(mongoOperations, mappingContext);
+    }
+
+    @Test
+    /*
+    * Verifies that an index existing under the same name with other keys, as after switching to the compact format,
+    * is dropped and created again.
+    * */
+    void ensureIndexes_ConflictingIndex_DropsAndRecreatesIt() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> attempts.incrementAndGet() == 1
+                ? Mono.error(new DataIntegrityViolationException("Index conflict", conflict(86)))
+                : Mono.just("origin_date"))
+                .when(transactionIndexes).ensureIndex(argThat(index -> "origin_date".equals(name(index))));
+        when(transactionIndexes.dropIndex("origin_date")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(transactionIndexInitializer.ensureIndexes())
+                .expectComplete()
+                .verify();
+        verify(transactionIndexes).dropIndex("origin_date");
+        verify(transactionIndexes, times(2)).ensureIndex(argThat(index -> "origin_date".equals(name(index))));
+        verify(idempotencyIndexes).ensureIndex(argThat(index -> "expires_at".equals(name(index))));
+    }
+
+    @Test
+    /*
+    * Verifies that an index failing for another reason is reported without keeping the remaining indexes,
+    * among them the expiry of idempotency keys, from being created.
+    * */
+    void ensureIndexes_FailingIndex_CreatesTheOthersAndFails() {
+        // Arrange
+        doReturn(Mono.error(new IllegalStateException("Not primary")))
+                .when(transactionIndexes).ensureIndex(argThat(index -> "origin_date".equals(name(index))));
+
+        // Act & Assert
+        StepVerifier.create(transactionIndexInitializer.ensureIndexes())
+                .expectError(IllegalStateException.class)
+                .verify();
+        verify(transactionIndexes, never()).dropIndex(any(String.class));
+        verify(transactionIndexes).ensureIndex(argThat(index -> "date".equals(name(index))));
+        verify(idempotencyIndexes).ensureIndex(argThat(index -> "expires_at".equals(name(index))));
+    }
+
+    private static String name(IndexDefinition index) {
+        return index == null ? null : index.getIndexOptions().getString("name");
+    }
+
+    private static MongoCommandException conflict(int code) {
+        return new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(code))
+                .append("errmsg", new BsonString("An existing index has the same name as the requested index")),
+                new ServerAddress());
+    }
+}
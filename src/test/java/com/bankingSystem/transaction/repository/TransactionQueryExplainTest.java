@@ -0,0 +1,96 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+* Asks a real MongoDB for the plan of every history and search query and checks that none scans the collection.
+* Runs only when TRANSACTION_TEST_MONGODB_URI points to a disposable database, e.g.
+* TRANSACTION_TEST_MONGODB_URI=mongodb://localhost:27017/transaction-explain mvn test
+* */
+@EnabledIfEnvironmentVariable(named = "TRANSACTION_TEST_MONGODB_URI", matches = ".+")
+class TransactionQueryExplainTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private MongoClient mongoClient;
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        String uri = System.getenv("TRANSACTION_TEST_MONGODB_URI");
+        mongoClient = MongoClients.create(uri);
+        mongoTemplate = new ReactiveMongoTemplate(mongoClient, new ConnectionString(uri).getDatabase());
+        mongoTemplate.dropCollection(Transaction.class).block(TIMEOUT);
+        mongoTemplate.insert(Transaction.builder().originAccount("12345").destinationAccount("67890")
+                .date(LocalDateTime.of(2024, 1, 15, 10, 0)).build()).block(TIMEOUT);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        new TransactionIndexInitializer(mongoTemplate, mappingContext).ensureIndexes().block(TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.dropCollection(Transaction.class).block(TIMEOUT);
+        mongoClient.close();
+    }
+
+    @Test
+    /*
+    * Verifies that no search shape and no history page query is answered by a collection scan.
+    * */
+    void explain_HistoryAndSearchQueries_UseIndexes() {
+        // Arrange
+        Map<String, Query> queries = new LinkedHashMap<>();
+        for (TransactionSearchRequest request : TransactionSearchRepositoryImplTest.searchShapes()) {
+            queries.put(request.toString(), TransactionSearchRepositoryImpl.buildQuery(request));
+        }
+        LocalDateTime cursorDate = LocalDateTime.of(2024, 1, 15, 10, 0);
+        queries.put("history first page", new Query());
+        queries.put("history next page", new Query(new Criteria().orOperator(
+                Criteria.where("date").lt(cursorDate),
+                Criteria.where("date").is(cursorDate).and("id").lt(new ObjectId()))));
+
+        // Act & Assert
+        for (Map.Entry<String, Query> query : queries.entrySet()) {
+            String plan = explain(query.getValue()).toJson();
+            assertFalse(plan.contains("COLLSCAN"), "Collection scan for " + query.getKey() + ": " + plan);
+        }
+    }
+
+    private Document explain(Query query) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document find = new Document("find", mongoTemplate.getCollectionName(Transaction.class))
+                .append("filter", queryMapper.getMappedObject(query.getQueryObject(),
+                        mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Transaction.class)))
+                .append("sort", new Document("date", -1).append("_id", -1))
+                .append("limit", 50);
+        return mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"))
+                .map(result -> result.get("queryPlanner", Document.class))
+                .blockOptional(TIMEOUT)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,177 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionSearchRepositoryImplTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @InjectMocks
+    private TransactionSearchRepositoryImpl transactionSearchRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Search shapes supported by the endpoint, shared with {@link TransactionQueryExplainTest}.
+     */
+    static List<TransactionSearchRequest> searchShapes() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        return List.of(
+                TransactionSearchRequest.builder().account("12345").build(),
+                TransactionSearchRequest.builder().account("12345").from(from).to(to).build(),
+                TransactionSearchRequest.builder().originAccount("12345").build(),
+                TransactionSearchRequest.builder().originAccount("12345").type(TransactionType.TRANSFER).from(from).build(),
+                TransactionSearchRequest.builder().destinationAccount("67890").to(to).build(),
+                TransactionSearchRequest.builder().type(TransactionType.WITHDRAWAL).build(),
+                TransactionSearchRequest.builder().type(TransactionType.SAVING).from(from).to(to).build(),
+                TransactionSearchRequest.builder().from(from).to(to).minAmount(BigDecimal.TEN).build());
+    }
+
+    @Test
+    /*
+    * Verifies that the query contains only the given filters and sorts newest first.
+    * */
+    void buildQuery_OriginAndDateRange_FiltersAndSortsByDateDescending() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        TransactionSearchRequest request = TransactionSearchRequest.builder().originAccount("12345").from(from).build();
+
+        // Act
+        Query query = TransactionSearchRepositoryImpl.buildQuery(request);
+
+        // Assert
+        Document filter = query.getQueryObject();
+        assertEquals("12345", filter.get("originAccount"));
+        assertEquals(new Document("$gte", from), filter.get("date"));
+        assertEquals(2, filter.size());
+        assertEquals(new Document("date", -1).append("id", -1), query.getSortObject());
+    }
+
+    @Test
+    /*
+    * Verifies that the account filter matches the account on either side of the transaction.
+    * */
+    void buildQuery_Account_MatchesOriginOrDestination() {
+        // Arrange
+        TransactionSearchRequest request = TransactionSearchRequest.builder().account("12345").build();
+
+        // Act
+        Document filter = TransactionSearchRepositoryImpl.buildQuery(request).getQueryObject();
+
+        // Assert
+        assertEquals(List.of(new Document("originAccount", "12345"), new Document("destinationAccount", "12345")),
+                filter.get("$or"));
+    }
+
+    @Test
+    /*
+    * Verifies that the amount range is part of the query, so MongoDB compares the Decimal128 amounts.
+    * */
+    void buildQuery_AmountRange_FiltersAmountInQuery() {
+        // Arrange
+        TransactionSearchRequest request = TransactionSearchRequest.builder()
+                .account("12345").minAmount(new BigDecimal("50")).maxAmount(new BigDecimal("100")).build();
+
+        // Act
+        Document filter = TransactionSearchRepositoryImpl.buildQuery(request).getQueryObject();
+
+        // Assert
+        assertEquals(new Document("$gte", new BigDecimal("50")).append("$lte", new BigDecimal("100")), filter.get("amount"));
+    }
+
+    @Test
+    /*
+    * Verifies that the limit is sent to MongoDB.
+    * */
+    void search_ValidRequest_LimitsQuery() {
+        // Arrange
+        TransactionSearchRequest request = TransactionSearchRequest.builder().type(TransactionType.SAVING).build();
+        when(mongoOperations.find(any(Query.class), eq(Transaction.class))).thenReturn(Flux.just(transaction("10")));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        // Act & Assert
+        StepVerifier.create(transactionSearchRepository.search(request, 25))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+
+        verify(mongoOperations).find(query.capture(), eq(Transaction.class));
+        assertEquals(25, query.getValue().getLimit());
+    }
+
+    @Test
+    /*
+    * Verifies that every search shape, and every branch of an $or, starts with a field that leads one of the
+    * declared indexes, so the query planner always has an index to seek on.
+    * */
+    void declaredIndexes_EverySearchShape_HasLeadingIndexField() {
+        // Arrange
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        List<String> leadingFields = StreamSupport.stream(new MongoPersistentEntityIndexResolver(mappingContext)
+                        .resolveIndexFor(Transaction.class).spliterator(), false)
+                .map(IndexDefinition::getIndexKeys)
+                .map(keys -> keys.keySet().iterator().next())
+                .toList();
+
+        // Act & Assert
+        for (TransactionSearchRequest request : searchShapes()) {
+            for (List<String> branch : predicateBranches(TransactionSearchRepositoryImpl.buildQuery(request).getQueryObject())) {
+                assertTrue(branch.stream().anyMatch(leadingFields::contains),
+                        "No index can serve " + branch + " of " + request);
+            }
+        }
+    }
+
+    private static List<List<String>> predicateBranches(Document filter) {
+        List<String> common = new ArrayList<>(filter.keySet());
+        common.remove("$or");
+        if (!filter.containsKey("$or")) {
+            return List.of(common);
+        }
+        List<List<String>> branches = new ArrayList<>();
+        for (Object branch : filter.getList("$or", Object.class)) {
+            List<String> fields = new ArrayList<>(common);
+            fields.addAll(((Document) branch).keySet());
+            branches.add(fields);
+        }
+        return branches;
+    }
+
+    private static Transaction transaction(String amount) {
+        return Transaction.builder().amount(new BigDecimal(amount)).build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.configuration.MongoConfig;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.MongoManagedTypes;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+* Storage size, index size and insert throughput of the default and the compact transaction format.
+* Each format is written to its own database, named after the one in the URI with a _default or _compact suffix.
+* Run with: TRANSACTION_TEST_MONGODB_URI=mongodb://localhost:27017/transaction-bench mvn test -Pbenchmark
+* */
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "TRANSACTION_TEST_MONGODB_URI", matches = ".+")
+class TransactionStorageBenchmarkTest {
+
+    private static final int TRANSACTIONS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ACCOUNTS = 5_000;
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    private MongoClient mongoClient;
+    private String database;
+
+    @BeforeEach
+    void setUp() {
+        String uri = System.getenv("TRANSACTION_TEST_MONGODB_URI");
+        mongoClient = MongoClients.create(uri);
+        database = new ConnectionString(uri).getDatabase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+    }
+
+    @Test
+    void compareDefaultAndCompactFormat() {
+        Document standard = run(false);
+        Document compact = run(true);
+
+        System.out.println(summary("default format", standard));
+        System.out.println(summary("compact format", compact));
+        assertEquals(TRANSACTIONS, compact.get("count", Number.class).intValue());
+        assertTrue(compact.get("size", Number.class).longValue() < standard.get("size", Number.class).longValue());
+    }
+
+    private Document run(boolean compact) {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getStorage().setCompact(compact);
+        MongoConfig mongoConfig = new MongoConfig();
+        MongoCustomConversions conversions = mongoConfig.mongoCustomConversions(properties);
+        MongoMappingContext mappingContext = mongoConfig.mongoMappingContext(conversions, MongoManagedTypes.empty(), properties);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(mongoClient, database + (compact ? "_compact" : "_default")), converter);
+
+        mongoTemplate.dropCollection(Transaction.class).block(TIMEOUT);
+        new TransactionIndexInitializer(mongoTemplate, mappingContext).ensureIndexes().block(TIMEOUT);
+        // Warm-up inserts load the driver and JIT-compile the mapping before the measured run
+        insert(mongoTemplate, BATCH_SIZE * 10);
+        mongoTemplate.remove(new Query(), Transaction.class).block(TIMEOUT);
+
+        long start = System.nanoTime();
+        insert(mongoTemplate, TRANSACTIONS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Document stats = mongoTemplate.executeCommand(new Document("collStats", "banking")).block(TIMEOUT);
+        return stats.append("insertsPerSecond", Math.round(TRANSACTIONS / seconds));
+    }
+
+    private static void insert(ReactiveMongoTemplate mongoTemplate, int count) {
+        Flux.range(0, count)
+                .map(TransactionStorageBenchmarkTest::transaction)
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> mongoTemplate.insert(batch, Transaction.class))
+                .then()
+                .block(TIMEOUT);
+    }
+
+    private static Transaction transaction(int i) {
+        TransactionType type = TransactionType.values()[i % 3];
+        return new Transaction(null, type, BigDecimal.valueOf(i % 100_000, 2),
+                LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i),
+                String.format("%010d", i % ACCOUNTS),
+                type == TransactionType.TRANSFER ? String.format("%010d", (i * 7) % ACCOUNTS) : null);
+    }
+
+    private static String summary(String label, Document stats) {
+        return String.format("%s: documents=%d, avgObjSize=%dB, size=%dKB, storageSize=%dKB, totalIndexSize=%dKB, inserts/s=%d",
+                label, stats.get("count", Number.class).longValue(), stats.get("avgObjSize", Number.class).longValue(),
+                kilobytes(stats, "size"), kilobytes(stats, "storageSize"), kilobytes(stats, "totalIndexSize"),
+                stats.getLong("insertsPerSecond"));
+    }
+
+    private static long kilobytes(Document stats, String field) {
+        return stats.get(field, Number.class).longValue() / 1024;
+    }
+}
@@ -0,0 +1,307 @@
+package com.bankingSystem.transaction.repository;
+
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.journal.TransactionJournal;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionWriteBehindTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRollupRepository accountRollupRepository;
+
+    private TransactionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new TransactionProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setMaxBatchSize(3);
+        properties.getWriteBehind().setMaxWait(Duration.ofSeconds(10));
+        when(transactionRepository.insert(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+        when(accountRollupRepository.record(any())).thenReturn(Mono.empty());
+        when(accountRollupRepository.revert(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    /*
+    * Verifies that with write-behind disabled every transaction is saved directly.
+    * */
+    void save_Disabled_SavesDirectly() {
+        // Arrange
+        properties.getWriteBehind().setEnabled(false);
+        Transaction transaction = transaction("1");
+        when(transactionRepository.save(transaction)).thenReturn(Mono.just(transaction));
+
+        // Act & Assert
+        StepVerifier.create(writeBehind().save(transaction))
+                .expectNext(transaction)
+                .expectComplete()
+                .verify();
+        verify(transactionRepository, never()).insert(anyList());
+    }
+
+    @Test
+    /*
+    * Verifies that a full batch is stored with a single bulk insert and every caller gets its transaction.
+    * */
+    @SuppressWarnings("unchecked")
+    void save_BatchFull_InsertsOnceAndCompletesEveryCaller() {
+        // Arrange
+        TransactionWriteBehind writeBehind = writeBehind();
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        List<Transaction> saved = Flux.range(1, 3)
+                .flatMap(i -> writeBehind.save(transaction(String.valueOf(i))))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Assert
+        assertNotNull(saved);
+        assertEquals(3, saved.size());
+        verify(transactionRepository, times(1)).insert(inserted.capture());
+        assertEquals(3, inserted.getValue().size());
+    }
+
+    @Test
+    /*
+    * Verifies that a batch that does not fill up is inserted once the wait time elapses.
+    * */
+    void save_WaitElapsed_InsertsPartialBatch() {
+        // Arrange
+        properties.getWriteBehind().setMaxWait(Duration.ofMillis(20));
+        TransactionWriteBehind writeBehind = writeBehind();
+
+        // Act & Assert
+        StepVerifier.create(writeBehind.save(transaction("1")))
+                .expectNextMatches(saved -> "1".equals(saved.getId()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        verify(transactionRepository, times(1)).insert(anyList());
+    }
+
+    @Test
+    /*
+    * Verifies that once the buffer is full further writes wait until an earlier batch is acknowledged.
+    * */
+    void save_BufferFull_WaitsForAcknowledgement() {
+        // Arrange
+        properties.getWriteBehind().setMaxBatchSize(2);
+        properties.getWriteBehind().setCapacity(2);
+        Sinks.Empty<Void> acknowledgement = Sinks.empty();
+        when(transactionRepository.insert(anyList())).thenAnswer(invocation -> acknowledgement.asMono()
+                        .thenMany(Flux.fromIterable(invocation.<List<Transaction>>getArgument(0))))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+        TransactionWriteBehind writeBehind = writeBehind();
+        writeBehind.save(transaction("1")).subscribe();
+        writeBehind.save(transaction("2")).subscribe();
+
+        // Act
+        Mono<Transaction> third = writeBehind.save(transaction("3")).cache();
+        third.subscribe();
+
+        // Assert
+        verify(transactionRepository, times(1)).insert(anyList());
+        properties.getWriteBehind().setMaxWait(Duration.ofMillis(1));
+        acknowledgement.tryEmitEmpty();
+        StepVerifier.create(third)
+                .expectNextMatches(saved -> "3".equals(saved.getId()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        verify(transactionRepository, times(2)).insert(anyList());
+    }
+
+    @Test
+    /*
+    * Verifies that when a bulk insert fails each transaction is inserted on its own and gets its own outcome.
+    * */
+    void save_BulkInsertFails_SavesIndividually() {
+        // Arrange
+        properties.getWriteBehind().setMaxBatchSize(2);
+        Transaction first = transaction("1");
+        Transaction second = transaction("2");
+        when(transactionRepository.insert(anyList())).thenReturn(Flux.error(new DataAccessResourceFailureException("down")));
+        when(transactionRepository.insert(first)).thenReturn(Mono.just(first));
+        when(transactionRepository.insert(second)).thenReturn(Mono.error(new DataAccessResourceFailureException("down")));
+        TransactionWriteBehind writeBehind = writeBehind();
+
+        // Act
+        Mono<Transaction> firstResult = writeBehind.save(first).cache();
+        firstResult.subscribe();
+        Mono<Transaction> secondResult = writeBehind.save(second);
+
+        // Assert
+        StepVerifier.create(secondResult)
+                .expectError(DataAccessResourceFailureException.class)
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(firstResult)
+                .expectNext(first)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    /*
+    * Verifies that when a bulk insert fails after storing part of the batch, the stored transactions are not
+    * stored again: ids are assigned before the bulk insert and a duplicate id counts as stored.
+    * */
+    @SuppressWarnings("unchecked")
+    void save_BulkInsertPartiallyStored_DoesNotStoreTwice() {
+        // Arrange
+        properties.getWriteBehind().setMaxBatchSize(2);
+        Transaction stored = transaction(null);
+        Transaction notStored = transaction(null);
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        when(transactionRepository.insert(anyList())).thenReturn(Flux.error(new DuplicateKeyException("partial")));
+        when(transactionRepository.insert(stored)).thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(transactionRepository.insert(notStored)).thenReturn(Mono.just(notStored));
+        TransactionWriteBehind writeBehind = writeBehind();
+
+        // Act
+        List<Transaction> saved = Flux.merge(writeBehind.save(stored), writeBehind.save(notStored))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Assert
+        assertNotNull(saved);
+        assertEquals(2, saved.size());
+        verify(transactionRepository).insert(inserted.capture());
+        assertTrue(inserted.getValue().stream().allMatch(transaction -> transaction.getId() != null));
+        verify(transactionRepository, times(1)).insert(stored);
+        verify(transactionRepository, times(1)).insert(notStored);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    /*
+    * Verifies that the stage reports saturation once the configured number of writes is waiting for room.
+    * */
+    void isSaturated_MaxWaitingReached_ReturnsTrue() {
+        // Arrange
+        properties.getWriteBehind().setMaxBatchSize(1);
+        properties.getWriteBehind().setCapacity(1);
+        properties.getWriteBehind().setMaxWaiting(1);
+        when(transactionRepository.insert(anyList())).thenReturn(Flux.never());
+        TransactionWriteBehind writeBehind = writeBehind();
+        writeBehind.save(transaction("1")).subscribe();
+
+        // Act & Assert
+        assertFalse(writeBehind.isSaturated());
+        writeBehind.save(transaction("2")).subscribe();
+        assertTrue(writeBehind.isSaturated());
+    }
+
+    @Test
+    /*
+    * Verifies that closing the stage inserts the buffered transactions before returning.
+    * */
+    void close_BufferedTransactions_AreInserted() {
+        // Arrange
+        TransactionWriteBehind writeBehind = writeBehind();
+        Mono<Transaction> buffered = writeBehind.save(transaction("1")).cache();
+        buffered.subscribe();
+
+        // Act
+        writeBehind.close();
+
+        // Assert
+        verify(transactionRepository, times(1)).insert(anyList());
+        StepVerifier.create(buffered)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ZERO);
+    }
+
+    @Test
+    /*
+    * Verifies that the account rollups are updated once the transaction is stored, and reverted on removal.
+    * */
+    void saveAndDelete_RollupsEnabled_RecordsAndRevertsRollups() {
+        // Arrange
+        properties.getWriteBehind().setEnabled(false);
+        Transaction transaction = transaction("1");
+        when(transactionRepository.save(transaction)).thenReturn(Mono.just(transaction));
+        when(transactionRepository.delete(transaction)).thenReturn(Mono.empty());
+        TransactionWriteBehind writeBehind = writeBehind();
+
+        // Act
+        writeBehind.save(transaction).block();
+        writeBehind.delete(transaction).block();
+
+        // Assert
+        verify(accountRollupRepository).record(transaction);
+        verify(accountRollupRepository).revert(transaction);
+    }
+
+    @Test
+    /*
+    * Verifies that a failed rollup update does not fail the already stored transaction.
+    * */
+    void save_RollupUpdateFails_StillReturnsTransaction() {
+        // Arrange
+        properties.getWriteBehind().setEnabled(false);
+        Transaction transaction = transaction("1");
+        when(transactionRepository.save(transaction)).thenReturn(Mono.just(transaction));
+        when(accountRollupRepository.record(transaction)).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        // Act & Assert
+        StepVerifier.create(writeBehind().save(transaction))
+                .expectNext(transaction)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that the rollups are left untouched when they are disabled.
+    * */
+    void save_RollupsDisabled_DoesNotUpdateRollups() {
+        // Arrange
+        properties.getWriteBehind().setEnabled(false);
+        properties.getRollup().setEnabled(false);
+        Transaction transaction = transaction("1");
+        when(transactionRepository.save(transaction)).thenReturn(Mono.just(transaction));
+
+        // Act
+        writeBehind().save(transaction).block();
+
+        // Assert
+        verifyNoInteractions(accountRollupRepository);
+    }
+
+    private TransactionWriteBehind writeBehind() {
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        return new TransactionWriteBehind(transactionRepository,
+                new TransactionJournal(transactionRepository, properties, metricsRegistry), accountRollupRepository,
+                properties, metricsRegistry, new IsolatedSchedulers(properties, metricsRegistry));
+    }
+
+    private static Transaction transaction(String id) {
+        return Transaction.builder().id(id).build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.exceptionhandler.AccountServiceUnavailableException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.support.StubAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountServiceResilienceFilterTest {
+
+    private StubAccountService stubAccountService;
+
+    private AccountServiceClientProperties properties;
+
+    private MetricsRegistry metricsRegistry;
+
+    private AccountServiceResilienceFilter resilienceFilter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubAccountService = new StubAccountService()
+                .withAccount(1, "12345", new BigDecimal("100.00"))
+                .start();
+        properties = new AccountServiceClientProperties();
+        properties.getResilience().setMinimumCalls(3);
+        properties.getResilience().setSlidingWindowSize(3);
+        metricsRegistry = new MetricsRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stubAccountService.close();
+    }
+
+    @Test
+    /*
+    * Verifies that a lookup slower than the lookup timeout fails fast with AccountServiceUnavailableException.
+    * */
+    void filter_SlowLookup_FailsWithAccountServiceUnavailable() {
+        // Arrange
+        properties.getResilience().setLookupTimeout(Duration.ofMillis(100));
+        stubAccountService.withLatency(() -> 1_000L);
+        WebClient webClient = buildWebClient();
+
+        // Act & Assert
+        StepVerifier.create(fetchAccount(webClient))
+                .expectError(AccountServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.resilience.timeouts"));
+    }
+
+    @Test
+    /*
+    * Verifies that a lookup whose headers arrive in time but whose body is slower than the timeout still times out,
+    * and that its bulkhead slot is held until then.
+    * */
+    void filter_SlowResponseBody_TimesOutAndHoldsBulkheadSlot() throws Exception {
+        // Arrange
+        properties.getResilience().setLookupTimeout(Duration.ofMillis(300));
+        properties.getResilience().setMaxConcurrentCalls(1);
+        stubAccountService.withBodyDelay(1_000L);
+        WebClient webClient = buildWebClient();
+
+        // Act
+        Mono<BankAccountDTO> slowLookup = fetchAccount(webClient).cache();
+        slowLookup.subscribe(account -> { }, error -> { });
+        Thread.sleep(150);
+
+        // Assert
+        assertEquals(1, metricsRegistry.snapshot().get("account.resilience.active-calls"));
+        StepVerifier.create(fetchAccount(webClient))
+                .expectError(AccountServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(slowLookup)
+                .expectError(AccountServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.resilience.timeouts"));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.resilience.bulkhead-rejections"));
+        assertEquals(0, metricsRegistry.snapshot().get("account.resilience.active-calls"));
+    }
+
+    @Test
+    /*
+    * Verifies that repeated server errors open the circuit and later calls are rejected without reaching the service.
+    * */
+    void filter_RepeatedServerErrors_OpensCircuitAndRejects() {
+        // Arrange
+        stubAccountService.withFailure(() -> true);
+        WebClient webClient = buildWebClient();
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(fetchAccount(webClient))
+                    .expectError(WebClientResponseException.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        // Act & Assert
+        StepVerifier.create(fetchAccount(webClient))
+                .expectError(AccountServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(3, stubAccountService.requestCount());
+        assertEquals(1L, metricsRegistry.snapshot().get("account.resilience.circuit-open-rejections"));
+    }
+
+    @Test
+    /*
+    * Verifies that client errors such as 404 are not counted as failures of the account service.
+    * */
+    void filter_NotFoundResponses_KeepsCircuitClosed() {
+        // Arrange
+        WebClient webClient = buildWebClient();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(webClient.get()
+                            .uri(stubAccountService.accountsUrl() + "/{accountId}", 99)
+                            .retrieve()
+                            .bodyToMono(BankAccountDTO.class))
+                    .expectError(WebClientResponseException.NotFound.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, resilienceFilter.getCircuitBreaker().getState());
+    }
+
+    @Test
+    /*
+    * Verifies that calls beyond the maximum number of concurrent calls are rejected by the bulkhead.
+    * */
+    void filter_TooManyConcurrentCalls_RejectsExcess() throws Exception {
+        // Arrange
+        properties.getResilience().setMaxConcurrentCalls(2);
+        CountDownLatch release = new CountDownLatch(1);
+        stubAccountService.withLatency(() -> {
+            awaitQuietly(release);
+            return 0L;
+        });
+        WebClient webClient = buildWebClient();
+
+        // Act
+        Flux.range(0, 2).flatMap(i -> fetchAccount(webClient)).subscribe();
+        Thread.sleep(200);
+
+        // Assert
+        StepVerifier.create(fetchAccount(webClient))
+                .expectError(AccountServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1L, metricsRegistry.snapshot().get("account.resilience.bulkhead-rejections"));
+        release.countDown();
+    }
+
+    private WebClient buildWebClient() {
+        resilienceFilter = new AccountServiceResilienceFilter(properties, metricsRegistry);
+        return WebClient.builder().filter(resilienceFilter).build();
+    }
+
+    private Mono<BankAccountDTO> fetchAccount(WebClient webClient) {
+        return webClient.get()
+                .uri(stubAccountService.accountsUrl() + "/{accountId}", 1)
+                .retrieve()
+                .bodyToMono(BankAccountDTO.class)
+                .onErrorMap(AccountServiceResilienceFilter::unwrap);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+
+    @BeforeEach
+    void setUp() {
+        TransactionProperties.Admission settings = new TransactionProperties.Admission();
+        settings.setInitialLimit(20);
+        settings.setMinLimit(2);
+        settings.setMaxLimit(100);
+        settings.setSmoothing(0.5);
+        concurrencyLimit = new AdaptiveConcurrencyLimit(settings, clock::get);
+    }
+
+    @Test
+    /*
+    * Verifies that requests over the limit are rejected and that a permit is released only once.
+    * */
+    void tryAcquire_LimitReached_RejectsUntilReleased() {
+        // Arrange
+        List<AdaptiveConcurrencyLimit.Permit> permits = acquire(20);
+
+        // Act & Assert
+        assertNull(concurrencyLimit.tryAcquire());
+        permits.get(0).ignore();
+        permits.get(0).ignore();
+        assertEquals(19, concurrencyLimit.getInFlight());
+        assertNotNull(concurrencyLimit.tryAcquire());
+        assertNull(concurrencyLimit.tryAcquire());
+    }
+
+    @Test
+    /*
+    * Verifies that the limit grows while the latency is stable and the limit is in use.
+    * */
+    void success_StableLatencyUnderLoad_RaisesLimit() {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            complete(acquire(concurrencyLimit.getLimit()), 10);
+        }
+
+        // Assert
+        assertTrue(concurrencyLimit.getLimit() > 20, "limit " + concurrencyLimit.getLimit());
+    }
+
+    @Test
+    /*
+    * Verifies that the limit shrinks once the latency rises well beyond its baseline.
+    * */
+    void success_RisingLatency_LowersLimit() {
+        // Arrange
+        complete(acquire(10), 10);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            complete(acquire(Math.min(10, concurrencyLimit.getLimit())), 200);
+        }
+
+        // Assert
+        assertTrue(concurrencyLimit.getLimit() < 20, "limit " + concurrencyLimit.getLimit());
+    }
+
+    @Test
+    /*
+    * Verifies that a dropped request lowers the limit, which never goes below its minimum.
+    * */
+    void dropped_LowersLimitDownToMinimum() {
+        // Act
+        acquire(1).get(0).dropped();
+
+        // Assert
+        assertEquals(18, concurrencyLimit.getLimit());
+        for (int i = 0; i < 50; i++) {
+            acquire(1).get(0).dropped();
+        }
+        assertEquals(2, concurrencyLimit.getLimit());
+    }
+
+    private List<AdaptiveConcurrencyLimit.Permit> acquire(int count) {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AdaptiveConcurrencyLimit.Permit permit = concurrencyLimit.tryAcquire();
+            assertNotNull(permit, "permit " + (i + 1) + " of " + count + " over limit " + concurrencyLimit.getLimit());
+            permits.add(permit);
+        }
+        return permits;
+    }
+
+    private void complete(List<AdaptiveConcurrencyLimit.Permit> permits, long latencyMillis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        permits.forEach(AdaptiveConcurrencyLimit.Permit::success);
+    }
+}
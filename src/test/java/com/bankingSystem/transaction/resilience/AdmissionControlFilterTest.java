@@ -0,0 +1,229 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private final List<String> forwardedBodies = new ArrayList<>();
+
+    private final WebFilterChain chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+            .doOnNext(body -> forwardedBodies.add(body.toString(StandardCharsets.UTF_8)))
+            .then();
+
+    private MetricsRegistry metricsRegistry;
+
+    private TransactionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        metricsRegistry = new MetricsRegistry();
+        properties = new TransactionProperties();
+        properties.getAdmission().setAccountRate(0.001);
+        properties.getAdmission().setAccountBurst(2);
+    }
+
+    @Test
+    /*
+    * Verifies that an account over its rate is rejected with 429 and Retry-After while other accounts are admitted.
+    * */
+    void filter_AccountRateExceeded_ReturnsTooManyRequests() {
+        // Arrange
+        AdmissionControlFilter filter = filter();
+
+        // Act
+        filter.filter(deposit(1), chain).block();
+        filter.filter(deposit(1), chain).block();
+        MockServerWebExchange rejected = deposit(1);
+        filter.filter(rejected, chain).block();
+        MockServerWebExchange otherAccount = transfer(2, 1);
+        filter.filter(otherAccount, chain).block();
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1000", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNull(otherAccount.getResponse().getStatusCode());
+        assertEquals(List.of("{\"accountId\":1,\"amount\":10}", "{\"accountId\":1,\"amount\":10}",
+                "{\"sourceAccountId\":2,\"destinationAccountId\":1,\"amount\":10}"), forwardedBodies);
+        assertEquals(3L, metricsRegistry.snapshot().get("admission.admitted"));
+        assertEquals(1L, metricsRegistry.snapshot().get("admission.rejections.account-rate"));
+        assertEquals(0, metricsRegistry.snapshot().get("admission.in-flight"));
+    }
+
+    @Test
+    /*
+    * Verifies that requests beyond the concurrency limit are rejected until an admitted request completes.
+    * */
+    void filter_ConcurrencyLimitReached_ReturnsTooManyRequests() {
+        // Arrange
+        properties.getAdmission().setInitialLimit(1);
+        properties.getAdmission().setMinLimit(1);
+        AdmissionControlFilter filter = filter();
+        filter.filter(deposit(1), exchange -> Mono.never()).subscribe();
+
+        // Act
+        MockServerWebExchange rejected = deposit(2);
+        filter.filter(rejected, chain).block();
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1L, metricsRegistry.snapshot().get("admission.rejections.concurrency"));
+        assertEquals(1, metricsRegistry.snapshot().get("admission.in-flight"));
+        assertTrue(forwardedBodies.isEmpty());
+    }
+
+    @Test
+    /*
+    * Verifies that beyond the configured number of accounts the least recently seen one is forgotten.
+    * */
+    void filter_MaxAccountsReached_EvictsLeastRecentlySeenAccount() {
+        // Arrange
+        properties.getAdmission().setMaxAccounts(2);
+        AdmissionControlFilter filter = filter();
+        filter.filter(deposit(1), chain).block();
+        filter.filter(deposit(1), chain).block();
+        filter.filter(deposit(2), chain).block();
+        filter.filter(deposit(2), chain).block();
+
+        // Act
+        filter.filter(deposit(3), chain).block();
+        MockServerWebExchange forgotten = deposit(1);
+        filter.filter(forgotten, chain).block();
+        MockServerWebExchange tracked = deposit(3);
+        filter.filter(tracked, chain).block();
+
+        // Assert
+        assertNull(forgotten.getResponse().getStatusCode());
+        assertNull(tracked.getResponse().getStatusCode());
+        assertEquals(2, metricsRegistry.snapshot().get("admission.tracked-accounts"));
+        assertEquals(2L, metricsRegistry.snapshot().get("admission.account-evictions"));
+        assertEquals(0L, metricsRegistry.snapshot().get("admission.rejections.account-rate"));
+    }
+
+    @Test
+    /*
+    * Verifies that with many accounts the buckets are split into segments that stay within the configured total.
+    * */
+    void filter_ManyAccounts_StaysWithinMaxAccounts() {
+        // Arrange
+        properties.getAdmission().setMaxAccounts(4096);
+        AdmissionControlFilter filter = filter();
+
+        // Act
+        for (int accountId = 1; accountId <= 5000; accountId++) {
+            filter.filter(deposit(accountId), exchange -> Mono.empty()).block();
+        }
+
+        // Assert
+        int tracked = (int) metricsRegistry.snapshot().get("admission.tracked-accounts");
+        assertTrue(tracked <= 4096, "Tracked accounts " + tracked + " exceed the configured maximum");
+        assertEquals(5000L - tracked, metricsRegistry.snapshot().get("admission.account-evictions"));
+    }
+
+    @Test
+    /*
+    * Verifies that batches take a slot of the concurrency limit without their body being read, and are not subject
+    * to the rate of a single account since their items are held back per account while they are processed.
+    * */
+    void filter_Batch_PassesConcurrencyLimitOnly() {
+        // Arrange
+        properties.getAdmission().setInitialLimit(1);
+        properties.getAdmission().setMinLimit(1);
+        AdmissionControlFilter filter = filter();
+        String items = "{\"type\":\"SAVING\",\"accountId\":1,\"amount\":10}\n".repeat(3);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            filter.filter(post("/transaction/batch", items), chain).block();
+        }
+        filter.filter(post("/transaction/batch/transfers/netted", "x".repeat(64 * 1024)), exchange -> Mono.never()).subscribe();
+        MockServerWebExchange rejected = deposit(2);
+        filter.filter(rejected, chain).block();
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals(List.of(items, items, items), forwardedBodies);
+        assertEquals(4L, metricsRegistry.snapshot().get("admission.admitted"));
+        assertEquals(0L, metricsRegistry.snapshot().get("admission.rejections.account-rate"));
+        assertEquals(0L, metricsRegistry.snapshot().get("admission.rejections.body-size"));
+        assertEquals(0, metricsRegistry.snapshot().get("admission.tracked-accounts"));
+    }
+
+    @Test
+    /*
+    * Verifies that a body larger than the configured size is rejected with 413 without being forwarded.
+    * */
+    void filter_BodyTooLarge_ReturnsPayloadTooLarge() {
+        // Arrange
+        properties.getAdmission().setMaxBodySize(DataSize.ofBytes(32));
+        AdmissionControlFilter filter = filter();
+        MockServerWebExchange rejected = post("/transaction/deposit",
+                "{\"accountId\":1,\"amount\":10,\"description\":\"" + "x".repeat(64) + "\"}");
+
+        // Act
+        filter.filter(rejected, chain).block();
+        filter.filter(deposit(1), chain).block();
+
+        // Assert
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, rejected.getResponse().getStatusCode());
+        assertEquals(List.of("{\"accountId\":1,\"amount\":10}"), forwardedBodies);
+        assertEquals(1L, metricsRegistry.snapshot().get("admission.rejections.body-size"));
+        assertEquals(1L, metricsRegistry.snapshot().get("admission.admitted"));
+        assertEquals(0, metricsRegistry.snapshot().get("admission.in-flight"));
+    }
+
+    @Test
+    /*
+    * Verifies that requests other than deposits, withdrawals, transfers and batches are not subject to admission control.
+    * */
+    void filter_OtherRequest_PassesThrough() {
+        // Arrange
+        AdmissionControlFilter filter = filter();
+        List<String> forwardedPaths = new ArrayList<>();
+
+        // Act
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/transaction/history")), exchange -> {
+            forwardedPaths.add(exchange.getRequest().getPath().value());
+            return Mono.empty();
+        }).block();
+
+        // Assert
+        assertEquals(List.of("/transaction/history"), forwardedPaths);
+        assertEquals(0L, metricsRegistry.snapshot().get("admission.admitted"));
+    }
+
+    private AdmissionControlFilter filter() {
+        return new AdmissionControlFilter(properties, new ObjectMapper(), metricsRegistry);
+    }
+
+    private static MockServerWebExchange deposit(int accountId) {
+        return post("/transaction/deposit", "{\"accountId\":" + accountId + ",\"amount\":10}");
+    }
+
+    private static MockServerWebExchange transfer(int sourceAccountId, int destinationAccountId) {
+        return post("/transaction/transferTo", "{\"sourceAccountId\":" + sourceAccountId
+                + ",\"destinationAccountId\":" + destinationAccountId + ",\"amount\":10}");
+    }
+
+    private static MockServerWebExchange post(String path, String body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post(path).body(body));
+    }
+}
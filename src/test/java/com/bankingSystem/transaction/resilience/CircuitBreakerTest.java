@@ -0,0 +1,119 @@
+package com.bankingSystem.transaction.resilience;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        AccountServiceClientProperties.Resilience settings = new AccountServiceClientProperties.Resilience();
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setOpenStateDuration(Duration.ofSeconds(10));
+        settings.setHalfOpenCalls(2);
+        circuitBreaker = new CircuitBreaker(settings, clock::get);
+    }
+
+    @Test
+    /*
+    * Verifies that the circuit stays closed until the minimum number of calls has been recorded.
+    * */
+    void onFailure_BelowMinimumCalls_StaysClosed() {
+        // Act
+        record(false, false, false);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    /*
+    * Verifies that the circuit opens once the failure rate reaches the threshold and then rejects calls.
+    * */
+    void onFailure_FailureRateReachesThreshold_OpensAndRejects() {
+        // Act
+        record(false, false, true, true);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    /*
+    * Verifies that only the most recent calls of the sliding window are taken into account.
+    * */
+    void onFailure_OldSuccessesLeaveWindow_OpensCircuit() {
+        // Arrange
+        record(false, false, false, true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // Act
+        record(true);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    /*
+    * Verifies that after the open duration a limited number of trial calls closes the circuit again.
+    * */
+    void tryAcquirePermission_AfterOpenDuration_HalfOpensAndClosesOnSuccess() {
+        // Arrange
+        record(true, true, true, true);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act & Assert
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    /*
+    * Verifies that a failed trial call opens the circuit again for a full open duration.
+    * */
+    void onFailure_HalfOpen_ReopensCircuit() {
+        // Arrange
+        record(true, true, true, true);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        // Act
+        circuitBreaker.onFailure();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void record(boolean... failures) {
+        for (boolean failure : failures) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            if (failure) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bankingSystem.transaction.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    /*
+    * Verifies that a full bucket grants its burst at once and then one permit per interval.
+    * */
+    void tryAcquire_BurstUsed_WaitsForNextInterval() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND / 10, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+        assertFalse(bucket.isFull(SECOND / 10));
+        assertTrue(bucket.isFull(SECOND));
+    }
+
+    @Test
+    /*
+    * Verifies that concurrent callers never receive more permits than the bucket holds.
+    * */
+    void tryAcquire_ConcurrentCallers_GrantsBurstOnce() throws InterruptedException {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1, 100, 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (bucket.tryAcquire(0) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(100, granted.get());
+    }
+}
@@ -0,0 +1,148 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.exceptionhandler.AccountNotFoundException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.support.StubAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLookupBatcherTest {
+
+    private final WebClient webClient = WebClient.create();
+
+    private StubAccountService stubAccountService;
+
+    private AccountServiceClientProperties properties;
+
+    private AccountLookupBatcher accountLookupBatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubAccountService = new StubAccountService()
+                .withAccount(1, "111", new BigDecimal("10.00"))
+                .withAccount(2, "222", new BigDecimal("20.00"))
+                .withAccount(3, "333", new BigDecimal("30.00"))
+                .start();
+        properties = new AccountServiceClientProperties();
+        properties.getBatch().setEnabled(true);
+        properties.getBatch().setMaxWait(Duration.ofMillis(50));
+        accountLookupBatcher = new AccountLookupBatcher(webClient, stubAccountService.accountsUrl(), properties, new MetricsRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stubAccountService.close();
+    }
+
+    @Test
+    /*
+    * Verifies that lookups of different accounts within the window are served by a single bulk request.
+    * */
+    void fetch_ConcurrentLookups_SingleBulkRequest() {
+        // Arrange
+        stubAccountService.withBulkRoute(true);
+
+        // Act
+        List<BankAccountDTO> accounts = fetchAll(1, 2, 3);
+
+        // Assert
+        assertEquals(List.of("111", "222", "333"), accounts.stream().map(BankAccountDTO::getAccountNumber).toList());
+        assertEquals(1, stubAccountService.requestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that a batch is sent as soon as it reaches the maximum size, without waiting for the window.
+    * */
+    void fetch_BatchFull_SentBeforeWindowElapses() {
+        // Arrange
+        stubAccountService.withBulkRoute(true);
+        properties.getBatch().setMaxSize(2);
+        properties.getBatch().setMaxWait(Duration.ofSeconds(30));
+
+        // Act
+        List<BankAccountDTO> accounts = fetchAll(1, 2);
+
+        // Assert
+        assertEquals(2, accounts.size());
+        assertEquals(1, stubAccountService.requestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that an account missing from the bulk response fails only its own lookup.
+    * */
+    void fetch_AccountMissingFromBulkResponse_ReturnsAccountNotFound() {
+        // Arrange
+        stubAccountService.withBulkRoute(true);
+        Mono<BankAccountDTO> existing = accountLookupBatcher.fetch(1, this::unexpectedSingleLookup);
+        Mono<BankAccountDTO> missing = accountLookupBatcher.fetch(99, this::unexpectedSingleLookup);
+
+        // Act & Assert
+        StepVerifier.create(Mono.zip(existing, missing.onErrorResume(AccountNotFoundException.class, e -> Mono.empty())
+                        .map(BankAccountDTO::getAccountNumber).defaultIfEmpty("not found")))
+                .expectNextMatches(results -> results.getT1().getId() == 1 && results.getT2().equals("not found"))
+                .verifyComplete();
+        assertEquals(1, stubAccountService.requestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that lookups fall back to single requests when the account service has no bulk route.
+    * */
+    void fetch_BulkRouteUnavailable_FallsBackToSingleLookups() {
+        // Act
+        List<BankAccountDTO> accounts = fetchAll(1, 2, 3);
+
+        // Assert
+        assertEquals(List.of("111", "222", "333"), accounts.stream().map(BankAccountDTO::getAccountNumber).toList());
+        assertEquals(4, stubAccountService.requestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that disabled batching issues a single lookup per account.
+    * */
+    void fetch_BatchingDisabled_UsesSingleLookup() {
+        // Arrange
+        properties.getBatch().setEnabled(false);
+
+        // Act
+        List<BankAccountDTO> accounts = fetchAll(1, 2);
+
+        // Assert
+        assertEquals(2, accounts.size());
+        assertEquals(2, stubAccountService.requestCount());
+    }
+
+    private List<BankAccountDTO> fetchAll(Integer... accountIds) {
+        return Flux.fromArray(accountIds)
+                .flatMapSequential(accountId -> accountLookupBatcher.fetch(accountId, this::singleLookup))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+    }
+
+    private Mono<BankAccountDTO> singleLookup(Integer accountId) {
+        return webClient.get()
+                .uri(stubAccountService.accountsUrl() + "/{accountId}", accountId)
+                .retrieve()
+                .bodyToMono(BankAccountDTO.class);
+    }
+
+    private Mono<BankAccountDTO> unexpectedSingleLookup(Integer accountId) {
+        return Mono.error(new AssertionError("Single lookup not expected for account " + accountId));
+    }
+}
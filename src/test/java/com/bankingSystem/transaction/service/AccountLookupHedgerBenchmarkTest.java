@@ -0,0 +1,91 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.bankingSystem.transaction.support.LatencyRecorder;
+import com.bankingSystem.transaction.support.StubAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+* Tail latency of account lookups against a stub with a bimodal latency distribution, with and without hedging.
+* Run with: mvn test -Pbenchmark
+* */
+@Tag("benchmark")
+class AccountLookupHedgerBenchmarkTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 16;
+    private static final long FAST_MILLIS = 5;
+    private static final long SLOW_MILLIS = 150;
+    private static final double SLOW_FRACTION = 0.03;
+
+    private final WebClient webClient = WebClient.create();
+
+    private StubAccountService stubAccountService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubAccountService = new StubAccountService()
+                .withAccount(1, "12345", new BigDecimal("100.00"))
+                .withLatency(() -> ThreadLocalRandom.current().nextDouble() < SLOW_FRACTION ? SLOW_MILLIS : FAST_MILLIS)
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stubAccountService.close();
+    }
+
+    @Test
+    void compareUnhedgedAndHedgedLookups() {
+        AccountServiceClientProperties properties = new AccountServiceClientProperties();
+        properties.getHedge().setDelayPercentile(90);
+        properties.getHedge().setMaxHedgeRatio(0.1);
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        AccountLookupHedger hedger = new AccountLookupHedger(properties, metricsRegistry);
+
+        // Warm-up establishes connections and JIT-compiles the request path
+        run(hedger);
+        LatencyRecorder unhedged = run(hedger);
+        properties.getHedge().setEnabled(true);
+        // Lets the hedge delay converge to the observed latency percentile
+        run(hedger);
+        LatencyRecorder hedged = run(hedger);
+
+        System.out.println(unhedged.summary("unhedged lookups"));
+        System.out.println(hedged.summary("hedged lookups"));
+        System.out.println("hedge delay " + hedger.getHedgeDelay().toMillis() + " ms, " + metricsRegistry.snapshot());
+        assertTrue(hedged.percentileMillis(99) < unhedged.percentileMillis(99));
+    }
+
+    private LatencyRecorder run(AccountLookupHedger hedger) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return hedger.hedge(() -> webClient.get()
+                                    .uri(stubAccountService.accountsUrl() + "/{accountId}", 1)
+                                    .retrieve()
+                                    .bodyToMono(BankAccountDTO.class)
+                                    // MockWebServer may close a connection left behind by a cancelled hedge
+                                    .retryWhen(Retry.max(1).filter(WebClientRequestException.class::isInstance)))
+                            .doOnSuccess(account -> recorder.record(start));
+                }), CONCURRENCY)
+                .blockLast();
+        return recorder;
+    }
+}
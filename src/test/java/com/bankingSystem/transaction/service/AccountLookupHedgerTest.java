@@ -0,0 +1,128 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLookupHedgerTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private AccountServiceClientProperties properties;
+
+    private MetricsRegistry metricsRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AccountServiceClientProperties();
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setInitialDelay(Duration.ofMillis(20));
+        properties.getHedge().setMaxHedgeRatio(1.0);
+        metricsRegistry = new MetricsRegistry();
+    }
+
+    @Test
+    /*
+    * Verifies that a lookup slower than the hedge delay is answered by the hedge request.
+    * */
+    void hedge_SlowPrimary_ReturnsHedgeResponse() {
+        // Arrange
+        AccountLookupHedger hedger = new AccountLookupHedger(properties, metricsRegistry);
+
+        // Act & Assert
+        StepVerifier.create(hedger.hedge(slowThenFast()))
+                .expectNext("fast")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+        assertEquals(2, calls.get());
+        assertEquals(1L, metricsRegistry.snapshot().get("account.hedge.wins"));
+    }
+
+    @Test
+    /*
+    * Verifies that no hedge request is sent when the hedge budget is exhausted.
+    * */
+    void hedge_NoBudget_WaitsForPrimary() {
+        // Arrange
+        properties.getHedge().setMaxHedgeRatio(0);
+        AccountLookupHedger hedger = new AccountLookupHedger(properties, metricsRegistry);
+
+        // Act & Assert
+        StepVerifier.create(hedger.hedge(slowThenFast()))
+                .expectNext("slow")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that a lookup is performed exactly once when hedging is disabled.
+    * */
+    void hedge_Disabled_SingleRequest() {
+        // Arrange
+        properties.getHedge().setEnabled(false);
+        AccountLookupHedger hedger = new AccountLookupHedger(properties, metricsRegistry);
+
+        // Act & Assert
+        StepVerifier.create(hedger.hedge(slowThenFast()))
+                .expectNext("slow")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that an error of the first request fails the lookup without waiting for a hedge.
+    * */
+    void hedge_PrimaryError_PropagatesError() {
+        // Arrange
+        AccountLookupHedger hedger = new AccountLookupHedger(properties, metricsRegistry);
+
+        // Act & Assert
+        StepVerifier.create(hedger.hedge(() -> {
+                    calls.incrementAndGet();
+                    return Mono.<String>error(new IllegalStateException("boom"));
+                }))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that the hedge delay follows the configured percentile of the observed latencies.
+    * */
+    void hedge_ObservedLatencies_AdaptsDelayToPercentile() {
+        // Arrange
+        properties.getHedge().setInitialDelay(Duration.ofMillis(500));
+        properties.getHedge().setSampleSize(20);
+        AccountLookupHedger hedger = new AccountLookupHedger(properties, metricsRegistry);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            hedger.hedge(() -> Mono.delay(Duration.ofMillis(30)).map(tick -> "ok")).block();
+        }
+
+        // Assert
+        Duration delay = hedger.getHedgeDelay();
+        assertTrue(delay.compareTo(Duration.ofMillis(30)) >= 0, "delay " + delay);
+        assertTrue(delay.compareTo(Duration.ofMillis(200)) < 0, "delay " + delay);
+    }
+
+    private Supplier<Mono<String>> slowThenFast() {
+        return () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(500)).map(tick -> "slow")
+                : Mono.just("fast");
+    }
+}
@@ -1,19 +1,33 @@
 package com.bankingSystem.transaction.service;
 
+import com.bankingSystem.transaction.cache.AccountSnapshotCache;
+import com.bankingSystem.transaction.cache.SingleFlight;
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.AccountServiceClientProperties;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
 import com.bankingSystem.transaction.exceptionhandler.AccountServiceErrorHandler;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.dto.AccountSnapshot;
 import com.bankingSystem.transaction.model.dto.BankAccountDTO;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,16 +42,21 @@ class AccountServiceClientTest {
 
     private MockWebServer mockWebServer;
 
+    private AccountSnapshotCache accountSnapshotCache;
+
+    private AccountServiceClientProperties properties;
+
+    private MetricsRegistry metricsRegistry;
+
     @BeforeEach
     void setUp() throws Exception {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
 
-        WebClient webClient = WebClient.builder()
-                .baseUrl(mockWebServer.url("/").toString())
-                .build();
-
-        accountServiceClient = new AccountServiceClient(webClient, errorHandler, mockWebServer.url("/").toString());
+        metricsRegistry = new MetricsRegistry();
+        accountSnapshotCache = new AccountSnapshotCache(new AccountServiceClientProperties(), metricsRegistry);
+        properties = new AccountServiceClientProperties();
+        accountServiceClient = client(new IsolatedSchedulers(new TransactionProperties(), metricsRegistry));
     }
 
     @Test
@@ -101,6 +120,157 @@ class AccountServiceClientTest {
         assertThrows(Exception.class, result::block);
     }
 
+    @Test
+    /*
+    * Verifies that the account snapshot is served from the cache after the first lookup.
+    * */
+    void fetchAccountSnapshot_SecondCall_ServedFromCache() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{ \"id\": 123, \"accountNumber\": \"987654321\", \"balance\": 1000.00, \"accountType\": \"SAVINGS\", \"customerId\": 456 }")
+                .addHeader("Content-Type", "application/json"));
+
+        AccountSnapshot first = accountServiceClient.fetchAccountSnapshot(123).block();
+        AccountSnapshot second = accountServiceClient.fetchAccountSnapshot(123).block();
+
+        assertNotNull(first);
+        assertEquals("987654321", first.getAccountNumber());
+        assertEquals(first, second);
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that concurrent lookups of the same account are served by a single request to the account service.
+    * */
+    void fetchBankAccountById_ConcurrentLookups_SingleRequest() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeadersDelay(200, TimeUnit.MILLISECONDS)
+                .setBody("{ \"id\": 123, \"accountNumber\": \"987654321\", \"balance\": 1000.00, \"accountType\": \"SAVINGS\", \"customerId\": 456 }")
+                .addHeader("Content-Type", "application/json"));
+
+        List<BankAccountDTO> accounts = Flux.range(0, 5)
+                .flatMap(i -> accountServiceClient.fetchBankAccountById(123))
+                .collectList()
+                .block();
+
+        assertNotNull(accounts);
+        assertEquals(5, accounts.size());
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that a failed balance adjustment evicts the cached snapshot of the account.
+    * */
+    void adjustBankAccountBalance_Error_InvalidatesCachedSnapshot() {
+        accountSnapshotCache.put(new AccountSnapshot(123, "987654321", "SAVINGS", 456));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+        Mono<Void> result = accountServiceClient.adjustBankAccountBalance(123, BigDecimal.TEN);
+
+        assertThrows(Exception.class, result::block);
+        assertEquals(0, accountSnapshotCache.size());
+    }
+
+    @Test
+    /*
+    * Verifies that applying a balance delta posts the delta and guard and returns the updated account.
+    * */
+    void applyBalanceDelta_Success_ReturnsUpdatedAccount() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{ \"id\": 123, \"accountNumber\": \"987654321\", \"balance\": 900.00, \"accountType\": \"SAVINGS\", \"customerId\": 456 }")
+                .addHeader("Content-Type", "application/json"));
+
+        BankAccountDTO account = accountServiceClient.applyBalanceDelta(123, BigDecimal.valueOf(-100), BigDecimal.ZERO).block();
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertNotNull(account);
+        assertEquals(900.00, account.getBalance().doubleValue());
+        assertEquals("POST", request.getMethod());
+        assertTrue(request.getPath().endsWith("/123/balance/delta"));
+        assertTrue(request.getBody().readUtf8().contains("\"minimumBalance\":0"));
+    }
+
+    @Test
+    /*
+    * Verifies that a rejected minimum-balance guard is reported as an InsufficientBalanceException.
+    * */
+    void applyBalanceDelta_GuardRejected_ThrowsInsufficientBalanceException() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(409));
+
+        StepVerifier.create(accountServiceClient.applyBalanceDelta(123, BigDecimal.valueOf(-5000), BigDecimal.ZERO))
+                .expectError(InsufficientBalanceException.class)
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that a slow balance adjustment is never hedged, even when lookup hedging is enabled.
+    * */
+    void adjustBankAccountBalance_HedgingEnabled_SendsSingleRequest() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMaxHedgeRatio(1.0);
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        accountServiceClient.adjustBankAccountBalance(123, BigDecimal.TEN).block();
+
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    /*
+    * Verifies that a balance change whose response finds the account service scheduler full is applied once and
+    * reported as applied, so that the caller has no reason to send it again.
+    * */
+    void adjustBankAccountBalance_SchedulerFull_AppliedOnceAndCompletes() {
+        TransactionProperties transactionProperties = new TransactionProperties();
+        transactionProperties.getIsolation().setEnabled(true);
+        transactionProperties.getIsolation().getAccountService().setThreads(1);
+        transactionProperties.getIsolation().getAccountService().setQueueCapacity(1);
+        IsolatedSchedulers isolatedSchedulers = new IsolatedSchedulers(transactionProperties, metricsRegistry);
+        CountDownLatch busy = new CountDownLatch(1);
+        try {
+            isolatedSchedulers.accountService().schedule(() -> await(busy));
+            isolatedSchedulers.accountService().schedule(() -> await(busy));
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+            StepVerifier.create(client(isolatedSchedulers).adjustBankAccountBalance(123, BigDecimal.TEN))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+
+            assertEquals(1, mockWebServer.getRequestCount());
+            assertEquals(1L, metricsRegistry.snapshot().get("scheduler.account-service.ran-in-place"));
+        } finally {
+            busy.countDown();
+            isolatedSchedulers.close();
+        }
+    }
+
+    private AccountServiceClient client(IsolatedSchedulers isolatedSchedulers) {
+        String accountServiceUrl = mockWebServer.url("/").toString();
+        WebClient webClient = WebClient.builder()
+                .baseUrl(accountServiceUrl)
+                .build();
+        return new AccountServiceClient(webClient, errorHandler, accountServiceUrl,
+                accountSnapshotCache, new SingleFlight<>("account.lookup", metricsRegistry),
+                new AccountLookupBatcher(webClient, accountServiceUrl, properties, metricsRegistry), properties,
+                new AccountLookupHedger(properties, metricsRegistry), isolatedSchedulers);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @AfterEach
     /*
     *  Ensures the mock server is shut down after each test to clean up resources.
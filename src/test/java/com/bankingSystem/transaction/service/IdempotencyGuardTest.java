@@ -0,0 +1,313 @@
+package com.bankingSystem.transaction.service;
+
+import com.bankingSystem.transaction.cache.IdempotencyCache;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.exceptionhandler.AccountServiceUnavailableException;
+import com.bankingSystem.transaction.exceptionhandler.IdempotencyKeyConflictException;
+import com.bankingSystem.transaction.exceptionhandler.InsufficientBalanceException;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.IdempotencyRecord;
+import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionType;
+import com.bankingSystem.transaction.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyGuardTest {
+
+    private static final String FINGERPRINT = IdempotencyGuard.fingerprint(1, BigDecimal.TEN);
+
+    private final AtomicInteger operationCalls = new AtomicInteger();
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private MetricsRegistry metricsRegistry;
+
+    private TransactionProperties properties;
+
+    private IdempotencyGuard idempotencyGuard;
+
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(idempotencyRecordRepository.delete(any(IdempotencyRecord.class))).thenReturn(Mono.empty());
+        when(idempotencyRecordRepository.renewPending(anyString(), any(Instant.class))).thenReturn(Mono.just(1L));
+        properties = new TransactionProperties();
+        metricsRegistry = new MetricsRegistry();
+        idempotencyGuard = guard();
+        transaction = Transaction.builder().type(TransactionType.SAVING).amount(BigDecimal.TEN).build();
+    }
+
+    @Test
+    /*
+    * Verifies that a request without a key runs the operation without touching the idempotency records.
+    * */
+    void execute_WithoutKey_RunsOperation() {
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute(null, TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectNext(transaction)
+                .verifyComplete();
+        assertEquals(1, operationCalls.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    /*
+    * Verifies that the first request with a key reserves it, runs the operation and stores the outcome.
+    * */
+    void execute_NewKey_ReservesKeyAndStoresOutcome() {
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectNext(transaction)
+                .verifyComplete();
+
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(stored.capture());
+        assertEquals("SAVING:key-1", stored.getValue().getId());
+        assertEquals(FINGERPRINT, stored.getValue().getFingerprint());
+        assertEquals(transaction, stored.getValue().getTransaction());
+        assertEquals(1, operationCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that a repeated key returns the first transaction from the cache without running the operation again.
+    * */
+    void execute_RepeatedKey_ReplaysFromCache() {
+        // Arrange
+        idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation).block();
+
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectNext(transaction)
+                .verifyComplete();
+        assertEquals(1, operationCalls.get());
+        verify(idempotencyRecordRepository, times(1)).insert(any(IdempotencyRecord.class));
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.idempotency.replays"));
+    }
+
+    @Test
+    /*
+    * Verifies that concurrent requests with the same key are coalesced into a single run of the operation.
+    * */
+    void execute_ConcurrentDuplicates_RunOperationOnce() {
+        // Arrange
+        Sinks.One<Transaction> result = Sinks.one();
+        Mono<Transaction> first = idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT,
+                () -> counted(result.asMono()));
+        Mono<Transaction> second = idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT,
+                () -> counted(result.asMono()));
+
+        // Act & Assert
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue(transaction))
+                .expectNextMatches(results -> results.getT1() == transaction && results.getT2() == transaction)
+                .verifyComplete();
+        assertEquals(1, operationCalls.get());
+        verify(idempotencyRecordRepository, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    /*
+    * Verifies that reusing a key for a different request is rejected as a conflict.
+    * */
+    void execute_SameKeyDifferentRequest_ReturnsConflict() {
+        // Arrange
+        idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation).block();
+        String otherFingerprint = IdempotencyGuard.fingerprint(1, BigDecimal.ONE);
+
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, otherFingerprint, this::operation))
+                .expectError(IdempotencyKeyConflictException.class)
+                .verify();
+        assertEquals(1, operationCalls.get());
+        assertEquals(1L, metricsRegistry.snapshot().get("transaction.idempotency.conflicts"));
+    }
+
+    @Test
+    /*
+    * Verifies that a key reserved by another instance and still pending is rejected as a conflict.
+    * */
+    void execute_KeyPendingElsewhere_ReturnsConflict() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(idempotencyRecordRepository.findById("SAVING:key-1"))
+                .thenReturn(Mono.just(new IdempotencyRecord("SAVING:key-1", FINGERPRINT, null, false, Instant.now())));
+
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectError(IdempotencyKeyConflictException.class)
+                .verify();
+        assertEquals(0, operationCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that a key completed by another instance is answered from the stored record.
+    * */
+    void execute_KeyCompletedElsewhere_ReplaysStoredTransaction() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(idempotencyRecordRepository.findById("SAVING:key-1"))
+                .thenReturn(Mono.just(new IdempotencyRecord("SAVING:key-1", FINGERPRINT, transaction, false, Instant.now())));
+
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectNext(transaction)
+                .verifyComplete();
+        assertEquals(0, operationCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that an operation rejected before changing anything releases the key, so a retry runs it again.
+    * */
+    void execute_OperationRejected_ReleasesKey() {
+        // Arrange
+        InsufficientBalanceException failure = new InsufficientBalanceException("Insufficient balance");
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT,
+                        () -> counted(Mono.error(failure))))
+                .expectErrorMatches(error -> error == failure)
+                .verify();
+
+        // Act & Assert
+        verify(idempotencyRecordRepository, times(1)).delete(any(IdempotencyRecord.class));
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectNext(transaction)
+                .verifyComplete();
+        assertEquals(2, operationCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that an operation failing without a definite answer keeps its key with an unknown outcome, so that
+    * a retry is rejected instead of applying the change a second time.
+    * */
+    void execute_OutcomeUnknown_KeepsKeyAndRejectsRetry() {
+        // Arrange
+        AccountServiceUnavailableException failure = new AccountServiceUnavailableException("Account service timed out");
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT,
+                        () -> counted(Mono.error(failure))))
+                .expectErrorMatches(error -> error == failure)
+                .verify();
+        ArgumentCaptor<IdempotencyRecord> kept = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(kept.capture());
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(idempotencyRecordRepository.findById("SAVING:key-1")).thenReturn(Mono.just(kept.getValue()));
+
+        // Act & Assert
+        assertTrue(kept.getValue().isOutcomeUnknown());
+        verify(idempotencyRecordRepository, never()).delete(any(IdempotencyRecord.class));
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectErrorMatches(error -> error instanceof IdempotencyKeyConflictException
+                        && error.getMessage().contains("unknown"))
+                .verify();
+        assertEquals(1, operationCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that a rejected operation whose compensation failed keeps its key, as a change may remain applied.
+    * */
+    void execute_CompensationFailed_KeepsKey() {
+        // Arrange
+        InsufficientBalanceException failure = new InsufficientBalanceException("Insufficient balance");
+        failure.addSuppressed(new AccountServiceUnavailableException("Account service timed out"));
+
+        // Act
+        StepVerifier.create(idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT,
+                        () -> counted(Mono.error(failure))))
+                .expectErrorMatches(error -> error == failure)
+                .verify();
+
+        // Assert
+        verify(idempotencyRecordRepository, never()).delete(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository).save(argThat(IdempotencyRecord::isOutcomeUnknown));
+    }
+
+    @Test
+    /*
+    * Verifies that the pending record is renewed while the operation runs, and no longer once it completes.
+    * */
+    void execute_LongOperation_RenewsPendingKey() {
+        // Arrange
+        properties.getIdempotency().setPendingTimeout(Duration.ofMillis(40));
+        idempotencyGuard = guard();
+        Sinks.One<Transaction> result = Sinks.one();
+
+        // Act
+        Mono<Transaction> execution = idempotencyGuard.execute("key-1", TransactionType.SAVING, FINGERPRINT,
+                () -> counted(result.asMono())).cache();
+        execution.subscribe();
+
+        // Assert
+        verify(idempotencyRecordRepository, timeout(2000).atLeast(2)).renewPending(eq("SAVING:key-1"), any(Instant.class));
+        result.tryEmitValue(transaction);
+        assertEquals(transaction, execution.block(Duration.ofSeconds(5)));
+        clearInvocations(idempotencyRecordRepository);
+        verify(idempotencyRecordRepository, after(100).never()).renewPending(anyString(), any(Instant.class));
+    }
+
+    @Test
+    /*
+    * Verifies that a blank key is rejected before the operation runs.
+    * */
+    void execute_BlankKey_ThrowsIllegalArgument() {
+        // Act & Assert
+        StepVerifier.create(idempotencyGuard.execute(" ", TransactionType.SAVING, FINGERPRINT, this::operation))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        assertEquals(0, operationCalls.get());
+    }
+
+    @Test
+    /*
+    * Verifies that fingerprints compare amounts by value regardless of their scale.
+    * */
+    void fingerprint_AmountsWithDifferentScale_AreEqual() {
+        // Act & Assert
+        assertEquals(IdempotencyGuard.fingerprint(1, 2, new BigDecimal("10.50")),
+                IdempotencyGuard.fingerprint(1, 2, new BigDecimal("10.5")));
+    }
+
+    private IdempotencyGuard guard() {
+        return new IdempotencyGuard(idempotencyRecordRepository,
+                new IdempotencyCache(properties, metricsRegistry), properties, metricsRegistry);
+    }
+
+    private Mono<Transaction> operation() {
+        return counted(Mono.just(transaction));
+    }
+
+    private Mono<Transaction> counted(Mono<Transaction> result) {
+        return Mono.defer(() -> {
+            operationCalls.incrementAndGet();
+            return result;
+        });
+    }
+}
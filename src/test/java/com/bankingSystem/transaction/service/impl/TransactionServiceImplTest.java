@@ -1,38 +1,85 @@
 package com.bankingSystem.transaction.service.impl;
 
-import com.bankingSystem.transaction.factory.TransactionProcessorFactory;
+import com.bankingSystem.transaction.cache.RecentTransactionsCache;
+import com.bankingSystem.transaction.concurrency.AccountSequencer;
+import com.bankingSystem.transaction.concurrency.IsolatedSchedulers;
+import com.bankingSystem.transaction.configuration.TransactionProperties;
+import com.bankingSystem.transaction.factory.TransactionProcessorRegistry;
+import com.bankingSystem.transaction.metrics.MetricsRegistry;
+import com.bankingSystem.transaction.model.AccountRollup;
 import com.bankingSystem.transaction.model.Transaction;
+import com.bankingSystem.transaction.model.TransactionGrouping;
 import com.bankingSystem.transaction.model.TransactionType;
-import com.bankingSystem.transaction.processor.TransactionProcessor;
-import com.bankingSystem.transaction.processor.TransferProcessor;
+import com.bankingSystem.transaction.model.dto.BatchItemResult;
+import com.bankingSystem.transaction.model.dto.HistoryCursor;
+import com.bankingSystem.transaction.model.dto.TransactionTotal;
+import com.bankingSystem.transaction.model.operation.DepositOperation;
+import com.bankingSystem.transaction.model.operation.TransferOperation;
+import com.bankingSystem.transaction.model.operation.WithdrawalOperation;
+import com.bankingSystem.transaction.model.request.BatchTransactionRequest;
+import com.bankingSystem.transaction.model.request.TransactionSearchRequest;
+import com.bankingSystem.transaction.model.request.TransferRequest;
+import com.bankingSystem.transaction.processor.TransferNettingProcessor;
+import com.bankingSystem.transaction.repository.AccountRollupRebuildJob;
+import com.bankingSystem.transaction.repository.AccountRollupRepository;
 import com.bankingSystem.transaction.repository.TransactionRepository;
+import com.bankingSystem.transaction.service.IdempotencyGuard;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceImplTest {
 
     @Mock
-    private TransactionProcessorFactory transactionProcessorFactory;
+    private TransactionProcessorRegistry transactionProcessorRegistry;
 
     @Mock
     private TransactionRepository transactionRepository;
 
     @Mock
-    private TransactionProcessor transactionProcessor;
+    private TransferNettingProcessor transferNettingProcessor;
+
+    @Spy
+    private AccountSequencer accountSequencer = new AccountSequencer(new TransactionProperties(), new MetricsRegistry());
+
+    @Spy
+    private TransactionProperties transactionProperties = new TransactionProperties();
 
     @Mock
-    private TransferProcessor transferProcessor;
+    private AccountRollupRepository accountRollupRepository;
+
+    @Mock
+    private AccountRollupRebuildJob accountRollupRebuildJob;
+
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+
+    @Spy
+    private RecentTransactionsCache recentTransactionsCache = new RecentTransactionsCache(new TransactionProperties(), new MetricsRegistry());
+
+    @Spy
+    private IsolatedSchedulers isolatedSchedulers = new IsolatedSchedulers(new TransactionProperties(), new MetricsRegistry());
 
     @InjectMocks
     private TransactionServiceImpl transactionService;
@@ -42,6 +89,8 @@ class TransactionServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(idempotencyGuard.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> Mono.defer(invocation.<Supplier<Mono<Transaction>>>getArgument(3)));
         transaction = Transaction.builder()
                 .amount(BigDecimal.valueOf(1245.12))
                 .type(TransactionType.SAVING)
@@ -54,13 +103,11 @@ class TransactionServiceImplTest {
     * */
     void registerDeposit_ValidRequest_ReturnsTransaction() {
         // Arrange
-        when(transactionProcessorFactory.buildTransactionProcessor(TransactionType.SAVING))
-                .thenReturn(transactionProcessor);
-        when(transactionProcessor.processTransaction(1, BigDecimal.valueOf(1245.12)))
+        when(transactionProcessorRegistry.process(new DepositOperation(1, BigDecimal.valueOf(1245.12))))
                 .thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<Transaction> response = transactionService.registerDeposit(1, BigDecimal.valueOf(1245.12));
+        Mono<Transaction> response = transactionService.registerDeposit(1, BigDecimal.valueOf(1245.12), null);
 
         // Assert
         StepVerifier.create(response)
@@ -68,8 +115,7 @@ class TransactionServiceImplTest {
                 .expectComplete()
                 .verify();
 
-        verify(transactionProcessorFactory, times(1)).buildTransactionProcessor(TransactionType.SAVING);
-        verify(transactionProcessor, times(1)).processTransaction(1, BigDecimal.valueOf(1245.12));
+        verify(transactionProcessorRegistry, times(1)).process(new DepositOperation(1, BigDecimal.valueOf(1245.12)));
     }
 
     @Test
@@ -78,13 +124,11 @@ class TransactionServiceImplTest {
     * */
     void registerWithdrawal_ValidRequest_ReturnsTransaction() {
         // Arrange
-        when(transactionProcessorFactory.buildTransactionProcessor(TransactionType.WITHDRAWAL))
-                .thenReturn(transactionProcessor);
-        when(transactionProcessor.processTransaction(1, BigDecimal.valueOf(500.0)))
+        when(transactionProcessorRegistry.process(new WithdrawalOperation(1, BigDecimal.valueOf(500.0))))
                 .thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<Transaction> response = transactionService.registerWithdrawal(1, BigDecimal.valueOf(500.0));
+        Mono<Transaction> response = transactionService.registerWithdrawal(1, BigDecimal.valueOf(500.0), null);
 
         // Assert
         StepVerifier.create(response)
@@ -92,8 +136,7 @@ class TransactionServiceImplTest {
                 .expectComplete()
                 .verify();
 
-        verify(transactionProcessorFactory, times(1)).buildTransactionProcessor(TransactionType.WITHDRAWAL);
-        verify(transactionProcessor, times(1)).processTransaction(1, BigDecimal.valueOf(500.0));
+        verify(transactionProcessorRegistry, times(1)).process(new WithdrawalOperation(1, BigDecimal.valueOf(500.0)));
     }
 
     @Test
@@ -102,13 +145,11 @@ class TransactionServiceImplTest {
     * */
     void registerTransfer_ValidRequest_ReturnsTransaction() {
         // Arrange
-        when(transactionProcessorFactory.buildTransactionProcessor(TransactionType.TRANSFER))
-                .thenReturn(transferProcessor);
-        when(transferProcessor.processTransfer(1, 2, BigDecimal.valueOf(1000.0)))
+        when(transactionProcessorRegistry.process(new TransferOperation(1, 2, BigDecimal.valueOf(1000.0))))
                 .thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<Transaction> response = transactionService.registerTransfer(1, 2, BigDecimal.valueOf(1000.0));
+        Mono<Transaction> response = transactionService.registerTransfer(1, 2, BigDecimal.valueOf(1000.0), "key-1");
 
         // Assert
         StepVerifier.create(response)
@@ -116,28 +157,311 @@ class TransactionServiceImplTest {
                 .expectComplete()
                 .verify();
 
-        verify(transactionProcessorFactory, times(1)).buildTransactionProcessor(TransactionType.TRANSFER);
-        verify(transferProcessor, times(1)).processTransfer(1, 2, BigDecimal.valueOf(1000.0));
+        verify(transactionProcessorRegistry, times(1)).process(new TransferOperation(1, 2, BigDecimal.valueOf(1000.0)));
+        verify(accountSequencer, times(1)).execute(eq(1), eq(2), any());
+        verify(idempotencyGuard, times(1)).execute(eq("key-1"), eq(TransactionType.TRANSFER), eq("1|2|1000"), any());
     }
 
     @Test
     /*
-    * Verifies that retrieving the transaction history returns the expected list of transactions.
+    * Verifies that retrieving the transaction history streams the transactions from the repository.
     * */
-    void getTransactionHistory_ReturnsListOfTransactions() {
+    void getTransactionHistory_StreamsTransactions() {
         // Arrange
-        List<Transaction> transactions = List.of(transaction);
-        when(transactionRepository.findAll()).thenReturn(Flux.fromIterable(transactions));
+        when(transactionRepository.findAll()).thenReturn(Flux.just(transaction, transaction));
 
         // Act
-        Mono<List<Transaction>> response = transactionService.getTransactionHistory();
+        Flux<Transaction> response = transactionService.getTransactionHistory();
 
         // Assert
-        StepVerifier.create(response)
-                .expectNext(transactions)
+        StepVerifier.create(response, 1)
+                .expectNext(transaction)
+                .thenRequest(1)
+                .expectNext(transaction)
                 .expectComplete()
                 .verify();
 
         verify(transactionRepository, times(1)).findAll();
     }
+
+    @Test
+    /*
+    * Verifies that a full first page returns a cursor pointing after its last transaction.
+    * */
+    void getTransactionHistoryPage_FullFirstPage_ReturnsNextCursor() {
+        // Arrange
+        Transaction last = Transaction.builder().id("6718a3f2c1d4e5f6a7b8c9d0").date(LocalDateTime.of(2024, 10, 1, 12, 0)).build();
+        when(transactionRepository.findAllByOrderByDateDescIdDesc(Limit.of(2))).thenReturn(Flux.just(transaction, last));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getTransactionHistoryPage(null, 2))
+                .expectNextMatches(page -> page.getItems().size() == 2
+                        && HistoryCursor.after(last).equals(HistoryCursor.decode(page.getNextCursor())))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that a cursor continues the history right after its position and a short page has no next cursor.
+    * */
+    void getTransactionHistoryPage_WithCursor_SeeksAfterPosition() {
+        // Arrange
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2024, 10, 1, 12, 0), "6718a3f2c1d4e5f6a7b8c9d0");
+        when(transactionRepository.findPageBefore(cursor.getDate(), new ObjectId(cursor.getId()), Limit.of(50)))
+                .thenReturn(Flux.just(transaction));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getTransactionHistoryPage(cursor.encode(), null))
+                .expectNextMatches(page -> page.getItems().size() == 1 && page.getNextCursor() == null)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that a page size above the configured maximum or an invalid cursor is rejected.
+    * */
+    void getTransactionHistoryPage_InvalidRequest_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        StepVerifier.create(transactionService.getTransactionHistoryPage(null, 501))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(transactionService.getTransactionHistoryPage("not-a-cursor", 10))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    /*
+    * Verifies that the recent transactions of an account are loaded once and then served from memory.
+    * */
+    void getRecentTransactions_RepeatedReads_LoadsAccountOnce() {
+        // Arrange
+        TransactionSearchRequest request = TransactionSearchRequest.builder().account("12345").build();
+        when(transactionRepository.search(request, 50)).thenReturn(Flux.just(transaction));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getRecentTransactions("12345", null))
+                .expectNext(transaction)
+                .verifyComplete();
+        StepVerifier.create(transactionService.getRecentTransactions("12345", 10))
+                .expectNext(transaction)
+                .verifyComplete();
+        verify(transactionRepository, times(1)).search(request, 50);
+    }
+
+    @Test
+    /*
+    * Verifies that a size above the number of transactions kept per account is rejected.
+    * */
+    void getRecentTransactions_SizeTooLarge_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        StepVerifier.create(transactionService.getRecentTransactions("12345", 51))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    /*
+    * Verifies that every item of a batch gets a result with its index, and an invalid item does not stop the others.
+    * */
+    void processBatch_MixedItems_ReturnsOneResultPerItem() {
+        // Arrange
+        when(transactionProcessorRegistry.process(new DepositOperation(1, BigDecimal.TEN))).thenReturn(Mono.just(transaction));
+        when(transactionProcessorRegistry.process(new TransferOperation(1, 2, BigDecimal.ONE))).thenReturn(Mono.just(transaction));
+        Flux<BatchTransactionRequest> items = Flux.just(
+                BatchTransactionRequest.builder().type(TransactionType.SAVING).accountId(1).amount(BigDecimal.TEN).build(),
+                BatchTransactionRequest.builder().type(TransactionType.WITHDRAWAL).amount(BigDecimal.TEN).build(),
+                BatchTransactionRequest.builder().type(TransactionType.TRANSFER).sourceAccountId(1).destinationAccountId(2)
+                        .amount(BigDecimal.ONE).build());
+
+        // Act
+        List<BatchItemResult> results = transactionService.processBatch(items).collectList().block();
+
+        // Assert
+        assertEquals(3, results.size());
+        Map<Long, BatchItemResult> byIndex = results.stream().collect(Collectors.toMap(BatchItemResult::getIndex, result -> result));
+        assertTrue(byIndex.get(0L).isSuccess());
+        assertFalse(byIndex.get(1L).isSuccess());
+        assertEquals("Account ID cannot be null", byIndex.get(1L).getError());
+        assertTrue(byIndex.get(2L).isSuccess());
+        verify(accountSequencer, times(1)).execute(eq(1), eq(2), any());
+    }
+
+    @Test
+    /*
+    * Verifies that items without an amount or with a non-positive amount fail with the messages of the single-operation
+    * requests and never reach a processor.
+    * */
+    void processBatch_MalformedAmounts_FailsItemsWithValidationMessages() {
+        // Arrange
+        Flux<BatchTransactionRequest> items = Flux.just(
+                BatchTransactionRequest.builder().type(TransactionType.SAVING).accountId(1).build(),
+                BatchTransactionRequest.builder().type(TransactionType.TRANSFER).sourceAccountId(1).destinationAccountId(2)
+                        .amount(new BigDecimal("-5")).build());
+
+        // Act
+        List<BatchItemResult> results = transactionService.processBatch(items).collectList().block();
+
+        // Assert
+        Map<Long, BatchItemResult> byIndex = results.stream().collect(Collectors.toMap(BatchItemResult::getIndex, result -> result));
+        assertFalse(byIndex.get(0L).isSuccess());
+        assertEquals("Amount cannot be null", byIndex.get(0L).getError());
+        assertFalse(byIndex.get(1L).isSuccess());
+        assertEquals("Amount must be positive", byIndex.get(1L).getError());
+        verify(transactionProcessorRegistry, never()).process(any());
+    }
+
+    @Test
+    /*
+    * Verifies that items on the same account run in the order of the batch while other accounts are not held back.
+    * */
+    void processBatch_SameAccount_KeepsOrder() {
+        // Arrange
+        Sinks.One<Transaction> firstDeposit = Sinks.one();
+        when(transactionProcessorRegistry.process(new DepositOperation(1, BigDecimal.ONE))).thenReturn(firstDeposit.asMono());
+        when(transactionProcessorRegistry.process(new DepositOperation(1, BigDecimal.TEN))).thenReturn(Mono.just(transaction));
+        when(transactionProcessorRegistry.process(new DepositOperation(2, BigDecimal.TEN))).thenReturn(Mono.just(transaction));
+        Flux<BatchTransactionRequest> items = Flux.just(
+                BatchTransactionRequest.builder().type(TransactionType.SAVING).accountId(1).amount(BigDecimal.ONE).build(),
+                BatchTransactionRequest.builder().type(TransactionType.SAVING).accountId(1).amount(BigDecimal.TEN).build(),
+                BatchTransactionRequest.builder().type(TransactionType.SAVING).accountId(2).amount(BigDecimal.TEN).build());
+
+        // Act & Assert
+        StepVerifier.create(transactionService.processBatch(items))
+                .expectNextMatches(result -> result.getIndex() == 2)
+                .then(() -> verify(transactionProcessorRegistry, never()).process(new DepositOperation(1, BigDecimal.TEN)))
+                .then(() -> firstDeposit.tryEmitValue(transaction))
+                .expectNextMatches(result -> result.getIndex() == 0)
+                .expectNextMatches(result -> result.getIndex() == 1)
+                .verifyComplete();
+    }
+
+    @Test
+    /*
+    * Verifies that netted transfers are settled window by window, each window holding all of its accounts.
+    * */
+    void processNettedTransfers_SplitsIntoWindows() {
+        // Arrange
+        transactionProperties.getBatch().setNettingWindow(2);
+        when(transactionProcessorRegistry.nettingProcessor()).thenReturn(transferNettingProcessor);
+        when(transferNettingProcessor.settle(anyList())).thenAnswer(invocation -> Mono.just(
+                invocation.<List<Tuple2<Long, TransferRequest>>>getArgument(0).stream()
+                        .map(transfer -> BatchItemResult.success(transfer.getT1(), transaction))
+                        .toList()));
+        Flux<TransferRequest> transfers = Flux.just(new TransferRequest(1, 2, BigDecimal.ONE),
+                new TransferRequest(2, 3, BigDecimal.ONE), new TransferRequest(3, 1, BigDecimal.ONE));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.processNettedTransfers(transfers))
+                .expectNextMatches(result -> result.getIndex() == 0)
+                .expectNextMatches(result -> result.getIndex() == 1)
+                .expectNextMatches(result -> result.getIndex() == 2)
+                .verifyComplete();
+        verify(transferNettingProcessor, times(2)).settle(anyList());
+        verify(accountSequencer, times(1)).execute(eq(Set.of(1, 2, 3)), any());
+        verify(accountSequencer, times(1)).execute(eq(Set.of(3, 1)), any());
+    }
+
+    @Test
+    /*
+    * Verifies that a search is delegated to the repository with the default page size as limit.
+    * */
+    void searchTransactions_IndexedFilter_SearchesWithDefaultLimit() {
+        // Arrange
+        TransactionSearchRequest request = TransactionSearchRequest.builder().account("12345").build();
+        when(transactionRepository.search(request, 50)).thenReturn(Flux.just(transaction));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.searchTransactions(request))
+                .expectNext(transaction)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that a search without an indexed filter is rejected instead of scanning the collection.
+    * */
+    void searchTransactions_OnlyAmountRange_ThrowsIllegalArgumentException() {
+        // Arrange
+        TransactionSearchRequest request = TransactionSearchRequest.builder().minAmount(BigDecimal.TEN).build();
+
+        // Act & Assert
+        StepVerifier.create(transactionService.searchTransactions(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    /*
+    * Verifies that the totals are computed by the repository for the requested grouping and range.
+    * */
+    void getTransactionTotals_ValidRange_ReturnsAggregatedTotals() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        TransactionTotal total = new TransactionTotal("2024-01-15", 4, new BigDecimal("420.00"));
+        when(transactionRepository.aggregateTotals(TransactionGrouping.DAY, from, to)).thenReturn(Flux.just(total));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getTransactionTotals(TransactionGrouping.DAY, from, to))
+                .expectNext(total)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    /*
+    * Verifies that an inverted date range is rejected without querying the database.
+    * */
+    void getTransactionTotals_InvertedRange_ThrowsIllegalArgumentException() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getTransactionTotals(TransactionGrouping.TYPE, from, to))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    /*
+    * Verifies that the figures of an account are read from its rollup document.
+    * */
+    void getAccountRollup_ExistingAccount_ReturnsRollup() {
+        // Arrange
+        AccountRollup rollup = new AccountRollup();
+        rollup.setAccountNumber("12345");
+        rollup.setTransactionCount(3);
+        when(accountRollupRepository.findById("12345")).thenReturn(Mono.just(rollup));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getAccountRollup("12345"))
+                .expectNext(rollup)
+                .expectComplete()
+                .verify();
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    /*
+    * Verifies that a rebuild of the rollups is delegated to the rebuild job.
+    * */
+    void rebuildAccountRollups_ReturnsNumberOfRollups() {
+        // Arrange
+        when(accountRollupRebuildJob.rebuild()).thenReturn(Mono.just(7L));
+
+        // Act & Assert
+        StepVerifier.create(transactionService.rebuildAccountRollups())
+                .expectNext(7L)
+                .expectComplete()
+                .verify();
+    }
 }
@@ -0,0 +1,33 @@
+package com.bankingSystem.transaction.support;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects request latencies during a benchmark run and reports percentiles.
+ */
+public class LatencyRecorder {
+
+    private final ConcurrentLinkedQueue<Long> samplesNanos = new ConcurrentLinkedQueue<>();
+
+    public void record(long startNanos) {
+        samplesNanos.add(System.nanoTime() - startNanos);
+    }
+
+    public int count() {
+        return samplesNanos.size();
+    }
+
+    public double percentileMillis(double percentile) {
+        long[] sorted = samplesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    public String summary(String label) {
+        return String.format("%-28s n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+                label, count(), percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100));
+    }
+}
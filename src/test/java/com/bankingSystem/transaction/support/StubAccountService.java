@@ -0,0 +1,193 @@
+package com.bankingSystem.transaction.support;
+
+import com.bankingSystem.transaction.model.dto.BankAccountDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Local, in-memory stub of the account microservice used by tests and benchmarks.
+ * It serves {@code GET /accounts/{id}}, {@code PUT /accounts/{id}/balance},
+ * {@code POST /accounts/{id}/balance/delta} and, when enabled, the bulk route {@code GET /accounts?ids=1,2,3} from a {@link MockWebServer}, with an optional
+ * per-request latency, a delayed response body and injected server failures.
+ */
+public class StubAccountService implements Closeable {
+
+    private static final String ACCOUNTS_PATH = "/accounts";
+
+    private final MockWebServer server = new MockWebServer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Integer, BankAccountDTO> accounts = new ConcurrentHashMap<>();
+    private volatile LongSupplier latencyMillis = () -> 0L;
+    private volatile long bodyDelayMillis;
+    private volatile boolean bulkRoute;
+    private volatile BooleanSupplier failure = () -> false;
+
+    /**
+     * Starts the stub on a random local port.
+     */
+    public StubAccountService start() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return delayed(failure.getAsBoolean() ? new MockResponse().setResponseCode(503) : route(request));
+            }
+        });
+        server.start();
+        return this;
+    }
+
+    /**
+     * Returns the base URL of the accounts resource, e.g. {@code http://localhost:1234/accounts}.
+     */
+    public String accountsUrl() {
+        return server.url(ACCOUNTS_PATH).toString();
+    }
+
+    public StubAccountService withAccount(Integer id, String accountNumber, BigDecimal balance) {
+        accounts.put(id, new BankAccountDTO(id, accountNumber, balance, "SAVINGS", id));
+        return this;
+    }
+
+    public StubAccountService withLatency(LongSupplier latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    public StubAccountService withBodyDelay(long bodyDelayMillis) {
+        this.bodyDelayMillis = bodyDelayMillis;
+        return this;
+    }
+
+    public StubAccountService withFailure(BooleanSupplier failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    public StubAccountService withBulkRoute(boolean bulkRoute) {
+        this.bulkRoute = bulkRoute;
+        return this;
+    }
+
+    public BigDecimal balanceOf(Integer id) {
+        return accounts.get(id).getBalance();
+    }
+
+    public int requestCount() {
+        return server.getRequestCount();
+    }
+
+    public MockWebServer server() {
+        return server;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    protected MockResponse route(RecordedRequest request) {
+        String[] segments = request.getRequestUrl().encodedPath().substring(ACCOUNTS_PATH.length()).split("/");
+        if (segments.length == 1 && bulkRoute && "GET".equals(request.getMethod())) {
+            return getAccounts(request.getRequestUrl().queryParameter("ids"));
+        }
+        if (segments.length == 2 && "GET".equals(request.getMethod())) {
+            return getAccount(Integer.valueOf(segments[1]));
+        }
+        if (segments.length == 3 && "balance".equals(segments[2]) && "PUT".equals(request.getMethod())) {
+            return putBalance(Integer.valueOf(segments[1]), request);
+        }
+        if (segments.length == 4 && "delta".equals(segments[3]) && "POST".equals(request.getMethod())) {
+            return postDelta(Integer.valueOf(segments[1]), request);
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    protected MockResponse json(Object body) {
+        try {
+            return new MockResponse()
+                    .setResponseCode(200)
+                    .addHeader("Content-Type", "application/json")
+                    .setBody(objectMapper.writeValueAsString(body));
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+    }
+
+    protected Map<Integer, BankAccountDTO> accounts() {
+        return accounts;
+    }
+
+    protected ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    private MockResponse getAccount(Integer id) {
+        BankAccountDTO account = accounts.get(id);
+        return account == null ? new MockResponse().setResponseCode(404) : json(account);
+    }
+
+    private MockResponse getAccounts(String ids) {
+        return json(Arrays.stream(ids.split(","))
+                .map(Integer::valueOf)
+                .map(accounts::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private MockResponse putBalance(Integer id, RecordedRequest request) {
+        BankAccountDTO account = accounts.get(id);
+        if (account == null) {
+            return new MockResponse().setResponseCode(404);
+        }
+        try {
+            JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+            account.setBalance(body.get("balance").decimalValue());
+            return new MockResponse().setResponseCode(200);
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(400);
+        }
+    }
+
+    private MockResponse postDelta(Integer id, RecordedRequest request) {
+        BankAccountDTO account = accounts.get(id);
+        if (account == null) {
+            return new MockResponse().setResponseCode(404);
+        }
+        try {
+            JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+            synchronized (account) {
+                BigDecimal newBalance = account.getBalance().add(body.get("delta").decimalValue());
+                if (body.hasNonNull("minimumBalance") && newBalance.compareTo(body.get("minimumBalance").decimalValue()) < 0) {
+                    return new MockResponse().setResponseCode(409);
+                }
+                account.setBalance(newBalance);
+                return json(account);
+            }
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(400);
+        }
+    }
+
+    private MockResponse delayed(MockResponse response) {
+        long delay = latencyMillis.getAsLong();
+        if (bodyDelayMillis > 0) {
+            response.setBodyDelay(bodyDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        return delay > 0 ? response.setHeadersDelay(delay, TimeUnit.MILLISECONDS) : response;
+    }
+}
@@ -64,4 +64,21 @@ class TransactionUtilTest {
                 .verify();
     }
 
+    @Test
+    /*
+    * Verifies that validating an amount with more decimal places than the currency scale throws an IllegalArgumentException.
+    * */
+    void validateAmount_TooManyDecimalPlaces_ThrowsIllegalArgumentException() {
+        // Arrange
+        BigDecimal amount = new BigDecimal("10.005");
+
+        // Act
+        Mono<Void> result = transactionUtil.validateAmount(amount);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof IllegalArgumentException &&
+                        throwable.getMessage().equals("Amount 10.005 has more than 2 decimal places"))
+                .verify();
+    }
 }